@@ -0,0 +1,603 @@
+package util.file.editing;
+
+import util.log.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Reads files without blocking the calling thread,
+ * through {@link AsynchronousFileChannel}s.
+ * The methods return at once: even opening the file is done by
+ * a shared pool of daemon threads, which also completes the reads.
+ * Like {@link WrappedReader}, {@link IOException}s do not have to be caught:
+ * they are written to the given {@link Logger}, or printed to standard error
+ * if it is null, and the results are completed as if the file were empty.
+ *
+ * @version 1.0
+ */
+public final class AsyncFileReader {
+
+    /** The size of the chunks read by {@link AsyncFileReader#lines(String, Logger)}. */
+    private static final int LINE_CHUNK_SIZE = 1 << 16;
+
+    /** The size of the largest file that fits into a single array. */
+    private static final long MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    /** The number of files that are opened or read at the same time. */
+    private static final int IO_THREADS = Math.max(8, 2 * Runtime.getRuntime().availableProcessors());
+
+    /** Opens the files and performs the reads. */
+    private static final ExecutorService IO = Executors.newFixedThreadPool(IO_THREADS, task -> {
+        Thread thread = new Thread(task, "AsyncFileReader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Hides the default constructor for this utility class. */
+    private AsyncFileReader() {
+    }
+
+    /**
+     * Opens the specified file for asynchronous reading,
+     * without blocking the calling thread.
+     *
+     * @param filename the name of the file to read
+     * @return the channel of the file, completed when it is opened,
+     * or completed with the {@link IOException} if it cannot be opened
+     */
+    private static CompletableFuture<AsynchronousFileChannel> open(final String filename) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return AsynchronousFileChannel.open(Paths.get(filename),
+                        Collections.singleton(StandardOpenOption.READ), IO);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, IO);
+    }
+
+    /**
+     * Closes the specified channel, logging any failure.
+     *
+     * @param channel the channel to close
+     * @param l       {@link Logger} used for logging {@link IOException}s
+     */
+    private static void close(final AsynchronousFileChannel channel, final Logger l) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            WrappedReader.defaultCatch(e, l);
+        }
+    }
+
+    /**
+     * Gives the exception that a dependent future was completed with.
+     *
+     * @param e the exception passed on by a future
+     * @return its cause if it was wrapped by the future
+     */
+    private static Throwable unwrap(final Throwable e) {
+        if (e instanceof CompletionException && e.getCause() != null) {
+            return e.getCause();
+        }
+        return e;
+    }
+
+    /**
+     * Reads into the specified buffer from the specified position
+     * until the buffer is full or the file ends.
+     *
+     * @param channel  the channel to read from
+     * @param buffer   the buffer to fill
+     * @param position the offset in the file to start at
+     * @return the buffer, completed when it is filled
+     */
+    private static CompletableFuture<ByteBuffer> fill(final AsynchronousFileChannel channel,
+                                                      final ByteBuffer buffer,
+                                                      final long position) {
+        CompletableFuture<ByteBuffer> future = new CompletableFuture<>();
+        channel.read(buffer, position, position, new CompletionHandler<Integer, Long>() {
+            @Override
+            public void completed(final Integer read, final Long offset) {
+                if (read < 0 || !buffer.hasRemaining()) {
+                    future.complete(buffer);
+                } else {
+                    long next = offset + read;
+                    channel.read(buffer, next, next, this);
+                }
+            }
+
+            @Override
+            public void failed(final Throwable e, final Long offset) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Reads the full contents of the specified file,
+     * as large as it was when it was opened.
+     *
+     * @param filename the name of the file to read
+     * @param l        {@link Logger} used for logging {@link IOException}s
+     *                 when the file is closed
+     * @return the bytes of the file, completed when they are read
+     */
+    private static CompletableFuture<byte[]> readBytes(final String filename, final Logger l) {
+        return open(filename).thenCompose(channel -> {
+            long size;
+            try {
+                size = channel.size();
+                if (size > MAX_ARRAY_SIZE) {
+                    throw new IOException("File too large: " + size + " bytes");
+                }
+            } catch (IOException e) {
+                close(channel, l);
+                return CompletableFuture.failedFuture(e);
+            }
+
+            return fill(channel, ByteBuffer.allocate((int) size), 0)
+                    .whenComplete((buffer, e) -> close(channel, l))
+                    .thenApply(buffer -> buffer.hasRemaining()
+                            ? Arrays.copyOf(buffer.array(), buffer.position())
+                            : buffer.array());
+        });
+    }
+
+    /**
+     * Reads the full contents of the specified file and returns them
+     * in a single {@link String}, like
+     * {@link WrappedReader#readFile(String, boolean, Logger)}.
+     *
+     * @param filename        the name of the file to read
+     * @param keepLineEndings whether to keep the line endings of the file
+     * @param l               {@link Logger} used for logging {@link IOException}s.
+     * @return the contents of the file, or an empty {@link String}
+     * if the file cannot be read
+     */
+    public static CompletableFuture<String> readFile(final String filename,
+                                                     final boolean keepLineEndings,
+                                                     final Logger l) {
+        return readBytes(filename, l).handle((bytes, e) -> {
+            if (e != null) {
+                WrappedReader.defaultCatch(unwrap(e), l);
+                return "";
+            }
+            return WrappedReader.decode(bytes, keepLineEndings);
+        });
+    }
+
+    /**
+     * Reads the full contents of the specified file and returns them
+     * in a single {@link String}, with every line ended by
+     * {@link util.PrintFormatting#NEW_LINE}.
+     * This method is equivalent to
+     * <code>readFile(filename, false, null)</code>.
+     *
+     * @param filename the name of the file to read
+     * @return the contents of the file
+     */
+    public static CompletableFuture<String> readFile(final String filename) {
+        return readFile(filename, false, null);
+    }
+
+    /**
+     * Reads the lines of the specified file into an {@link ArrayList},
+     * like {@link WrappedReader#readFileLines(String, Logger)}.
+     *
+     * @param filename the name of the file to read
+     * @param l        {@link Logger} used for logging {@link IOException}s
+     * @return the list with all lines of the file
+     */
+    public static CompletableFuture<ArrayList<String>> readFileLines(final String filename,
+                                                                     final Logger l) {
+        return readFile(filename, true, l).thenApply(text ->
+                new BufferedReader(new StringReader(text)).lines()
+                        .collect(Collectors.toCollection(ArrayList::new)));
+    }
+
+    /**
+     * Reads the lines of the specified file into an {@link ArrayList}.
+     * This method is equivalent to <code>readFileLines(filename, null)</code>.
+     *
+     * @param filename the name of the file to read
+     * @return the list with all lines of the file
+     */
+    public static CompletableFuture<ArrayList<String>> readFileLines(final String filename) {
+        return readFileLines(filename, null);
+    }
+
+    /**
+     * Reads a range of the specified file.
+     *
+     * @param filename the name of the file to read
+     * @param position the offset in the file to start at
+     * @param length   the number of bytes to read
+     * @param l        {@link Logger} used for logging {@link IOException}s
+     * @return a buffer with the bytes that were read, ready to be read,
+     * which is shorter if the file ends first and empty if it cannot be read
+     */
+    public static CompletableFuture<ByteBuffer> read(final String filename,
+                                                     final long position,
+                                                     final int length,
+                                                     final Logger l) {
+        return open(filename).thenCompose(channel ->
+                fill(channel, ByteBuffer.allocate(length), position)
+                        .whenComplete((buffer, e) -> close(channel, l))
+        ).handle((buffer, e) -> {
+            if (e != null) {
+                WrappedReader.defaultCatch(unwrap(e), l);
+                return ByteBuffer.allocate(0);
+            }
+            return buffer.flip();
+        });
+    }
+
+    /**
+     * Reads the specified file in chunks and passes each chunk to the action.
+     * The next chunk is only read after the action returns,
+     * into the same buffer, so the action must not keep it.
+     * Every chunk but the last is full.
+     *
+     * @param filename  the name of the file to read
+     * @param chunkSize the size of the chunks
+     * @param action    the action to apply to each chunk, ready to be read
+     * @param l         {@link Logger} used for logging {@link IOException}s
+     * @return the number of bytes read, completed when the file ends
+     * or when it cannot be read any further.
+     * If the action throws an exception, it completes with that exception.
+     */
+    public static CompletableFuture<Long> readChunks(final String filename,
+                                                     final int chunkSize,
+                                                     final Consumer<ByteBuffer> action,
+                                                     final Logger l) {
+        return open(filename).handle((channel, e) -> {
+            if (e != null) {
+                WrappedReader.defaultCatch(unwrap(e), l);
+                return CompletableFuture.completedFuture(0L);
+            }
+            CompletableFuture<Long> result = new CompletableFuture<>();
+            readChunk(channel, ByteBuffer.allocate(chunkSize), 0, action, l, result);
+            return result.whenComplete((read, failure) -> close(channel, l));
+        }).thenCompose(result -> result);
+    }
+
+    /**
+     * Reads the chunk at the specified position and the chunks after it.
+     *
+     * @param channel  the channel to read from
+     * @param buffer   the buffer to read each chunk into
+     * @param position the offset of the chunk in the file
+     * @param action   the action to apply to each chunk
+     * @param l        {@link Logger} used for logging {@link IOException}s
+     * @param result   completed with the number of bytes read
+     */
+    private static void readChunk(final AsynchronousFileChannel channel,
+                                  final ByteBuffer buffer,
+                                  final long position,
+                                  final Consumer<ByteBuffer> action,
+                                  final Logger l,
+                                  final CompletableFuture<Long> result) {
+        fill(channel, buffer.clear(), position).whenComplete((chunk, e) -> {
+            if (e != null) {
+                WrappedReader.defaultCatch(e, l);
+                result.complete(position);
+                return;
+            }
+
+            chunk.flip();
+            int read = chunk.remaining();
+            if (read == 0) {
+                result.complete(position);
+                return;
+            }
+            try {
+                action.accept(chunk);
+            } catch (RuntimeException | Error failure) {
+                result.completeExceptionally(failure);
+                return;
+            }
+            if (read < chunk.capacity()) {
+                result.complete(position + read);
+            } else {
+                readChunk(channel, buffer, position + read, action, l, result);
+            }
+        });
+    }
+
+    /**
+     * Reads the specified file in chunks and passes each chunk to the action.
+     * This method is equivalent to
+     * <code>readChunks(filename, chunkSize, action, null)</code>.
+     *
+     * @param filename  the name of the file to read
+     * @param chunkSize the size of the chunks
+     * @param action    the action to apply to each chunk, ready to be read
+     * @return the number of bytes read, completed when the file ends
+     */
+    public static CompletableFuture<Long> readChunks(final String filename,
+                                                     final int chunkSize,
+                                                     final Consumer<ByteBuffer> action) {
+        return readChunks(filename, chunkSize, action, null);
+    }
+
+    /**
+     * Publishes the lines of the specified file to each subscriber.
+     * The file is read in chunks only as fast as the subscriber
+     * requests lines, and each subscriber reads the file on its own.
+     * Lines end like those of {@link WrappedReader#readLine()}.
+     * An {@link IOException} is logged, and is then passed
+     * to {@link Flow.Subscriber#onError(Throwable)}
+     * after the lines that were read before it.
+     *
+     * @param filename the name of the file to read
+     * @param l        {@link Logger} used for logging {@link IOException}s
+     * @return a publisher of the lines of the file
+     */
+    public static Flow.Publisher<String> lines(final String filename, final Logger l) {
+        return subscriber -> open(filename).whenComplete((channel, e) -> {
+            if (e != null) {
+                Throwable failure = unwrap(e);
+                WrappedReader.defaultCatch(failure, l);
+                subscriber.onSubscribe(new Flow.Subscription() {
+                    @Override
+                    public void request(final long n) {
+                    }
+
+                    @Override
+                    public void cancel() {
+                    }
+                });
+                subscriber.onError(failure);
+                return;
+            }
+            subscriber.onSubscribe(new LineSubscription(channel, subscriber, l));
+        });
+    }
+
+    /**
+     * Publishes the lines of the specified file to each subscriber.
+     * This method is equivalent to <code>lines(filename, null)</code>.
+     *
+     * @param filename the name of the file to read
+     * @return a publisher of the lines of the file
+     */
+    public static Flow.Publisher<String> lines(final String filename) {
+        return lines(filename, null);
+    }
+
+    /**
+     * Delivers the lines of a file to one subscriber as they are requested.
+     * At most one chunk is read at a time, and only while lines are
+     * requested and none are waiting. The subscriber is only called from
+     * {@link LineSubscription#drain()}, by one thread at a time.
+     */
+    private static final class LineSubscription implements Flow.Subscription,
+            CompletionHandler<Integer, Void> {
+
+        /** The channel of the file. */
+        private final AsynchronousFileChannel channel;
+
+        /** The subscriber of the lines. */
+        private final Flow.Subscriber<? super String> subscriber;
+
+        /** {@link Logger} used for logging {@link IOException}s. */
+        private final Logger l;
+
+        /** The lines that were read but not delivered yet. */
+        private final Queue<String> lines = new ConcurrentLinkedQueue<>();
+
+        /** The number of lines requested but not delivered yet. */
+        private final AtomicLong requested = new AtomicLong();
+
+        /** The number of calls of {@link LineSubscription#drain()} to handle. */
+        private final AtomicInteger drains = new AtomicInteger();
+
+        /** The buffer each chunk is read into. */
+        private final ByteBuffer chunk = ByteBuffer.allocate(LINE_CHUNK_SIZE);
+
+        /** The bytes of the line that continues in the next chunk. */
+        private byte[] partial = new byte[0];
+
+        /** The number of bytes in {@link LineSubscription#partial}. */
+        private int partialLength;
+
+        /** Whether the last chunk ended with a carriage return. */
+        private boolean carriageReturn;
+
+        /** The offset in the file of the next chunk. */
+        private long position;
+
+        /** Whether a chunk is being read. */
+        private volatile boolean reading;
+
+        /** Whether the file has ended, or could not be read further. */
+        private volatile boolean ended;
+
+        /** The failure that ended the file, or null. */
+        private volatile Throwable failure;
+
+        /** Whether no more signals are sent to the subscriber. */
+        private volatile boolean done;
+
+        /**
+         * Creates the subscription of a subscriber.
+         *
+         * @param channel    the channel of the file
+         * @param subscriber the subscriber of the lines
+         * @param l          {@link Logger} used for logging {@link IOException}s
+         */
+        LineSubscription(final AsynchronousFileChannel channel,
+                         final Flow.Subscriber<? super String> subscriber,
+                         final Logger l) {
+            this.channel = channel;
+            this.subscriber = subscriber;
+            this.l = l;
+        }
+
+        @Override
+        public void request(final long n) {
+            if (n <= 0) {
+                failure = new IllegalArgumentException("Non-positive request: " + n);
+                ended = true;
+                lines.clear();
+            } else {
+                requested.getAndUpdate(r -> r + n < 0 ? Long.MAX_VALUE : r + n);
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            done = true;
+            drain();
+        }
+
+        /**
+         * Delivers the waiting lines as far as they are requested,
+         * reads the next chunk when more are needed,
+         * and ends the subscription when the file has ended.
+         * Calls while another thread drains make that thread drain again.
+         */
+        private void drain() {
+            if (drains.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                if (done) {
+                    lines.clear();
+                    if (!reading) {
+                        close(channel, l);
+                    }
+                } else {
+                    while (requested.get() > 0 && !lines.isEmpty() && !done) {
+                        requested.decrementAndGet();
+                        subscriber.onNext(lines.poll());
+                    }
+                    if (!done && lines.isEmpty() && ended) {
+                        done = true;
+                        if (!reading) {
+                            close(channel, l);
+                        }
+                        if (failure == null) {
+                            subscriber.onComplete();
+                        } else {
+                            subscriber.onError(failure);
+                        }
+                    } else if (!done && lines.isEmpty() && requested.get() > 0 && !reading) {
+                        reading = true;
+                        channel.read(chunk.clear(), position, null, this);
+                    }
+                }
+                missed = drains.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        @Override
+        public void completed(final Integer read, final Void attachment) {
+            if (read < 0) {
+                if (partialLength > 0) {
+                    lines.add(new String(partial, 0, partialLength, StandardCharsets.UTF_8));
+                }
+                ended = true;
+            } else {
+                position += read;
+                split(chunk.flip());
+            }
+            reading = false;
+            drain();
+        }
+
+        @Override
+        public void failed(final Throwable e, final Void attachment) {
+            WrappedReader.defaultCatch(e, l);
+            failure = e;
+            ended = true;
+            reading = false;
+            drain();
+        }
+
+        /**
+         * Splits a chunk into lines. The bytes after the last line break
+         * are kept until the rest of their line is read.
+         *
+         * @param bytes the chunk
+         */
+        private void split(final ByteBuffer bytes) {
+            byte[] array = bytes.array();
+            int start = 0;
+            int end = bytes.limit();
+            if (end == 0) {
+                return;
+            }
+            if (carriageReturn && array[0] == '\n') {
+                start = 1;
+            }
+            carriageReturn = false;
+            for (int i = start; i < end; i++) {
+                byte b = array[i];
+                if (b == '\n' || b == '\r') {
+                    lines.add(line(array, start, i));
+                    if (b == '\r') {
+                        if (i + 1 == end) {
+                            carriageReturn = true;
+                        } else if (array[i + 1] == '\n') {
+                            i++;
+                        }
+                    }
+                    start = i + 1;
+                }
+            }
+            int rest = end - start;
+            if (partialLength + rest > partial.length) {
+                partial = Arrays.copyOf(partial, Math.max(partialLength + rest, 2 * partial.length));
+            }
+            System.arraycopy(array, start, partial, partialLength, rest);
+            partialLength += rest;
+        }
+
+        /**
+         * Decodes a line, together with its start in the previous chunks.
+         *
+         * @param array the chunk
+         * @param start the index at which the line continues in the chunk
+         * @param end   the index of its line break
+         * @return the decoded line
+         */
+        private String line(final byte[] array, final int start, final int end) {
+            if (partialLength == 0) {
+                return new String(array, start, end - start, StandardCharsets.UTF_8);
+            }
+            byte[] whole = Arrays.copyOf(partial, partialLength + end - start);
+            System.arraycopy(array, start, whole, partialLength, end - start);
+            partialLength = 0;
+            return new String(whole, StandardCharsets.UTF_8);
+        }
+
+    }
+
+}
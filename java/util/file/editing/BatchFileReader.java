@@ -0,0 +1,284 @@
+package util.file.editing;
+
+import util.log.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Reads many files concurrently, passing the contents of each file
+ * to a callback as soon as it has been read.
+ * The files are read on virtual threads where the JDK has them (Java 21),
+ * and on a pool of platform threads otherwise.
+ * Either way, at most a given number of files are read at the same time,
+ * so that the disk, the file descriptors and the memory are not overrun.
+ * Reading a file that cannot be read does not end the batch:
+ * the {@link IOException} is written to the given {@link Logger},
+ * or printed to standard error if it is null, and the file is skipped.
+ * <p>
+ * The callback is given the filename and the contents.
+ * It is called by the reading threads, but never by two at once,
+ * so it does not have to be thread-safe.
+ * If it throws an exception, no more files are read,
+ * and the exception is thrown once the files being read are done.
+ *
+ * @version 1.0
+ * @see WrappedReader#readFile(String, boolean, Logger)
+ */
+public final class BatchFileReader {
+
+    /** The default maximum number of files read at the same time. */
+    public static final int DEFAULT_MAX_CONCURRENCY = 128;
+
+    /**
+     * Creates an executor that starts a virtual thread for every task,
+     * or null if the JDK has no virtual threads.
+     */
+    private static final Method NEW_VIRTUAL_EXECUTOR = virtualExecutorFactory();
+
+    /** Hides the default constructor for this utility class. */
+    private BatchFileReader() {
+    }
+
+    /**
+     * Finds the factory of executors on virtual threads.
+     * It is looked up reflectively, so this class also runs on older JDKs.
+     *
+     * @return Executors.newVirtualThreadPerTaskExecutor(),
+     * or null if it does not exist or cannot be used
+     */
+    private static Method virtualExecutorFactory() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            // Fails where virtual threads are a disabled preview feature
+            ((ExecutorService) factory.invoke(null)).shutdown();
+            return factory;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Creates the executor to read the files of a batch on.
+     *
+     * @param maxConcurrency the maximum number of files read at the same time
+     * @return an executor on virtual threads if the JDK has them,
+     * else a pool of that many daemon threads
+     */
+    private static ExecutorService newExecutor(final int maxConcurrency) {
+        if (NEW_VIRTUAL_EXECUTOR != null) {
+            try {
+                return (ExecutorService) NEW_VIRTUAL_EXECUTOR.invoke(null);
+            } catch (ReflectiveOperationException ignored) {
+                // Checked when the factory was found
+            }
+        }
+        return Executors.newFixedThreadPool(maxConcurrency, task -> {
+            Thread thread = new Thread(task, "BatchFileReader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Tells whether the files are read on virtual threads.
+     *
+     * @return true if the JDK has virtual threads
+     */
+    public static boolean usesVirtualThreads() {
+        return NEW_VIRTUAL_EXECUTOR != null;
+    }
+
+    /**
+     * Reads the files concurrently and passes the contents of each file,
+     * decoded by the given function, to the callback.
+     *
+     * @param filenames      the names of the files to read
+     * @param maxConcurrency the maximum number of files read at the same time
+     * @param decoder        turns the bytes of a file into its contents
+     * @param action         the callback, given the filename and the contents
+     * @param l              {@link Logger} used for logging {@link IOException}s
+     * @param <T>            the type of the contents
+     * @return the number of files that were read and passed to the callback
+     */
+    private static <T> int read(final Collection<String> filenames,
+                                final int maxConcurrency,
+                                final Function<byte[], T> decoder,
+                                final BiConsumer<String, ? super T> action,
+                                final Logger l) {
+        if (maxConcurrency <= 0) {
+            String message = "The maximum concurrency must be positive!";
+            throw new IllegalArgumentException(message);
+        }
+
+        ExecutorService executor = newExecutor(maxConcurrency);
+        Semaphore permits = new Semaphore(maxConcurrency);
+        AtomicInteger read = new AtomicInteger();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Object callbackLock = new Object();
+        try {
+            for (String filename : filenames) {
+                permits.acquire();
+                if (failure.get() != null) {
+                    permits.release();
+                    break;
+                }
+                executor.execute(() -> {
+                    try {
+                        T contents;
+                        try {
+                            contents = decoder.apply(Files.readAllBytes(Paths.get(filename)));
+                        } catch (IOException | InvalidPathException e) {
+                            WrappedReader.defaultCatch(e, l);
+                            return;
+                        }
+                        synchronized (callbackLock) {
+                            if (failure.get() == null) {
+                                action.accept(filename, contents);
+                                read.incrementAndGet();
+                            }
+                        }
+                    } catch (RuntimeException | Error e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+            // All permits are back once every file has been read
+            permits.acquire(maxConcurrency);
+            executor.shutdown();
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        Throwable e = failure.get();
+        if (e instanceof Error) {
+            throw (Error) e;
+        } else if (e != null) {
+            throw (RuntimeException) e;
+        }
+        return read.get();
+    }
+
+    /**
+     * Reads the full contents of the specified files concurrently,
+     * and passes each to the callback as a single {@link String},
+     * with every line ended by {@link util.PrintFormatting#NEW_LINE}.
+     *
+     * @param filenames      the names of the files to read
+     * @param maxConcurrency the maximum number of files read at the same time
+     * @param action         the callback, given the filename and the contents
+     * @param l              {@link Logger} used for logging {@link IOException}s
+     * @return the number of files that were read
+     * @throws IllegalArgumentException if maxConcurrency is not positive
+     */
+    public static int readFiles(final Collection<String> filenames,
+                                final int maxConcurrency,
+                                final BiConsumer<String, String> action,
+                                final Logger l) {
+        return read(filenames, maxConcurrency, bytes -> WrappedReader.decode(bytes, false), action, l);
+    }
+
+    /**
+     * Reads the full contents of the specified files concurrently,
+     * and passes each to the callback as a single {@link String}.
+     * This method is equivalent to
+     * <code>readFiles(filenames, DEFAULT_MAX_CONCURRENCY, action, l)</code>.
+     *
+     * @param filenames the names of the files to read
+     * @param action    the callback, given the filename and the contents
+     * @param l         {@link Logger} used for logging {@link IOException}s
+     * @return the number of files that were read
+     */
+    public static int readFiles(final Collection<String> filenames,
+                                final BiConsumer<String, String> action,
+                                final Logger l) {
+        return readFiles(filenames, DEFAULT_MAX_CONCURRENCY, action, l);
+    }
+
+    /**
+     * Reads the full contents of the specified files concurrently,
+     * and passes each to the callback as a single {@link String}.
+     * This method is equivalent to
+     * <code>readFiles(filenames, DEFAULT_MAX_CONCURRENCY, action, null)</code>.
+     *
+     * @param filenames the names of the files to read
+     * @param action    the callback, given the filename and the contents
+     * @return the number of files that were read
+     */
+    public static int readFiles(final Collection<String> filenames,
+                                final BiConsumer<String, String> action) {
+        return readFiles(filenames, DEFAULT_MAX_CONCURRENCY, action, null);
+    }
+
+    /**
+     * Reads the lines of the specified files concurrently,
+     * and passes each file's lines to the callback in an {@link ArrayList},
+     * like {@link WrappedReader#readFileLines(String, Logger)} gives them.
+     *
+     * @param filenames      the names of the files to read
+     * @param maxConcurrency the maximum number of files read at the same time
+     * @param action         the callback, given the filename and the lines
+     * @param l              {@link Logger} used for logging {@link IOException}s
+     * @return the number of files that were read
+     * @throws IllegalArgumentException if maxConcurrency is not positive
+     */
+    public static int readFilesLines(final Collection<String> filenames,
+                                     final int maxConcurrency,
+                                     final BiConsumer<String, ArrayList<String>> action,
+                                     final Logger l) {
+        return read(filenames, maxConcurrency, bytes ->
+                new BufferedReader(new StringReader(WrappedReader.decode(bytes, true))).lines()
+                        .collect(Collectors.toCollection(ArrayList::new)), action, l);
+    }
+
+    /**
+     * Reads the lines of the specified files concurrently,
+     * and passes each file's lines to the callback in an {@link ArrayList}.
+     * This method is equivalent to
+     * <code>readFilesLines(filenames, DEFAULT_MAX_CONCURRENCY, action, l)</code>.
+     *
+     * @param filenames the names of the files to read
+     * @param action    the callback, given the filename and the lines
+     * @param l         {@link Logger} used for logging {@link IOException}s
+     * @return the number of files that were read
+     */
+    public static int readFilesLines(final Collection<String> filenames,
+                                     final BiConsumer<String, ArrayList<String>> action,
+                                     final Logger l) {
+        return readFilesLines(filenames, DEFAULT_MAX_CONCURRENCY, action, l);
+    }
+
+    /**
+     * Reads the lines of the specified files concurrently,
+     * and passes each file's lines to the callback in an {@link ArrayList}.
+     * This method is equivalent to
+     * <code>readFilesLines(filenames, DEFAULT_MAX_CONCURRENCY, action, null)</code>.
+     *
+     * @param filenames the names of the files to read
+     * @param action    the callback, given the filename and the lines
+     * @return the number of files that were read
+     */
+    public static int readFilesLines(final Collection<String> filenames,
+                                     final BiConsumer<String, ArrayList<String>> action) {
+        return readFilesLines(filenames, DEFAULT_MAX_CONCURRENCY, action, null);
+    }
+
+}
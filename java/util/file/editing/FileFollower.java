@@ -0,0 +1,428 @@
+package util.file.editing;
+
+import util.log.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Follows a UTF-8 file that is still being written, such as a log,
+ * like <code>tail -F</code> does.
+ * The position in the file is remembered, so only appended bytes are read,
+ * and a last line without a line break is held back until it is complete.
+ * Lines end like those of {@link WrappedReader#readLine()}:
+ * at a linefeed ('\n'), a carriage return ('\r'), or
+ * a carriage return followed immediately by a linefeed.
+ * <p>
+ * When the file becomes shorter than the position, it was truncated,
+ * and it is read again from the start.
+ * When the name refers to another file than the one that is open,
+ * which the file key (the inode) of the file tells, the file was rotated:
+ * the old file is read to its end and the new one from its start.
+ * <p>
+ * {@link #poll()} returns the new lines without waiting,
+ * while {@link #nextLine()}, {@link #follow(Consumer)} and the iterator
+ * wait for them. Waiting uses a {@link WatchService} on the directory
+ * of the file, and also looks at the file every {@link #POLL_INTERVAL}
+ * milliseconds, in case changes are not reported.
+ * The lines are meant to be taken by one thread,
+ * while {@link #close()} may be called from any thread.
+ *
+ * @version 1.0
+ * @see WrappedReader#follow(String, Logger)
+ */
+public class FileFollower implements Iterable<String> {
+
+    /** The longest time in milliseconds to wait before looking at the file. */
+    public static final long POLL_INTERVAL = 500;
+
+    /** The number of bytes read at once. */
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    /** A {@link Logger} to write all errors to. */
+    private Logger l;
+
+    /** The path of the followed file. */
+    private final Path path;
+
+    /** Reports changes in the directory of the file, or null to only poll. */
+    private WatchService watcher;
+
+    /** The channel of the open file, or null if the file does not exist. */
+    private FileChannel channel;
+
+    /** The key of the open file, or null if the file system has none. */
+    private Object fileKey;
+
+    /** The offset in the open file of the next byte to read. */
+    private long position;
+
+    /** Holds the bytes read from the file. */
+    private final ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+
+    /** Holds the bytes of the line that has not ended yet. */
+    private byte[] line = new byte[256];
+
+    /** The number of bytes of the line that has not ended yet. */
+    private int lineLength;
+
+    /** Whether the last line ended at a carriage return. */
+    private boolean skipLineFeed;
+
+    /** The lines that were read but not yet taken. */
+    private final ArrayDeque<String> pending = new ArrayDeque<>();
+
+    /** Whether {@link #close()} was called. */
+    private volatile boolean closed;
+
+    /**
+     * Starts following the given file.
+     * The file does not need to exist yet.
+     *
+     * @param filename filename of the followed file
+     * @param fromEnd  true to skip the current contents of the file
+     *                 and only read what is appended,
+     *                 false to read it from the start
+     * @param logger   {@link Logger} to be used for logging
+     *                 {@link IOException}s.
+     */
+    public FileFollower(final String filename, final boolean fromEnd, final Logger logger) {
+        this.l = logger;
+        this.path = Paths.get(filename).toAbsolutePath();
+        try {
+            watcher = FileSystems.getDefault().newWatchService();
+            path.getParent().register(watcher,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException | UnsupportedOperationException e) {
+            // Changes are then only found by polling
+            closeWatcher();
+            watcher = null;
+        }
+        try {
+            open(fromEnd);
+        } catch (IOException e) {
+            defaultCatch(e);
+        }
+    }
+
+    /**
+     * Starts following the given file from its start.
+     * This is equivalent to using
+     * <code>FileFollower(filename, false, logger)</code>.
+     *
+     * @param filename filename of the followed file
+     * @param logger   {@link Logger} to be used for logging
+     *                 {@link IOException}s.
+     */
+    public FileFollower(final String filename, final Logger logger) {
+        this(filename, false, logger);
+    }
+
+    /**
+     * Starts following the given file from its start.
+     * {@link IOException}s will be printed to standard error.
+     * This is equivalent to using
+     * <code>FileFollower(filename, false, null)</code>.
+     *
+     * @param filename filename of the followed file
+     */
+    public FileFollower(final String filename) {
+        this(filename, false, null);
+    }
+
+    /**
+     * The default behaviour for caught {@link Exception}s.
+     *
+     * @param e the caught {@link Exception}
+     */
+    private void defaultCatch(final Exception e) {
+        WrappedReader.defaultCatch(e, l);
+    }
+
+    /**
+     * Opens the file, if it exists.
+     *
+     * @param atEnd true to start at the end of the file,
+     *              false to start at its beginning
+     * @return true if the file was opened
+     * @throws IOException if the file exists but cannot be opened
+     */
+    private boolean open(final boolean atEnd) throws IOException {
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        fileKey = Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+        position = atEnd ? channel.size() : 0;
+        return true;
+    }
+
+    /**
+     * Closes the open file and opens the file with the name again,
+     * starting at its beginning.
+     *
+     * @throws IOException if the file exists but cannot be opened
+     */
+    private void reopen() throws IOException {
+        channel.close();
+        channel = null;
+        lineLength = 0;
+        skipLineFeed = false;
+        open(false);
+    }
+
+    /**
+     * Gives the offset in the open file up to which it has been read.
+     * This includes the bytes of a line that has not ended yet.
+     *
+     * @return the number of bytes read from the open file
+     */
+    public synchronized long position() {
+        return position;
+    }
+
+    /**
+     * Reads the lines that were completed since the last call,
+     * without waiting for new ones.
+     * Truncation and rotation of the file are handled here.
+     *
+     * @return the new lines, which is empty if there are none
+     * or if the follower is closed
+     */
+    public synchronized ArrayList<String> poll() {
+        ArrayList<String> lines = new ArrayList<>();
+        if (closed) {
+            return lines;
+        }
+
+        try {
+            if (channel == null && !open(false)) {
+                return lines;
+            }
+            readAvailable(lines);
+
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            } catch (NoSuchFileException e) {
+                // Moved away, and the next file is not there yet
+                return lines;
+            }
+            Object key = attributes.fileKey();
+            if (key != null && !key.equals(fileKey)) {
+                // Rotated: the old file is finished, including its last line
+                readAvailable(lines);
+                if (lineLength > 0) {
+                    lines.add(new String(line, 0, lineLength, StandardCharsets.UTF_8));
+                }
+                reopen();
+                if (channel != null) {
+                    readAvailable(lines);
+                }
+            } else if (attributes.size() < position) {
+                reopen();
+                if (channel != null) {
+                    readAvailable(lines);
+                }
+            }
+        } catch (IOException e) {
+            defaultCatch(e);
+        }
+        return lines;
+    }
+
+    /**
+     * Reads the open file to its end, adding the lines that end to the list.
+     *
+     * @param lines the list to add the lines to
+     * @throws IOException if the file cannot be read
+     */
+    private void readAvailable(final ArrayList<String> lines) throws IOException {
+        byte[] bytes = chunk.array();
+        while (true) {
+            chunk.clear();
+            int read = channel.read(chunk, position);
+            if (read <= 0) {
+                return;
+            }
+            position += read;
+
+            int from = 0;
+            for (int i = 0; i < read; i++) {
+                byte b = bytes[i];
+                if (skipLineFeed) {
+                    skipLineFeed = false;
+                    if (b == '\n') {
+                        from = i + 1;
+                        continue;
+                    }
+                }
+                if (b == '\n' || b == '\r') {
+                    append(bytes, from, i);
+                    lines.add(new String(line, 0, lineLength, StandardCharsets.UTF_8));
+                    lineLength = 0;
+                    skipLineFeed = b == '\r';
+                    from = i + 1;
+                }
+            }
+            append(bytes, from, read);
+        }
+    }
+
+    /**
+     * Appends bytes to the line that has not ended yet.
+     *
+     * @param bytes the bytes to append from
+     * @param from  the index of the first byte
+     * @param to    the index after the last byte
+     */
+    private void append(final byte[] bytes, final int from, final int to) {
+        int n = to - from;
+        if (lineLength + n > line.length) {
+            line = Arrays.copyOf(line, Math.max(2 * line.length, lineLength + n));
+        }
+        System.arraycopy(bytes, from, line, lineLength, n);
+        lineLength += n;
+    }
+
+    /**
+     * Waits until the directory of the file changes,
+     * at most {@link #POLL_INTERVAL} milliseconds.
+     */
+    private void await() {
+        try {
+            if (watcher == null) {
+                Thread.sleep(POLL_INTERVAL);
+                return;
+            }
+            WatchKey key = watcher.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+            while (key != null) {
+                key.pollEvents();
+                key.reset();
+                key = watcher.poll();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ignored) {
+            // Closed while waiting
+        }
+    }
+
+    /**
+     * Takes the next line, waiting until one is complete.
+     *
+     * @return the next line, not including any line-termination characters,
+     * or null if the follower was closed or the thread interrupted
+     */
+    public String nextLine() {
+        while (pending.isEmpty()) {
+            if (closed || Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+            pending.addAll(poll());
+            if (pending.isEmpty()) {
+                await();
+            }
+        }
+        return pending.poll();
+    }
+
+    /**
+     * Performs the given action on every line, waiting for new lines,
+     * until the follower is closed or the thread interrupted.
+     *
+     * @param action the action to perform on each line
+     */
+    public void follow(final Consumer<? super String> action) {
+        for (String next = nextLine(); next != null; next = nextLine()) {
+            action.accept(next);
+        }
+    }
+
+    /**
+     * Returns an iterator over the lines, whose {@link Iterator#hasNext()}
+     * waits for the next line, and is false once the follower is closed.
+     *
+     * @return an iterator that takes the lines of this follower
+     */
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<String>() {
+            private String next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null) {
+                    next = nextLine();
+                }
+                return next != null;
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                String line = next;
+                next = null;
+                return line;
+            }
+        };
+    }
+
+    /** Closes the {@link WatchService}, if there is one. */
+    private void closeWatcher() {
+        if (watcher == null) {
+            return;
+        }
+        try {
+            watcher.close();
+        } catch (IOException e) {
+            defaultCatch(e);
+        }
+    }
+
+    /**
+     * Stops following the file and releases the resources associated with it.
+     * Threads that wait for lines stop waiting.
+     */
+    public void close() {
+        closed = true;
+        closeWatcher();
+        synchronized (this) {
+            if (channel == null) {
+                return;
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                defaultCatch(e);
+            }
+            channel = null;
+        }
+    }
+
+}
@@ -0,0 +1,469 @@
+package util.file.editing;
+
+import util.log.Logger;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * A reusable view of the current line of a character stream.
+ * Lines are read into one buffer that is kept between lines,
+ * and the cursor itself is the {@link CharSequence} of the current line,
+ * so going through the lines allocates nothing once the buffer
+ * is as long as the longest line.
+ * Numbers are parsed and prefixes compared directly in the buffer.
+ * Only {@link #toString()} and {@link #subSequence(int, int)}
+ * copy the characters into a new {@link String}.
+ * Lines end like those of {@link WrappedReader#readLine()}:
+ * at a linefeed ('\n'), a carriage return ('\r'), or
+ * a carriage return followed immediately by a linefeed.
+ * The contents of the cursor change with every call to {@link #next()},
+ * so a line that is needed afterwards must be copied with {@link #toString()}.
+ *
+ * @version 1.1
+ * @see WrappedReader#cursor()
+ */
+public final class LineCursor implements CharSequence {
+
+    /** The initial size of the buffer in characters. */
+    private static final int INITIAL_SIZE = 1 << 14;
+
+    /** The size of the largest buffer, and so of the longest line. */
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    /** The most significant digits of a double that are parsed exactly. */
+    private static final int MAX_EXACT_DIGITS = 15;
+
+    /** The powers of ten that are exact doubles. */
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /** A {@link Logger} to write all errors to. */
+    private final Logger l;
+
+    /** The stream to read, or null if there is nothing to read. */
+    private final Reader in;
+
+    /** Holds the current line and the characters read after it. */
+    private char[] buffer = new char[INITIAL_SIZE];
+
+    /** The index in the buffer of the current line. */
+    private int start;
+
+    /** The length of the current line. */
+    private int length;
+
+    /** The index in the buffer of the next line. */
+    private int position;
+
+    /** The number of characters in the buffer. */
+    private int limit;
+
+    /** Whether the current line ended at a carriage return. */
+    private boolean skipLineFeed;
+
+    /** Whether the end of the stream has been reached. */
+    private boolean ended;
+
+    /** The number of the current line, starting at one. */
+    private long lineNumber;
+
+    /**
+     * Creates a cursor over the lines of the specified stream.
+     * The cursor reads ahead, so the stream should only be read
+     * through the cursor from then on.
+     *
+     * @param in     the stream to read, or null if there is nothing to read
+     * @param logger {@link Logger} to be used for logging
+     *               {@link IOException}s.
+     */
+    LineCursor(final Reader in, final Logger logger) {
+        this.in = in;
+        this.l = logger;
+    }
+
+    /**
+     * Moves the cursor to the next line.
+     *
+     * @return true if there is a next line,
+     * false if the end of the stream has been reached
+     * @throws IllegalStateException if a line is too long for an array
+     */
+    public boolean next() {
+        if (skipLineFeed) {
+            skipLineFeed = false;
+            start = position;
+            if (position == limit && !fill()) {
+                length = 0;
+                return false;
+            }
+            if (buffer[position] == '\n') {
+                position++;
+            }
+        }
+
+        start = position;
+        int i = start;
+        while (true) {
+            for (; i < limit; i++) {
+                char c = buffer[i];
+                if (c == '\n' || c == '\r') {
+                    length = i - start;
+                    position = i + 1;
+                    skipLineFeed = c == '\r';
+                    lineNumber++;
+                    return true;
+                }
+            }
+
+            int scanned = i - start;
+            if (!fill()) {
+                length = limit - start;
+                position = limit;
+                if (length == 0) {
+                    return false;
+                }
+                lineNumber++;
+                return true;
+            }
+            i = start + scanned;
+        }
+    }
+
+    /**
+     * Reads more characters into the buffer, keeping the current line.
+     * The line is moved to the start of the buffer,
+     * or the buffer is enlarged if the line already fills it.
+     *
+     * @return true if characters were read,
+     * false at the end of the stream
+     */
+    private boolean fill() {
+        if (in == null || ended) {
+            return false;
+        }
+
+        if (start > 0) {
+            System.arraycopy(buffer, start, buffer, 0, limit - start);
+            limit -= start;
+            position -= start;
+            start = 0;
+        } else if (limit == buffer.length) {
+            if (buffer.length == MAX_ARRAY_SIZE) {
+                String message = "Line " + (lineNumber + 1) + " is too long!";
+                throw new IllegalStateException(message);
+            }
+            buffer = Arrays.copyOf(buffer, (int) Math.min(2L * buffer.length, MAX_ARRAY_SIZE));
+        }
+
+        try {
+            int read = in.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                ended = true;
+                return false;
+            }
+            limit += read;
+            return true;
+        } catch (IOException e) {
+            WrappedReader.defaultCatch(e, l);
+            ended = true;
+            return false;
+        }
+    }
+
+    /**
+     * Gives the number of the current line.
+     *
+     * @return the number of the current line, starting at one,
+     * or zero before the first line
+     */
+    public long lineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Gives the length of the current line,
+     * not including any line-termination characters.
+     *
+     * @return the number of characters in the current line
+     */
+    @Override
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Gives a character of the current line.
+     *
+     * @param index the index of the character in the line
+     * @return the character at that index
+     * @throws IndexOutOfBoundsException if the index is negative
+     *                                   or not less than {@link #length()}
+     */
+    @Override
+    public char charAt(final int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+        }
+        return buffer[start + index];
+    }
+
+    /**
+     * Copies a part of the current line into a new {@link String}.
+     *
+     * @param from the index of the first character
+     * @param to   the index after the last character
+     * @return the characters between the indices
+     * @throws IndexOutOfBoundsException if the indices are not
+     *                                   within the line, or to is less than from
+     */
+    @Override
+    public String subSequence(final int from, final int to) {
+        checkRange(from, to);
+        return new String(buffer, start + from, to - from);
+    }
+
+    /**
+     * Copies the current line into a new {@link String}.
+     *
+     * @return the current line, not including any line-termination characters
+     */
+    @Override
+    public String toString() {
+        return new String(buffer, start, length);
+    }
+
+    /**
+     * Checks that a range is within the current line.
+     *
+     * @param from the index of the first character
+     * @param to   the index after the last character
+     * @throws IndexOutOfBoundsException if the range is not within the line
+     */
+    private void checkRange(final int from, final int to) {
+        if (from < 0 || to > length || from > to) {
+            throw new IndexOutOfBoundsException("from " + from + ", to " + to + ", length " + length);
+        }
+    }
+
+    /**
+     * Tells whether the current line starts with the specified prefix.
+     *
+     * @param prefix the characters to compare
+     * @return true if the line starts with the prefix
+     */
+    public boolean startsWith(final CharSequence prefix) {
+        return startsWith(prefix, 0);
+    }
+
+    /**
+     * Tells whether the current line contains the specified characters
+     * at the specified index.
+     *
+     * @param prefix the characters to compare
+     * @param offset the index in the line to compare them at
+     * @return true if the line contains the characters at the index,
+     * false if not or if the index is outside the line
+     */
+    public boolean startsWith(final CharSequence prefix, final int offset) {
+        int n = prefix.length();
+        if (offset < 0 || offset > length - n) {
+            return false;
+        }
+        int from = start + offset;
+        for (int i = 0; i < n; i++) {
+            if (buffer[from + i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tells whether the current line consists of exactly
+     * the specified characters.
+     *
+     * @param text the characters to compare
+     * @return true if the line equals the characters
+     */
+    public boolean contentEquals(final CharSequence text) {
+        return text.length() == length && startsWith(text, 0);
+    }
+
+    /**
+     * Finds a character in the current line.
+     *
+     * @param c    the character to find
+     * @param from the index in the line to start searching at
+     * @return the index of the first occurrence at or after from,
+     * or -1 if there is none
+     */
+    public int indexOf(final char c, final int from) {
+        int end = start + length;
+        for (int i = start + Math.max(from, 0); i < end; i++) {
+            if (buffer[i] == c) {
+                return i - start;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parses a part of the current line as a decimal int,
+     * as {@link Integer#parseInt(String)} does.
+     *
+     * @param from the index of the first character
+     * @param to   the index after the last character
+     * @return the parsed number
+     * @throws NumberFormatException     if the characters are not an int
+     * @throws IndexOutOfBoundsException if the range is not within the line
+     */
+    public int parseInt(final int from, final int to) {
+        long value = parseLong(from, to);
+        if (value != (int) value) {
+            throw numberFormat(from, to);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parses a part of the current line as a decimal long,
+     * as {@link Long#parseLong(String)} does.
+     *
+     * @param from the index of the first character
+     * @param to   the index after the last character
+     * @return the parsed number
+     * @throws NumberFormatException     if the characters are not a long
+     * @throws IndexOutOfBoundsException if the range is not within the line
+     */
+    public long parseLong(final int from, final int to) {
+        checkRange(from, to);
+        int i = start + from;
+        int end = start + to;
+        boolean negative = false;
+        if (i < end && (buffer[i] == '-' || buffer[i] == '+')) {
+            negative = buffer[i] == '-';
+            i++;
+        }
+        if (i == end) {
+            throw numberFormat(from, to);
+        }
+
+        // Accumulates negatively, as Long.MIN_VALUE has no positive counterpart
+        long limitValue = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) {
+                // Other Unicode decimal digits, which Long.parseLong also accepts
+                digit = Character.digit(buffer[i], 10);
+            }
+            if (digit < 0 || value < limitValue / 10) {
+                throw numberFormat(from, to);
+            }
+            value *= 10;
+            if (value < limitValue + digit) {
+                throw numberFormat(from, to);
+            }
+            value -= digit;
+        }
+        return negative ? value : -value;
+    }
+
+    /**
+     * Parses a part of the current line as a double,
+     * as {@link Double#parseDouble(String)} does.
+     * Plain decimal numbers with up to 15 significant digits
+     * and a small exponent, the common case, are parsed in the buffer;
+     * other numbers are copied into a {@link String} to be parsed.
+     *
+     * @param from the index of the first character
+     * @param to   the index after the last character
+     * @return the parsed number
+     * @throws NumberFormatException     if the characters are not a double
+     * @throws IndexOutOfBoundsException if the range is not within the line
+     */
+    public double parseDouble(final int from, final int to) {
+        checkRange(from, to);
+        int i = start + from;
+        int end = start + to;
+        boolean negative = false;
+        if (i < end && (buffer[i] == '-' || buffer[i] == '+')) {
+            negative = buffer[i] == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int significant = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean point = false;
+        for (; i < end; i++) {
+            char c = buffer[i];
+            if (c >= '0' && c <= '9') {
+                digits++;
+                if (mantissa != 0 || c != '0') {
+                    significant++;
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (significant > MAX_EXACT_DIGITS) {
+                        return Double.parseDouble(subSequence(from, to));
+                    }
+                }
+                if (point) {
+                    exponent--;
+                }
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            return Double.parseDouble(subSequence(from, to));
+        }
+
+        if (i < end && (buffer[i] == 'e' || buffer[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (buffer[i] == '-' || buffer[i] == '+')) {
+                negativeExponent = buffer[i] == '-';
+                i++;
+            }
+            int explicit = 0;
+            int exponentDigits = 0;
+            for (; i < end && buffer[i] >= '0' && buffer[i] <= '9' && exponentDigits < 4; i++) {
+                explicit = explicit * 10 + (buffer[i] - '0');
+                exponentDigits++;
+            }
+            if (exponentDigits == 0) {
+                return Double.parseDouble(subSequence(from, to));
+            }
+            exponent += negativeExponent ? -explicit : explicit;
+        }
+        // Suffixes, special values, hexadecimal and long exponents
+        if (i < end || exponent < -22 || exponent > 22) {
+            return Double.parseDouble(subSequence(from, to));
+        }
+
+        // Both operands are exact, so the one rounding is correct
+        double value = exponent < 0
+                ? mantissa / POWERS_OF_TEN[-exponent]
+                : mantissa * POWERS_OF_TEN[exponent];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Creates the exception for a part of the line that is not a number.
+     *
+     * @param from the index of the first character
+     * @param to   the index after the last character
+     * @return the exception to throw
+     */
+    private NumberFormatException numberFormat(final int from, final int to) {
+        return new NumberFormatException("For input string: \"" + subSequence(from, to) + "\"");
+    }
+
+}
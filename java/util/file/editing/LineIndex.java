@@ -0,0 +1,429 @@
+package util.file.editing;
+
+import util.log.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A sparse index of the line offsets of a file, for jumping to a line
+ * without reading all the lines before it.
+ * The offset of every {@link #interval()}-th line is kept, so
+ * reaching any line only needs the line breaks of less than
+ * one interval to be found, which is done in the mapped bytes
+ * of the file by {@link MappedLineReader}.
+ * Lines are numbered from 0, like the indices of
+ * {@link WrappedReader#readFileLines(String, Logger)},
+ * and end like those of {@link WrappedReader#readLine()}.
+ * <p>
+ * The index is built in one pass over the file, and can be saved next
+ * to it as a sidecar file: the index of "name.log" is "name.log.lineidx".
+ * The sidecar records the size and modification time of the file,
+ * so an index of an older version of the file is detected and ignored.
+ *
+ * @version 1.1
+ * @see WrappedReader#index(String, Logger)
+ */
+public class LineIndex {
+
+    /** The suffix appended to the name of the file to name its index. */
+    public static final String SUFFIX = ".lineidx";
+
+    /** The default number of lines between indexed lines. */
+    public static final int DEFAULT_INTERVAL = 1024;
+
+    /** Identifies index files. */
+    private static final int MAGIC = 0x4C494458;
+
+    /** The version of the index format. */
+    private static final int FORMAT_VERSION = 1;
+
+    /** The size of the header, after which the offsets start. */
+    private static final int HEADER_SIZE = 40;
+
+    /** A {@link Logger} to write all errors to. */
+    private Logger l;
+
+    /** The name of the indexed file. */
+    private final String filename;
+
+    /** The number of lines between indexed lines. */
+    private final int interval;
+
+    /** The number of lines in the file. */
+    private final long lineCount;
+
+    /** The offsets of lines 0, interval, 2 * interval and so on. */
+    private final long[] offsets;
+
+    /** The size of the file when it was indexed. */
+    private final long size;
+
+    /** The modification time of the file in milliseconds when it was indexed. */
+    private final long modified;
+
+    /**
+     * Creates an index from its contents.
+     *
+     * @param filename  the name of the indexed file
+     * @param interval  the number of lines between indexed lines
+     * @param lineCount the number of lines in the file
+     * @param offsets   the offsets of the indexed lines
+     * @param size      the size of the file when it was indexed
+     * @param modified  the modification time of the file when it was indexed
+     * @param logger    {@link Logger} to be used for logging
+     *                  {@link IOException}s.
+     */
+    private LineIndex(final String filename, final int interval, final long lineCount,
+                      final long[] offsets, final long size, final long modified,
+                      final Logger logger) {
+        this.filename = filename;
+        this.interval = interval;
+        this.lineCount = lineCount;
+        this.offsets = offsets;
+        this.size = size;
+        this.modified = modified;
+        this.l = logger;
+    }
+
+    /**
+     * Gives the index of the specified file: the saved index if it
+     * matches the current file, or else a new index, which is saved.
+     * A saved index is used whatever its interval.
+     * Failing to save the new index is logged, and the index is still returned.
+     *
+     * @param filename the name of the file to index
+     * @param interval the number of lines between indexed lines
+     *                 of a new index
+     * @param l        {@link Logger} used for logging {@link IOException}s.
+     * @return the index of the file
+     * @throws IllegalArgumentException if the interval is not positive
+     */
+    public static LineIndex of(final String filename, final int interval, final Logger l) {
+        LineIndex index = load(filename, l);
+        if (index == null) {
+            index = build(filename, interval, l);
+            if (index.size >= 0) {
+                index.save();
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Gives the index of the specified file, indexing every
+     * {@link #DEFAULT_INTERVAL}-th line if it has to be built.
+     * This method is equivalent to
+     * <code>of(filename, DEFAULT_INTERVAL, l)</code>.
+     *
+     * @param filename the name of the file to index
+     * @param l        {@link Logger} used for logging {@link IOException}s.
+     * @return the index of the file
+     */
+    public static LineIndex of(final String filename, final Logger l) {
+        return of(filename, DEFAULT_INTERVAL, l);
+    }
+
+    /**
+     * Builds the index of the specified file in one pass,
+     * without saving it.
+     * If the file cannot be read, the error is logged
+     * and the index is that of an empty file.
+     *
+     * @param filename the name of the file to index
+     * @param interval the number of lines between indexed lines
+     * @param l        {@link Logger} used for logging {@link IOException}s.
+     * @return the index of the file
+     * @throws IllegalArgumentException if the interval is not positive
+     */
+    public static LineIndex build(final String filename, final int interval, final Logger l) {
+        if (interval <= 0) {
+            String message = "The interval must be positive!";
+            throw new IllegalArgumentException(message);
+        }
+
+        // Taken first, so that changes during the pass make the index outdated
+        long size = -1;
+        long modified = -1;
+        try {
+            Path source = Paths.get(filename);
+            size = Files.size(source);
+            modified = Files.getLastModifiedTime(source).toMillis();
+        } catch (IOException ignored) {
+            // The reader below logs why the file cannot be read
+        }
+
+        long[] offsets = new long[16];
+        int count = 0;
+        long lineCount = 0;
+        MappedLineReader reader = new MappedLineReader(filename, l);
+        while (reader.next()) {
+            if (lineCount % interval == 0) {
+                if (count == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, 2 * count);
+                }
+                offsets[count++] = reader.lineOffset();
+            }
+            lineCount++;
+        }
+        reader.close();
+        return new LineIndex(filename, interval, lineCount,
+                Arrays.copyOf(offsets, count), size, modified, l);
+    }
+
+    /**
+     * Loads the saved index of the specified file.
+     *
+     * @param filename the name of the indexed file
+     * @param l        {@link Logger} used for logging {@link IOException}s.
+     * @return the saved index, or null if there is none,
+     * or if it does not match the current file
+     */
+    public static LineIndex load(final String filename, final Logger l) {
+        Path source = Paths.get(filename);
+        Path sidecar = indexOf(source);
+        try (FileChannel channel = FileChannel.open(sidecar, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.limit() < HEADER_SIZE
+                    || buffer.getInt(0) != MAGIC
+                    || buffer.getInt(Integer.BYTES) != FORMAT_VERSION) {
+                return null;
+            }
+            long size = buffer.getLong(8);
+            long modified = buffer.getLong(16);
+            if (size != Files.size(source)
+                    || modified != Files.getLastModifiedTime(source).toMillis()) {
+                return null;
+            }
+            long lineCount = buffer.getLong(24);
+            int interval = buffer.getInt(32);
+            int count = buffer.getInt(36);
+            if (interval <= 0 || count < 0
+                    || buffer.limit() != HEADER_SIZE + (long) count * Long.BYTES) {
+                return null;
+            }
+            long[] offsets = new long[count];
+            buffer.position(HEADER_SIZE);
+            buffer.asLongBuffer().get(offsets);
+            return new LineIndex(filename, interval, lineCount, offsets, size, modified, l);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            WrappedReader.defaultCatch(e, l);
+            return null;
+        }
+    }
+
+    /**
+     * Saves this index next to the indexed file.
+     * The index is written to a new temporary file first and then
+     * moved into place, so readers never see a partial index,
+     * even while other threads or processes save an index of the same file.
+     *
+     * @return true if the index was saved
+     */
+    public boolean save() {
+        Path sidecar = indexOf(Paths.get(filename));
+        Path temporary = null;
+        try {
+            temporary = Files.createTempFile(sidecar.toAbsolutePath().getParent(),
+                    sidecar.getFileName().toString(), ".tmp");
+            try (OutputStream os = Files.newOutputStream(temporary);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(size);
+                out.writeLong(modified);
+                out.writeLong(lineCount);
+                out.writeInt(interval);
+                out.writeInt(offsets.length);
+                for (long offset : offsets) {
+                    out.writeLong(offset);
+                }
+            }
+            Files.move(temporary, sidecar,
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            WrappedReader.defaultCatch(e, l);
+            try {
+                if (temporary != null) {
+                    Files.deleteIfExists(temporary);
+                }
+            } catch (IOException ignored) {
+                // Already logged why saving failed
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Gives the path of the index of the specified file.
+     *
+     * @param source the path of the indexed file
+     * @return the path of its sidecar index
+     */
+    static Path indexOf(final Path source) {
+        return source.resolveSibling(source.getFileName() + SUFFIX);
+    }
+
+    /**
+     * Tells whether the indexed file still has the size and
+     * modification time it had when it was indexed.
+     *
+     * @return true if the index matches the current file
+     */
+    public boolean isCurrent() {
+        try {
+            Path source = Paths.get(filename);
+            return Files.size(source) == size
+                    && Files.getLastModifiedTime(source).toMillis() == modified;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Gives the number of lines in the indexed file.
+     *
+     * @return the number of lines
+     */
+    public long lineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Gives the number of lines between indexed lines.
+     *
+     * @return the interval of this index
+     */
+    public int interval() {
+        return interval;
+    }
+
+    /**
+     * Checks that a line number is within the file.
+     *
+     * @param line the number of the line, or {@link #lineCount()}
+     *             for the end of the file
+     * @throws IndexOutOfBoundsException if the line is not within the file
+     */
+    private void checkLine(final long line) {
+        if (line < 0 || line > lineCount) {
+            throw new IndexOutOfBoundsException("line " + line + ", line count " + lineCount);
+        }
+    }
+
+    /**
+     * Opens a reader of the file that starts at the indexed line
+     * closest before the specified line.
+     *
+     * @param file the reader of the whole file
+     * @param line the number of the line
+     * @return a reader of the lines from the indexed line on
+     */
+    private MappedLineReader readerBefore(final MappedLineReader file, final long line) {
+        int indexed = (int) (line / interval);
+        long start = indexed < offsets.length ? offsets[indexed] : file.size();
+        return new MappedLineReader(file, start, file.size(), file.windowSize());
+    }
+
+    /**
+     * Moves past lines without decoding them.
+     *
+     * @param reader the reader to move
+     * @param lines  the number of lines to move past
+     */
+    private static void skip(final MappedLineReader reader, final long lines) {
+        for (long i = 0; i < lines; i++) {
+            if (!reader.next()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Finds the offset of the specified line in the file.
+     *
+     * @param line the number of the line, or {@link #lineCount()}
+     *             for the end of the file
+     * @return the offset of the first byte of the line
+     * @throws IndexOutOfBoundsException if the line is not within the file
+     */
+    public long offset(final long line) {
+        checkLine(line);
+        if (line % interval == 0 && line / interval < offsets.length) {
+            return offsets[(int) (line / interval)];
+        }
+
+        MappedLineReader file = new MappedLineReader(filename, l);
+        MappedLineReader reader = readerBefore(file, line);
+        skip(reader, line % interval);
+        long offset = reader.nextOffset();
+        file.close();
+        return offset;
+    }
+
+    /**
+     * Reads a range of lines of the file.
+     * Only the lines in the range are decoded.
+     *
+     * @param from the number of the first line
+     * @param to   the number after the last line
+     * @return the lines from from to to, not including to
+     * @throws IndexOutOfBoundsException if the range is not within the file
+     */
+    public ArrayList<String> lines(final long from, final long to) {
+        checkLine(from);
+        checkLine(to);
+        if (from > to) {
+            throw new IndexOutOfBoundsException("from " + from + ", to " + to);
+        }
+
+        ArrayList<String> lines = new ArrayList<>();
+        MappedLineReader file = new MappedLineReader(filename, l);
+        MappedLineReader reader = readerBefore(file, from);
+        skip(reader, from % interval);
+        for (long i = from; i < to && reader.next(); i++) {
+            lines.add(reader.line());
+        }
+        file.close();
+        return lines;
+    }
+
+    /**
+     * Opens a {@link WrappedReader} whose next line is the specified line.
+     * It reads to the end of the file, and has to be closed.
+     *
+     * @param line the number of the first line to read,
+     *             or {@link #lineCount()} for the end of the file
+     * @return a reader of the lines from the specified line on
+     * @throws IndexOutOfBoundsException if the line is not within the file
+     */
+    public WrappedReader reader(final long line) {
+        long offset = offset(line);
+        try {
+            FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+            channel.position(offset);
+            return new WrappedReader(Channels.newInputStream(channel), l);
+        } catch (IOException e) {
+            WrappedReader.defaultCatch(e, l);
+            return new WrappedReader(InputStream.nullInputStream(), l);
+        }
+    }
+
+}
@@ -0,0 +1,422 @@
+package util.file.editing;
+
+import util.log.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads the lines of a UTF-8 file through memory-mapped windows,
+ * so files larger than 2 GB can be read without copying them to the heap.
+ * Line breaks are found directly in the mapped bytes,
+ * eight bytes at a time, and a line is only decoded
+ * when it is requested as a {@link String}.
+ * Lines end like those of {@link WrappedReader#readLine()}:
+ * at a linefeed ('\n'), a carriage return ('\r'), or
+ * a carriage return followed immediately by a linefeed.
+ * Neither byte occurs inside a multi-byte UTF-8 character,
+ * so the breaks found in the bytes are those of the text.
+ *
+ * @version 1.2
+ * @see WrappedReader#map(String, Logger)
+ */
+public class MappedLineReader {
+
+    /** The default size of a mapped window, 64 MB. */
+    public static final int DEFAULT_WINDOW_SIZE = 1 << 26;
+
+    /** The size of the largest window, and so of the longest line. */
+    private static final int MAX_WINDOW_SIZE = Integer.MAX_VALUE - 8;
+
+    /** One in each byte of a word. */
+    private static final long ONES = 0x0101010101010101L;
+
+    /** The highest bit in each byte of a word. */
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    /** A linefeed in each byte of a word. */
+    private static final long LINEFEEDS = '\n' * ONES;
+
+    /** A carriage return in each byte of a word. */
+    private static final long CARRIAGE_RETURNS = '\r' * ONES;
+
+    /** A {@link Logger} to write all errors to. */
+    private Logger l;
+
+    /** The channel of the file, or null if it could not be opened. */
+    private FileChannel channel;
+
+    /** The size of the file in bytes. */
+    private long size;
+
+    /** The offset in the file at which reading stops. */
+    private long end;
+
+    /** The size of the windows to map. */
+    private final int windowSize;
+
+    /** The mapped part of the file, or null before the first line. */
+    private MappedByteBuffer window;
+
+    /** The offset in the file at which the window starts. */
+    private long windowStart;
+
+    /** The offset in the file of the next line. */
+    private long position;
+
+    /** The offset in the file of the current line. */
+    private long lineStart;
+
+    /** The length of the current line in bytes. */
+    private int lineLength;
+
+    /** Holds the bytes of a line while it is decoded. */
+    private byte[] bytes = new byte[0];
+
+    /**
+     * Opens the given file to be read through windows of the given size.
+     *
+     * @param filename   filename of input file
+     * @param windowSize the number of bytes to map at once.
+     *                   Lines that are longer get a larger window.
+     * @param logger     {@link Logger} to be used for logging
+     *                   {@link IOException}s.
+     */
+    public MappedLineReader(final String filename, final int windowSize, final Logger logger) {
+        if (windowSize <= 0) {
+            String message = "The window size must be positive!";
+            throw new IllegalArgumentException(message);
+        }
+
+        this.l = logger;
+        this.windowSize = windowSize;
+        try {
+            channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+            size = channel.size();
+            end = size;
+        } catch (IOException e) {
+            defaultCatch(e);
+        }
+    }
+
+    /**
+     * Creates a reader of the lines in a range of the file
+     * of the specified reader, sharing its channel.
+     * The range must start at the beginning of a line
+     * and end after a line break or at the end of the file.
+     * Only the reader of the whole file closes the channel.
+     *
+     * @param file       the reader of the whole file
+     * @param start      the offset at which the range starts
+     * @param end        the offset at which the range ends
+     * @param windowSize the number of bytes to map at once
+     */
+    MappedLineReader(final MappedLineReader file, final long start, final long end,
+                     final int windowSize) {
+        this.l = file.l;
+        this.channel = file.channel;
+        this.size = file.size;
+        this.windowSize = windowSize;
+        this.position = start;
+        this.end = end;
+    }
+
+    /**
+     * Opens the given file to be read through windows of
+     * {@link MappedLineReader#DEFAULT_WINDOW_SIZE}.
+     *
+     * @param filename filename of input file
+     * @param logger   {@link Logger} to be used for logging
+     *                 {@link IOException}s.
+     */
+    public MappedLineReader(final String filename, final Logger logger) {
+        this(filename, DEFAULT_WINDOW_SIZE, logger);
+    }
+
+    /**
+     * Opens the given file to be read through windows of
+     * {@link MappedLineReader#DEFAULT_WINDOW_SIZE}.
+     * {@link IOException}s will be printed to standard error.
+     *
+     * @param filename filename of input file
+     */
+    public MappedLineReader(final String filename) {
+        this(filename, null);
+    }
+
+    /**
+     * The default behaviour for caught {@link Exception}s.
+     *
+     * @param e the caught {@link Exception}
+     */
+    private void defaultCatch(final Exception e) {
+        if (l == null) {
+            e.printStackTrace();
+        } else {
+            l.log(e);
+        }
+    }
+
+    /**
+     * Moves to the next line, without decoding it.
+     *
+     * @return true if there is a next line,
+     * false if the end of the file has been reached
+     * @throws IllegalStateException if the line is longer than 2 GB
+     */
+    public boolean next() {
+        if (position >= end) {
+            return false;
+        }
+        if (window == null && !map(windowSize)) {
+            return false;
+        }
+
+        while (true) {
+            int limit = window.limit();
+            boolean atEnd = windowStart + limit == end;
+            int from = (int) (position - windowStart);
+            // A '\r' is only accepted if the byte after it is mapped too
+            int stop = atEnd ? limit : limit - 1;
+            int i = indexOfBreak(from, stop);
+            if (i >= 0) {
+                int next = i + 1;
+                if (window.get(i) == '\r' && next < limit && window.get(next) == '\n') {
+                    next++;
+                }
+                lineStart = position;
+                lineLength = i - from;
+                position = windowStart + next;
+                return true;
+            }
+            if (atEnd) {
+                lineStart = position;
+                lineLength = limit - from;
+                position = end;
+                return true;
+            }
+
+            int length = windowSize;
+            if (from == 0) {
+                if (limit == MAX_WINDOW_SIZE) {
+                    String message = "Line longer than " + MAX_WINDOW_SIZE
+                            + " bytes at offset " + position;
+                    throw new IllegalStateException(message);
+                }
+                length = (int) Math.min(2L * limit, MAX_WINDOW_SIZE);
+            }
+            if (!map(length)) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Maps a window starting at the next line.
+     * If the file cannot be mapped, reading ends.
+     *
+     * @param length the size of the window, shortened to the end of the file
+     * @return true if the window was mapped
+     */
+    private boolean map(final int length) {
+        try {
+            long mapped = Math.min(length, end - position);
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position, mapped);
+            window.order(ByteOrder.LITTLE_ENDIAN);
+            windowStart = position;
+            return true;
+        } catch (IOException e) {
+            defaultCatch(e);
+            position = end;
+            return false;
+        }
+    }
+
+    /**
+     * Finds the first linefeed or carriage return in the window.
+     * Eight bytes are tested at once: a byte of a word XORed with
+     * a word of break characters is zero where it matches, and
+     * subtracting one from each byte sets the high bit of the lowest zero.
+     *
+     * @param from the index to start at
+     * @param stop the index to stop before
+     * @return the index of the break, or -1 if there is none
+     */
+    private int indexOfBreak(final int from, final int stop) {
+        int i = from;
+        for (; i + Long.BYTES <= stop; i += Long.BYTES) {
+            long word = window.getLong(i);
+            long lf = word ^ LINEFEEDS;
+            long cr = word ^ CARRIAGE_RETURNS;
+            long found = ((lf - ONES) & ~lf | (cr - ONES) & ~cr) & HIGH_BITS;
+            if (found != 0) {
+                return i + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+        }
+        for (; i < stop; i++) {
+            byte b = window.get(i);
+            if (b == '\n' || b == '\r') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gives the offset in the file at which the current line starts.
+     *
+     * @return the offset of the first byte of the line
+     */
+    public long lineOffset() {
+        return lineStart;
+    }
+
+    /**
+     * Gives the length of the current line in bytes,
+     * not including any line-termination characters.
+     *
+     * @return the number of bytes in the line
+     */
+    public int lineLength() {
+        return lineLength;
+    }
+
+    /**
+     * Gives the bytes of the current line without copying them.
+     * The buffer is read-only and only valid until the reader moves on,
+     * as the window it belongs to may be replaced.
+     *
+     * @return the UTF-8 bytes of the line,
+     * not including any line-termination characters
+     */
+    public ByteBuffer lineBytes() {
+        return window.slice((int) (lineStart - windowStart), lineLength);
+    }
+
+    /**
+     * Decodes the current line.
+     * Malformed input is replaced like it is by {@link WrappedReader}.
+     *
+     * @return A String containing the contents of the line,
+     * not including any line-termination characters
+     */
+    public String line() {
+        if (bytes.length < lineLength) {
+            bytes = new byte[Math.max(lineLength, 2 * bytes.length)];
+        }
+        window.get((int) (lineStart - windowStart), bytes, 0, lineLength);
+        return new String(bytes, 0, lineLength, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a line of text. A line is considered to be terminated by any
+     * one of a linefeed ('\n'), a carriage return ('\r'), or
+     * a carriage return followed immediately by a linefeed.
+     *
+     * @return A String containing the contents of the line,
+     * not including any line-termination characters,
+     * or null if the end of the file has been reached
+     */
+    public String readLine() {
+        return next() ? line() : null;
+    }
+
+    /**
+     * Returns a Stream, the elements of which are the remaining lines
+     * of this {@link MappedLineReader}.
+     *
+     * @return a Stream<String> providing the lines of the file
+     */
+    public Stream<String> lines() {
+        int characteristics = Spliterator.ORDERED | Spliterator.NONNULL;
+        return StreamSupport.stream(new Spliterators.AbstractSpliterator<String>(
+                Long.MAX_VALUE, characteristics) {
+            @Override
+            public boolean tryAdvance(final Consumer<? super String> action) {
+                if (!next()) {
+                    return false;
+                }
+                action.accept(line());
+                return true;
+            }
+        }, false);
+    }
+
+    /**
+     * Gives the offset in the file of the line after the current one.
+     *
+     * @return the offset after the line break of the current line
+     */
+    long nextOffset() {
+        return position;
+    }
+
+    /**
+     * Gives the buffer that lines are decoded from,
+     * so that another reader of the same thread can reuse it.
+     *
+     * @return the buffer, as large as the longest line decoded so far
+     */
+    byte[] buffer() {
+        return bytes;
+    }
+
+    /**
+     * Decodes the lines from the specified buffer,
+     * which is replaced by a larger one when a line does not fit.
+     * The buffer must not be used by another thread at the same time.
+     *
+     * @param buffer the buffer of a reader that is done
+     */
+    void useBuffer(final byte[] buffer) {
+        bytes = buffer;
+    }
+
+    /**
+     * Gives the size of the windows this reader maps.
+     *
+     * @return the number of bytes mapped at once
+     */
+    int windowSize() {
+        return windowSize;
+    }
+
+    /**
+     * Gives the size of the file.
+     *
+     * @return the number of bytes in the file,
+     * or 0 if it could not be opened
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Closes the file. The mapped window is released
+     * once it is no longer referenced.
+     */
+    public void close() {
+        window = null;
+        position = end;
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            defaultCatch(e);
+        }
+    }
+
+}
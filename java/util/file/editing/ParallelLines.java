@@ -0,0 +1,258 @@
+package util.file.editing;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Processes the lines of a file on the threads of the common fork-join pool.
+ * The file is split in halves, and the halves again,
+ * until the ranges are small enough to be read by one thread.
+ * Every split point is moved forward to the start of the next line,
+ * so each line belongs to exactly one range.
+ * Each range is read by its own {@link MappedLineReader},
+ * but the buffer the lines are decoded from belongs to the thread,
+ * so a worker reuses one buffer for all lines of all ranges it reads.
+ *
+ * @version 1.1
+ * @see WrappedReader#forEachLine(String, Consumer, boolean, util.log.Logger)
+ */
+final class ParallelLines {
+
+    /** The smallest range that is split. */
+    private static final long MIN_RANGE_SIZE = 1 << 20;
+
+    /** The number of ranges per thread, so that busy threads can be helped. */
+    private static final int RANGES_PER_THREAD = 4;
+
+    /** The size of the windows mapped to find the start of a line. */
+    private static final int ALIGN_WINDOW_SIZE = 1 << 16;
+
+    /** The reader of the whole file. */
+    private final MappedLineReader file;
+
+    /** The size of the ranges that are not split further. */
+    private final long rangeSize;
+
+    /** The number of threads that process the ranges. */
+    private final int parallelism;
+
+    /** The buffer each thread decodes the lines of its ranges from. */
+    private final ThreadLocal<byte[]> buffers = ThreadLocal.withInitial(() -> new byte[0]);
+
+    /**
+     * Prepares to process the lines of the specified file.
+     *
+     * @param file the reader of the whole file
+     */
+    ParallelLines(final MappedLineReader file) {
+        this.file = file;
+        this.parallelism = ForkJoinPool.getCommonPoolParallelism();
+        this.rangeSize = Math.max(MIN_RANGE_SIZE,
+                file.size() / ((long) parallelism * RANGES_PER_THREAD));
+    }
+
+    /**
+     * Gives the offset of the first line that starts at or after
+     * the specified offset.
+     *
+     * @param offset an offset in the file
+     * @return the start of a line, or the size of the file
+     */
+    private long lineStartFrom(final long offset) {
+        if (offset == 0 || offset >= file.size()) {
+            return Math.min(offset, file.size());
+        }
+        // The line that contains the byte before the offset ends at or after it
+        MappedLineReader reader = new MappedLineReader(file, offset - 1, file.size(),
+                ALIGN_WINDOW_SIZE);
+        reader.next();
+        return reader.nextOffset();
+    }
+
+    /**
+     * Reads the lines in the specified range
+     * with the decode buffer of the calling thread.
+     *
+     * @param start  the start of the first line
+     * @param end    the end of the range
+     * @param reader reads the lines of the range
+     * @param <T>    the type of the result
+     * @return the result of the range
+     */
+    private <T> T read(final long start, final long end, final RangeReader<T> reader) {
+        MappedLineReader lines = new MappedLineReader(file, start, end,
+                (int) Math.min(end - start, file.windowSize()));
+        lines.useBuffer(buffers.get());
+        try {
+            return reader.read(lines);
+        } finally {
+            // Keeps the buffer if it was grown for a longer line
+            buffers.set(lines.buffer());
+        }
+    }
+
+    /**
+     * Maps each line and reduces the results.
+     * Every range is reduced from the identity in the order of its lines,
+     * and the results of neighbouring ranges are reduced in file order,
+     * so the result is the same on every run if the reducer is associative.
+     *
+     * @param mapper   maps a line to a value
+     * @param identity the identity of the reducer
+     * @param reducer  combines two values
+     * @param <T>      the type of the values
+     * @return the reduced value of all lines
+     */
+    <T> T mapReduce(final Function<? super String, ? extends T> mapper,
+                    final T identity,
+                    final BinaryOperator<T> reducer) {
+        return ForkJoinPool.commonPool().invoke(new Range<>(0, file.size(), lines -> {
+            T result = identity;
+            while (lines.next()) {
+                result = reducer.apply(result, mapper.apply(lines.line()));
+            }
+            return result;
+        }, reducer));
+    }
+
+    /**
+     * Applies the action to each line,
+     * on several threads at once and in no particular order.
+     *
+     * @param action the action to apply
+     */
+    void forEach(final Consumer<? super String> action) {
+        ForkJoinPool.commonPool().invoke(new Range<Void>(0, file.size(), lines -> {
+            while (lines.next()) {
+                action.accept(lines.line());
+            }
+            return null;
+        }, (left, right) -> null));
+    }
+
+    /**
+     * Applies the action to each line in the order of the file,
+     * on the calling thread.
+     * The ranges ahead are decoded in parallel while the action runs,
+     * at most two per thread at a time.
+     *
+     * @param action the action to apply
+     */
+    void forEachOrdered(final Consumer<? super String> action) {
+        ArrayDeque<ForkJoinTask<List<String>>> pending = new ArrayDeque<>();
+        long next = 0;
+        try {
+            while (next < file.size() || !pending.isEmpty()) {
+                while (next < file.size() && pending.size() < 2 * parallelism) {
+                    long start = next;
+                    long end = lineStartFrom(start + rangeSize);
+                    pending.add(ForkJoinPool.commonPool().submit(() -> decode(start, end)));
+                    next = end;
+                }
+                pending.poll().join().forEach(action);
+            }
+        } finally {
+            for (ForkJoinTask<List<String>> task : pending) {
+                task.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Decodes the lines in the specified range.
+     *
+     * @param start the start of the first line
+     * @param end   the end of the range
+     * @return the lines of the range
+     */
+    private List<String> decode(final long start, final long end) {
+        return read(start, end, reader -> {
+            List<String> lines = new ArrayList<>();
+            while (reader.next()) {
+                lines.add(reader.line());
+            }
+            return lines;
+        });
+    }
+
+    /**
+     * Reads all lines of a range.
+     *
+     * @param <T> the type of the result
+     */
+    @FunctionalInterface
+    private interface RangeReader<T> {
+
+        /**
+         * Reads the lines of the range.
+         *
+         * @param lines the reader of the range
+         * @return the result of the range
+         */
+        T read(MappedLineReader lines);
+
+    }
+
+    /**
+     * A range of lines that is split while it is large,
+     * and read by one thread otherwise.
+     *
+     * @param <T> the type of the result
+     */
+    private final class Range<T> extends RecursiveTask<T> {
+
+        /** The version of the serialized form, which is never used. */
+        private static final long serialVersionUID = 1L;
+
+        /** The start of the first line. */
+        private final long start;
+
+        /** The end of the range. */
+        private final long end;
+
+        /** Reads a range that is not split. */
+        private final RangeReader<T> reader;
+
+        /** Combines the results of neighbouring ranges. */
+        private final BinaryOperator<T> combiner;
+
+        /**
+         * Creates the task of a range.
+         *
+         * @param start    the start of the first line
+         * @param end      the end of the range
+         * @param reader   reads a range that is not split
+         * @param combiner combines the results of neighbouring ranges
+         */
+        Range(final long start, final long end,
+              final RangeReader<T> reader, final BinaryOperator<T> combiner) {
+            this.start = start;
+            this.end = end;
+            this.reader = reader;
+            this.combiner = combiner;
+        }
+
+        @Override
+        protected T compute() {
+            if (end - start > rangeSize) {
+                long middle = lineStartFrom(start + (end - start) / 2);
+                if (middle < end) {
+                    Range<T> left = new Range<>(start, middle, reader, combiner);
+                    left.fork();
+                    T right = new Range<>(middle, end, reader, combiner).compute();
+                    return combiner.apply(left.join(), right);
+                }
+            }
+            return read(start, end, reader);
+        }
+
+    }
+
+}
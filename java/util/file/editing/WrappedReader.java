@@ -9,8 +9,17 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 import static util.PrintFormatting.NEW_LINE;
@@ -19,10 +28,31 @@ import static util.PrintFormatting.NEW_LINE;
  * Wraps {@link BufferedReader}, so that
  * methods can be called without having to try-catch.
  *
- * @version 2.1
+ * @version 2.9
+ * @see AsyncFileReader
+ * @see BatchFileReader
+ * @see LineCursor
+ * @see FileFollower
+ * @see LineIndex
  */
 public class WrappedReader {
 
+    /** Reads eight bytes of an array at once, the first as the lowest. */
+    private static final VarHandle LONGS =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    /** One in each byte of a word. */
+    private static final long ONES = 0x0101010101010101L;
+
+    /** The highest bit in each byte of a word. */
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    /** A carriage return in each byte of a word. */
+    private static final long CARRIAGE_RETURNS = '\r' * ONES;
+
+    /** The bytes of {@link util.PrintFormatting#NEW_LINE} in UTF-8. */
+    private static final byte[] NEW_LINE_BYTES = NEW_LINE.getBytes(StandardCharsets.UTF_8);
+
     /** A {@link Logger} to write all errors to. */
     private Logger l;
 
@@ -112,40 +142,355 @@ public class WrappedReader {
     }
 
     /**
-     * Reads the full contents of the specified file line by line
-     * and returns them in a single {@link String}.
+     * Opens the specified file to be read through memory-mapped windows.
+     * This suits large files: line breaks are found in the mapped bytes,
+     * and lines are only decoded when they are asked for as strings.
+     *
+     * @param filename the name of the file to read
+     * @param l        {@link Logger} used for logging {@link IOException}s.
+     * @return a reader of the lines of the file
+     * @see MappedLineReader
+     */
+    public static MappedLineReader map(final String filename, final Logger l) {
+        return new MappedLineReader(filename, l);
+    }
+
+    /**
+     * Opens the specified file to be read through memory-mapped windows.
+     * This method is equivalent to <code>map(filename, null)</code>.
+     *
+     * @param filename the name of the file to read
+     * @return a reader of the lines of the file
+     */
+    public static MappedLineReader map(final String filename) {
+        return map(filename, null);
+    }
+
+    /**
+     * Gives the sparse line index of the specified file, to read
+     * any line or range of lines without reading the lines before it.
+     * A saved index is reused while the file keeps its size and
+     * modification time; otherwise the file is indexed and the index saved.
+     *
+     * @param filename the name of the file to index
+     * @param l        {@link Logger} used for logging {@link IOException}s.
+     * @return the index of the file
+     * @see LineIndex
+     */
+    public static LineIndex index(final String filename, final Logger l) {
+        return LineIndex.of(filename, l);
+    }
+
+    /**
+     * Gives the sparse line index of the specified file.
+     * This method is equivalent to <code>index(filename, null)</code>.
+     *
+     * @param filename the name of the file to index
+     * @return the index of the file
+     */
+    public static LineIndex index(final String filename) {
+        return index(filename, null);
+    }
+
+    /**
+     * Follows the specified file while it is being written,
+     * reading it from the start and then only what is appended,
+     * instead of reading all of it again to find new lines.
+     *
+     * @param filename the name of the file to follow
+     * @param l        {@link Logger} used for logging {@link IOException}s.
+     * @return a follower of the lines of the file
+     * @see FileFollower
+     */
+    public static FileFollower follow(final String filename, final Logger l) {
+        return new FileFollower(filename, l);
+    }
+
+    /**
+     * Follows the specified file while it is being written.
+     * This method is equivalent to <code>follow(filename, null)</code>.
+     *
+     * @param filename the name of the file to follow
+     * @return a follower of the lines of the file
+     */
+    public static FileFollower follow(final String filename) {
+        return follow(filename, null);
+    }
+
+    /**
+     * Applies the specified action to each line of the specified file,
+     * reading ranges of the file on all threads of the common fork-join pool.
+     * Unordered, the action is called by several threads at once,
+     * so it must be thread-safe, and the lines arrive in no particular order.
+     * Ordered, the action is called by the calling thread in the order
+     * of the file, while the lines ahead are decoded in parallel.
+     *
+     * @param filename the name of the file to read
+     * @param action   the action to apply to each line
+     * @param ordered  whether to apply the action in the order of the file
+     * @param l        {@link Logger} used for logging {@link IOException}s.
+     * @see WrappedReader#mapReduceLines(String, Function, Object, BinaryOperator, Logger)
+     */
+    public static void forEachLine(final String filename,
+                                   final Consumer<? super String> action,
+                                   final boolean ordered,
+                                   final Logger l) {
+        MappedLineReader file = map(filename, l);
+        try {
+            if (ordered) {
+                new ParallelLines(file).forEachOrdered(action);
+            } else {
+                new ParallelLines(file).forEach(action);
+            }
+        } finally {
+            file.close();
+        }
+    }
+
+    /**
+     * Applies the specified action to each line of the specified file,
+     * reading ranges of the file on all threads of the common fork-join pool.
+     * This method is equivalent to
+     * <code>forEachLine(filename, action, ordered, null)</code>.
+     *
+     * @param filename the name of the file to read
+     * @param action   the action to apply to each line
+     * @param ordered  whether to apply the action in the order of the file
+     */
+    public static void forEachLine(final String filename,
+                                   final Consumer<? super String> action,
+                                   final boolean ordered) {
+        forEachLine(filename, action, ordered, null);
+    }
+
+    /**
+     * Maps each line of the specified file and reduces the results,
+     * on all threads of the common fork-join pool.
+     * The results are always reduced in the order of the file,
+     * so for an associative reducer the result does not depend
+     * on the number of threads or on how the file was split.
+     *
+     * @param filename the name of the file to read
+     * @param mapper   maps a line to a value, called by several threads at once
+     * @param identity the identity of the reducer
+     * @param reducer  combines two values, called by several threads at once
+     * @param l        {@link Logger} used for logging {@link IOException}s.
+     * @param <T>      the type of the values
+     * @return the reduced value of all lines,
+     * or the identity if the file is empty or cannot be read
+     */
+    public static <T> T mapReduceLines(final String filename,
+                                       final Function<? super String, ? extends T> mapper,
+                                       final T identity,
+                                       final BinaryOperator<T> reducer,
+                                       final Logger l) {
+        MappedLineReader file = map(filename, l);
+        try {
+            return new ParallelLines(file).mapReduce(mapper, identity, reducer);
+        } finally {
+            file.close();
+        }
+    }
+
+    /**
+     * Maps each line of the specified file and reduces the results,
+     * on all threads of the common fork-join pool.
+     * This method is equivalent to
+     * <code>mapReduceLines(filename, mapper, identity, reducer, null)</code>.
+     *
+     * @param filename the name of the file to read
+     * @param mapper   maps a line to a value, called by several threads at once
+     * @param identity the identity of the reducer
+     * @param reducer  combines two values, called by several threads at once
+     * @param <T>      the type of the values
+     * @return the reduced value of all lines
+     */
+    public static <T> T mapReduceLines(final String filename,
+                                       final Function<? super String, ? extends T> mapper,
+                                       final T identity,
+                                       final BinaryOperator<T> reducer) {
+        return mapReduceLines(filename, mapper, identity, reducer, null);
+    }
+
+    /**
+     * Reads the full contents of the specified file and returns them
+     * in a single {@link String}.
+     * The file is read into an array of its size and decoded at once.
+     * If line endings are not kept, every line is ended with
+     * {@link util.PrintFormatting#NEW_LINE}, including the last one,
+     * as if the lines were read one by one and joined.
+     * This is done on the bytes before decoding, and text that is
+     * all ASCII is then copied into the {@link String} without decoding.
+     *
+     * @param filename        the name of the file to read
+     * @param keepLineEndings whether to keep the line endings of the file
+     * @param l               {@link Logger} used for logging {@link IOException}s.
+     * @return a {@link String} containing all the lines of the file,
+     * or an empty {@link String} if the file cannot be read
+     */
+    public static String readFile(final String filename,
+                                  final boolean keepLineEndings,
+                                  final Logger l) {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(Paths.get(filename));
+        } catch (IOException e) {
+            defaultCatch(e, l);
+            return "";
+        }
+
+        return decode(bytes, keepLineEndings);
+    }
+
+    /**
+     * Decodes the UTF-8 bytes of a whole file.
+     *
+     * @param bytes           the contents of the file
+     * @param keepLineEndings whether to keep the line endings of the file,
+     *                        or to end every line with
+     *                        {@link util.PrintFormatting#NEW_LINE}
+     * @return the decoded contents
+     * @see WrappedReader#readFile(String, boolean, Logger)
+     */
+    static String decode(final byte[] bytes, final boolean keepLineEndings) {
+        if (keepLineEndings) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        return normalizeLineEndings(bytes);
+    }
+
+    /**
+     * Ends every line of the specified text with
+     * {@link util.PrintFormatting#NEW_LINE} and decodes it.
+     * If the separator is a linefeed, the text is first checked
+     * eight bytes at a time for carriage returns and non-ASCII bytes.
+     * Without carriage returns, only a missing last line break
+     * has to be added, and otherwise the text is not copied.
+     *
+     * @param bytes the UTF-8 bytes of the text
+     * @return the decoded text with normalized line endings
+     */
+    private static String normalizeLineEndings(final byte[] bytes) {
+        if (!NEW_LINE.equals("\n")) {
+            return replaceLineEndings(bytes);
+        }
+
+        int n = bytes.length;
+        long high = 0;
+        int i = 0;
+        for (; i + Long.BYTES <= n; i += Long.BYTES) {
+            long word = (long) LONGS.get(bytes, i);
+            long x = word ^ CARRIAGE_RETURNS;
+            if (((x - ONES) & ~x & HIGH_BITS) != 0) {
+                return replaceLineEndings(bytes);
+            }
+            high |= word;
+        }
+        for (; i < n; i++) {
+            if (bytes[i] == '\r') {
+                return replaceLineEndings(bytes);
+            }
+            high |= bytes[i];
+        }
+
+        byte[] text = bytes;
+        if (n > 0 && bytes[n - 1] != '\n') {
+            text = Arrays.copyOf(bytes, n + 1);
+            text[n] = '\n';
+        }
+        boolean ascii = (high & HIGH_BITS) == 0;
+        return new String(text, ascii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Replaces every line break of the specified text with
+     * {@link util.PrintFormatting#NEW_LINE}, adds one after the last line
+     * if it is missing, and decodes the text.
+     * The line breaks are counted first, so that the result
+     * can be copied into an array of its exact size.
+     *
+     * @param bytes the UTF-8 bytes of the text
+     * @return the decoded text with normalized line endings
+     */
+    private static String replaceLineEndings(final byte[] bytes) {
+        int n = bytes.length;
+        int lines = 0;
+        int breakBytes = 0;
+        boolean ascii = true;
+        for (int i = 0; i < n; i++) {
+            byte b = bytes[i];
+            if (b == '\n' || b == '\r') {
+                lines++;
+                breakBytes++;
+                if (b == '\r' && i + 1 < n && bytes[i + 1] == '\n') {
+                    breakBytes++;
+                    i++;
+                }
+            } else if (b < 0) {
+                ascii = false;
+            }
+        }
+        boolean unterminated = n > 0 && bytes[n - 1] != '\n' && bytes[n - 1] != '\r';
+        if (unterminated) {
+            lines++;
+        }
+
+        long length = (long) n - breakBytes + (long) lines * NEW_LINE_BYTES.length;
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new OutOfMemoryError("Text too large: " + length + " bytes");
+        }
+
+        byte[] text = new byte[(int) length];
+        int start = 0;
+        int j = 0;
+        for (int i = 0; i < n; i++) {
+            byte b = bytes[i];
+            if (b == '\n' || b == '\r') {
+                System.arraycopy(bytes, start, text, j, i - start);
+                j += i - start;
+                System.arraycopy(NEW_LINE_BYTES, 0, text, j, NEW_LINE_BYTES.length);
+                j += NEW_LINE_BYTES.length;
+                if (b == '\r' && i + 1 < n && bytes[i + 1] == '\n') {
+                    i++;
+                }
+                start = i + 1;
+            }
+        }
+        if (unterminated) {
+            System.arraycopy(bytes, start, text, j, n - start);
+            j += n - start;
+            System.arraycopy(NEW_LINE_BYTES, 0, text, j, NEW_LINE_BYTES.length);
+        }
+        return new String(text, ascii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the full contents of the specified file and returns them
+     * in a single {@link String}, with every line ended by
+     * {@link util.PrintFormatting#NEW_LINE}.
+     * This method is equivalent to
+     * <code>readFile(filename, false, l)</code>.
      *
      * @param filename the name of the file to read
      * @param l        {@link Logger} used for logging {@link IOException}s.
      * @return a {@link String} containing all the lines of the file
      */
     public static String readFile(final String filename, final Logger l) {
-        WrappedReader reader = new WrappedReader(filename, l);
-        StringBuilder sb = new StringBuilder();
-        reader.lines().forEach(line -> {
-            sb.append(line);
-            sb.append(NEW_LINE);
-        });
-        reader.close();
-        return sb.toString();
+        return readFile(filename, false, l);
     }
 
     /**
-     * Reads the full contents of the specified file line by line
-     * and returns them in a single {@link String}.
+     * Reads the full contents of the specified file and returns them
+     * in a single {@link String}, with every line ended by
+     * {@link util.PrintFormatting#NEW_LINE}.
+     * This method is equivalent to
+     * <code>readFile(filename, false, null)</code>.
      *
      * @param filename the name of the file to read
      * @return a {@link String} containing all the lines of the file
      */
     public static String readFile(final String filename) {
-        WrappedReader reader = new WrappedReader(filename, null);
-        StringBuilder sb = new StringBuilder();
-        reader.lines().forEach(line -> {
-            sb.append(line);
-            sb.append(NEW_LINE);
-        });
-        reader.close();
-        return sb.toString();
+        return readFile(filename, false, null);
     }
 
     /**
@@ -210,10 +555,22 @@ public class WrappedReader {
      * @param e the caught {@link Exception}
      */
     private void defaultCatch(final Exception e) {
-        if (l == null) {
+        defaultCatch(e, l);
+    }
+
+    /**
+     * The default behaviour for {@link Exception}s caught
+     * by static methods, and by the callbacks of {@link AsyncFileReader}.
+     *
+     * @param e      the caught {@link Exception}
+     * @param logger the {@link Logger} to write it to,
+     *               or null to print it to standard error
+     */
+    static void defaultCatch(final Throwable e, final Logger logger) {
+        if (logger == null) {
             e.printStackTrace();
         } else {
-            l.log(e);
+            logger.log(e);
         }
     }
 
@@ -289,6 +646,18 @@ public class WrappedReader {
         return false;
     }
 
+    /**
+     * Gives a cursor over the remaining lines, which reuses
+     * one buffer instead of allocating a String for every line.
+     * The cursor reads ahead, so the lines should only be read
+     * through the cursor from then on.
+     *
+     * @return a {@link LineCursor} over the lines of this {@link WrappedReader}
+     */
+    public LineCursor cursor() {
+        return new LineCursor(reader, l);
+    }
+
     /**
      * Returns a Stream, the elements of which are lines
      * read from this {@link WrappedReader}.
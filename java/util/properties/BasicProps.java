@@ -2,53 +2,88 @@ package util.properties;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Scanner;
+import java.util.Set;
 import java.util.NoSuchElementException;
 import java.util.function.BiConsumer;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import javax.management.JMException;
 
 import static util.PrintFormatting.NEW_LINE;
 
 /**
  * Provides reading of ".props" files.
  *
- * @version 2.4
+ * @version 2.23
  */
 public class BasicProps {
 
     /** The name of the default properties file. */
     private static final String DEFAULT_PROPS_FILE = "default.props";
 
-    /** The symbol used to separate keys from values in the properties file. */
-    private static final String KEY_VALUE_SEPARATOR = "=";
+    /** The size of the buffers used to load from streams. */
+    private static final int STREAM_BUFFER_SIZE = 8192;
 
-    /** The symbol that indicates a comment in the properties file. */
-    private static final String COMMENT_SYMBOL = "#";
-
-    /** The key index in the raw array of the key-value pair. */
-    private static final int KEY_INDEX = 0;
-
-    /** The value index in the raw array of the key-value pair. */
-    private static final int VALUE_INDEX = 1;
+    /**
+     * Stores all properties, keyed by their name and type.
+     * Readers load this reference once per operation,
+     * so it can be swapped for a new store that is already filled.
+     */
+    volatile PropertyStore table = new PropertyTable();
 
-    /** Stores properties that have {@link String} values. */
-    private final HashMap<String, String> stringProperties = new HashMap<>();
+    /**
+     * Whether changes are made to a copy of the table,
+     * which is then published in place of the old table.
+     */
+    private final boolean copyOnWrite;
 
-    /** Stores properties that have {@link Long} values. */
-    private final HashMap<String, Long> longProperties = new HashMap<>();
+    /** Serializes the changes made to copies of the table. */
+    private final Object writeLock = new Object();
 
-    /** Stores properties that have {@link Integer} values. */
-    private final HashMap<String, Integer> intProperties = new HashMap<>();
+    /** The sorted keys of the table, built when they are first needed. */
+    private volatile KeyIndex keyIndex;
 
-    /** Stores properties that have {@link Double} values. */
-    private final HashMap<String, Double> doubleProperties = new HashMap<>();
+    /** The usage statistics, or null if they are disabled. */
+    private volatile PropsStatistics statistics;
 
-    /** Stores properties that have {@link Float} values. */
-    private final HashMap<String, Float> floatProperties = new HashMap<>();
+    /** The digests of the lines of the file last reloaded, or null. */
+    private LineDigests digests;
 
     /** Default constructor. A file should be loaded immediately. */
     public BasicProps() {
+        this(false);
+    }
+
+    /**
+     * Creates a {@link BasicProps} instance without properties.
+     * With copy-on-write, every change is made to a copy of the properties
+     * and then published at once, so readers never see partial changes.
+     *
+     * @param copyOnWrite whether to publish changes as new tables
+     * @see ConcurrentProps
+     */
+    BasicProps(final boolean copyOnWrite) {
+        this.copyOnWrite = copyOnWrite;
     }
 
     /**
@@ -59,6 +94,7 @@ public class BasicProps {
      * @throws FileNotFoundException if the specified file is not found
      */
     public BasicProps(final String filename) throws FileNotFoundException {
+        this(false);
         load(filename);
     }
 
@@ -68,21 +104,84 @@ public class BasicProps {
      * @return the current number of properties
      */
     public int size() {
-        int ss = stringProperties.size();
-        int is = intProperties.size();
-        int ls = longProperties.size();
-        int ds = doubleProperties.size();
-        int fs = floatProperties.size();
-        return ss + is + ls + ds + fs;
+        return table.size();
     }
 
     /** Clears all the loaded properties. */
     public void clear() {
-        stringProperties.clear();
-        intProperties.clear();
-        longProperties.clear();
-        floatProperties.clear();
-        doubleProperties.clear();
+        if (copyOnWrite) {
+            synchronized (writeLock) {
+                table = new PropertyTable();
+            }
+            return;
+        }
+
+        PropertyStore t = table;
+        if (t instanceof PropertyTable) {
+            ((PropertyTable) t).clear();
+        } else {
+            table = new PropertyTable();
+        }
+    }
+
+    /**
+     * Gives the table to load properties into.
+     * If the properties are read from a snapshot,
+     * they are first copied into a new table.
+     *
+     * @return the modifiable table of the properties
+     */
+    PropertyTable modifiableTable() {
+        PropertyStore t = table;
+        if (t instanceof PropertyTable) {
+            return (PropertyTable) t;
+        }
+
+        PropertyTable copy = new PropertyTable();
+        copy.putAll(t);
+        table = copy;
+        return copy;
+    }
+
+    /**
+     * Applies the specified change to the table.
+     * With copy-on-write, the change is made to a copy of the table
+     * under a lock and the copy is published only if the change succeeds.
+     *
+     * @param update the change to apply
+     * @param <E>    the type of exception thrown by the change
+     * @throws E if the change fails
+     */
+    <E extends Exception> void update(final TableUpdate<E> update) throws E {
+        if (!copyOnWrite) {
+            update.apply(modifiableTable());
+            return;
+        }
+
+        synchronized (writeLock) {
+            PropertyTable copy = new PropertyTable();
+            copy.putAll(table);
+            update.apply(copy);
+            table = copy;
+        }
+    }
+
+    /**
+     * A change of the properties in a table.
+     *
+     * @param <E> the type of exception thrown by the change
+     */
+    @FunctionalInterface
+    interface TableUpdate<E extends Exception> {
+
+        /**
+         * Applies the change to the specified table.
+         *
+         * @param target the table to change
+         * @throws E if the change fails
+         */
+        void apply(PropertyTable target) throws E;
+
     }
 
     /**
@@ -92,12 +191,32 @@ public class BasicProps {
      * @return the integer value associated with that property
      */
     public int getInt(final String property) {
-        if (!intProperties.containsKey(property)) {
+        PropertyStore t = table;
+        if (statistics != null) {
+            lookup("", property, t, t.find(property, PropertyType.INT),
+                    PropertyType.INT, "integer");
+        }
+        return intIn(t, property);
+    }
+
+    /**
+     * Get the {@link Integer} value associated with the given property
+     * in the specified store.
+     * Reading several properties from the same store gives
+     * consistent values even while the properties are replaced.
+     *
+     * @param t        the store to read from
+     * @param property the property to look for
+     * @return the integer value associated with that property
+     */
+    static int intIn(final PropertyStore t, final String property) {
+        int slot = t.find(property, PropertyType.INT);
+        if (slot < 0) {
             String message = "No integer property \"" + property + "\"";
             throw new NullPointerException(message);
         }
 
-        return intProperties.get(property);
+        return (int) t.longAt(slot);
     }
 
     /**
@@ -108,15 +227,15 @@ public class BasicProps {
      * @return the long value associated with that property
      */
     public long getLong(final String property) {
-        if (!longProperties.containsKey(property)) {
-            if (!intProperties.containsKey(property)) {
-                String message = "No long property \"" + property + "\"";
-                throw new NullPointerException(message);
-            }
-            return intProperties.get(property);
+        PropertyStore t = table;
+        int slot = t.find(property, PropertyType.LONG, PropertyType.INT);
+        lookup("", property, t, slot, PropertyType.LONG, "long");
+        if (slot < 0) {
+            String message = "No long property \"" + property + "\"";
+            throw new NullPointerException(message);
         }
 
-        return longProperties.get(property);
+        return t.longAt(slot);
     }
 
     /**
@@ -126,12 +245,15 @@ public class BasicProps {
      * @return the double value associated with that property
      */
     public float getFloat(final String property) {
-        if (!floatProperties.containsKey(property)) {
+        PropertyStore t = table;
+        int slot = t.find(property, PropertyType.FLOAT);
+        lookup("", property, t, slot, PropertyType.FLOAT, "float");
+        if (slot < 0) {
             String message = "No float property \"" + property + "\"";
             throw new NullPointerException(message);
         }
 
-        return floatProperties.get(property);
+        return (float) t.doubleAt(slot);
     }
 
     /**
@@ -142,15 +264,15 @@ public class BasicProps {
      * @return the long value associated with that property
      */
     public double getDouble(final String property) {
-        if (!doubleProperties.containsKey(property)) {
-            if (!floatProperties.containsKey(property)) {
-                String message = "No double property \"" + property + "\"";
-                throw new NullPointerException(message);
-            }
-            return floatProperties.get(property);
+        PropertyStore t = table;
+        int slot = t.find(property, PropertyType.DOUBLE, PropertyType.FLOAT);
+        lookup("", property, t, slot, PropertyType.DOUBLE, "double");
+        if (slot < 0) {
+            String message = "No double property \"" + property + "\"";
+            throw new NullPointerException(message);
         }
 
-        return doubleProperties.get(property);
+        return t.doubleAt(slot);
     }
 
     /**
@@ -164,20 +286,17 @@ public class BasicProps {
      * after being cast to integer
      */
     public int getAnyInt(final String property) {
-        if (intProperties.containsKey(property)) {
-            return intProperties.get(property);
-        }
-
-        if (longProperties.containsKey(property)) {
-            return longProperties.get(property).intValue();
-        }
-
-        if (floatProperties.containsKey(property)) {
-            return floatProperties.get(property).intValue();
+        PropertyStore t = table;
+        int slot = t.find(property, PropertyType.INT, PropertyType.LONG);
+        if (slot >= 0) {
+            lookup("", property, t, slot, PropertyType.INT, "number");
+            return (int) t.longAt(slot);
         }
 
-        if (doubleProperties.containsKey(property)) {
-            return doubleProperties.get(property).intValue();
+        slot = t.find(property, PropertyType.FLOAT, PropertyType.DOUBLE);
+        lookup("", property, t, slot, PropertyType.INT, "number");
+        if (slot >= 0) {
+            return (int) t.doubleAt(slot);
         }
 
         String message = "No number property \"" + property + "\"";
@@ -193,12 +312,7 @@ public class BasicProps {
      * associated with this property is equal to "true".
      */
     public boolean isTrue(final String property) {
-        if (!stringProperties.containsKey(property)) {
-            String message = "No string property \"" + property + "\"";
-            throw new NullPointerException(message);
-        }
-
-        return stringProperties.get(property).equals("true");
+        return getString(property).equals("true");
     }
 
     /**
@@ -208,12 +322,262 @@ public class BasicProps {
      * @return the string value associated with that property
      */
     public String getString(final String property) {
-        if (!stringProperties.containsKey(property)) {
+        PropertyStore t = table;
+        if (statistics != null) {
+            lookup("", property, t, t.find(property, PropertyType.STRING),
+                    PropertyType.STRING, "string");
+        }
+        return stringIn(t, property);
+    }
+
+    /**
+     * Get the {@link String} value associated with the given property
+     * in the specified store.
+     *
+     * @param t        the store to read from
+     * @param property the property to look for
+     * @return the string value associated with that property
+     * @see BasicProps#intIn(PropertyStore, String)
+     */
+    static String stringIn(final PropertyStore t, final String property) {
+        int slot = t.find(property, PropertyType.STRING);
+        if (slot < 0) {
             String message = "No string property \"" + property + "\"";
             throw new NullPointerException(message);
         }
 
-        return stringProperties.get(property);
+        return t.stringAt(slot);
+    }
+
+    /**
+     * Records a lookup if statistics are enabled.
+     *
+     * @param prefix   the beginning of the key, empty for a full key
+     * @param name     the rest of the key
+     * @param t        the store the key was looked up in
+     * @param slot     the slot that was found, or -1
+     * @param type     the requested {@link PropertyType}
+     * @param typeName the name of the requested type
+     */
+    final void lookup(final String prefix,
+                      final String name,
+                      final PropertyStore t,
+                      final int slot,
+                      final byte type,
+                      final String typeName) {
+        PropsStatistics s = statistics;
+        if (s != null) {
+            s.lookup(prefix.isEmpty() ? name : prefix + name, t, slot, type, typeName);
+        }
+    }
+
+    /**
+     * Starts recording how these properties are used.
+     * Recording costs little, but should still be
+     * enabled only while the statistics are needed.
+     *
+     * @return the statistics, which are kept if they are already enabled
+     * @see PropsStatistics#register(String)
+     */
+    public synchronized PropsStatistics enableStatistics() {
+        if (statistics == null) {
+            statistics = new PropsStatistics();
+        }
+        return statistics;
+    }
+
+    /**
+     * Stops recording how these properties are used
+     * and removes the statistics from JMX if they were registered.
+     * Recording stops even if they cannot be removed.
+     *
+     * @throws IllegalStateException if the statistics are still registered,
+     *                               caused by the {@link JMException}
+     */
+    public synchronized void disableStatistics() {
+        PropsStatistics s = statistics;
+        statistics = null;
+        if (s != null) {
+            try {
+                s.unregister();
+            } catch (JMException e) {
+                throw new IllegalStateException("Cannot unregister the statistics", e);
+            }
+        }
+    }
+
+    /**
+     * Gives the statistics of these properties.
+     *
+     * @return the statistics, or null if they are disabled
+     */
+    public PropsStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Runs the specified load and records its time
+     * if statistics are enabled.
+     *
+     * @param load the load to run
+     * @param <E>  the type of exception thrown by the load
+     * @throws E if the load fails
+     */
+    private <E extends Exception> void timed(final Load<E> load) throws E {
+        PropsStatistics s = statistics;
+        if (s == null) {
+            load.run();
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean completed = false;
+        try {
+            load.run();
+            completed = true;
+        } finally {
+            if (completed) {
+                s.loaded(System.nanoTime() - start);
+            } else {
+                s.loadFailed();
+            }
+        }
+    }
+
+    /**
+     * A load of properties.
+     *
+     * @param <E> the type of exception thrown by the load
+     */
+    @FunctionalInterface
+    private interface Load<E extends Exception> {
+
+        /**
+         * Loads the properties.
+         *
+         * @throws E if the load fails
+         */
+        void run() throws E;
+
+    }
+
+    /**
+     * Gives a view of the properties whose keys start with the given prefix,
+     * such as all properties of the namespace "db.pool.".
+     * The view reads them by their names without the prefix.
+     *
+     * @param prefix the beginning of the keys of the view
+     * @return the view of the properties
+     */
+    public PropsView view(final String prefix) {
+        return new PropsView(this, prefix);
+    }
+
+    /**
+     * Gives all keys in sorted order.
+     * A key with values of several types is given once.
+     * The keys are sorted once and again only after properties were
+     * added or removed.
+     *
+     * @return the sorted keys, cannot be modified
+     */
+    public List<String> keys() {
+        return keyIndex().keys();
+    }
+
+    /**
+     * Gives the keys that start with the given prefix in sorted order.
+     * They are found with a binary search in the sorted keys.
+     *
+     * @param prefix the beginning of the keys
+     * @return the sorted keys, cannot be modified
+     * @see BasicProps#keys()
+     */
+    public List<String> keysWithPrefix(final String prefix) {
+        return keyIndex().withPrefix(prefix);
+    }
+
+    /**
+     * Gives the index of the keys of the current table,
+     * building it if the keys have changed since it was built.
+     *
+     * @return the index of the keys
+     */
+    private KeyIndex keyIndex() {
+        PropertyStore t = table;
+        KeyIndex index = keyIndex;
+        if (index == null || !index.isValidFor(t)) {
+            index = new KeyIndex(t);
+            keyIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Resolves the given integer property into a handle
+     * that reads it without looking it up again.
+     *
+     * @param property the property to look for
+     * @return a handle to the integer value associated with that property
+     * @throws NullPointerException if there is no such integer property
+     * @see BasicProps#getInt(String)
+     */
+    public PropertyHandle.OfInt intHandle(final String property) {
+        return new PropertyHandle.OfInt(this, property);
+    }
+
+    /**
+     * Resolves the given long property into a handle
+     * that reads it without looking it up again.
+     *
+     * @param property the property to look for
+     * @return a handle to the long value associated with that property
+     * @throws NullPointerException if there is no such long
+     *                              or integer property
+     * @see BasicProps#getLong(String)
+     */
+    public PropertyHandle.OfLong longHandle(final String property) {
+        return new PropertyHandle.OfLong(this, property);
+    }
+
+    /**
+     * Resolves the given float property into a handle
+     * that reads it without looking it up again.
+     *
+     * @param property the property to look for
+     * @return a handle to the float value associated with that property
+     * @throws NullPointerException if there is no such float property
+     * @see BasicProps#getFloat(String)
+     */
+    public PropertyHandle.OfFloat floatHandle(final String property) {
+        return new PropertyHandle.OfFloat(this, property);
+    }
+
+    /**
+     * Resolves the given double property into a handle
+     * that reads it without looking it up again.
+     *
+     * @param property the property to look for
+     * @return a handle to the double value associated with that property
+     * @throws NullPointerException if there is no such double
+     *                              or float property
+     * @see BasicProps#getDouble(String)
+     */
+    public PropertyHandle.OfDouble doubleHandle(final String property) {
+        return new PropertyHandle.OfDouble(this, property);
+    }
+
+    /**
+     * Resolves the given {@link String} property into a handle
+     * that reads it without looking it up again.
+     *
+     * @param property the property to look for
+     * @return a handle to the string value associated with that property
+     * @throws NullPointerException if there is no such string property
+     * @see BasicProps#getString(String)
+     */
+    public PropertyHandle.OfString stringHandle(final String property) {
+        return new PropertyHandle.OfString(this, property);
     }
 
     /**
@@ -234,86 +598,509 @@ public class BasicProps {
      * @throws FileNotFoundException if there is no file with the given name
      */
     public void load(final String filename) throws FileNotFoundException {
-        Scanner scanner = new Scanner(new File(filename), "utf-8");
-        scanner.useDelimiter(NEW_LINE);
-        String line;
-        do {
-            try {
-                line = scanner.nextLine();
-                loadLine(line);
-            } catch (NoSuchElementException e) {
-                break;
-            }
-        } while (true);
+        timed(() -> update(target -> read(filename, target)));
+    }
+
+    /**
+     * Load properties from the specified file, parsing it in parallel.
+     * The file is memory-mapped and split into chunks of whole lines,
+     * which are parsed on the common {@link java.util.concurrent.ForkJoinPool}.
+     * The result is the same as that of {@link BasicProps#load(String)},
+     * but large files are loaded several times faster.
+     *
+     * @param filename the name of the file containing properties.
+     *                 This can be absolute or relative path.
+     * @throws FileNotFoundException if there is no file with the given name
+     * @throws IOException           if the file cannot be read or mapped
+     */
+    public void loadParallel(final String filename) throws IOException {
+        timed(() -> update(target -> ParallelLoader.read(filename, target)));
     }
 
     /**
-     * Parses the specified line as a key-value property.
-     * The line should contain two Strings separated by the
-     * {@link BasicProps#KEY_VALUE_SEPARATOR}.
-     * If the separator appears multiple times in the line,
-     * the string before the first separator will be used as key
-     * and the string between the first and second separator - as value.
+     * Load properties from the specified file without parsing their values.
+     * Only the keys are stored and every value is classified and parsed
+     * the first time it is read, so loading is faster and
+     * values that are never read take less memory.
+     * The properties are the same as after {@link BasicProps#load(String)}.
+     * Several threads may read the lazily loaded properties at once,
+     * as long as none changes them.
+     * With copy-on-write, the properties are shared between threads
+     * and must not change while they are read, so they are loaded eagerly.
      *
-     * @param line the line to parse
+     * @param filename the name of the file containing properties.
+     *                 This can be absolute or relative path.
+     * @throws FileNotFoundException if there is no file with the given name
+     * @throws IOException           if the file cannot be read
      */
-    private void loadLine(final String line) {
-        // Skip empty lines and comments
-        if (line.isEmpty() || line.startsWith(COMMENT_SYMBOL)) {
+    public void loadLazy(final String filename) throws IOException {
+        if (copyOnWrite) {
+            load(filename);
             return;
         }
 
-        String[] kv = line.split(KEY_VALUE_SEPARATOR);
-        String key = kv[KEY_INDEX];
-        String val = kv[VALUE_INDEX];
+        timed(() -> update(target -> LazyLoader.read(filename, target)));
+    }
 
-        try {  // Is this an integer?
-            int value = Integer.parseInt(val);
-            intProperties.put(key, value);
-            return;
-        } catch (NumberFormatException ignored) {
+    /**
+     * Loads the specified file again, parsing only the lines of
+     * the keys that were edited since the last time
+     * it was loaded by this method.
+     * A hash of every line is kept between reloads to find them,
+     * so unchanged lines are only hashed.
+     * The first reload of a file, or a reload after the properties were
+     * changed in any other way, loads all lines and replaces
+     * all properties, like {@link BasicProps#clear()} followed by
+     * {@link BasicProps#load(String)}.
+     * If a line has no value, nothing is changed.
+     *
+     * @param filename the name of the file containing properties.
+     *                 This can be absolute or relative path.
+     * @return the keys whose values were added, changed or removed,
+     * cannot be modified
+     * @throws FileNotFoundException          if there is no file with the given name
+     * @throws IOException                    if the file cannot be read
+     * @throws ArrayIndexOutOfBoundsException if a line has no value
+     */
+    public Set<String> reload(final String filename) throws IOException {
+        Set<String> changed = new HashSet<>();
+        timed(() -> reload(filename, changed));
+        return Collections.unmodifiableSet(changed);
+    }
+
+    /**
+     * Loads the specified file again and collects the keys that changed.
+     *
+     * @param filename the name of the file containing properties
+     * @param changed  receives the keys that changed
+     * @throws IOException if the file cannot be read
+     * @see BasicProps#reload(String)
+     */
+    private void reload(final String filename, final Set<String> changed) throws IOException {
+        String path = Paths.get(filename).toAbsolutePath().normalize().toString();
+        LineDigests next = new LineDigests(path, LazyLoader.readText(filename));
+        synchronized (writeLock) {
+            LineDigests previous = digests;
+            if (previous != null && previous.isCurrent(path, table)) {
+                Set<String> edited = next.editedKeys(previous);
+                if (!edited.isEmpty()) {
+                    PropertyTable before = new PropertyTable();
+                    PropertyTable after = new PropertyTable();
+                    update(target -> {
+                        for (String key : edited) {
+                            before.putKey(key, target);
+                            target.remove(key);
+                        }
+                        next.load(target, edited);
+                        for (String key : edited) {
+                            after.putKey(key, target);
+                        }
+                    });
+                    before.addChangedKeys(after, changed);
+                }
+            } else {
+                PropertyTable loaded = new PropertyTable();
+                next.loadAll(loaded);
+                table.addChangedKeys(loaded, changed);
+                table = loaded;
+            }
+            next.loadedInto(table);
+            digests = next;
         }
+    }
 
-        try {  // Is this a long?
-            long value = Long.parseLong(val);
-            longProperties.put(key, value);
-            return;
-        } catch (NumberFormatException ignored) {
+    /**
+     * Load properties from the specified UTF-8 encoded stream.
+     * The stream is read through a bounded buffer until it ends,
+     * but it is not closed.
+     *
+     * @param in the stream containing properties
+     * @throws IOException if the stream cannot be read
+     * @see BasicProps#feed()
+     */
+    public void load(final InputStream in) throws IOException {
+        timed(() -> {
+            PropsFeed feed = feed();
+            byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                feed.accept(buffer, 0, read);
+            }
+            feed.finish();
+        });
+    }
+
+    /**
+     * Load properties from the specified reader.
+     * The reader is read through a bounded buffer until it ends,
+     * but it is not closed.
+     *
+     * @param reader the reader of properties
+     * @throws IOException if the reader fails
+     * @see BasicProps#feed()
+     */
+    public void load(final Reader reader) throws IOException {
+        timed(() -> {
+            PropsFeed feed = feed();
+            char[] buffer = new char[STREAM_BUFFER_SIZE];
+            int read;
+            while ((read = reader.read(buffer)) >= 0) {
+                feed.accept(buffer, 0, read);
+            }
+            feed.finish();
+        });
+    }
+
+    /**
+     * Load properties from the specified UTF-8 encoded channel.
+     * The channel is read through a bounded buffer until it ends,
+     * but it is not closed.
+     *
+     * @param channel the channel containing properties
+     * @throws IOException if the channel cannot be read
+     * @see BasicProps#feed()
+     */
+    public void load(final ReadableByteChannel channel) throws IOException {
+        timed(() -> {
+            PropsFeed feed = feed();
+            ByteBuffer buffer = ByteBuffer.allocate(STREAM_BUFFER_SIZE);
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                feed.accept(buffer);
+                buffer.clear();
+            }
+            feed.finish();
+        });
+    }
+
+    /**
+     * Load properties from the remaining UTF-8 encoded bytes
+     * of the specified buffer, which are all consumed.
+     * The bytes are decoded in place, without copying them.
+     *
+     * @param bytes the buffer containing properties
+     */
+    public void load(final ByteBuffer bytes) {
+        timed(() -> {
+            PropsFeed feed = feed();
+            feed.accept(bytes);
+            feed.finish();
+        });
+    }
+
+    /**
+     * Load properties from the specified resource on the class path,
+     * for example a ".props" file packed in a jar.
+     *
+     * @param name the name of the resource, as in
+     *             {@link ClassLoader#getResource(String)}
+     * @throws FileNotFoundException if there is no resource with the given name
+     * @throws IOException           if the resource cannot be read
+     */
+    public void loadResource(final String name) throws IOException {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        if (loader == null) {
+            loader = BasicProps.class.getClassLoader();
+        }
+        InputStream in = loader.getResourceAsStream(name);
+        if (in == null) {
+            throw new FileNotFoundException("No resource " + name);
+        }
+
+        try (InputStream resource = in) {
+            load(resource);
+        }
+    }
+
+    /**
+     * Starts loading properties from input that arrives in chunks.
+     * Every chunk given to the feed is loaded right away,
+     * except for a line or character that continues in the next chunk.
+     * With copy-on-write, the properties are published at once
+     * when the feed is finished.
+     *
+     * @return a new feed of properties
+     */
+    public PropsFeed feed() {
+        return new PropsFeed(this, copyOnWrite);
+    }
+
+    /**
+     * Load properties from the compiled snapshot of the specified file,
+     * or from the file itself if the snapshot is missing or outdated.
+     * If no properties are loaded yet, the snapshot is read directly
+     * through a memory map, without parsing and copying it to the heap.
+     * Otherwise its entries are added like those of a loaded file.
+     *
+     * @param filename the name of the ".props" file whose snapshot to load.
+     *                 This can be absolute or relative path.
+     * @return true if the snapshot was loaded,
+     * false if the file was parsed instead
+     * @throws FileNotFoundException if neither the snapshot
+     *                               nor the file exists
+     * @throws IOException           if the snapshot cannot be mapped
+     * @see PropsSnapshot
+     */
+    public boolean loadSnapshot(final String filename) throws IOException {
+        MappedPropertyStore snapshot = PropsSnapshot.open(filename);
+        if (snapshot == null) {
+            load(filename);
+            return false;
         }
 
-        try {  // Is this a float?
-            float value = Float.parseFloat(val);
-            if (value == Float.POSITIVE_INFINITY) {
-                throw new NumberFormatException();
+        timed(() -> useSnapshot(snapshot));
+        return true;
+    }
+
+    /**
+     * Reads the properties from the specified snapshot.
+     * If no properties are loaded yet, the snapshot is used directly.
+     *
+     * @param snapshot the opened snapshot
+     */
+    private void useSnapshot(final MappedPropertyStore snapshot) {
+        synchronized (writeLock) {
+            if (table.size() == 0) {
+                table = snapshot;
+                return;
             }
-            if (value == Float.NEGATIVE_INFINITY) {
-                throw new NumberFormatException();
+        }
+        update(target -> target.putAll(snapshot));
+    }
+
+    /**
+     * Compiles the current properties into a snapshot of the specified file.
+     * The snapshot records the size and modification time of the file,
+     * so it should be written right after the file was loaded.
+     *
+     * @param filename the name of the ".props" file the properties
+     *                 were loaded from
+     * @throws IOException if the file does not exist or
+     *                     the snapshot cannot be written
+     * @see BasicProps#loadSnapshot(String)
+     */
+    public void saveSnapshot(final String filename) throws IOException {
+        Path source = Paths.get(filename);
+        long size = Files.size(source);
+        long modified = Files.getLastModifiedTime(source).toMillis();
+        PropsSnapshot.write(table, size, modified, PropsSnapshot.snapshotOf(source));
+    }
+
+    /**
+     * Writes all properties to the specified file as "key=value" lines,
+     * replacing the file atomically.
+     * The lines are written to a new temporary file next to it, which is
+     * forced to the disk and then moved over the file, so readers
+     * see either the old or the new file and never a partial one,
+     * even while other threads or processes save to the same file.
+     * Loading the file gives exactly the same properties:
+     * every value keeps its type, and floating-point values are written
+     * with enough digits to parse back to the same bits.
+     *
+     * @param filename the name of the file to write.
+     *                 This can be absolute or relative path.
+     * @throws IOException if the file cannot be written or replaced
+     * @see BasicProps#append(String, Collection)
+     */
+    public void save(final String filename) throws IOException {
+        Path target = Paths.get(filename).toAbsolutePath();
+        PropertyStore t = table;
+        t.classifyAll();
+        Path temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            keepPermissions(target, temporary);
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                try (PropsWriter writer = new PropsWriter(channel)) {
+                    for (int slot = 0; slot < t.capacity(); slot++) {
+                        if (t.isUsed(slot)) {
+                            writer.write(t, slot);
+                        }
+                    }
+                }
+                channel.force(true);
             }
-            floatProperties.put(key, value);
-            return;
-        } catch (NumberFormatException ignored) {
+            Files.move(temporary, target,
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
         }
+    }
 
-        try {  // Is this a double?
-            double value = Double.parseDouble(val);
-            doubleProperties.put(key, value);
-            return;
-        } catch (NumberFormatException ignored) {
+    /**
+     * Gives the replacement of a file the permissions of the file,
+     * as temporary files are only accessible to their owner.
+     * Nothing is done if the file does not exist yet
+     * or the file system has no POSIX permissions.
+     *
+     * @param target      the file that is replaced
+     * @param replacement the file that replaces it
+     * @throws IOException if the permissions cannot be read or set
+     */
+    private static void keepPermissions(final Path target, final Path replacement) throws IOException {
+        try {
+            Files.setPosixFilePermissions(replacement, Files.getPosixFilePermissions(target));
+        } catch (NoSuchFileException | UnsupportedOperationException ignored) {
+            // The defaults of a new file are kept
+        }
+    }
+
+    /**
+     * Appends the properties of the specified keys to the specified file,
+     * for example the keys returned by {@link BasicProps#reload(String)}.
+     * All values of each key are written, so loading the file afterwards
+     * gives the current values of those keys.
+     * A line break is added first if the file does not end with one.
+     * Unlike {@link BasicProps#save(String)}, appending is not atomic,
+     * and keys that no longer have any value are not written,
+     * because the format cannot express a removed property.
+     *
+     * @param filename the name of the file to append to, created if missing.
+     *                 This can be absolute or relative path.
+     * @param keys     the keys whose properties to write
+     * @throws IOException if the file cannot be written
+     */
+    public void append(final String filename, final Collection<String> keys) throws IOException {
+        PropertyStore t = table;
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.CREATE)) {
+            long end = channel.size();
+            channel.position(end);
+            try (PropsWriter writer = new PropsWriter(channel)) {
+                if (end > 0) {
+                    ByteBuffer last = ByteBuffer.allocate(1);
+                    channel.read(last, end - 1);
+                    if (last.get(0) != '\n') {
+                        writer.newLine();
+                    }
+                }
+                for (String key : keys) {
+                    for (byte type = PropertyType.STRING; type <= PropertyType.DOUBLE; type++) {
+                        int slot = t.find(key, type);
+                        if (slot >= 0) {
+                            writer.write(t, slot);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the current properties into compact storage outside the heap.
+     * Keys and string values are kept as UTF-8 bytes in one direct buffer,
+     * indexed like a snapshot, and string values are decoded when read.
+     * This suits very large properties that are mostly read:
+     * the next change copies them back into a regular table.
+     *
+     * @throws IllegalStateException if the compact storage would exceed 2 GB
+     * @see BasicProps#compact(int)
+     */
+    public void compact() {
+        compact(0);
+    }
+
+    /**
+     * Moves the current properties into compact storage outside the heap,
+     * keeping recently decoded string values in a small cache.
+     *
+     * @param cacheSize the number of decoded string values to cache,
+     *                  or 0 to decode them on every read
+     * @throws IllegalStateException if the compact storage would exceed 2 GB
+     * @see BasicProps#compact()
+     */
+    public void compact(final int cacheSize) {
+        synchronized (writeLock) {
+            PropertyStore t = table;
+            t.classifyAll();
+            table = PropsSnapshot.compact(t, cacheSize);
         }
+    }
 
-        stringProperties.put(key, val);
+    /**
+     * Reads properties from the specified file into the specified table.
+     *
+     * @param filename the name of the file containing properties
+     * @param target   the table to store the properties in
+     * @throws FileNotFoundException if there is no file with the given name
+     */
+    static void read(final String filename, final PropertyTable target)
+            throws FileNotFoundException {
+        Scanner scanner = new Scanner(new File(filename), "utf-8");
+        scanner.useDelimiter(NEW_LINE);
+        LineParser parser = new LineParser();
+        String line;
+        try {
+            do {
+                try {
+                    line = scanner.nextLine();
+                    loadLine(target, parser, line);
+                } catch (NoSuchElementException e) {
+                    break;
+                }
+            } while (true);
+        } finally {
+            scanner.close();
+        }
+    }
 
+    /**
+     * Parses the specified line as a key-value property
+     * and stores it according to the type of its value.
+     *
+     * @param target the table to store the property in
+     * @param parser the {@link LineParser} used to split and classify the line
+     * @param line   the line to parse
+     * @see LineParser#parse(String)
+     */
+    static void loadLine(final PropertyTable target,
+                         final LineParser parser,
+                         final String line) {
+        if (parser.parse(line)) {
+            store(target, parser);
+        }
+    }
+
+    /**
+     * Stores the property last parsed by the specified parser
+     * according to the type of its value.
+     *
+     * @param target the table to store the property in
+     * @param parser the {@link LineParser} holding the classified property
+     */
+    static void store(final PropertyTable target, final LineParser parser) {
+        byte type = parser.type;
+        switch (type) {
+            case PropertyType.INT:
+            case PropertyType.LONG:
+                target.putLong(parser.key, type, parser.longValue);
+                break;
+            case PropertyType.FLOAT:
+            case PropertyType.DOUBLE:
+                target.putDouble(parser.key, type, parser.doubleValue);
+                break;
+            default:
+                target.putString(parser.key, parser.value);
+                break;
+        }
     }
 
     /**
      * Applies the specified operation to each {@link Integer} property.
      * The operation must accept a {@link String} (the key)
      * and an {@link Integer} (the value).
+     * {@link BasicProps#forEachInt(ObjIntConsumer)} does the same
+     * without boxing the values.
      *
      * @param operation the operation to apply
      */
     public void forEachInteger(final BiConsumer<String, Integer> operation) {
-        intProperties.forEach(operation);
+        PropertyStore t = table;
+        for (int slot = 0; slot < t.capacity(); slot++) {
+            if (t.isUsed(slot) && t.type(slot) == PropertyType.INT) {
+                operation.accept(t.key(slot), (int) t.longAt(slot));
+            }
+        }
     }
 
     /**
@@ -324,7 +1111,213 @@ public class BasicProps {
      * @param operation the operation to apply
      */
     public void forEachString(final BiConsumer<String, String> operation) {
-        stringProperties.forEach(operation);
+        PropertyStore t = table;
+        for (int slot = 0; slot < t.capacity(); slot++) {
+            if (t.isUsed(slot) && t.type(slot) == PropertyType.STRING) {
+                operation.accept(t.key(slot), t.stringAt(slot));
+            }
+        }
+    }
+
+    /**
+     * Applies the specified operation to each {@link Integer} property
+     * without boxing its value.
+     *
+     * @param operation the operation to apply to the key and the value
+     */
+    public void forEachInt(final ObjIntConsumer<String> operation) {
+        PropertyStore t = table;
+        for (int slot = 0; slot < t.capacity(); slot++) {
+            if (t.isUsed(slot) && t.type(slot) == PropertyType.INT) {
+                operation.accept(t.key(slot), (int) t.longAt(slot));
+            }
+        }
+    }
+
+    /**
+     * Applies the specified operation to each {@link Long} property
+     * without boxing its value.
+     * Unlike {@link BasicProps#getLong(String)},
+     * this does not include integer properties.
+     *
+     * @param operation the operation to apply to the key and the value
+     */
+    public void forEachLong(final ObjLongConsumer<String> operation) {
+        PropertyStore t = table;
+        for (int slot = 0; slot < t.capacity(); slot++) {
+            if (t.isUsed(slot) && t.type(slot) == PropertyType.LONG) {
+                operation.accept(t.key(slot), t.longAt(slot));
+            }
+        }
+    }
+
+    /**
+     * Applies the specified operation to each {@link Float} property
+     * without boxing its value.
+     *
+     * @param operation the operation to apply to the key and the value
+     */
+    public void forEachFloat(final FloatPropertyConsumer operation) {
+        PropertyStore t = table;
+        for (int slot = 0; slot < t.capacity(); slot++) {
+            if (t.isUsed(slot) && t.type(slot) == PropertyType.FLOAT) {
+                operation.accept(t.key(slot), (float) t.doubleAt(slot));
+            }
+        }
+    }
+
+    /**
+     * Applies the specified operation to each {@link Double} property
+     * without boxing its value.
+     * Unlike {@link BasicProps#getDouble(String)},
+     * this does not include float properties.
+     *
+     * @param operation the operation to apply to the key and the value
+     */
+    public void forEachDouble(final ObjDoubleConsumer<String> operation) {
+        PropertyStore t = table;
+        for (int slot = 0; slot < t.capacity(); slot++) {
+            if (t.isUsed(slot) && t.type(slot) == PropertyType.DOUBLE) {
+                operation.accept(t.key(slot), t.doubleAt(slot));
+            }
+        }
+    }
+
+    /**
+     * Gives a view of the {@link Integer} properties as streams
+     * of primitive values, which can be made parallel.
+     * The properties must not be loaded or cleared while it is used.
+     *
+     * @return the keys and values of the properties
+     */
+    public PropertyStreams.OfInt intProperties() {
+        return new PropertyStreams.OfInt(table);
+    }
+
+    /**
+     * Gives a view of the {@link Long} properties as streams.
+     *
+     * @return the keys and values of the properties
+     * @see BasicProps#intProperties()
+     */
+    public PropertyStreams.OfLong longProperties() {
+        return new PropertyStreams.OfLong(table);
+    }
+
+    /**
+     * Gives a view of the {@link Float} properties as streams.
+     *
+     * @return the keys and values of the properties
+     * @see BasicProps#intProperties()
+     */
+    public PropertyStreams.OfFloat floatProperties() {
+        return new PropertyStreams.OfFloat(table);
+    }
+
+    /**
+     * Gives a view of the {@link Double} properties as streams.
+     *
+     * @return the keys and values of the properties
+     * @see BasicProps#intProperties()
+     */
+    public PropertyStreams.OfDouble doubleProperties() {
+        return new PropertyStreams.OfDouble(table);
+    }
+
+    /**
+     * Gives a view of the {@link String} properties as streams.
+     *
+     * @return the keys and values of the properties
+     * @see BasicProps#intProperties()
+     */
+    public PropertyStreams.OfString stringProperties() {
+        return new PropertyStreams.OfString(table);
+    }
+
+    /**
+     * Gives the slots of the entries of the specified type.
+     *
+     * @param t    the store to search
+     * @param type the {@link PropertyType} to look for
+     * @return the slots in increasing order
+     */
+    private static int[] slotsOf(final PropertyStore t, final byte type) {
+        int count = 0;
+        int[] slots = new int[t.size()];
+        for (int slot = 0; slot < t.capacity(); slot++) {
+            if (t.isUsed(slot) && t.type(slot) == type) {
+                slots[count++] = slot;
+            }
+        }
+        return Arrays.copyOf(slots, count);
+    }
+
+    /**
+     * Copies the {@link Integer} properties into parallel arrays.
+     *
+     * @return a snapshot of the keys and values of the properties
+     */
+    public PropertyArrays.OfInt intArrays() {
+        PropertyStore t = table;
+        int[] slots = slotsOf(t, PropertyType.INT);
+        String[] keys = new String[slots.length];
+        int[] values = new int[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            keys[i] = t.key(slots[i]);
+            values[i] = (int) t.longAt(slots[i]);
+        }
+        return new PropertyArrays.OfInt(keys, values);
+    }
+
+    /**
+     * Copies the {@link Long} properties into parallel arrays.
+     *
+     * @return a snapshot of the keys and values of the properties
+     */
+    public PropertyArrays.OfLong longArrays() {
+        PropertyStore t = table;
+        int[] slots = slotsOf(t, PropertyType.LONG);
+        String[] keys = new String[slots.length];
+        long[] values = new long[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            keys[i] = t.key(slots[i]);
+            values[i] = t.longAt(slots[i]);
+        }
+        return new PropertyArrays.OfLong(keys, values);
+    }
+
+    /**
+     * Copies the {@link Float} properties into parallel arrays.
+     *
+     * @return a snapshot of the keys and values of the properties
+     */
+    public PropertyArrays.OfFloat floatArrays() {
+        PropertyStore t = table;
+        int[] slots = slotsOf(t, PropertyType.FLOAT);
+        String[] keys = new String[slots.length];
+        float[] values = new float[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            keys[i] = t.key(slots[i]);
+            values[i] = (float) t.doubleAt(slots[i]);
+        }
+        return new PropertyArrays.OfFloat(keys, values);
+    }
+
+    /**
+     * Copies the {@link Double} properties into parallel arrays.
+     *
+     * @return a snapshot of the keys and values of the properties
+     */
+    public PropertyArrays.OfDouble doubleArrays() {
+        PropertyStore t = table;
+        int[] slots = slotsOf(t, PropertyType.DOUBLE);
+        String[] keys = new String[slots.length];
+        double[] values = new double[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            keys[i] = t.key(slots[i]);
+            values[i] = t.doubleAt(slots[i]);
+        }
+        return new PropertyArrays.OfDouble(keys, values);
     }
 
 }
@@ -0,0 +1,33 @@
+package util.properties;
+
+import java.io.FileNotFoundException;
+
+/**
+ * Provides reading of ".props" files and parsing of graphical
+ * configuration data that can be shared by many threads.
+ * Changes are published like those of {@link ConcurrentProps}
+ * and every graphical value is read from a single version
+ * of the properties, so it never mixes old and new components.
+ *
+ * @version 1.0
+ */
+public class ConcurrentGraphicsProps extends GraphicsProps {
+
+    /** Default constructor. A file should be loaded immediately. */
+    public ConcurrentGraphicsProps() {
+        super(true);
+    }
+
+    /**
+     * Creates a {@link ConcurrentGraphicsProps} instance and
+     * loads the properties from the specified file.
+     *
+     * @param filename the name of the properties file to load
+     * @throws FileNotFoundException if the specified file is not found
+     */
+    public ConcurrentGraphicsProps(final String filename) throws FileNotFoundException {
+        super(true);
+        load(filename);
+    }
+
+}
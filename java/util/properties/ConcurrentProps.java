@@ -0,0 +1,35 @@
+package util.properties;
+
+import java.io.FileNotFoundException;
+
+/**
+ * Provides reading of ".props" files that can be shared by many threads.
+ * Properties are read without locking from a table that is never changed
+ * once published. Loading and clearing build a new table under a lock
+ * and then publish it at once, so readers always see either all or none
+ * of a change and a load that fails leaves the properties unchanged.
+ * Reads are as fast as those of {@link BasicProps},
+ * while every change copies all properties.
+ *
+ * @version 1.0
+ */
+public class ConcurrentProps extends BasicProps {
+
+    /** Default constructor. A file should be loaded immediately. */
+    public ConcurrentProps() {
+        super(true);
+    }
+
+    /**
+     * Creates a {@link ConcurrentProps} instance and
+     * loads the properties from the specified file.
+     *
+     * @param filename the name of the properties file to load
+     * @throws FileNotFoundException if the specified file is not found
+     */
+    public ConcurrentProps(final String filename) throws FileNotFoundException {
+        super(true);
+        load(filename);
+    }
+
+}
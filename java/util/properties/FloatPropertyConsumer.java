@@ -0,0 +1,20 @@
+package util.properties;
+
+/**
+ * Receives {@link Float} properties without boxing their values.
+ *
+ * @version 1.0
+ * @see BasicProps#forEachFloat(FloatPropertyConsumer)
+ */
+@FunctionalInterface
+public interface FloatPropertyConsumer {
+
+    /**
+     * Called for each float property.
+     *
+     * @param key   the key of the property
+     * @param value the value of the property
+     */
+    void accept(String key, float value);
+
+}
@@ -5,15 +5,22 @@ import java.awt.Point;
 import java.awt.Dimension;
 import java.awt.Font;
 import java.io.FileNotFoundException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Provides reading of ".props" files and
  * parsing of graphical configuration data.
+ * Graphical values are built once per property and cached
+ * until the properties are loaded again or cleared.
  *
- * @version 1.1
+ * @version 1.3
  */
 public class GraphicsProps extends BasicProps {
 
+    /** The graphical values built from the current properties. */
+    private volatile CompositeCache cache;
+
     /**
      * Creates a {@link GraphicsProps} instance and
      * loads the properties from the specified file.
@@ -30,6 +37,32 @@ public class GraphicsProps extends BasicProps {
         super();
     }
 
+    /**
+     * Creates a {@link GraphicsProps} instance without properties.
+     *
+     * @param copyOnWrite whether to publish changes as new tables
+     * @see BasicProps#BasicProps(boolean)
+     */
+    GraphicsProps(final boolean copyOnWrite) {
+        super(copyOnWrite);
+    }
+
+    /**
+     * Gives the cache of the current properties,
+     * replacing it if the properties have changed since it was created.
+     *
+     * @return the cache of graphical values
+     */
+    private CompositeCache cache() {
+        PropertyStore t = table;
+        CompositeCache c = cache;
+        if (c == null || c.table != t || c.changes != t.changeCount()) {
+            c = new CompositeCache(t);
+            cache = c;
+        }
+        return c;
+    }
+
     /**
      * Gets the {@link Color} described by the given property.
      * Specifically, looks for the integer properties that specify
@@ -39,13 +72,21 @@ public class GraphicsProps extends BasicProps {
      * "my color r", "my color g", and "my color b".
      *
      * @param property the property to look for
-     * @return the {@link Color} defined by that property
+     * @return the {@link Color} defined by that property,
+     * the same instance until the properties change
      */
     public Color getColor(final String property) {
-        int red = getInt(property + " r");
-        int green = getInt(property + " g");
-        int blue = getInt(property + " b");
-        return new Color(red, green, blue);
+        CompositeCache c = cache();
+        Color color = c.colors.get(property);
+        if (color == null) {
+            PropertyStore t = c.table;
+            int red = intIn(t, property + " r");
+            int green = intIn(t, property + " g");
+            int blue = intIn(t, property + " b");
+            color = new Color(red, green, blue);
+            c.colors.put(property, color);
+        }
+        return color;
     }
 
     /**
@@ -58,12 +99,19 @@ public class GraphicsProps extends BasicProps {
      * "my location x" and "my location y".
      *
      * @param property the property to look for
-     * @return the {@link Point} defined by that property
+     * @return a new copy of the {@link Point} defined by that property
      */
     public Point getPoint(final String property) {
-        int x = getInt(property + " x");
-        int y = getInt(property + " y");
-        return new Point(x, y);
+        CompositeCache c = cache();
+        Point point = c.points.get(property);
+        if (point == null) {
+            PropertyStore t = c.table;
+            int x = intIn(t, property + " x");
+            int y = intIn(t, property + " y");
+            point = new Point(x, y);
+            c.points.put(property, point);
+        }
+        return new Point(point);
     }
 
     /**
@@ -76,12 +124,19 @@ public class GraphicsProps extends BasicProps {
      * "my dimension width" and "my dimension height".
      *
      * @param property the property to look for
-     * @return the {@link Dimension} defined by that property
+     * @return a new copy of the {@link Dimension} defined by that property
      */
     public Dimension getDimension(final String property) {
-        int w = getInt(property + " width");
-        int h = getInt(property + " height");
-        return new Dimension(w, h);
+        CompositeCache c = cache();
+        Dimension dimension = c.dimensions.get(property);
+        if (dimension == null) {
+            PropertyStore t = c.table;
+            int w = intIn(t, property + " width");
+            int h = intIn(t, property + " height");
+            dimension = new Dimension(w, h);
+            c.dimensions.put(property, dimension);
+        }
+        return new Dimension(dimension);
     }
 
     /**
@@ -94,14 +149,55 @@ public class GraphicsProps extends BasicProps {
      * "my font name", "my font style", and "my font size".
      *
      * @param property the property to look for
-     * @return the {@link Font} defined by that property
+     * @return the {@link Font} defined by that property,
+     * the same instance until the properties change
      * @see Font#Font(String, int, int)
      */
     public Font getFont(final String property) {
-        String name = getString(property + " name");
-        int style = getInt(property + " style");
-        int size = getInt(property + " size");
-        return new Font(name, style, size);
+        CompositeCache c = cache();
+        Font font = c.fonts.get(property);
+        if (font == null) {
+            PropertyStore t = c.table;
+            String name = stringIn(t, property + " name");
+            int style = intIn(t, property + " style");
+            int size = intIn(t, property + " size");
+            font = new Font(name, style, size);
+            c.fonts.put(property, font);
+        }
+        return font;
+    }
+
+    /** The graphical values built from one state of the properties. */
+    private static final class CompositeCache {
+
+        /** The store the values are read from. */
+        private final PropertyStore table;
+
+        /** The {@link PropertyStore#changeCount()} of the store. */
+        private final int changes;
+
+        /** The {@link Color}s by property. */
+        private final Map<String, Color> colors = new ConcurrentHashMap<>();
+
+        /** The {@link Point}s by property, which are copied when read. */
+        private final Map<String, Point> points = new ConcurrentHashMap<>();
+
+        /** The {@link Dimension}s by property, which are copied when read. */
+        private final Map<String, Dimension> dimensions = new ConcurrentHashMap<>();
+
+        /** The {@link Font}s by property. */
+        private final Map<String, Font> fonts = new ConcurrentHashMap<>();
+
+        /**
+         * Creates an empty cache of the specified store.
+         *
+         * @param table the store the values are read from
+         */
+        CompositeCache(final PropertyStore table) {
+            this.table = table;
+            changes = table.changeCount();
+        }
+
     }
 
 }
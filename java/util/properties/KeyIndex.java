@@ -0,0 +1,115 @@
+package util.properties;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The distinct keys of a {@link PropertyStore} in sorted order,
+ * so that all keys with a common prefix are found
+ * with a binary search instead of a scan of the whole store.
+ * An index is valid while the version of its store is the same.
+ *
+ * @version 1.0
+ */
+final class KeyIndex {
+
+    /** The store whose keys are indexed. */
+    private final PropertyStore table;
+
+    /** The version of the store when it was indexed. */
+    private final int version;
+
+    /** The sorted distinct keys. */
+    private final List<String> keys;
+
+    /**
+     * Indexes the keys of the specified store.
+     *
+     * @param table the store to index
+     */
+    KeyIndex(final PropertyStore table) {
+        this.table = table;
+        version = table.version();
+
+        String[] all = new String[table.size()];
+        int count = 0;
+        for (int slot = 0; slot < table.capacity(); slot++) {
+            if (table.isUsed(slot)) {
+                all[count++] = table.key(slot);
+            }
+        }
+        Arrays.sort(all, 0, count);
+
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || !all[i].equals(all[distinct - 1])) {
+                all[distinct++] = all[i];
+            }
+        }
+        keys = Collections.unmodifiableList(Arrays.asList(all).subList(0, distinct));
+    }
+
+    /**
+     * Checks if this index still describes the specified store.
+     *
+     * @param current the store to check
+     * @return true if the store is the indexed one and did not change
+     */
+    boolean isValidFor(final PropertyStore current) {
+        return current == table && current.version() == version;
+    }
+
+    /**
+     * Gives all indexed keys.
+     *
+     * @return the sorted keys, cannot be modified
+     */
+    List<String> keys() {
+        return keys;
+    }
+
+    /**
+     * Gives the keys that start with the specified prefix.
+     * They follow each other in sorted order, so both ends of their range
+     * are found with a binary search.
+     *
+     * @param prefix the beginning of the keys
+     * @return a sorted view of the keys, cannot be modified
+     */
+    List<String> withPrefix(final String prefix) {
+        int from = lowerBound(prefix);
+        int low = from;
+        int high = keys.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys.get(middle).startsWith(prefix)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return keys.subList(from, low);
+    }
+
+    /**
+     * Finds the first key that is not less than the specified key.
+     *
+     * @param key the key to look for
+     * @return the index of the first key not less than it
+     */
+    private int lowerBound(final String key) {
+        int low = 0;
+        int high = keys.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys.get(middle).compareTo(key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+}
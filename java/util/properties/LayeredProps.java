@@ -0,0 +1,322 @@
+package util.properties;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Provides properties stacked from several {@link BasicProps} layers,
+ * such as default, environment and host specific properties.
+ * A key is defined by the topmost layer that has any value for it,
+ * which then supplies all values of the key.
+ * The layers are flattened into a single table, so a read costs
+ * one lookup no matter how many layers there are.
+ * When a layer changes, only its keys are resolved again and
+ * the new table is published at once, so readers never lock.
+ * Layers that are {@link ReloadingProps} are followed automatically,
+ * other layers must be refreshed after they are loaded or cleared.
+ *
+ * @version 1.4
+ */
+public class LayeredProps extends BasicProps {
+
+    /** The layers, from the lowest to the highest priority. */
+    private final List<BasicProps> layers = new CopyOnWriteArrayList<>();
+
+    /** The layer that defines each key. */
+    private final Map<String, BasicProps> sources = new ConcurrentHashMap<>();
+
+    /** Resolves the keys changed by reloading layers. */
+    private final PropsListener listener = this::layerChanged;
+
+    /**
+     * Creates a {@link LayeredProps} instance of the specified layers.
+     *
+     * @param layers the layers, from the lowest to the highest priority
+     */
+    public LayeredProps(final BasicProps... layers) {
+        super();
+        for (BasicProps layer : layers) {
+            addLayer(layer);
+        }
+    }
+
+    /**
+     * Creates a {@link LayeredProps} instance with one layer per file.
+     * A file that does not exist is skipped,
+     * so optional overrides can be listed as well.
+     *
+     * @param filenames the names of the properties files,
+     *                  from the lowest to the highest priority
+     * @return the layered properties of the existing files
+     * @throws FileNotFoundException if none of the files exist
+     */
+    public static LayeredProps ofFiles(final String... filenames)
+            throws FileNotFoundException {
+        LayeredProps props = new LayeredProps();
+        FileNotFoundException missing = null;
+        for (String filename : filenames) {
+            try {
+                props.addLayer(new BasicProps(filename));
+            } catch (FileNotFoundException e) {
+                missing = e;
+            }
+        }
+        if (props.layers.isEmpty() && missing != null) {
+            throw missing;
+        }
+        return props;
+    }
+
+    /**
+     * Gives the layers of these properties.
+     *
+     * @return an unmodifiable list of the layers,
+     * from the lowest to the highest priority
+     */
+    public List<BasicProps> getLayers() {
+        return Collections.unmodifiableList(layers);
+    }
+
+    /**
+     * Gives the layer that defines the specified key.
+     *
+     * @param key the key to look for
+     * @return the topmost layer with a value of the key,
+     * or null if no layer has one
+     */
+    public BasicProps sourceOf(final String key) {
+        return sources.get(key);
+    }
+
+    /**
+     * Adds a layer above all current layers.
+     *
+     * @param layer the layer to add
+     */
+    public synchronized void addLayer(final BasicProps layer) {
+        layers.add(layer);
+        if (layer instanceof ReloadingProps) {
+            ((ReloadingProps) layer).addListener(listener);
+        }
+        update(keysOf(layer));
+    }
+
+    /**
+     * Removes the specified layer.
+     * The keys it defined are taken from the layers below it.
+     *
+     * @param layer the layer to remove
+     * @return true if it was a layer of these properties
+     */
+    public synchronized boolean removeLayer(final BasicProps layer) {
+        if (!layers.remove(layer)) {
+            return false;
+        }
+
+        if (layer instanceof ReloadingProps) {
+            ((ReloadingProps) layer).removeListener(listener);
+        }
+        update(suppliedBy(layer));
+        return true;
+    }
+
+    /**
+     * Resolves the keys of the specified layer again
+     * after it was loaded or cleared.
+     *
+     * @param layer the layer that changed
+     */
+    public synchronized void refresh(final BasicProps layer) {
+        if (!layers.contains(layer)) {
+            return;
+        }
+
+        Set<String> keys = suppliedBy(layer);
+        keys.addAll(keysOf(layer));
+        update(keys);
+    }
+
+    /** Flattens all layers again. */
+    public synchronized void refresh() {
+        Set<String> keys = new HashSet<>(sources.keySet());
+        for (BasicProps layer : layers) {
+            keys.addAll(keysOf(layer));
+        }
+        update(keys);
+    }
+
+    /**
+     * Resolves the keys that changed in a reloaded layer.
+     *
+     * @param layer the layer that changed
+     * @param keys  the keys that changed
+     */
+    private synchronized void layerChanged(final BasicProps layer, final Set<String> keys) {
+        if (layers.contains(layer)) {
+            update(keys);
+        }
+    }
+
+    /**
+     * Gives the keys of the specified layer.
+     *
+     * @param layer the layer to read
+     * @return the keys of all entries of the layer
+     */
+    private static Set<String> keysOf(final BasicProps layer) {
+        PropertyStore t = layer.table;
+        Set<String> keys = new HashSet<>();
+        for (int slot = 0; slot < t.capacity(); slot++) {
+            if (t.isUsed(slot)) {
+                keys.add(t.key(slot));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Gives the keys currently defined by the specified layer.
+     *
+     * @param layer the layer to look for
+     * @return a new set of the keys whose source is the layer
+     */
+    private Set<String> suppliedBy(final BasicProps layer) {
+        Set<String> keys = new HashSet<>();
+        for (Map.Entry<String, BasicProps> entry : sources.entrySet()) {
+            if (entry.getValue() == layer) {
+                keys.add(entry.getKey());
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Resolves the specified keys from the topmost layer defining them
+     * in a copy of the flattened table, which is then published.
+     *
+     * @param keys the keys to resolve
+     */
+    private void update(final Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        List<BasicProps> stack = new ArrayList<>(layers);
+        PropertyTable next = new PropertyTable((PropertyTable) table);
+        for (String key : keys) {
+            next.remove(key);
+            BasicProps source = null;
+            for (int i = stack.size() - 1; i >= 0 && source == null; i--) {
+                if (next.putKey(key, stack.get(i).table)) {
+                    source = stack.get(i);
+                }
+            }
+
+            if (source == null) {
+                sources.remove(key);
+            } else {
+                sources.put(key, source);
+            }
+        }
+        table = next;
+    }
+
+    /**
+     * The properties of a {@link LayeredProps} are defined by its layers.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("Cannot clear layered properties");
+    }
+
+    /**
+     * The properties of a {@link LayeredProps} are defined by its layers.
+     *
+     * @param filename ignored
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void load(final String filename) {
+        throw new UnsupportedOperationException("Cannot load into layered properties");
+    }
+
+    /**
+     * The properties of a {@link LayeredProps} are defined by its layers.
+     *
+     * @param filename ignored
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void loadParallel(final String filename) {
+        throw new UnsupportedOperationException("Cannot load into layered properties");
+    }
+
+    /**
+     * The properties of a {@link LayeredProps} are defined by its layers.
+     *
+     * @param filename ignored
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void loadLazy(final String filename) {
+        throw new UnsupportedOperationException("Cannot load into layered properties");
+    }
+
+    /**
+     * The properties of a {@link LayeredProps} are defined by its layers.
+     *
+     * @return never returns
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public PropsFeed feed() {
+        throw new UnsupportedOperationException("Cannot load into layered properties");
+    }
+
+    /**
+     * The properties of a {@link LayeredProps} are defined by its layers.
+     *
+     * @param filename ignored
+     * @return never returns
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public Set<String> reload(final String filename) {
+        throw new UnsupportedOperationException("Cannot load into layered properties");
+    }
+
+    /**
+     * The properties of a {@link LayeredProps} are defined by its layers.
+     *
+     * @param filename ignored
+     * @return never returns
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean loadSnapshot(final String filename) {
+        throw new UnsupportedOperationException("Cannot load into layered properties");
+    }
+
+    /**
+     * The table of a {@link LayeredProps} is resolved from its layers,
+     * which can be compacted instead.
+     *
+     * @param cacheSize ignored
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void compact(final int cacheSize) {
+        throw new UnsupportedOperationException("Cannot compact layered properties");
+    }
+
+}
@@ -0,0 +1,127 @@
+package util.properties;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Loads ".props" files without classifying their values.
+ * The file is decoded into a single {@link String} and every entry
+ * only records its key and the range of its value in that text.
+ * Values are classified and parsed the first time they are read,
+ * so keys that are never read cost no parsing and no value objects.
+ * A key defined again is classified right away, so that it ends up
+ * with the same entries as after an eager load.
+ * Lines are split like {@link java.util.Scanner#nextLine()} splits them.
+ *
+ * @version 1.1
+ */
+final class LazyLoader {
+
+    /** Hides the constructor for this utility class. */
+    private LazyLoader() {
+    }
+
+    /**
+     * Reads properties from the specified file into the specified table.
+     *
+     * @param filename the name of the file containing properties
+     * @param target   the table to store the properties in
+     * @throws FileNotFoundException if there is no file with the given name
+     * @throws IOException           if the file cannot be read
+     */
+    static void read(final String filename, final PropertyTable target) throws IOException {
+        String text = readText(filename);
+        LineParser parser = new LineParser();
+        forEachLine(text, (start, end) -> store(text, start, end, parser, target));
+    }
+
+    /**
+     * Reads the specified UTF-8 encoded file into a single {@link String}.
+     *
+     * @param filename the name of the file to read
+     * @return the text of the file
+     * @throws FileNotFoundException if there is no file with the given name
+     * @throws IOException           if the file cannot be read
+     */
+    static String readText(final String filename) throws IOException {
+        try (InputStream in = new FileInputStream(filename)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Splits the specified text into lines like
+     * {@link java.util.Scanner#nextLine()} and passes on the range of each.
+     *
+     * @param text     the text to split
+     * @param consumer receives the index at which each line starts
+     *                 and the index after its last character
+     */
+    static void forEachLine(final String text, final LineConsumer consumer) {
+        int length = text.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (isLineSeparator(c)) {
+                consumer.accept(start, i);
+                if (c == '\r' && i + 1 < length && text.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                start = i + 1;
+            }
+        }
+        consumer.accept(start, length);
+    }
+
+    /** Receives the ranges of the lines of a text. */
+    @FunctionalInterface
+    interface LineConsumer {
+
+        /**
+         * Processes one line.
+         *
+         * @param start the index at which the line starts
+         * @param end   the index after the last character of the line
+         */
+        void accept(int start, int end);
+
+    }
+
+    /**
+     * Checks if the specified character ends a line.
+     *
+     * @param c the character to check
+     * @return true for '\n', '\r', U+0085, U+2028 and U+2029
+     */
+    private static boolean isLineSeparator(final char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    /**
+     * Stores the property in the line between the specified indices.
+     *
+     * @param text   the text of the file
+     * @param start  the index at which the line starts
+     * @param end    the index after the last character of the line
+     * @param parser the parser to use
+     * @param target the table to store the property in
+     */
+    private static void store(final String text,
+                              final int start,
+                              final int end,
+                              final LineParser parser,
+                              final PropertyTable target) {
+        if (!parser.split(text, start, end)) {
+            return;
+        }
+
+        if (!target.putRaw(parser.key, text, parser.valueStart, parser.valueEnd)) {
+            parser.classify(text.substring(parser.valueStart, parser.valueEnd));
+            BasicProps.store(target, parser);
+        }
+    }
+
+}
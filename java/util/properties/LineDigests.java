@@ -0,0 +1,209 @@
+package util.properties;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Remembers a 64-bit hash and the key of every property line
+ * of a loaded ".props" file, so that loading a new version of the file
+ * only has to parse the lines of the keys that were edited.
+ * The lines of both versions are matched from the beginning and
+ * from the end, which only reads the arrays in order.
+ * The keys of the lines in between were edited, and all their lines
+ * are parsed again, since a key may be defined by several lines.
+ * All other keys have the same lines in the same order in both versions,
+ * so their values cannot have changed.
+ * Edits spread across the file make the block in between larger,
+ * up to parsing the whole file again.
+ * Comments and empty lines are left out, so editing them changes nothing.
+ *
+ * @version 1.0
+ * @see BasicProps#reload(String)
+ */
+final class LineDigests {
+
+    /** The offset basis of the FNV-1a hash. */
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+
+    /** The prime of the FNV-1a hash. */
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /** The initial capacity of the arrays. */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** The file the lines were read from. */
+    private final String filename;
+
+    /** The text of the file, released once it is loaded. */
+    private String text;
+
+    /** The hash of each property line, in the order of the file. */
+    private long[] hashes = new long[INITIAL_CAPACITY];
+
+    /** The key of each property line, shared with the table. */
+    private String[] keys;
+
+    /** The index at which each property line starts. */
+    private int[] starts = new int[INITIAL_CAPACITY];
+
+    /** The index after the last character of each property line. */
+    private int[] ends = new int[INITIAL_CAPACITY];
+
+    /** The number of property lines. */
+    private int lines;
+
+    /** The table the lines were loaded into. */
+    private PropertyStore table;
+
+    /** The number of changes of that table when the lines were loaded. */
+    private int changeCount;
+
+    /**
+     * Splits the lines of the specified file and hashes them.
+     *
+     * @param filename the file the text was read from
+     * @param text     the text of the file
+     * @throws ArrayIndexOutOfBoundsException if a line has no value
+     */
+    LineDigests(final String filename, final String text) {
+        this.filename = filename;
+        this.text = text;
+        LineParser parser = new LineParser();
+        LazyLoader.forEachLine(text, (start, end) -> {
+            if (parser.locate(text, start, end)) {
+                addLine(start, end);
+            }
+        });
+        keys = new String[lines];
+    }
+
+    /**
+     * Records a property line and its hash.
+     *
+     * @param start the index at which the line starts
+     * @param end   the index after the last character of the line
+     */
+    private void addLine(final int start, final int end) {
+        if (lines == starts.length) {
+            hashes = Arrays.copyOf(hashes, lines * 2);
+            starts = Arrays.copyOf(starts, lines * 2);
+            ends = Arrays.copyOf(ends, lines * 2);
+        }
+
+        long h = FNV_OFFSET;
+        for (int i = start; i < end; i++) {
+            h = (h ^ text.charAt(i)) * FNV_PRIME;
+        }
+        hashes[lines] = h;
+        starts[lines] = start;
+        ends[lines] = end;
+        lines++;
+    }
+
+    /**
+     * Parses all lines and stores them.
+     *
+     * @param target the table to store the properties in
+     */
+    void loadAll(final PropertyTable target) {
+        LineParser parser = new LineParser();
+        for (int i = 0; i < lines; i++) {
+            parser.split(text, starts[i], ends[i]);
+            keys[i] = parser.key;
+            store(parser, target);
+        }
+    }
+
+    /**
+     * Finds the keys whose lines differ from those of the previous version
+     * of the file. The keys of all lines are known afterwards.
+     *
+     * @param previous the lines of the previous version
+     * @return the keys that may have changed
+     */
+    Set<String> editedKeys(final LineDigests previous) {
+        int shift = previous.lines - lines;
+        int head = 0;
+        while (head < lines && head < previous.lines && hashes[head] == previous.hashes[head]) {
+            keys[head] = previous.keys[head];
+            head++;
+        }
+        int tail = lines;
+        while (tail > head && tail + shift > head && hashes[tail - 1] == previous.hashes[tail - 1 + shift]) {
+            tail--;
+            keys[tail] = previous.keys[tail + shift];
+        }
+
+        Set<String> edited = new HashSet<>();
+        LineParser parser = new LineParser();
+        for (int i = head; i < tail; i++) {
+            parser.split(text, starts[i], ends[i]);
+            keys[i] = parser.key;
+            edited.add(parser.key);
+        }
+        for (int i = head; i < tail + shift; i++) {
+            edited.add(previous.keys[i]);
+        }
+        return edited;
+    }
+
+    /**
+     * Parses the lines of the specified keys and stores them.
+     * The keys must have been found by {@link #editedKeys(LineDigests)}.
+     *
+     * @param target the table to store the properties in
+     * @param only   the keys whose lines to load
+     */
+    void load(final PropertyTable target, final Set<String> only) {
+        LineParser parser = new LineParser();
+        for (int i = 0; i < lines; i++) {
+            if (only.contains(keys[i])) {
+                parser.locate(text, starts[i], ends[i]);
+                parser.key = keys[i];
+                store(parser, target);
+            }
+        }
+    }
+
+    /**
+     * Classifies the value of the located line and stores it.
+     *
+     * @param parser the parser holding the line
+     * @param target the table to store the property in
+     */
+    private void store(final LineParser parser, final PropertyTable target) {
+        parser.classify(text.substring(parser.valueStart, parser.valueEnd));
+        BasicProps.store(target, parser);
+    }
+
+    /**
+     * Records the table the file was loaded into
+     * and releases the text and line ranges, which are no longer needed.
+     *
+     * @param loaded the table holding the properties of the file
+     */
+    void loadedInto(final PropertyStore loaded) {
+        table = loaded;
+        changeCount = loaded.changeCount();
+        hashes = Arrays.copyOf(hashes, lines);
+        text = null;
+        starts = null;
+        ends = null;
+    }
+
+    /**
+     * Checks if the specified table still holds exactly
+     * the properties loaded from the specified file.
+     *
+     * @param file    the file to load again
+     * @param current the current table
+     * @return true if only the edited lines of the file need to be loaded
+     */
+    boolean isCurrent(final String file, final PropertyStore current) {
+        return filename.equals(file)
+                && current == table
+                && current.changeCount() == changeCount;
+    }
+
+}
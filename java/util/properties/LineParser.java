@@ -0,0 +1,413 @@
+package util.properties;
+
+/**
+ * Parses lines of ".props" files in a single pass.
+ * A line is split into a key and a value and the value is classified
+ * with the same rules as trying {@link Integer#parseInt(String)},
+ * {@link Long#parseLong(String)}, {@link Float#parseFloat(String)}
+ * (rejecting infinite results) and {@link Double#parseDouble(String)}
+ * in this order, but without throwing and catching
+ * {@link NumberFormatException}s.
+ * The result of the last parsed line is kept in the fields of the parser,
+ * so a single instance can be reused for all lines of a file.
+ *
+ * @version 1.2
+ */
+final class LineParser {
+
+    /** The symbol used to separate keys from values in the properties file. */
+    static final char KEY_VALUE_SEPARATOR = '=';
+
+    /** The symbol that indicates a comment in the properties file. */
+    static final char COMMENT_SYMBOL = '#';
+
+    /** The radix of integral values. */
+    private static final int RADIX = 10;
+
+    /** The representation of "not a number" accepted by the float parser. */
+    private static final String NAN = "NaN";
+
+    /** The representation of infinity accepted by the float parser. */
+    private static final String INFINITY = "Infinity";
+
+    /** The key of the last parsed line. */
+    String key;
+
+    /** The raw value of the last parsed line. */
+    String value;
+
+    /** The index at which the value of the last split line starts. */
+    int valueStart;
+
+    /** The index after the last character of the value of the last split line. */
+    int valueEnd;
+
+    /**
+     * The {@link PropertyType} of the last parsed value.
+     *
+     * @see PropertyType
+     */
+    byte type;
+
+    /** The last parsed value if it is an integer or a long. */
+    long longValue;
+
+    /**
+     * The last parsed value if it is a float or a double.
+     * Floats are stored widened to double.
+     */
+    double doubleValue;
+
+    /**
+     * Parses the specified line as a key-value property.
+     * The line should contain two Strings separated by the
+     * {@link LineParser#KEY_VALUE_SEPARATOR}.
+     * If the separator appears multiple times in the line,
+     * the string before the first separator will be used as key
+     * and the string between the first and second separator - as value.
+     * Empty lines and lines starting with the
+     * {@link LineParser#COMMENT_SYMBOL} are skipped.
+     *
+     * @param line the line to parse
+     * @return true if a property was parsed, false if the line was skipped
+     * @throws ArrayIndexOutOfBoundsException if the line has no value,
+     *                                        as {@link String#split(String)}
+     *                                        would leave it out
+     */
+    boolean parse(final String line) {
+        if (!split(line, 0, line.length())) {
+            return false;
+        }
+
+        classify(line.substring(valueStart, valueEnd));
+        return true;
+    }
+
+    /**
+     * Splits the line between the specified indices of the text
+     * into its key and the range of its value, without classifying it.
+     * Lines are split like in {@link LineParser#parse(String)}.
+     *
+     * @param text  the text containing the line
+     * @param start the index at which the line starts
+     * @param end   the index after the last character of the line
+     * @return true if a property was split, false if the line was skipped
+     * @throws ArrayIndexOutOfBoundsException if the line has no value
+     */
+    boolean split(final String text, final int start, final int end) {
+        if (!locate(text, start, end)) {
+            return false;
+        }
+
+        key = text.substring(start, valueStart - 1);
+        return true;
+    }
+
+    /**
+     * Finds the range of the value of the line between the specified indices
+     * of the text without creating its key,
+     * which ends right before {@link LineParser#valueStart}.
+     * Lines are checked like in {@link LineParser#parse(String)}.
+     *
+     * @param text  the text containing the line
+     * @param start the index at which the line starts
+     * @param end   the index after the last character of the line
+     * @return true if the line holds a property, false if it is skipped
+     * @throws ArrayIndexOutOfBoundsException if the line has no value
+     */
+    boolean locate(final String text, final int start, final int end) {
+        if (start == end || text.charAt(start) == COMMENT_SYMBOL) {
+            return false;
+        }
+
+        int separator = indexOfSeparator(text, start, end);
+        int stop = separator < 0 ? -1 : indexOfSeparator(text, separator + 1, end);
+        if (stop < 0) {
+            stop = end;
+        }
+        if (separator < 0 || !hasValue(text, separator + 1, stop, end)) {
+            String message = "No value in line \"" + text.substring(start, end) + "\"";
+            throw new ArrayIndexOutOfBoundsException(message);
+        }
+
+        valueStart = separator + 1;
+        valueEnd = stop;
+        return true;
+    }
+
+    /**
+     * Finds the first {@link LineParser#KEY_VALUE_SEPARATOR}
+     * between the specified indices.
+     *
+     * @param text  the text to search
+     * @param start the index to start at
+     * @param end   the index to stop before
+     * @return the index of the separator, or -1 if there is none
+     */
+    private static int indexOfSeparator(final String text, final int start, final int end) {
+        int i = text.indexOf(KEY_VALUE_SEPARATOR, start);
+        return i < end ? i : -1;
+    }
+
+    /**
+     * Checks if {@link String#split(String)} would produce a value
+     * for a line whose value spans the specified range.
+     * An empty value is only kept if something other than separators
+     * follows it, because trailing empty strings are removed.
+     *
+     * @param line    the text containing the line being parsed
+     * @param start   the index at which the value starts
+     * @param end     the index at which the value ends
+     * @param lineEnd the index at which the line ends
+     * @return true if the line has a value
+     */
+    private static boolean hasValue(final String line,
+                                    final int start,
+                                    final int end,
+                                    final int lineEnd) {
+        if (start < end) {
+            return true;
+        }
+
+        for (int i = end; i < lineEnd; i++) {
+            if (line.charAt(i) != KEY_VALUE_SEPARATOR) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Classifies the specified value and stores its type and parsed value.
+     *
+     * @param raw the value to classify
+     */
+    void classify(final String raw) {
+        value = raw;
+        if (parseIntegral(raw)) {
+            boolean isInt = longValue >= Integer.MIN_VALUE && longValue <= Integer.MAX_VALUE;
+            type = isInt ? PropertyType.INT : PropertyType.LONG;
+            return;
+        }
+
+        if (isFloatingPoint(raw)) {
+            float f = Float.parseFloat(raw);
+            if (Float.isInfinite(f)) {
+                type = PropertyType.DOUBLE;
+                doubleValue = Double.parseDouble(raw);
+            } else {
+                type = PropertyType.FLOAT;
+                doubleValue = f;
+            }
+            return;
+        }
+
+        type = PropertyType.STRING;
+    }
+
+    /**
+     * Parses the specified value as a decimal long
+     * in the same way as {@link Long#parseLong(String)}.
+     * On success the result is stored in {@link LineParser#longValue}.
+     *
+     * @param s the value to parse
+     * @return true if the value is a long
+     */
+    private boolean parseIntegral(final String s) {
+        int length = s.length();
+        if (length == 0) {
+            return false;
+        }
+
+        int i = 0;
+        boolean negative = false;
+        long limit = -Long.MAX_VALUE;
+        char first = s.charAt(0);
+        if (first < '0') {
+            if (first == '-') {
+                negative = true;
+                limit = Long.MIN_VALUE;
+            } else if (first != '+') {
+                return false;
+            }
+            if (length == 1) {
+                return false;
+            }
+            i++;
+        }
+
+        // Accumulate negatively to reach Long.MIN_VALUE without overflow
+        long multiplyMin = limit / RADIX;
+        long result = 0;
+        while (i < length) {
+            int digit = Character.digit(s.charAt(i++), RADIX);
+            if (digit < 0 || result < multiplyMin) {
+                return false;
+            }
+            result *= RADIX;
+            if (result < limit + digit) {
+                return false;
+            }
+            result -= digit;
+        }
+
+        longValue = negative ? result : -result;
+        return true;
+    }
+
+    /**
+     * Checks if the specified value would be accepted by
+     * {@link Float#parseFloat(String)} and {@link Double#parseDouble(String)}.
+     * That is, a decimal or hexadecimal floating-point literal,
+     * "NaN" or "Infinity", optionally signed and surrounded by whitespace.
+     *
+     * @param s the value to check
+     * @return true if the value is a floating-point number
+     */
+    private static boolean isFloatingPoint(final String s) {
+        int start = 0;
+        int end = s.length();
+        while (start < end && s.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && s.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        int i = start;
+        if (i < end && (s.charAt(i) == '+' || s.charAt(i) == '-')) {
+            i++;
+        }
+        if (i == end) {
+            return false;
+        }
+
+        char c = s.charAt(i);
+        if (c == 'N') {
+            return s.startsWith(NAN, i) && i + NAN.length() == end;
+        }
+        if (c == 'I') {
+            return s.startsWith(INFINITY, i) && i + INFINITY.length() == end;
+        }
+        if (c == '0' && i + 1 < end) {
+            char x = s.charAt(i + 1);
+            if (x == 'x' || x == 'X') {
+                return isHexFloatingPoint(s, i + 2, end);
+            }
+        }
+
+        boolean pointSeen = false;
+        boolean digitSeen = false;
+        for (; i < end; i++) {
+            c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digitSeen = true;
+            } else if (c == '.' && !pointSeen) {
+                pointSeen = true;
+            } else {
+                break;
+            }
+        }
+        if (!digitSeen) {
+            return false;
+        }
+
+        if (i < end && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+            i = skipExponent(s, i + 1, end);
+            if (i < 0) {
+                return false;
+            }
+        }
+        return isSuffixEnd(s, i, end);
+    }
+
+    /**
+     * Checks if the specified range is the part of a hexadecimal
+     * floating-point literal that follows "0x".
+     *
+     * @param s     the value to check
+     * @param start the index after "0x"
+     * @param end   the end of the trimmed value
+     * @return true if the range is a valid hexadecimal significand
+     * followed by a binary exponent
+     */
+    private static boolean isHexFloatingPoint(final String s, final int start, final int end) {
+        int i = start;
+        while (i < end && isHexDigit(s.charAt(i))) {
+            i++;
+        }
+        int digits = i - start;
+        if (i < end && s.charAt(i) == '.') {
+            int fraction = ++i;
+            while (i < end && isHexDigit(s.charAt(i))) {
+                i++;
+            }
+            digits += i - fraction;
+        }
+        if (digits == 0 || i == end) {
+            return false;
+        }
+
+        char p = s.charAt(i);
+        if (p != 'p' && p != 'P') {
+            return false;
+        }
+        i = skipExponent(s, i + 1, end);
+        return i >= 0 && isSuffixEnd(s, i, end);
+    }
+
+    /**
+     * Skips an optionally signed exponent made of decimal digits.
+     *
+     * @param s     the value being checked
+     * @param start the index after the exponent indicator
+     * @param end   the end of the trimmed value
+     * @return the index after the exponent,
+     * or -1 if there are no exponent digits
+     */
+    private static int skipExponent(final String s, final int start, final int end) {
+        int i = start;
+        if (i < end && (s.charAt(i) == '+' || s.charAt(i) == '-')) {
+            i++;
+        }
+        int digits = i;
+        while (i < end && s.charAt(i) >= '0' && s.charAt(i) <= '9') {
+            i++;
+        }
+        return i == digits ? -1 : i;
+    }
+
+    /**
+     * Checks if the specified index is the end of the value or
+     * the position of a single trailing 'f', 'F', 'd' or 'D' suffix.
+     *
+     * @param s   the value being checked
+     * @param i   the index after the number
+     * @param end the end of the trimmed value
+     * @return true if nothing but an optional suffix follows the number
+     */
+    private static boolean isSuffixEnd(final String s, final int i, final int end) {
+        if (i == end) {
+            return true;
+        }
+        if (i != end - 1) {
+            return false;
+        }
+
+        char c = s.charAt(i);
+        return c == 'f' || c == 'F' || c == 'd' || c == 'D';
+    }
+
+    /**
+     * Checks if the specified character is an ASCII hexadecimal digit.
+     *
+     * @param c the character to check
+     * @return true if the character is in [0-9a-fA-F]
+     */
+    private static boolean isHexDigit(final char c) {
+        return (c >= '0' && c <= '9')
+                || (c >= 'a' && c <= 'f')
+                || (c >= 'A' && c <= 'F');
+    }
+
+}
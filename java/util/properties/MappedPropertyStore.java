@@ -0,0 +1,322 @@
+package util.properties;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads properties directly from a memory-mapped snapshot
+ * written by {@link PropsSnapshot}.
+ * Keys are found through the perfect-hash index of the snapshot,
+ * so a lookup reads one displacement, one index slot and one key
+ * and no values are parsed or copied to the heap until they are read.
+ * Slots are the indices of the entries in the snapshot.
+ * The snapshot can also be held in a direct buffer to store properties
+ * compactly outside the heap, optionally with a small cache of
+ * the most recently decoded string values.
+ *
+ * @version 1.3
+ */
+final class MappedPropertyStore extends PropertyStore {
+
+    /** The mapped snapshot. */
+    private final ByteBuffer buffer;
+
+    /** The number of entries in the snapshot. */
+    private final int entryCount;
+
+    /** The number of slots in the perfect-hash index. */
+    private final int slotCount;
+
+    /** The number of buckets of the perfect-hash index. */
+    private final int bucketCount;
+
+    /** The offset of the bucket displacements. */
+    private final int displacements;
+
+    /** The offset of the index slots. */
+    private final int slots;
+
+    /** The offset of the entries. */
+    private final int entries;
+
+    /** The recently decoded string values, or null if they are not cached. */
+    private final DecodedString[] cache;
+
+    /**
+     * Reads the header of the specified snapshot.
+     * The header must have been validated by {@link PropsSnapshot}.
+     *
+     * @param buffer the mapped snapshot
+     */
+    MappedPropertyStore(final ByteBuffer buffer) {
+        this(buffer, 0);
+    }
+
+    /**
+     * Reads the header of the specified snapshot
+     * and caches up to the specified number of decoded string values.
+     * The header must have been validated by {@link PropsSnapshot}.
+     *
+     * @param buffer    the snapshot
+     * @param cacheSize the number of decoded string values to keep,
+     *                  rounded up to a power of two, or 0 to keep none
+     */
+    MappedPropertyStore(final ByteBuffer buffer, final int cacheSize) {
+        this.buffer = buffer;
+        cache = cacheSize > 0 ? new DecodedString[cacheCapacity(cacheSize)] : null;
+        entryCount = buffer.getInt(PropsSnapshot.ENTRY_COUNT);
+        slotCount = buffer.getInt(PropsSnapshot.SLOT_COUNT);
+        bucketCount = buffer.getInt(PropsSnapshot.BUCKET_COUNT);
+        displacements = PropsSnapshot.HEADER_SIZE;
+        slots = displacements + bucketCount * Integer.BYTES;
+        entries = slots + slotCount * Integer.BYTES;
+    }
+
+    @Override
+    int size() {
+        return entryCount;
+    }
+
+    @Override
+    int capacity() {
+        return entryCount;
+    }
+
+    @Override
+    int version() {
+        return 0;
+    }
+
+    @Override
+    int changeCount() {
+        return 0;
+    }
+
+    @Override
+    boolean isUsed(final int slot) {
+        return true;
+    }
+
+    @Override
+    int find(final String key, final byte type) {
+        return find(key, type, type);
+    }
+
+    @Override
+    int find(final String key, final byte type, final byte fallback) {
+        return findFrom(firstEntry(key), type, fallback);
+    }
+
+    @Override
+    int find(final String prefix, final String name, final byte type, final byte fallback) {
+        long hash = PropsSnapshot.hash(prefix, name);
+        int entry = entryAt(hash);
+        if (entry >= 0 && !keyEquals(entry, prefix, name)) {
+            entry = -1;
+        }
+        return findFrom(entry, type, fallback);
+    }
+
+    /**
+     * Finds the entry of the specified type or the fallback type
+     * among the entries of a key.
+     *
+     * @param first    the first entry of the key, or -1 if it has none
+     * @param type     the preferred {@link PropertyType}
+     * @param fallback the {@link PropertyType} to use otherwise
+     * @return the index of the entry, or -1 if there is no such entry
+     */
+    private int findFrom(final int first, final byte type, final byte fallback) {
+        int entry = first;
+        if (entry < 0) {
+            return -1;
+        }
+
+        int found = -1;
+        while (true) {
+            byte t = type(entry);
+            if (t == type) {
+                return entry;
+            }
+            if (t == fallback) {
+                found = entry;
+            }
+            if (buffer.get(offset(entry) + PropsSnapshot.ENTRY_LAST) != 0) {
+                return found;
+            }
+            entry++;
+        }
+    }
+
+    /**
+     * Finds the first entry of the specified key.
+     * The entries of a key are stored next to each other.
+     *
+     * @param key the key to look for
+     * @return the index of the entry, or -1 if the key is not in the snapshot
+     */
+    private int firstEntry(final String key) {
+        int entry = entryAt(PropsSnapshot.hash(key));
+        if (entry < 0 || !keyEquals(entry, key)) {
+            return -1;
+        }
+        return entry;
+    }
+
+    /**
+     * Finds the entry stored in the index slot of the specified hash.
+     * Its key still has to be compared with the key looked for.
+     *
+     * @param hash the {@link PropsSnapshot#hash(String)} of a key
+     * @return the index of the entry, or -1 if the slot is empty
+     */
+    private int entryAt(final long hash) {
+        int bucket = PropsSnapshot.bucket(hash, bucketCount);
+        int displacement = buffer.getInt(displacements + bucket * Integer.BYTES);
+        int slot = PropsSnapshot.slot(hash, displacement, slotCount);
+        return buffer.getInt(slots + slot * Integer.BYTES);
+    }
+
+    /**
+     * Gives the offset of the specified entry in the snapshot.
+     *
+     * @param entry the index of the entry
+     * @return the offset of the entry
+     */
+    private int offset(final int entry) {
+        return entries + entry * PropsSnapshot.ENTRY_SIZE;
+    }
+
+    /**
+     * Checks if the key of the specified entry is equal to the specified key
+     * without decoding it if the key is ASCII.
+     *
+     * @param entry the index of the entry
+     * @param key   the key to compare with
+     * @return true if the keys are equal
+     */
+    private boolean keyEquals(final int entry, final String key) {
+        return keyEquals(entry, "", key);
+    }
+
+    /**
+     * Checks if the key of the specified entry is the prefix
+     * followed by the name without decoding it if they are ASCII.
+     *
+     * @param entry  the index of the entry
+     * @param prefix the beginning of the key to compare with
+     * @param name   the rest of the key to compare with
+     * @return true if the keys are equal
+     */
+    private boolean keyEquals(final int entry, final String prefix, final String name) {
+        int offset = buffer.getInt(offset(entry) + PropsSnapshot.ENTRY_KEY);
+        int length = buffer.getInt(offset);
+        int prefixLength = prefix.length();
+        int keyLength = prefixLength + name.length();
+        if (length != keyLength) {
+            return length > keyLength && keyEquals(decode(offset), prefix, name);
+        }
+
+        int bytes = offset + Integer.BYTES;
+        for (int i = 0; i < length; i++) {
+            char c = i < prefixLength ? prefix.charAt(i) : name.charAt(i - prefixLength);
+            if (c >= 0x80) {
+                return keyEquals(decode(offset), prefix, name);
+            }
+            if (buffer.get(bytes + i) != c) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Decodes the string stored at the specified offset.
+     *
+     * @param offset the offset of the length of the string
+     * @return the decoded string
+     */
+    private String decode(final int offset) {
+        int length = buffer.getInt(offset);
+        byte[] bytes = new byte[length];
+        int start = offset + Integer.BYTES;
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    String key(final int slot) {
+        return decode(buffer.getInt(offset(slot) + PropsSnapshot.ENTRY_KEY));
+    }
+
+    @Override
+    byte type(final int slot) {
+        return buffer.get(offset(slot) + PropsSnapshot.ENTRY_TYPE);
+    }
+
+    @Override
+    long bitsAt(final int slot) {
+        return buffer.getLong(offset(slot) + PropsSnapshot.ENTRY_VALUE);
+    }
+
+    @Override
+    String stringAt(final int slot) {
+        int offset = (int) bitsAt(slot);
+        if (cache == null) {
+            return decode(offset);
+        }
+
+        int h = offset * 0x9E3779B9;
+        int i = (h ^ h >>> 16) & (cache.length - 1);
+        DecodedString cached = cache[i];
+        if (cached != null && cached.offset == offset) {
+            return cached.value;
+        }
+        String value = decode(offset);
+        cache[i] = new DecodedString(offset, value);
+        return value;
+    }
+
+    /**
+     * Gives the number of entries of a cache of at least the specified size.
+     *
+     * @param cacheSize the requested size, at least 1
+     * @return the smallest power of two not less than the size
+     */
+    private static int cacheCapacity(final int cacheSize) {
+        if (cacheSize > 1 << 30) {
+            return 1 << 30;
+        }
+        int capacity = Integer.highestOneBit(cacheSize);
+        return capacity < cacheSize ? capacity << 1 : capacity;
+    }
+
+    /**
+     * A decoded string value and the offset it was decoded from.
+     * Both are final, so an entry can be shared between threads
+     * without synchronization.
+     */
+    private static final class DecodedString {
+
+        /** The offset of the string in the snapshot. */
+        private final int offset;
+
+        /** The decoded string. */
+        private final String value;
+
+        /**
+         * Creates a cache entry.
+         *
+         * @param offset the offset of the string in the snapshot
+         * @param value  the decoded string
+         */
+        DecodedString(final int offset, final String value) {
+            this.offset = offset;
+            this.value = value;
+        }
+
+    }
+
+}
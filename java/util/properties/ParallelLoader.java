@@ -0,0 +1,305 @@
+package util.properties;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Loads ".props" files by memory-mapping them and
+ * parsing chunks of whole lines in parallel.
+ * Every chunk is parsed into its own table and the tables are merged
+ * in file order, so later definitions still replace earlier ones.
+ * Lines are split like {@link java.util.Scanner#nextLine()} splits them,
+ * at "\r\n", '\n', '\r', U+0085, U+2028 and U+2029.
+ *
+ * @version 1.2
+ */
+final class ParallelLoader {
+
+    /** The smallest number of bytes worth parsing in a separate chunk. */
+    private static final int MIN_CHUNK_SIZE = 1 << 16;
+
+    /** The largest chunk, which must fit in a single mapping. */
+    private static final int MAX_CHUNK_SIZE = 1 << 26;
+
+    /** The number of chunks per available core, to balance uneven chunks. */
+    private static final int CHUNKS_PER_CORE = 4;
+
+    /** The number of bytes read at a time when looking for chunk ends. */
+    private static final int SEARCH_SIZE = 1024;
+
+    /** The first byte of the UTF-8 encoding of U+0085. */
+    private static final byte NEL_LEAD = (byte) 0xC2;
+
+    /** The second byte of the UTF-8 encoding of U+0085. */
+    private static final byte NEL_END = (byte) 0x85;
+
+    /** The first byte of the UTF-8 encoding of U+2028 and U+2029. */
+    private static final byte SEPARATOR_LEAD = (byte) 0xE2;
+
+    /** The second byte of the UTF-8 encoding of U+2028 and U+2029. */
+    private static final byte SEPARATOR_MIDDLE = (byte) 0x80;
+
+    /** The last byte of the UTF-8 encoding of U+2028. */
+    private static final byte LINE_SEPARATOR_END = (byte) 0xA8;
+
+    /** The last byte of the UTF-8 encoding of U+2029. */
+    private static final byte PARAGRAPH_SEPARATOR_END = (byte) 0xA9;
+
+    /** Hides the constructor for this utility class. */
+    private ParallelLoader() {
+    }
+
+    /**
+     * Reads properties from the specified file into the specified table.
+     * If a line has no value, the lines before it are still stored
+     * and its exception is rethrown, as in a sequential load.
+     *
+     * @param filename the name of the file containing properties
+     * @param target   the table to store the properties in
+     * @throws FileNotFoundException if there is no file with the given name
+     * @throws IOException           if the file cannot be read or mapped
+     */
+    static void read(final String filename, final PropertyTable target)
+            throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(filename, "r");
+             FileChannel channel = file.getChannel()) {
+            long[] bounds = split(channel);
+            int chunks = bounds.length - 1;
+            if (chunks == 0) {
+                return;
+            }
+            PropertyTable[] tables = new PropertyTable[chunks];
+            RuntimeException[] failures = new RuntimeException[chunks];
+            IOException[] ioFailures = new IOException[chunks];
+            ForkJoinPool.commonPool().invoke(
+                    new ChunkTask(channel, bounds, tables, failures, ioFailures, 0, chunks));
+
+            for (int i = 0; i < chunks; i++) {
+                if (ioFailures[i] != null) {
+                    throw ioFailures[i];
+                }
+                target.putAll(tables[i]);
+                if (failures[i] != null) {
+                    throw failures[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * Splits the file into chunks that end just after a line break.
+     *
+     * @param channel the channel of the file
+     * @return the offsets at which the chunks start, followed by the file size
+     * @throws IOException if the file cannot be read
+     */
+    private static long[] split(final FileChannel channel) throws IOException {
+        long size = channel.size();
+        int cores = ForkJoinPool.getCommonPoolParallelism();
+        long chunkSize = Math.max(MIN_CHUNK_SIZE, size / (cores * CHUNKS_PER_CORE));
+        chunkSize = Math.min(chunkSize, MAX_CHUNK_SIZE);
+
+        List<Long> starts = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocate(SEARCH_SIZE);
+        long start = 0;
+        while (start < size) {
+            starts.add(start);
+            start = lineEnd(channel, buffer, start + chunkSize, size);
+        }
+
+        long[] bounds = new long[starts.size() + 1];
+        for (int i = 0; i < starts.size(); i++) {
+            bounds[i] = starts.get(i);
+        }
+        bounds[starts.size()] = size;
+        return bounds;
+    }
+
+    /**
+     * Finds the position just after the first '\n' or '\r'
+     * at or after the specified position.
+     *
+     * @param channel  the channel of the file
+     * @param buffer   a buffer used for reading
+     * @param position the position to start looking at
+     * @param size     the size of the file
+     * @return the position after the line break, or the size of the file
+     * @throws IOException if the file cannot be read
+     */
+    private static long lineEnd(final FileChannel channel,
+                                final ByteBuffer buffer,
+                                final long position,
+                                final long size) throws IOException {
+        long p = position;
+        while (p < size) {
+            buffer.clear();
+            int read = channel.read(buffer, p);
+            for (int i = 0; i < read; i++) {
+                byte b = buffer.get(i);
+                if (b == '\n' || b == '\r') {
+                    return p + i + 1;
+                }
+            }
+            p += Math.max(read, 0);
+        }
+        return size;
+    }
+
+    /**
+     * Parses all lines of a mapped chunk into the specified table.
+     *
+     * @param chunk  the mapped bytes of the chunk
+     * @param target the table to store the properties in
+     */
+    private static void parse(final MappedByteBuffer chunk, final PropertyTable target) {
+        LineParser parser = new LineParser();
+        byte[] line = new byte[SEARCH_SIZE];
+        int limit = chunk.limit();
+        int start = 0;
+        int i = 0;
+        while (i < limit) {
+            byte b = chunk.get(i);
+            int separatorLength = 0;
+            if (b == '\n' || b == '\r') {
+                separatorLength = 1;
+            } else if (b == NEL_LEAD && i + 1 < limit && chunk.get(i + 1) == NEL_END) {
+                separatorLength = 2;
+            } else if (b == SEPARATOR_LEAD && i + 2 < limit
+                    && chunk.get(i + 1) == SEPARATOR_MIDDLE
+                    && (chunk.get(i + 2) == LINE_SEPARATOR_END
+                    || chunk.get(i + 2) == PARAGRAPH_SEPARATOR_END)) {
+                separatorLength = 3;
+            }
+
+            if (separatorLength == 0) {
+                i++;
+                continue;
+            }
+            line = parseLine(chunk, start, i, line, parser, target);
+            i += separatorLength;
+            start = i;
+        }
+        parseLine(chunk, start, limit, line, parser, target);
+    }
+
+    /**
+     * Decodes and parses the line between the specified offsets.
+     *
+     * @param chunk  the mapped bytes of the chunk
+     * @param start  the offset of the first byte of the line
+     * @param end    the offset after the last byte of the line
+     * @param buffer a reusable buffer for the bytes of the line
+     * @param parser the parser to use
+     * @param target the table to store the property in
+     * @return the buffer, or a larger one if the line did not fit
+     */
+    private static byte[] parseLine(final MappedByteBuffer chunk,
+                                    final int start,
+                                    final int end,
+                                    final byte[] buffer,
+                                    final LineParser parser,
+                                    final PropertyTable target) {
+        int length = end - start;
+        if (length == 0) {
+            return buffer;
+        }
+
+        byte[] bytes = buffer;
+        if (bytes.length < length) {
+            bytes = new byte[Math.max(length, bytes.length * 2)];
+        }
+        chunk.position(start);
+        chunk.get(bytes, 0, length);
+        BasicProps.loadLine(target, parser, new String(bytes, 0, length, StandardCharsets.UTF_8));
+        return bytes;
+    }
+
+    /** Maps and parses a range of chunks, splitting it in halves. */
+    private static final class ChunkTask extends RecursiveAction {
+
+        /** The version of the serialized form, which is never used. */
+        private static final long serialVersionUID = 1L;
+
+        /** The channel of the file. */
+        private final FileChannel channel;
+
+        /** The offsets at which the chunks start, followed by the file size. */
+        private final long[] bounds;
+
+        /** The tables the chunks are parsed into. */
+        private final PropertyTable[] tables;
+
+        /** The exceptions thrown while parsing each chunk. */
+        private final RuntimeException[] failures;
+
+        /** The exceptions thrown while mapping each chunk. */
+        private final IOException[] ioFailures;
+
+        /** The first chunk of the range. */
+        private final int from;
+
+        /** The chunk after the last chunk of the range. */
+        private final int to;
+
+        /**
+         * Creates a task for the specified range of chunks.
+         *
+         * @param channel    the channel of the file
+         * @param bounds     the offsets at which the chunks start
+         * @param tables     the tables to parse the chunks into
+         * @param failures   the exceptions thrown while parsing
+         * @param ioFailures the exceptions thrown while mapping
+         * @param from       the first chunk of the range
+         * @param to         the chunk after the last chunk of the range
+         */
+        ChunkTask(final FileChannel channel,
+                  final long[] bounds,
+                  final PropertyTable[] tables,
+                  final RuntimeException[] failures,
+                  final IOException[] ioFailures,
+                  final int from,
+                  final int to) {
+            this.channel = channel;
+            this.bounds = bounds;
+            this.tables = tables;
+            this.failures = failures;
+            this.ioFailures = ioFailures;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ChunkTask(channel, bounds, tables, failures, ioFailures, from, middle),
+                        new ChunkTask(channel, bounds, tables, failures, ioFailures, middle, to));
+                return;
+            }
+
+            PropertyTable table = new PropertyTable();
+            tables[from] = table;
+            long start = bounds[from];
+            try {
+                MappedByteBuffer chunk = channel.map(
+                        FileChannel.MapMode.READ_ONLY, start, bounds[from + 1] - start);
+                parse(chunk, table);
+            } catch (IOException e) {
+                ioFailures[from] = e;
+            } catch (RuntimeException e) {
+                failures[from] = e;
+            }
+        }
+
+    }
+
+}
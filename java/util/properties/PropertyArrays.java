@@ -0,0 +1,231 @@
+package util.properties;
+
+/**
+ * Snapshots of the properties of one type in parallel arrays,
+ * for processing them in batches without boxing.
+ * The value at an index of the values array belongs to
+ * the key at the same index of the keys array.
+ * The arrays are copies owned by the snapshot,
+ * so they can be modified and sorted freely.
+ *
+ * @version 1.0
+ */
+public final class PropertyArrays {
+
+    /** Hides the constructor of this holder class. */
+    private PropertyArrays() {
+    }
+
+    /**
+     * The {@link Integer} properties.
+     *
+     * @see BasicProps#intArrays()
+     */
+    public static final class OfInt {
+
+        /** The keys of the properties. */
+        private final String[] keys;
+
+        /** The values of the properties. */
+        private final int[] values;
+
+        /**
+         * Creates a snapshot of the specified arrays.
+         *
+         * @param keys   the keys of the properties
+         * @param values the values of the properties
+         */
+        OfInt(final String[] keys, final int[] values) {
+            this.keys = keys;
+            this.values = values;
+        }
+
+        /**
+         * Gives the number of properties in the snapshot.
+         *
+         * @return the length of the arrays
+         */
+        public int size() {
+            return keys.length;
+        }
+
+        /**
+         * Gives the keys of the properties.
+         *
+         * @return the array of the keys
+         */
+        public String[] getKeys() {
+            return keys;
+        }
+
+        /**
+         * Gives the values of the properties.
+         *
+         * @return the array of the values
+         */
+        public int[] getValues() {
+            return values;
+        }
+
+    }
+
+    /**
+     * The {@link Long} properties.
+     *
+     * @see BasicProps#longArrays()
+     */
+    public static final class OfLong {
+
+        /** The keys of the properties. */
+        private final String[] keys;
+
+        /** The values of the properties. */
+        private final long[] values;
+
+        /**
+         * Creates a snapshot of the specified arrays.
+         *
+         * @param keys   the keys of the properties
+         * @param values the values of the properties
+         */
+        OfLong(final String[] keys, final long[] values) {
+            this.keys = keys;
+            this.values = values;
+        }
+
+        /**
+         * Gives the number of properties in the snapshot.
+         *
+         * @return the length of the arrays
+         */
+        public int size() {
+            return keys.length;
+        }
+
+        /**
+         * Gives the keys of the properties.
+         *
+         * @return the array of the keys
+         */
+        public String[] getKeys() {
+            return keys;
+        }
+
+        /**
+         * Gives the values of the properties.
+         *
+         * @return the array of the values
+         */
+        public long[] getValues() {
+            return values;
+        }
+
+    }
+
+    /**
+     * The {@link Float} properties.
+     *
+     * @see BasicProps#floatArrays()
+     */
+    public static final class OfFloat {
+
+        /** The keys of the properties. */
+        private final String[] keys;
+
+        /** The values of the properties. */
+        private final float[] values;
+
+        /**
+         * Creates a snapshot of the specified arrays.
+         *
+         * @param keys   the keys of the properties
+         * @param values the values of the properties
+         */
+        OfFloat(final String[] keys, final float[] values) {
+            this.keys = keys;
+            this.values = values;
+        }
+
+        /**
+         * Gives the number of properties in the snapshot.
+         *
+         * @return the length of the arrays
+         */
+        public int size() {
+            return keys.length;
+        }
+
+        /**
+         * Gives the keys of the properties.
+         *
+         * @return the array of the keys
+         */
+        public String[] getKeys() {
+            return keys;
+        }
+
+        /**
+         * Gives the values of the properties.
+         *
+         * @return the array of the values
+         */
+        public float[] getValues() {
+            return values;
+        }
+
+    }
+
+    /**
+     * The {@link Double} properties.
+     *
+     * @see BasicProps#doubleArrays()
+     */
+    public static final class OfDouble {
+
+        /** The keys of the properties. */
+        private final String[] keys;
+
+        /** The values of the properties. */
+        private final double[] values;
+
+        /**
+         * Creates a snapshot of the specified arrays.
+         *
+         * @param keys   the keys of the properties
+         * @param values the values of the properties
+         */
+        OfDouble(final String[] keys, final double[] values) {
+            this.keys = keys;
+            this.values = values;
+        }
+
+        /**
+         * Gives the number of properties in the snapshot.
+         *
+         * @return the length of the arrays
+         */
+        public int size() {
+            return keys.length;
+        }
+
+        /**
+         * Gives the keys of the properties.
+         *
+         * @return the array of the keys
+         */
+        public String[] getKeys() {
+            return keys;
+        }
+
+        /**
+         * Gives the values of the properties.
+         *
+         * @return the array of the values
+         */
+        public double[] getValues() {
+            return values;
+        }
+
+    }
+
+}
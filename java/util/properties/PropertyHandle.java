@@ -0,0 +1,280 @@
+package util.properties;
+
+/**
+ * A property of a {@link BasicProps} that was looked up once,
+ * so that it can be read repeatedly without hashing its key.
+ * A handle remembers where its property is stored and only looks it up
+ * again after properties were added or cleared.
+ * Therefore handles stay valid across {@link BasicProps#clear()}
+ * and a new {@link BasicProps#load(String)} of the same keys.
+ * Where it was found is kept in one immutable {@link Location},
+ * so a handle can be shared by the threads reading a {@link ConcurrentProps}:
+ * each read uses a table and a slot that were found together.
+ *
+ * @version 1.2
+ */
+public abstract class PropertyHandle {
+
+    /** The properties this handle reads from. */
+    private final BasicProps props;
+
+    /** The key of the property. */
+    private final String key;
+
+    /** The {@link PropertyType} of the property. */
+    private final byte type;
+
+    /** The {@link PropertyType} read if there is no value of the type. */
+    private final byte fallback;
+
+    /** The name of the type used in messages about missing properties. */
+    private final String typeName;
+
+    /** Where the property was last found. */
+    private volatile Location location;
+
+    /**
+     * Creates a handle and looks up its property.
+     *
+     * @param props    the properties to read from
+     * @param key      the key of the property
+     * @param type     the {@link PropertyType} of the property
+     * @param fallback the {@link PropertyType} to read
+     *                 if there is no value of the type
+     * @param typeName the name of the type used in messages
+     * @throws NullPointerException if there is no such property
+     */
+    private PropertyHandle(final BasicProps props,
+                           final String key,
+                           final byte type,
+                           final byte fallback,
+                           final String typeName) {
+        this.props = props;
+        this.key = key;
+        this.type = type;
+        this.fallback = fallback;
+        this.typeName = typeName;
+        location = resolve(props.table);
+    }
+
+    /**
+     * Gives the key of the property.
+     *
+     * @return the key this handle was created for
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Where a property was found: a table, its version then,
+     * and the slot of the property in it.
+     */
+    private static final class Location {
+
+        /** The table in which the property was looked up. */
+        private final PropertyStore table;
+
+        /** The version of the table when the property was looked up. */
+        private final int version;
+
+        /** The slot in which the property was found. */
+        private final int slot;
+
+        /**
+         * Records where a property was found.
+         *
+         * @param table the table in which the property was looked up
+         * @param slot  the slot in which the property was found
+         */
+        private Location(final PropertyStore table, final int slot) {
+            this.table = table;
+            this.version = table.version();
+            this.slot = slot;
+        }
+
+    }
+
+    /**
+     * Gives the table that holds the property and the slot it is in.
+     * The property is looked up again only if the table has changed.
+     * Callers read the table and the slot of the same location,
+     * which is never changed, only replaced.
+     *
+     * @return where the property is in the current table of the properties
+     * @throws NullPointerException if the property no longer exists
+     */
+    final Location location() {
+        Location at = location;
+        PropertyStore current = props.table;
+        if (current != at.table || current.version() != at.version) {
+            at = resolve(current);
+            location = at;
+        }
+        return at;
+    }
+
+    /**
+     * Looks up the property in the specified table.
+     *
+     * @param current the table to search
+     * @return where the property is in the table
+     * @throws NullPointerException if there is no such property
+     */
+    private Location resolve(final PropertyStore current) {
+        int found = current.find(key, type, fallback);
+        if (found < 0) {
+            String message = "No " + typeName + " property \"" + key + "\"";
+            throw new NullPointerException(message);
+        }
+        return new Location(current, found);
+    }
+
+    /**
+     * A handle to an {@link Integer} property.
+     *
+     * @see BasicProps#getInt(String)
+     */
+    public static final class OfInt extends PropertyHandle {
+
+        /**
+         * Creates a handle to the given integer property.
+         *
+         * @param props    the properties to read from
+         * @param property the property to look for
+         */
+        OfInt(final BasicProps props, final String property) {
+            super(props, property, PropertyType.INT, PropertyType.INT, "integer");
+        }
+
+        /**
+         * Get the {@link Integer} value of the property.
+         *
+         * @return the integer value of the property
+         */
+        public int getInt() {
+            Location at = location();
+            return (int) at.table.longAt(at.slot);
+        }
+
+    }
+
+    /**
+     * A handle to a {@link Long} property.
+     * If there is no long value, the integer value is read.
+     *
+     * @see BasicProps#getLong(String)
+     */
+    public static final class OfLong extends PropertyHandle {
+
+        /**
+         * Creates a handle to the given long property.
+         *
+         * @param props    the properties to read from
+         * @param property the property to look for
+         */
+        OfLong(final BasicProps props, final String property) {
+            super(props, property, PropertyType.LONG, PropertyType.INT, "long");
+        }
+
+        /**
+         * Get the {@link Long} value of the property.
+         *
+         * @return the long value of the property
+         */
+        public long getLong() {
+            Location at = location();
+            return at.table.longAt(at.slot);
+        }
+
+    }
+
+    /**
+     * A handle to a {@link Float} property.
+     *
+     * @see BasicProps#getFloat(String)
+     */
+    public static final class OfFloat extends PropertyHandle {
+
+        /**
+         * Creates a handle to the given float property.
+         *
+         * @param props    the properties to read from
+         * @param property the property to look for
+         */
+        OfFloat(final BasicProps props, final String property) {
+            super(props, property, PropertyType.FLOAT, PropertyType.FLOAT, "float");
+        }
+
+        /**
+         * Get the {@link Float} value of the property.
+         *
+         * @return the float value of the property
+         */
+        public float getFloat() {
+            Location at = location();
+            return (float) at.table.doubleAt(at.slot);
+        }
+
+    }
+
+    /**
+     * A handle to a {@link Double} property.
+     * If there is no double value, the float value is read.
+     *
+     * @see BasicProps#getDouble(String)
+     */
+    public static final class OfDouble extends PropertyHandle {
+
+        /**
+         * Creates a handle to the given double property.
+         *
+         * @param props    the properties to read from
+         * @param property the property to look for
+         */
+        OfDouble(final BasicProps props, final String property) {
+            super(props, property, PropertyType.DOUBLE, PropertyType.FLOAT, "double");
+        }
+
+        /**
+         * Get the {@link Double} value of the property.
+         *
+         * @return the double value of the property
+         */
+        public double getDouble() {
+            Location at = location();
+            return at.table.doubleAt(at.slot);
+        }
+
+    }
+
+    /**
+     * A handle to a {@link String} property.
+     *
+     * @see BasicProps#getString(String)
+     */
+    public static final class OfString extends PropertyHandle {
+
+        /**
+         * Creates a handle to the given string property.
+         *
+         * @param props    the properties to read from
+         * @param property the property to look for
+         */
+        OfString(final BasicProps props, final String property) {
+            super(props, property, PropertyType.STRING, PropertyType.STRING, "string");
+        }
+
+        /**
+         * Get the {@link String} value of the property.
+         *
+         * @return the string value of the property
+         */
+        public String getString() {
+            Location at = location();
+            return at.table.stringAt(at.slot);
+        }
+
+    }
+
+}
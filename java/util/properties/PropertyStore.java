@@ -0,0 +1,227 @@
+package util.properties;
+
+import java.util.Set;
+
+/**
+ * Read access to stored properties.
+ * Every entry is identified by its key and its {@link PropertyType}
+ * and occupies a slot, through which its value is read.
+ * Numeric values are read as raw bits:
+ * integers and longs as they are and
+ * floats and doubles as the bits of a double.
+ *
+ * @version 1.3
+ */
+abstract class PropertyStore {
+
+    /**
+     * Gives the number of entries in the store.
+     *
+     * @return the number of entries
+     */
+    abstract int size();
+
+    /**
+     * Gives the number of slots in the store.
+     * Valid slot indices are between 0 and the capacity, exclusive.
+     *
+     * @return the number of slots
+     */
+    abstract int capacity();
+
+    /**
+     * Gives the structural version of the store.
+     * A slot found for a key stays valid while the version is the same.
+     *
+     * @return the number of times entries were added, moved or removed
+     */
+    abstract int version();
+
+    /**
+     * Gives the number of changes made to the store.
+     * Unlike the {@link PropertyStore#version()},
+     * it also counts values replaced in their slots,
+     * so values derived from the store stay valid while it is the same.
+     *
+     * @return the number of times entries were written or removed
+     */
+    abstract int changeCount();
+
+    /**
+     * Checks if the specified slot holds an entry.
+     *
+     * @param slot the index of the slot
+     * @return true if the slot is not empty
+     */
+    abstract boolean isUsed(int slot);
+
+    /**
+     * Finds the slot of the entry with the specified key and type.
+     *
+     * @param key  the key to look for
+     * @param type the {@link PropertyType} to look for
+     * @return the index of the slot, or -1 if there is no such entry
+     */
+    abstract int find(String key, byte type);
+
+    /**
+     * Finds the slot of the entry with the specified key and type,
+     * or with the fallback type if there is no entry of the first type.
+     * Both are looked for in a single lookup.
+     *
+     * @param key      the key to look for
+     * @param type     the preferred {@link PropertyType}
+     * @param fallback the {@link PropertyType} to use otherwise
+     * @return the index of the slot, or -1 if there is no such entry
+     */
+    abstract int find(String key, byte type, byte fallback);
+
+    /**
+     * Finds the slot of the entry whose key is the specified prefix
+     * followed by the name, without concatenating them.
+     *
+     * @param prefix   the beginning of the key
+     * @param name     the rest of the key
+     * @param type     the preferred {@link PropertyType}
+     * @param fallback the {@link PropertyType} to use otherwise,
+     *                 equal to the type if there is none
+     * @return the index of the slot, or -1 if there is no such entry
+     * @see PropertyStore#find(String, byte, byte)
+     */
+    abstract int find(String prefix, String name, byte type, byte fallback);
+
+    /**
+     * Gives the {@link String#hashCode()} of the specified prefix
+     * followed by the name, without concatenating them.
+     *
+     * @param prefix the beginning of the key
+     * @param name   the rest of the key
+     * @return the hash code of the key
+     */
+    static int hashCode(final String prefix, final String name) {
+        int power = 1;
+        int base = 31;
+        for (int n = name.length(); n > 0; n >>= 1) {
+            if ((n & 1) != 0) {
+                power *= base;
+            }
+            base *= base;
+        }
+        return prefix.hashCode() * power + name.hashCode();
+    }
+
+    /**
+     * Checks if the specified key is the prefix followed by the name.
+     *
+     * @param key    the key to check
+     * @param prefix the beginning of the key
+     * @param name   the rest of the key
+     * @return true if the key consists of the prefix and the name
+     */
+    static boolean keyEquals(final String key, final String prefix, final String name) {
+        return key.length() == prefix.length() + name.length()
+                && key.startsWith(prefix) && key.startsWith(name, prefix.length());
+    }
+
+    /**
+     * Gives the key stored in the specified slot.
+     *
+     * @param slot the index of a used slot
+     * @return the key of the entry
+     */
+    abstract String key(int slot);
+
+    /**
+     * Gives the {@link PropertyType} of the entry in the specified slot.
+     *
+     * @param slot the index of a used slot
+     * @return the type of the entry
+     */
+    abstract byte type(int slot);
+
+    /**
+     * Gives the raw bits of the numeric value in the specified slot.
+     *
+     * @param slot the index of a numeric entry
+     * @return the bits of the value
+     */
+    abstract long bitsAt(int slot);
+
+    /**
+     * Gives the {@link String} value in the specified slot.
+     *
+     * @param slot the index of a string entry
+     * @return the value of the entry
+     */
+    abstract String stringAt(int slot);
+
+    /**
+     * Classifies all entries whose values are not classified yet,
+     * so that the store is not changed while it is read.
+     * This is needed before the store is traversed by several threads.
+     */
+    void classifyAll() {
+    }
+
+    /**
+     * Gives the integral value in the specified slot.
+     *
+     * @param slot the index of an integer or long entry
+     * @return the value of the entry
+     */
+    final long longAt(final int slot) {
+        return bitsAt(slot);
+    }
+
+    /**
+     * Gives the floating-point value in the specified slot.
+     *
+     * @param slot the index of a float or double entry
+     * @return the value of the entry, floats are widened
+     */
+    final double doubleAt(final int slot) {
+        return Double.longBitsToDouble(bitsAt(slot));
+    }
+
+    /**
+     * Adds the keys whose entries differ between this store
+     * and the other store to the specified set.
+     * A key differs if it has a value of some type in only one of the stores
+     * or if the values of that type are not the same.
+     *
+     * @param other   the store to compare with
+     * @param changed the set to add the keys of differing entries to
+     */
+    final void addChangedKeys(final PropertyStore other, final Set<String> changed) {
+        addKeysNotIn(other, changed);
+        other.addKeysNotIn(this, changed);
+    }
+
+    /**
+     * Adds the keys of entries that the other store
+     * does not have with the same value to the specified set.
+     *
+     * @param other   the store to compare with
+     * @param changed the set to add the keys to
+     */
+    private void addKeysNotIn(final PropertyStore other, final Set<String> changed) {
+        for (int i = 0; i < capacity(); i++) {
+            if (!isUsed(i)) {
+                continue;
+            }
+            String key = key(i);
+            if (changed.contains(key)) {
+                continue;
+            }
+            byte type = type(i);
+            int j = other.find(key, type);
+            boolean same = j >= 0 && (type == PropertyType.STRING
+                    ? stringAt(i).equals(other.stringAt(j))
+                    : bitsAt(i) == other.bitsAt(j));
+            if (!same) {
+                changed.add(key);
+            }
+        }
+    }
+
+}
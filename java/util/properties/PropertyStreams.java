@@ -0,0 +1,272 @@
+package util.properties;
+
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Views of the properties of one type as streams,
+ * for processing them in parallel without boxing.
+ * All streams of a view visit the slots of the same table in the same order,
+ * so the key at a position of {@code keys()} belongs to
+ * the value at the same position of {@code values()}.
+ * When both are needed together, {@code slots()} gives the slots,
+ * and the key and value of a slot are read with {@code key(slot)}
+ * and {@code value(slot)}.
+ * The streams are sequential and can be made parallel.
+ * The properties must not be loaded or cleared while a stream is used.
+ *
+ * @version 1.0
+ */
+public final class PropertyStreams {
+
+    /** Hides the constructor of this holder class. */
+    private PropertyStreams() {
+    }
+
+    /**
+     * The slots and keys of the properties of one type.
+     */
+    public abstract static class Base {
+
+        /** The table holding the properties. */
+        final PropertyStore table;
+
+        /** The {@link PropertyType} of the properties. */
+        private final byte type;
+
+        /**
+         * Creates a view of the specified type of properties.
+         * Lazily loaded values are classified first,
+         * so that traversing in parallel never writes to the table.
+         *
+         * @param table the table holding the properties
+         * @param type  the {@link PropertyType} of the properties
+         */
+        Base(final PropertyStore table, final byte type) {
+            table.classifyAll();
+            this.table = table;
+            this.type = type;
+        }
+
+        /**
+         * Gives the slots of the properties, in increasing order.
+         *
+         * @return a stream of the slots
+         */
+        public IntStream slots() {
+            return StreamSupport.intStream(
+                    new SlotSpliterator(table, type, 0, table.capacity()), false);
+        }
+
+        /**
+         * Gives the keys of the properties.
+         *
+         * @return a stream of the keys
+         */
+        public Stream<String> keys() {
+            return slots().mapToObj(table::key);
+        }
+
+        /**
+         * Gives the key of the property in the specified slot.
+         *
+         * @param slot a slot given by {@link Base#slots()}
+         * @return the key of the property
+         */
+        public String key(final int slot) {
+            return table.key(slot);
+        }
+
+    }
+
+    /**
+     * The {@link Integer} properties.
+     *
+     * @see BasicProps#intProperties()
+     */
+    public static final class OfInt extends Base {
+
+        /**
+         * Creates a view of the integer properties.
+         *
+         * @param table the table holding the properties
+         */
+        OfInt(final PropertyStore table) {
+            super(table, PropertyType.INT);
+        }
+
+        /**
+         * Gives the values of the properties.
+         *
+         * @return a stream of the values
+         */
+        public IntStream values() {
+            return slots().map(this::value);
+        }
+
+        /**
+         * Gives the value of the property in the specified slot.
+         *
+         * @param slot a slot given by {@link Base#slots()}
+         * @return the value of the property
+         */
+        public int value(final int slot) {
+            return (int) table.longAt(slot);
+        }
+
+    }
+
+    /**
+     * The {@link Long} properties.
+     *
+     * @see BasicProps#longProperties()
+     */
+    public static final class OfLong extends Base {
+
+        /**
+         * Creates a view of the long properties.
+         *
+         * @param table the table holding the properties
+         */
+        OfLong(final PropertyStore table) {
+            super(table, PropertyType.LONG);
+        }
+
+        /**
+         * Gives the values of the properties.
+         *
+         * @return a stream of the values
+         */
+        public LongStream values() {
+            return slots().mapToLong(this::value);
+        }
+
+        /**
+         * Gives the value of the property in the specified slot.
+         *
+         * @param slot a slot given by {@link Base#slots()}
+         * @return the value of the property
+         */
+        public long value(final int slot) {
+            return table.longAt(slot);
+        }
+
+    }
+
+    /**
+     * The {@link Float} properties.
+     *
+     * @see BasicProps#floatProperties()
+     */
+    public static final class OfFloat extends Base {
+
+        /**
+         * Creates a view of the float properties.
+         *
+         * @param table the table holding the properties
+         */
+        OfFloat(final PropertyStore table) {
+            super(table, PropertyType.FLOAT);
+        }
+
+        /**
+         * Gives the values of the properties.
+         * There is no stream of floats, so they are widened to doubles,
+         * which represent every float exactly.
+         *
+         * @return a stream of the values
+         */
+        public DoubleStream values() {
+            return slots().mapToDouble(this::value);
+        }
+
+        /**
+         * Gives the value of the property in the specified slot.
+         *
+         * @param slot a slot given by {@link Base#slots()}
+         * @return the value of the property
+         */
+        public float value(final int slot) {
+            return (float) table.doubleAt(slot);
+        }
+
+    }
+
+    /**
+     * The {@link Double} properties.
+     *
+     * @see BasicProps#doubleProperties()
+     */
+    public static final class OfDouble extends Base {
+
+        /**
+         * Creates a view of the double properties.
+         *
+         * @param table the table holding the properties
+         */
+        OfDouble(final PropertyStore table) {
+            super(table, PropertyType.DOUBLE);
+        }
+
+        /**
+         * Gives the values of the properties.
+         *
+         * @return a stream of the values
+         */
+        public DoubleStream values() {
+            return slots().mapToDouble(this::value);
+        }
+
+        /**
+         * Gives the value of the property in the specified slot.
+         *
+         * @param slot a slot given by {@link Base#slots()}
+         * @return the value of the property
+         */
+        public double value(final int slot) {
+            return table.doubleAt(slot);
+        }
+
+    }
+
+    /**
+     * The {@link String} properties.
+     *
+     * @see BasicProps#stringProperties()
+     */
+    public static final class OfString extends Base {
+
+        /**
+         * Creates a view of the string properties.
+         *
+         * @param table the table holding the properties
+         */
+        OfString(final PropertyStore table) {
+            super(table, PropertyType.STRING);
+        }
+
+        /**
+         * Gives the values of the properties.
+         *
+         * @return a stream of the values
+         */
+        public Stream<String> values() {
+            return slots().mapToObj(this::value);
+        }
+
+        /**
+         * Gives the value of the property in the specified slot.
+         *
+         * @param slot a slot given by {@link Base#slots()}
+         * @return the value of the property
+         */
+        public String value(final int slot) {
+            return table.stringAt(slot);
+        }
+
+    }
+
+}
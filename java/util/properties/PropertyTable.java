@@ -0,0 +1,537 @@
+package util.properties;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Stores properties in a single open-addressing hash table.
+ * Each entry is identified by its key and its {@link PropertyType},
+ * so the same key can have one value of each type,
+ * just like in separate maps per type.
+ * Slots are the indices of the table.
+ * Numeric values are kept unboxed in a primitive slot:
+ * integers and longs as they are and
+ * floats and doubles as the raw bits of a double.
+ * Entries of the same key hash to the same probe sequence,
+ * so a typed lookup is a single linear probe without boxing.
+ * Lazily loaded values are kept as {@link PropertyType#RAW} entries,
+ * which hold the text of the file and the range of the value in it,
+ * and are classified in place the first time their key is looked up.
+ * Classifying is done under a lock, and the type of the entry is
+ * published last, so a table that is only read can be shared by threads
+ * even while its raw entries are classified.
+ *
+ * @version 1.10
+ */
+final class PropertyTable extends PropertyStore {
+
+    /** The capacity of an empty table. Must be a power of two. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The numerator of the maximum load factor. */
+    private static final int LOAD_NUMERATOR = 3;
+
+    /** The denominator of the maximum load factor. */
+    private static final int LOAD_DENOMINATOR = 4;
+
+    /** The multiplier used to spread the hash codes of keys. */
+    private static final int HASH_MULTIPLIER = 0x9E3779B9;
+
+    /** Reads and publishes the types of entries with memory ordering. */
+    private static final VarHandle TYPES = MethodHandles.arrayElementVarHandle(byte[].class);
+
+    /** The keys of the entries. Null marks an empty slot. */
+    private String[] keys;
+
+    /** The {@link PropertyType}s of the entries. */
+    private byte[] types;
+
+    /** The primitive values of numeric entries. */
+    private long[] bits;
+
+    /** The values of {@link String} entries. */
+    private String[] strings;
+
+    /** The number of entries in the table. */
+    private int size;
+
+    /** The number of entries after which the table grows. */
+    private int threshold;
+
+    /**
+     * Counts the changes that may move entries or add new ones.
+     * Replacing the value of an existing entry does not change it,
+     * so a slot found for a key stays valid while the version is the same.
+     */
+    private int version;
+
+    /** Counts all writes and removals of entries. */
+    private int changes;
+
+    /** Held while a {@link PropertyType#RAW} entry is classified. */
+    private final Object classifyLock = new Object();
+
+    /** Creates an empty table. */
+    PropertyTable() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Creates a copy of the specified table.
+     * The slots of the copy are the same as those of the original.
+     *
+     * @param other the table to copy
+     */
+    PropertyTable(final PropertyTable other) {
+        keys = other.keys.clone();
+        types = other.types.clone();
+        bits = other.bits.clone();
+        strings = other.strings.clone();
+        size = other.size;
+        threshold = other.threshold;
+        version = other.version;
+        changes = other.changes;
+    }
+
+    /**
+     * Allocates empty arrays of the specified capacity.
+     *
+     * @param capacity the number of slots, a power of two
+     */
+    private void allocate(final int capacity) {
+        keys = new String[capacity];
+        types = new byte[capacity];
+        bits = new long[capacity];
+        strings = new String[capacity];
+        threshold = capacity / LOAD_DENOMINATOR * LOAD_NUMERATOR;
+    }
+
+    /**
+     * Gives the first slot of the probe sequence of the specified key.
+     *
+     * @param key  the key to hash
+     * @param mask the capacity of the table minus one
+     * @return the index of the first slot to probe
+     */
+    private static int indexFor(final String key, final int mask) {
+        return indexFor(key.hashCode(), mask);
+    }
+
+    /**
+     * Gives the first slot of the probe sequence of a key.
+     *
+     * @param hashCode the {@link String#hashCode()} of the key
+     * @param mask     the capacity of the table minus one
+     * @return the index of the first slot to probe
+     */
+    private static int indexFor(final int hashCode, final int mask) {
+        int h = hashCode * HASH_MULTIPLIER;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    @Override
+    int size() {
+        return size;
+    }
+
+    @Override
+    int capacity() {
+        return keys.length;
+    }
+
+    @Override
+    int version() {
+        return version;
+    }
+
+    @Override
+    int changeCount() {
+        return changes;
+    }
+
+    /** Removes all entries. */
+    void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(strings, null);
+        size = 0;
+        version++;
+        changes++;
+    }
+
+    @Override
+    int find(final String key, final byte type) {
+        int mask = keys.length - 1;
+        for (int i = indexFor(key, mask); keys[i] != null; i = (i + 1) & mask) {
+            byte t = typeAt(i);
+            if ((t == type || t == PropertyType.RAW) && key.equals(keys[i])) {
+                if (t == PropertyType.RAW) {
+                    t = classify(i);
+                }
+                if (t == type) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    int find(final String key, final byte type, final byte fallback) {
+        int mask = keys.length - 1;
+        int found = -1;
+        for (int i = indexFor(key, mask); keys[i] != null; i = (i + 1) & mask) {
+            byte t = typeAt(i);
+            if ((t == type || t == fallback || t == PropertyType.RAW) && key.equals(keys[i])) {
+                if (t == PropertyType.RAW) {
+                    t = classify(i);
+                }
+                if (t == type) {
+                    return i;
+                }
+                if (t == fallback) {
+                    found = i;
+                }
+            }
+        }
+        return found;
+    }
+
+    @Override
+    int find(final String prefix, final String name, final byte type, final byte fallback) {
+        int mask = keys.length - 1;
+        int found = -1;
+        int i = indexFor(hashCode(prefix, name), mask);
+        for (; keys[i] != null; i = (i + 1) & mask) {
+            byte t = typeAt(i);
+            if ((t == type || t == fallback || t == PropertyType.RAW)
+                    && keyEquals(keys[i], prefix, name)) {
+                if (t == PropertyType.RAW) {
+                    t = classify(i);
+                }
+                if (t == type) {
+                    return i;
+                }
+                if (t == fallback) {
+                    found = i;
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Reads the type of the entry in the specified slot, so that
+     * the value of an entry classified by another thread is seen too.
+     *
+     * @param slot the index of the entry
+     * @return the {@link PropertyType} of the entry
+     */
+    private byte typeAt(final int slot) {
+        return (byte) TYPES.getAcquire(types, slot);
+    }
+
+    @Override
+    String key(final int slot) {
+        return keys[slot];
+    }
+
+    @Override
+    byte type(final int slot) {
+        byte t = typeAt(slot);
+        return t == PropertyType.RAW ? classify(slot) : t;
+    }
+
+    @Override
+    void classifyAll() {
+        for (int slot = 0; slot < types.length; slot++) {
+            if (keys[slot] != null && types[slot] == PropertyType.RAW) {
+                classify(slot);
+            }
+        }
+    }
+
+    @Override
+    boolean isUsed(final int slot) {
+        return keys[slot] != null;
+    }
+
+    @Override
+    long bitsAt(final int slot) {
+        return bits[slot];
+    }
+
+    @Override
+    String stringAt(final int slot) {
+        return strings[slot];
+    }
+
+    /**
+     * Stores an integral value, replacing any value
+     * of the same key and type.
+     *
+     * @param key   the key of the property
+     * @param type  {@link PropertyType#INT} or {@link PropertyType#LONG}
+     * @param value the value of the property
+     */
+    void putLong(final String key, final byte type, final long value) {
+        int slot = insert(key, type);
+        bits[slot] = value;
+    }
+
+    /**
+     * Stores a floating-point value, replacing any value
+     * of the same key and type.
+     *
+     * @param key   the key of the property
+     * @param type  {@link PropertyType#FLOAT} or {@link PropertyType#DOUBLE}
+     * @param value the value of the property, floats should be widened
+     */
+    void putDouble(final String key, final byte type, final double value) {
+        int slot = insert(key, type);
+        bits[slot] = Double.doubleToRawLongBits(value);
+    }
+
+    /**
+     * Stores a {@link String} value, replacing any {@link String} value
+     * of the same key.
+     *
+     * @param key   the key of the property
+     * @param value the value of the property
+     */
+    void putString(final String key, final String value) {
+        int slot = insert(key, PropertyType.STRING);
+        strings[slot] = value;
+    }
+
+    /**
+     * Stores a value that is classified only when it is first read.
+     * This is only done for keys without entries, so that
+     * classifying the value never creates a second entry of the same type.
+     * If the key already has entries, nothing is stored.
+     *
+     * @param key   the key of the property
+     * @param text  the text containing the value
+     * @param start the index at which the value starts
+     * @param end   the index after the last character of the value
+     * @return true if the value was stored, false if the key has entries
+     */
+    boolean putRaw(final String key, final String text, final int start, final int end) {
+        int mask = keys.length - 1;
+        for (int i = indexFor(key, mask); keys[i] != null; i = (i + 1) & mask) {
+            if (key.equals(keys[i])) {
+                if (types[i] == PropertyType.RAW) {
+                    classify(i);
+                }
+                return false;
+            }
+        }
+
+        int slot = insert(key, PropertyType.RAW);
+        strings[slot] = text;
+        bits[slot] = (long) start << Integer.SIZE | end;
+        return true;
+    }
+
+    /**
+     * Classifies the {@link PropertyType#RAW} entry in the specified slot
+     * and stores its parsed value in place.
+     * The slot of the entry does not change.
+     * Threads that find the entry raw at the same time wait for the lock,
+     * and then see that it has been classified.
+     * The value is stored before the type is published,
+     * so a thread that reads the new type also reads the new value.
+     *
+     * @param slot the index of a raw entry
+     * @return the {@link PropertyType} of the entry
+     */
+    private byte classify(final int slot) {
+        synchronized (classifyLock) {
+            byte t = types[slot];
+            if (t != PropertyType.RAW) {
+                return t;
+            }
+
+            LineParser parser = new LineParser();
+            long range = bits[slot];
+            String text = strings[slot];
+            parser.classify(text.substring((int) (range >>> Integer.SIZE), (int) range));
+
+            byte type = parser.type;
+            switch (type) {
+                case PropertyType.INT:
+                case PropertyType.LONG:
+                    bits[slot] = parser.longValue;
+                    strings[slot] = null;
+                    break;
+                case PropertyType.FLOAT:
+                case PropertyType.DOUBLE:
+                    bits[slot] = Double.doubleToRawLongBits(parser.doubleValue);
+                    strings[slot] = null;
+                    break;
+                default:
+                    strings[slot] = parser.value;
+                    break;
+            }
+            TYPES.setRelease(types, slot, type);
+            return type;
+        }
+    }
+
+    /**
+     * Stores all entries of the other store,
+     * replacing the values of entries with the same key and type.
+     *
+     * @param other the store to copy the entries of
+     */
+    void putAll(final PropertyStore other) {
+        for (int j = 0; j < other.capacity(); j++) {
+            if (other.isUsed(j)) {
+                put(other.key(j), other, j);
+            }
+        }
+    }
+
+    /**
+     * Stores all entries of the specified key in the other store,
+     * replacing the values of entries with the same type.
+     *
+     * @param key   the key of the entries
+     * @param other the store to copy the entries of
+     * @return true if the other store has any entry of the key
+     */
+    boolean putKey(final String key, final PropertyStore other) {
+        boolean found = false;
+        for (byte type = PropertyType.STRING; type <= PropertyType.DOUBLE; type++) {
+            int j = other.find(key, type);
+            if (j >= 0) {
+                put(key, other, j);
+                found = true;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Stores the entry in the specified slot of the other store.
+     *
+     * @param key   the key of the entry
+     * @param other the store to copy the entry from
+     * @param j     the slot of the entry in the other store
+     */
+    private void put(final String key, final PropertyStore other, final int j) {
+        byte type = other.type(j);
+        int slot = insert(key, type);
+        if (type == PropertyType.STRING) {
+            strings[slot] = other.stringAt(j);
+        } else {
+            bits[slot] = other.bitsAt(j);
+        }
+    }
+
+    /**
+     * Removes the entries of all types of the specified key.
+     * The entries after a removed one are shifted back into its slot,
+     * so lookups never have to skip deleted slots.
+     *
+     * @param key the key of the entries to remove
+     */
+    void remove(final String key) {
+        int mask = keys.length - 1;
+        int i = indexFor(key, mask);
+        while (keys[i] != null) {
+            if (key.equals(keys[i])) {
+                delete(i);
+            } else {
+                i = (i + 1) & mask;
+            }
+        }
+    }
+
+    /**
+     * Empties the specified slot and moves back the entries
+     * of its cluster that can no longer be reached.
+     *
+     * @param slot the index of a used slot
+     */
+    private void delete(final int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        for (int i = (hole + 1) & mask; keys[i] != null; i = (i + 1) & mask) {
+            int home = indexFor(keys[i], mask);
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                types[hole] = types[i];
+                bits[hole] = bits[i];
+                strings[hole] = strings[i];
+                hole = i;
+            }
+        }
+        keys[hole] = null;
+        strings[hole] = null;
+        size--;
+        version++;
+        changes++;
+    }
+
+    /**
+     * Finds the slot of the entry with the specified key and type,
+     * creating the entry if there is none.
+     *
+     * @param key  the key of the entry
+     * @param type the {@link PropertyType} of the entry
+     * @return the index of the slot
+     */
+    private int insert(final String key, final byte type) {
+        changes++;
+        int mask = keys.length - 1;
+        int i = indexFor(key, mask);
+        for (; keys[i] != null; i = (i + 1) & mask) {
+            byte t = types[i];
+            if ((t == type || t == PropertyType.RAW) && key.equals(keys[i])) {
+                if (t == PropertyType.RAW) {
+                    t = classify(i);
+                }
+                if (t == type) {
+                    return i;
+                }
+            }
+        }
+
+        if (size >= threshold) {
+            grow();
+            return insert(key, type);
+        }
+        keys[i] = key;
+        types[i] = type;
+        size++;
+        version++;
+        return i;
+    }
+
+    /** Doubles the capacity of the table and rehashes all entries. */
+    private void grow() {
+        String[] oldKeys = keys;
+        byte[] oldTypes = types;
+        long[] oldBits = bits;
+        String[] oldStrings = strings;
+        allocate(oldKeys.length * 2);
+
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            String key = oldKeys[j];
+            if (key == null) {
+                continue;
+            }
+            int i = indexFor(key, mask);
+            while (keys[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            types[i] = oldTypes[j];
+            bits[i] = oldBits[j];
+            strings[i] = oldStrings[j];
+        }
+    }
+
+}
@@ -0,0 +1,40 @@
+package util.properties;
+
+/**
+ * Tags for the types a property value can have.
+ * A value is classified as the first of
+ * {@link PropertyType#INT}, {@link PropertyType#LONG},
+ * {@link PropertyType#FLOAT} and {@link PropertyType#DOUBLE}
+ * that it can be parsed as, or as {@link PropertyType#STRING} otherwise.
+ *
+ * @version 1.1
+ */
+final class PropertyType {
+
+    /** The tag of {@link String} values. */
+    static final byte STRING = 0;
+
+    /** The tag of {@link Integer} values. */
+    static final byte INT = 1;
+
+    /** The tag of {@link Long} values. */
+    static final byte LONG = 2;
+
+    /** The tag of {@link Float} values. */
+    static final byte FLOAT = 3;
+
+    /** The tag of {@link Double} values. */
+    static final byte DOUBLE = 4;
+
+    /**
+     * The tag of values that were loaded lazily and not classified yet.
+     * Such an entry is the only entry of its key and is
+     * classified as one of the other types when it is first read.
+     */
+    static final byte RAW = 5;
+
+    /** Hides the constructor for this utility class. */
+    private PropertyType() {
+    }
+
+}
@@ -0,0 +1,227 @@
+package util.properties;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Loads properties into a {@link BasicProps} from input
+ * that arrives in chunks, such as bytes read from a network.
+ * Bytes are decoded as UTF-8 through a bounded buffer, and
+ * characters and lines split between chunks are kept until they are complete,
+ * so no chunk has to end at a line break.
+ * Lines are split like {@link java.util.Scanner#nextLine()} splits them.
+ * Every complete line is stored right away, except with copy-on-write,
+ * where all lines are published at once by {@link PropsFeed#finish()}.
+ * A feed should be given either bytes or characters, not both.
+ *
+ * @version 1.0
+ * @see BasicProps#feed()
+ */
+public final class PropsFeed {
+
+    /** The number of characters decoded at a time. */
+    private static final int BUFFER_SIZE = 8192;
+
+    /** The most bytes of an incomplete UTF-8 character. */
+    private static final int MAX_CHARACTER_BYTES = 4;
+
+    /** The properties to load into. */
+    private final BasicProps props;
+
+    /** The table collecting the lines until they are published, or null. */
+    private final PropertyTable pending;
+
+    /** Parses the lines of the input. */
+    private final LineParser parser = new LineParser();
+
+    /** Decodes the bytes of the input. */
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    /** The decoded characters that are not processed yet. */
+    private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+
+    /** The bytes of an incomplete character at the end of the last chunk. */
+    private final ByteBuffer carry = ByteBuffer.allocate(MAX_CHARACTER_BYTES);
+
+    /** The characters of the current line. */
+    private final StringBuilder line = new StringBuilder();
+
+    /** Whether the last character was '\r', which may be followed by '\n'. */
+    private boolean afterCarriageReturn;
+
+    /** Whether the feed was finished. */
+    private boolean finished;
+
+    /** The table complete lines are stored in while a chunk is processed. */
+    private PropertyTable target;
+
+    /**
+     * Creates a feed loading into the specified properties.
+     *
+     * @param props       the properties to load into
+     * @param copyOnWrite whether to publish all lines at once when finished
+     */
+    PropsFeed(final BasicProps props, final boolean copyOnWrite) {
+        this.props = props;
+        pending = copyOnWrite ? new PropertyTable() : null;
+    }
+
+    /**
+     * Loads the complete lines of the specified bytes.
+     *
+     * @param bytes  the array holding the bytes
+     * @param offset the index of the first byte
+     * @param length the number of bytes
+     * @throws ArrayIndexOutOfBoundsException if a line has no value
+     * @throws IllegalStateException          if the feed was finished
+     */
+    public void accept(final byte[] bytes, final int offset, final int length) {
+        accept(ByteBuffer.wrap(bytes, offset, length));
+    }
+
+    /**
+     * Loads the complete lines of the remaining bytes of the specified buffer,
+     * which are all consumed.
+     *
+     * @param bytes the buffer holding the bytes
+     * @throws ArrayIndexOutOfBoundsException if a line has no value
+     * @throws IllegalStateException          if the feed was finished
+     */
+    public void accept(final ByteBuffer bytes) {
+        begin();
+        while (carry.position() > 0 && bytes.hasRemaining()) {
+            carry.put(bytes.get());
+            carry.flip();
+            decode(carry, false);
+            carry.compact();
+        }
+        decode(bytes, false);
+        carry.put(bytes);
+    }
+
+    /**
+     * Loads the complete lines of the specified characters.
+     *
+     * @param text   the array holding the characters
+     * @param offset the index of the first character
+     * @param length the number of characters
+     * @throws ArrayIndexOutOfBoundsException if a line has no value
+     * @throws IllegalStateException          if the feed was finished
+     */
+    public void accept(final char[] text, final int offset, final int length) {
+        begin();
+        process(CharBuffer.wrap(text, offset, length));
+    }
+
+    /**
+     * Loads the complete lines of the specified characters.
+     *
+     * @param text the characters to load
+     * @throws ArrayIndexOutOfBoundsException if a line has no value
+     * @throws IllegalStateException          if the feed was finished
+     */
+    public void accept(final CharSequence text) {
+        begin();
+        process(CharBuffer.wrap(text));
+    }
+
+    /**
+     * Loads the last line, which has no line break,
+     * and publishes the properties if they are loaded with copy-on-write.
+     * Incomplete characters at the end of the input are replaced.
+     *
+     * @throws ArrayIndexOutOfBoundsException if the last line has no value
+     * @throws IllegalStateException          if the feed was finished
+     */
+    public void finish() {
+        begin();
+        finished = true;
+        carry.flip();
+        decode(carry, true);
+        decoder.flush(chars);
+        chars.flip();
+        process(chars);
+        chars.clear();
+        if (line.length() > 0) {
+            storeLine();
+        }
+
+        if (pending != null) {
+            props.update(t -> t.putAll(pending));
+        }
+    }
+
+    /**
+     * Prepares to process a chunk.
+     *
+     * @throws IllegalStateException if the feed was finished
+     */
+    private void begin() {
+        if (finished) {
+            throw new IllegalStateException("The feed is finished");
+        }
+        target = pending == null ? props.modifiableTable() : pending;
+    }
+
+    /**
+     * Decodes and processes the specified bytes.
+     * Bytes of an incomplete character are left in the buffer
+     * unless it is the end of the input.
+     *
+     * @param bytes the bytes to decode
+     * @param end   whether no more bytes follow
+     */
+    private void decode(final ByteBuffer bytes, final boolean end) {
+        while (true) {
+            CoderResult result = decoder.decode(bytes, chars, end);
+            chars.flip();
+            process(chars);
+            chars.clear();
+            if (result.isUnderflow()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Splits the specified characters into lines and stores the complete ones.
+     *
+     * @param text the characters to process, which are all consumed
+     */
+    private void process(final CharBuffer text) {
+        int start = text.position();
+        int limit = text.limit();
+        for (int i = start; i < limit; i++) {
+            char c = text.get(i);
+            if (afterCarriageReturn) {
+                afterCarriageReturn = false;
+                if (c == '\n') {
+                    start = i + 1;
+                    continue;
+                }
+            }
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                line.append(text, start - text.position(), i - text.position());
+                storeLine();
+                afterCarriageReturn = c == '\r';
+                start = i + 1;
+            }
+        }
+        line.append(text, start - text.position(), limit - text.position());
+        text.position(limit);
+    }
+
+    /** Stores the current line and starts a new one. */
+    private void storeLine() {
+        String complete = line.toString();
+        line.setLength(0);
+        BasicProps.loadLine(target, parser, complete);
+    }
+
+}
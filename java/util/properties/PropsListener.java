@@ -0,0 +1,24 @@
+package util.properties;
+
+import java.util.Set;
+
+/**
+ * Receives notifications about properties that changed
+ * when their file was reloaded.
+ *
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface PropsListener {
+
+    /**
+     * Called after new properties were published.
+     * A key is reported if a value of any type was added or removed for it
+     * or if one of its values changed.
+     *
+     * @param props       the properties that changed
+     * @param changedKeys the keys that changed, cannot be modified
+     */
+    void propertiesChanged(BasicProps props, Set<String> changedKeys);
+
+}
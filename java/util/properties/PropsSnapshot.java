@@ -0,0 +1,557 @@
+package util.properties;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles loaded properties into binary snapshots
+ * that can be opened without parsing.
+ * A snapshot holds the typed values, a table of UTF-8 strings and
+ * a perfect-hash index of the keys, and is read through a memory map.
+ * It also records the size and modification time of its ".props" source,
+ * so that an outdated snapshot is detected and ignored.
+ * The snapshot of "name.props" is "name.props.snapshot".
+ *
+ * @version 1.3
+ */
+public final class PropsSnapshot {
+
+    /** The suffix appended to the name of the source to name its snapshot. */
+    public static final String SUFFIX = ".snapshot";
+
+    /** Identifies snapshot files. */
+    private static final int MAGIC = 0x50524F50;
+
+    /** The version of the snapshot format. */
+    private static final int FORMAT_VERSION = 1;
+
+    /** The offset of the size of the source. */
+    private static final int SOURCE_SIZE = 8;
+
+    /** The offset of the modification time of the source. */
+    private static final int SOURCE_MODIFIED = 16;
+
+    /** The offset of the number of entries. */
+    static final int ENTRY_COUNT = 24;
+
+    /** The offset of the number of slots of the index. */
+    static final int SLOT_COUNT = 28;
+
+    /** The offset of the number of buckets of the index. */
+    static final int BUCKET_COUNT = 32;
+
+    /** The size of the header, after which the bucket displacements start. */
+    static final int HEADER_SIZE = 40;
+
+    /** The offset of the value within an entry. */
+    static final int ENTRY_VALUE = 0;
+
+    /** The offset of the key offset within an entry. */
+    static final int ENTRY_KEY = 8;
+
+    /** The offset of the type within an entry. */
+    static final int ENTRY_TYPE = 12;
+
+    /** The offset of the flag marking the last entry of a key. */
+    static final int ENTRY_LAST = 13;
+
+    /** The size of an entry. */
+    static final int ENTRY_SIZE = 16;
+
+    /** The average number of keys per bucket of the index. */
+    private static final int KEYS_PER_BUCKET = 4;
+
+    /** The number of index slots per key is 1 + 1 / SLOT_SLACK. */
+    private static final int SLOT_SLACK = 4;
+
+    /** The number of displacements tried for a bucket before giving up. */
+    private static final int MAX_DISPLACEMENT = 1 << 24;
+
+    /** The offset basis of the FNV-1a hash. */
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+
+    /** The prime of the FNV-1a hash. */
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /** The multiplier used to derive slots from displacements. */
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+    /** Hides the constructor for this utility class. */
+    private PropsSnapshot() {
+    }
+
+    /**
+     * Loads each of the specified ".props" files and
+     * compiles it into a snapshot next to it.
+     *
+     * @param args the names of the files to compile
+     * @throws IOException if a file cannot be read or written
+     */
+    public static void main(final String[] args) throws IOException {
+        for (String filename : args) {
+            compile(filename);
+        }
+    }
+
+    /**
+     * Loads the specified ".props" file and compiles it into a snapshot.
+     *
+     * @param filename the name of the file to compile
+     * @throws IOException if the file cannot be read or
+     *                     the snapshot cannot be written
+     */
+    public static void compile(final String filename) throws IOException {
+        Path source = Paths.get(filename);
+        long size = Files.size(source);
+        long modified = Files.getLastModifiedTime(source).toMillis();
+        PropertyTable table = new PropertyTable();
+        BasicProps.read(filename, table);
+        write(table, size, modified, snapshotOf(source));
+    }
+
+    /**
+     * Gives the path of the snapshot of the specified source.
+     *
+     * @param source the path of the ".props" file
+     * @return the path of its snapshot
+     */
+    static Path snapshotOf(final Path source) {
+        return source.resolveSibling(source.getFileName() + SUFFIX);
+    }
+
+    /**
+     * Hashes the specified key with 64-bit FNV-1a over its characters.
+     * Unlike {@link String#hashCode()}, different keys practically never
+     * collide, which the perfect-hash index relies on.
+     *
+     * @param key the key to hash
+     * @return the hash of the key
+     */
+    static long hash(final String key) {
+        return hash(FNV_OFFSET, key);
+    }
+
+    /**
+     * Hashes the key made of the specified prefix followed by the name
+     * without concatenating them.
+     *
+     * @param prefix the beginning of the key
+     * @param name   the rest of the key
+     * @return the hash of the key
+     * @see PropsSnapshot#hash(String)
+     */
+    static long hash(final String prefix, final String name) {
+        return hash(hash(FNV_OFFSET, prefix), name);
+    }
+
+    /**
+     * Continues hashing with the characters of the specified text.
+     *
+     * @param hash the hash of the preceding characters
+     * @param text the characters to add
+     * @return the hash of all characters
+     */
+    private static long hash(final long hash, final String text) {
+        long h = hash;
+        for (int i = 0; i < text.length(); i++) {
+            h ^= text.charAt(i);
+            h *= FNV_PRIME;
+        }
+        return h;
+    }
+
+    /**
+     * Gives the bucket of the index that a key belongs to.
+     *
+     * @param hash        the hash of the key
+     * @param bucketCount the number of buckets
+     * @return the index of the bucket
+     */
+    static int bucket(final long hash, final int bucketCount) {
+        return (int) ((hash >>> 1) % bucketCount);
+    }
+
+    /**
+     * Gives the slot of the index that a key is placed in
+     * when its bucket has the specified displacement.
+     *
+     * @param hash         the hash of the key
+     * @param displacement the displacement of the bucket of the key
+     * @param slotCount    the number of slots
+     * @return the index of the slot
+     */
+    static int slot(final long hash, final int displacement, final int slotCount) {
+        long h = hash + displacement * GOLDEN;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) ((h >>> 1) % slotCount);
+    }
+
+    /**
+     * Opens the snapshot of the specified ".props" file.
+     *
+     * @param filename the name of the ".props" file
+     * @return the properties in the snapshot, or null if there is
+     * no snapshot or it does not match the current source
+     * @throws IOException if the snapshot exists but cannot be mapped
+     */
+    static MappedPropertyStore open(final String filename) throws IOException {
+        Path source = Paths.get(filename);
+        Path snapshot = snapshotOf(source);
+        if (!Files.isRegularFile(snapshot)) {
+            return null;
+        }
+
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        if (buffer.limit() < HEADER_SIZE
+                || buffer.getInt(0) != MAGIC
+                || buffer.getInt(Integer.BYTES) != FORMAT_VERSION) {
+            return null;
+        }
+
+        try {
+            long size = Files.size(source);
+            long modified = Files.getLastModifiedTime(source).toMillis();
+            if (buffer.getLong(SOURCE_SIZE) != size
+                    || buffer.getLong(SOURCE_MODIFIED) != modified) {
+                return null;
+            }
+        } catch (NoSuchFileException e) {
+            // The snapshot can be used on its own.
+        }
+        return new MappedPropertyStore(buffer);
+    }
+
+    /**
+     * Writes a snapshot of the specified properties.
+     * The snapshot is written to a new temporary file first and then
+     * moved into place, so readers never see a partial snapshot,
+     * even while other threads or processes write the same snapshot.
+     *
+     * @param store    the properties to write
+     * @param size     the size of the source of the properties
+     * @param modified the modification time of the source in milliseconds
+     * @param snapshot the path to write the snapshot to
+     * @throws IOException if the snapshot cannot be written
+     */
+    static void write(final PropertyStore store,
+                      final long size,
+                      final long modified,
+                      final Path snapshot) throws IOException {
+        Image image = new Image(store);
+        Path temporary = Files.createTempFile(snapshot.toAbsolutePath().getParent(),
+                snapshot.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream os = Files.newOutputStream(temporary);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+                image.writeTo(out, size, modified);
+            }
+            Files.move(temporary, snapshot,
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+    }
+
+    /**
+     * Compacts the specified properties into a snapshot held in
+     * a direct buffer, outside the heap.
+     * Keys and string values are kept as UTF-8 bytes
+     * and decoded when they are read.
+     *
+     * @param store     the properties to compact
+     * @param cacheSize the number of decoded string values to keep,
+     *                  or 0 to decode them on every read
+     * @return the compact properties
+     */
+    static MappedPropertyStore compact(final PropertyStore store, final int cacheSize) {
+        Image image = new Image(store);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(image.length);
+        OutputStream os = new OutputStream() {
+            @Override
+            public void write(final int b) {
+                buffer.put((byte) b);
+            }
+
+            @Override
+            public void write(final byte[] b, final int off, final int len) {
+                buffer.put(b, off, len);
+            }
+        };
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+            image.writeTo(out, 0, 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+        return new MappedPropertyStore(buffer, cacheSize);
+    }
+
+    /** The layout of the snapshot of some properties. */
+    private static final class Image {
+
+        /** The properties in the snapshot. */
+        private final PropertyStore store;
+
+        /** The slots of the entries of each key. */
+        private final Map<String, List<Integer>> groups = new HashMap<>();
+
+        /** The distinct keys, in the order their entries are written. */
+        private final String[] keys;
+
+        /** The number of slots of the index. */
+        private final int slotCount;
+
+        /** The number of buckets of the index. */
+        private final int bucketCount;
+
+        /** The index of the key in each slot of the index, or -1. */
+        private final int[] index;
+
+        /** The displacement of each bucket of the index. */
+        private final int[] displacements;
+
+        /** The encoded keys and string values, in the order they are written. */
+        private final List<byte[]> strings = new ArrayList<>();
+
+        /** The value of each entry, or the offset of its string. */
+        private final long[] values;
+
+        /** The offset of each key. */
+        private final int[] keyOffsets;
+
+        /** The first entry of each key. */
+        private final int[] firstEntries;
+
+        /** The size of the snapshot in bytes. */
+        private final int length;
+
+        /**
+         * Lays out the snapshot of the specified properties.
+         *
+         * @param store the properties to lay out
+         * @throws IllegalStateException if the snapshot would exceed 2 GB
+         */
+        Image(final PropertyStore store) {
+            this.store = store;
+
+            // Group the entries of each key
+            for (int slot = 0; slot < store.capacity(); slot++) {
+                if (store.isUsed(slot)) {
+                    groups.computeIfAbsent(store.key(slot), k -> new ArrayList<>()).add(slot);
+                }
+            }
+            keys = groups.keySet().toArray(new String[0]);
+            slotCount = keys.length + keys.length / SLOT_SLACK + 1;
+            bucketCount = keys.length / KEYS_PER_BUCKET + 1;
+            index = new int[slotCount];
+            displacements = buildIndex(keys, slotCount, bucketCount, index);
+
+            // Lay out the strings after the entries
+            long entriesOffset = HEADER_SIZE + (long) (bucketCount + slotCount) * Integer.BYTES;
+            long stringOffset = entriesOffset + (long) store.size() * ENTRY_SIZE;
+            values = new long[store.size()];
+            keyOffsets = new int[keys.length];
+            firstEntries = new int[keys.length];
+            int entry = 0;
+            for (int k = 0; k < keys.length; k++) {
+                keyOffsets[k] = checkedOffset(stringOffset);
+                stringOffset += addString(strings, keys[k]);
+                firstEntries[k] = entry;
+                for (int slot : groups.get(keys[k])) {
+                    if (store.type(slot) == PropertyType.STRING) {
+                        values[entry] = checkedOffset(stringOffset);
+                        stringOffset += addString(strings, store.stringAt(slot));
+                    } else {
+                        values[entry] = store.bitsAt(slot);
+                    }
+                    entry++;
+                }
+            }
+            length = checkedOffset(stringOffset);
+        }
+
+        /**
+         * Writes the snapshot.
+         *
+         * @param out      the output to write to
+         * @param size     the size of the source of the properties
+         * @param modified the modification time of the source in milliseconds
+         * @throws IOException if the snapshot cannot be written
+         */
+        void writeTo(final DataOutputStream out,
+                     final long size,
+                     final long modified) throws IOException {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(size);
+            out.writeLong(modified);
+            out.writeInt(store.size());
+            out.writeInt(slotCount);
+            out.writeInt(bucketCount);
+            out.writeInt(0);
+            for (int d : displacements) {
+                out.writeInt(d);
+            }
+            for (int k : index) {
+                out.writeInt(k < 0 ? -1 : firstEntries[k]);
+            }
+
+            int entry = 0;
+            for (int k = 0; k < keys.length; k++) {
+                List<Integer> group = groups.get(keys[k]);
+                for (int i = 0; i < group.size(); i++) {
+                    out.writeLong(values[entry++]);
+                    out.writeInt(keyOffsets[k]);
+                    out.writeByte(store.type(group.get(i)));
+                    out.writeByte(i == group.size() - 1 ? 1 : 0);
+                    out.writeShort(0);
+                }
+            }
+            for (byte[] bytes : strings) {
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+
+    }
+
+    /**
+     * Builds a perfect-hash index of the specified keys with
+     * the hash-and-displace method. Buckets are placed from the largest,
+     * each with the first displacement that puts all its keys in free slots.
+     *
+     * @param keys        the keys to index
+     * @param slotCount   the number of slots of the index
+     * @param bucketCount the number of buckets
+     * @param index       filled with the index of the key in each slot,
+     *                    or -1 for empty slots
+     * @return the displacement of each bucket
+     */
+    private static int[] buildIndex(final String[] keys,
+                                    final int slotCount,
+                                    final int bucketCount,
+                                    final int[] index) {
+        long[] hashes = new long[keys.length];
+        List<List<Integer>> buckets = new ArrayList<>();
+        for (int b = 0; b < bucketCount; b++) {
+            buckets.add(new ArrayList<>());
+        }
+        for (int k = 0; k < keys.length; k++) {
+            hashes[k] = hash(keys[k]);
+            buckets.get(bucket(hashes[k], bucketCount)).add(k);
+        }
+        Integer[] order = new Integer[bucketCount];
+        for (int b = 0; b < bucketCount; b++) {
+            order[b] = b;
+        }
+        Arrays.sort(order, (a, b) -> buckets.get(b).size() - buckets.get(a).size());
+
+        Arrays.fill(index, -1);
+        int[] displacements = new int[bucketCount];
+        int[] placed = new int[KEYS_PER_BUCKET * KEYS_PER_BUCKET];
+        for (int b : order) {
+            List<Integer> bucket = buckets.get(b);
+            if (bucket.isEmpty()) {
+                break;
+            }
+            if (placed.length < bucket.size()) {
+                placed = new int[bucket.size()];
+            }
+            int d = 0;
+            while (!tryPlace(bucket, hashes, d, index, placed)) {
+                if (++d == MAX_DISPLACEMENT) {
+                    throw new IllegalStateException("Cannot build a perfect hash of the keys");
+                }
+            }
+            displacements[b] = d;
+        }
+        return displacements;
+    }
+
+    /**
+     * Places the keys of a bucket with the specified displacement
+     * if all of them fall into different free slots.
+     *
+     * @param bucket the indices of the keys in the bucket
+     * @param hashes the hashes of all keys
+     * @param d      the displacement to try
+     * @param index  the index being built
+     * @param placed a buffer for the slots of the keys
+     * @return true if the keys were placed
+     */
+    private static boolean tryPlace(final List<Integer> bucket,
+                                    final long[] hashes,
+                                    final int d,
+                                    final int[] index,
+                                    final int[] placed) {
+        for (int i = 0; i < bucket.size(); i++) {
+            int slot = slot(hashes[bucket.get(i)], d, index.length);
+            if (index[slot] >= 0) {
+                return false;
+            }
+            for (int j = 0; j < i; j++) {
+                if (placed[j] == slot) {
+                    return false;
+                }
+            }
+            placed[i] = slot;
+        }
+        for (int i = 0; i < bucket.size(); i++) {
+            index[placed[i]] = bucket.get(i);
+        }
+        return true;
+    }
+
+    /**
+     * Encodes a string for the string table.
+     *
+     * @param strings the encoded strings
+     * @param s       the string to add
+     * @return the number of bytes the string takes in the table
+     */
+    private static int addString(final List<byte[]> strings, final String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        strings.add(bytes);
+        return Integer.BYTES + bytes.length;
+    }
+
+    /**
+     * Checks that an offset can be mapped.
+     *
+     * @param offset the offset in the snapshot
+     * @return the offset as an integer
+     * @throws IllegalStateException if the snapshot would be too large
+     */
+    private static int checkedOffset(final long offset) {
+        if (offset > Integer.MAX_VALUE) {
+            throw new IllegalStateException("The snapshot would exceed 2 GB");
+        }
+        return (int) offset;
+    }
+
+}
@@ -0,0 +1,422 @@
+package util.properties;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Records how a {@link BasicProps} is used:
+ * the lookups of each key, split into hits, fallback hits and misses,
+ * the misses of each requested type and the time taken by loads.
+ * Lookups through the getters of the properties and of their views
+ * are recorded, handles and bulk reads are not.
+ * Counters are {@link LongAdder}s in a concurrent map,
+ * so threads reading the same keys hardly contend.
+ * Statistics are opt-in: while they are disabled,
+ * a lookup only checks that there are none.
+ * They can be read as a {@link Snapshot} or over JMX.
+ *
+ * @version 1.0
+ * @see BasicProps#enableStatistics()
+ */
+public final class PropsStatistics implements PropsStatisticsMXBean {
+
+    /** The number of keys reported by {@link #getHotKeys()}. */
+    private static final int HOT_KEYS = 10;
+
+    /** The number of nanoseconds in a millisecond. */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /** The counters of each key that was looked up. */
+    private final Map<String, KeyCounters> keys = new ConcurrentHashMap<>();
+
+    /** The number of misses of each requested type. */
+    private final Map<String, LongAdder> missesByType = new ConcurrentHashMap<>();
+
+    /** The number of completed loads. */
+    private final LongAdder loads = new LongAdder();
+
+    /** The number of failed loads. */
+    private final LongAdder loadFailures = new LongAdder();
+
+    /** The total time of completed loads in nanoseconds. */
+    private final LongAdder loadNanos = new LongAdder();
+
+    /** The time of the slowest completed load in nanoseconds. */
+    private final AtomicLong maxLoadNanos = new AtomicLong();
+
+    /** The name this is registered under with JMX, or null. */
+    private ObjectName name;
+
+    /** Statistics are created by {@link BasicProps#enableStatistics()}. */
+    PropsStatistics() {
+    }
+
+    /**
+     * Records a lookup.
+     *
+     * @param key      the key that was looked up
+     * @param t        the store it was looked up in
+     * @param slot     the slot that was found, or -1
+     * @param type     the requested {@link PropertyType}
+     * @param typeName the name of the requested type, counted on a miss
+     */
+    void lookup(final String key,
+                final PropertyStore t,
+                final int slot,
+                final byte type,
+                final String typeName) {
+        KeyCounters counters = keys.get(key);
+        if (counters == null) {
+            counters = keys.computeIfAbsent(key, k -> new KeyCounters());
+        }
+
+        if (slot < 0) {
+            counters.misses.increment();
+            missesByType.computeIfAbsent(typeName, k -> new LongAdder()).increment();
+        } else if (t.type(slot) == type) {
+            counters.hits.increment();
+        } else {
+            counters.fallbackHits.increment();
+        }
+    }
+
+    /**
+     * Records a completed load.
+     *
+     * @param nanos the time the load took in nanoseconds
+     */
+    void loaded(final long nanos) {
+        loads.increment();
+        loadNanos.add(nanos);
+        maxLoadNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /** Records a failed load. */
+    void loadFailed() {
+        loadFailures.increment();
+    }
+
+    /**
+     * Gives a copy of the current statistics.
+     * Counters updated while the copy is made
+     * may or may not be included.
+     *
+     * @return the snapshot of the statistics
+     */
+    public Snapshot snapshot() {
+        Map<String, Long> hits = new HashMap<>();
+        Map<String, Long> fallbackHits = new HashMap<>();
+        Map<String, Long> misses = new HashMap<>();
+        for (Map.Entry<String, KeyCounters> e : keys.entrySet()) {
+            KeyCounters counters = e.getValue();
+            putIfPositive(hits, e.getKey(), counters.hits.sum());
+            putIfPositive(fallbackHits, e.getKey(), counters.fallbackHits.sum());
+            putIfPositive(misses, e.getKey(), counters.misses.sum());
+        }
+        return new Snapshot(hits, fallbackHits, misses, getMissesByType(),
+                loads.sum(), loadFailures.sum(), loadNanos.sum(), maxLoadNanos.get());
+    }
+
+    /**
+     * Puts a count into a map if it is not zero.
+     *
+     * @param map   the map to put into
+     * @param key   the key of the count
+     * @param count the count
+     */
+    private static void putIfPositive(final Map<String, Long> map,
+                                      final String key,
+                                      final long count) {
+        if (count > 0) {
+            map.put(key, count);
+        }
+    }
+
+    /**
+     * Registers these statistics with the platform MBean server
+     * as "util.properties:type=PropsStatistics,name=" followed by the name.
+     *
+     * @param propsName the name of the properties, such as their file name
+     * @throws JMException if the name is invalid or already registered
+     */
+    public synchronized void register(final String propsName) throws JMException {
+        ObjectName objectName = new ObjectName("util.properties:type=PropsStatistics,name="
+                + ObjectName.quote(propsName));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        name = objectName;
+    }
+
+    /**
+     * Removes these statistics from the platform MBean server
+     * if they are registered.
+     *
+     * @throws JMException if they cannot be unregistered
+     */
+    public synchronized void unregister() throws JMException {
+        if (name == null) {
+            return;
+        }
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        if (server.isRegistered(name)) {
+            server.unregisterMBean(name);
+        }
+        name = null;
+    }
+
+    @Override
+    public long getHits() {
+        long sum = 0;
+        for (KeyCounters counters : keys.values()) {
+            sum += counters.hits.sum();
+        }
+        return sum;
+    }
+
+    @Override
+    public long getFallbackHits() {
+        long sum = 0;
+        for (KeyCounters counters : keys.values()) {
+            sum += counters.fallbackHits.sum();
+        }
+        return sum;
+    }
+
+    @Override
+    public long getMisses() {
+        long sum = 0;
+        for (KeyCounters counters : keys.values()) {
+            sum += counters.misses.sum();
+        }
+        return sum;
+    }
+
+    @Override
+    public Map<String, Long> getMissesByType() {
+        Map<String, Long> misses = new HashMap<>();
+        missesByType.forEach((type, count) -> misses.put(type, count.sum()));
+        return misses;
+    }
+
+    @Override
+    public Map<String, Long> getHotKeys() {
+        return snapshot().getHotKeys(HOT_KEYS);
+    }
+
+    @Override
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    @Override
+    public long getLoadFailures() {
+        return loadFailures.sum();
+    }
+
+    @Override
+    public double getTotalLoadMillis() {
+        return loadNanos.sum() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getMaxLoadMillis() {
+        return maxLoadNanos.get() / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Resets all counters to zero.
+     * Lookups and loads recorded at the same time may be kept.
+     */
+    @Override
+    public void reset() {
+        keys.clear();
+        missesByType.clear();
+        loads.reset();
+        loadFailures.reset();
+        loadNanos.reset();
+        maxLoadNanos.set(0);
+    }
+
+    /** The lookup counters of one key. */
+    private static final class KeyCounters {
+
+        /** The number of lookups that found the requested type. */
+        private final LongAdder hits = new LongAdder();
+
+        /** The number of lookups answered with another type. */
+        private final LongAdder fallbackHits = new LongAdder();
+
+        /** The number of lookups that found nothing. */
+        private final LongAdder misses = new LongAdder();
+
+    }
+
+    /**
+     * A copy of the statistics at one moment.
+     *
+     * @see PropsStatistics#snapshot()
+     */
+    public static final class Snapshot {
+
+        /** The direct hits of each key. */
+        private final Map<String, Long> hits;
+
+        /** The fallback hits of each key. */
+        private final Map<String, Long> fallbackHits;
+
+        /** The misses of each key. */
+        private final Map<String, Long> misses;
+
+        /** The misses of each requested type. */
+        private final Map<String, Long> missesByType;
+
+        /** The number of completed loads. */
+        private final long loads;
+
+        /** The number of failed loads. */
+        private final long loadFailures;
+
+        /** The total time of completed loads in nanoseconds. */
+        private final long loadNanos;
+
+        /** The time of the slowest load in nanoseconds. */
+        private final long maxLoadNanos;
+
+        /**
+         * Creates a snapshot of the specified counters.
+         *
+         * @param hits         the direct hits of each key
+         * @param fallbackHits the fallback hits of each key
+         * @param misses       the misses of each key
+         * @param missesByType the misses of each requested type
+         * @param loads        the number of completed loads
+         * @param loadFailures the number of failed loads
+         * @param loadNanos    the total time of completed loads
+         * @param maxLoadNanos the time of the slowest load
+         */
+        Snapshot(final Map<String, Long> hits,
+                 final Map<String, Long> fallbackHits,
+                 final Map<String, Long> misses,
+                 final Map<String, Long> missesByType,
+                 final long loads,
+                 final long loadFailures,
+                 final long loadNanos,
+                 final long maxLoadNanos) {
+            this.hits = Collections.unmodifiableMap(hits);
+            this.fallbackHits = Collections.unmodifiableMap(fallbackHits);
+            this.misses = Collections.unmodifiableMap(misses);
+            this.missesByType = Collections.unmodifiableMap(missesByType);
+            this.loads = loads;
+            this.loadFailures = loadFailures;
+            this.loadNanos = loadNanos;
+            this.maxLoadNanos = maxLoadNanos;
+        }
+
+        /**
+         * Gives the number of lookups of each key
+         * that found a value of the requested type.
+         *
+         * @return the keys with at least one hit, cannot be modified
+         */
+        public Map<String, Long> getHits() {
+            return hits;
+        }
+
+        /**
+         * Gives the number of lookups of each key
+         * answered with a value of another type.
+         *
+         * @return the keys with at least one fallback hit, cannot be modified
+         */
+        public Map<String, Long> getFallbackHits() {
+            return fallbackHits;
+        }
+
+        /**
+         * Gives the number of lookups of each key that found no value.
+         *
+         * @return the keys with at least one miss, cannot be modified
+         */
+        public Map<String, Long> getMisses() {
+            return misses;
+        }
+
+        /**
+         * Gives the number of misses by the requested type.
+         *
+         * @return the misses keyed by the name of the type, cannot be modified
+         */
+        public Map<String, Long> getMissesByType() {
+            return missesByType;
+        }
+
+        /**
+         * Gives the keys with the most successful lookups,
+         * counting both direct and fallback hits.
+         *
+         * @param limit the most keys to give
+         * @return the number of hits of the hottest keys, from the hottest
+         */
+        public Map<String, Long> getHotKeys(final int limit) {
+            Map<String, Long> total = new HashMap<>(hits);
+            fallbackHits.forEach((key, count) -> total.merge(key, count, Long::sum));
+            List<Map.Entry<String, Long>> entries = new ArrayList<>(total.entrySet());
+            entries.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+
+            Map<String, Long> hot = new LinkedHashMap<>();
+            for (Map.Entry<String, Long> e : entries.subList(0, Math.min(limit, entries.size()))) {
+                hot.put(e.getKey(), e.getValue());
+            }
+            return hot;
+        }
+
+        /**
+         * Gives the number of completed loads.
+         *
+         * @return the number of loads
+         */
+        public long getLoads() {
+            return loads;
+        }
+
+        /**
+         * Gives the number of failed loads.
+         *
+         * @return the number of failed loads
+         */
+        public long getLoadFailures() {
+            return loadFailures;
+        }
+
+        /**
+         * Gives the total time of completed loads.
+         *
+         * @return the time in nanoseconds
+         */
+        public long getLoadNanos() {
+            return loadNanos;
+        }
+
+        /**
+         * Gives the time of the slowest completed load.
+         *
+         * @return the time in nanoseconds
+         */
+        public long getMaxLoadNanos() {
+            return maxLoadNanos;
+        }
+
+    }
+
+}
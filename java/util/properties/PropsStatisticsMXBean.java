@@ -0,0 +1,82 @@
+package util.properties;
+
+import java.util.Map;
+
+/**
+ * The management interface of {@link PropsStatistics},
+ * through which the usage of properties can be watched over JMX.
+ *
+ * @version 1.0
+ * @see PropsStatistics#register(String)
+ */
+public interface PropsStatisticsMXBean {
+
+    /**
+     * Gives the number of lookups that found a value of the requested type.
+     *
+     * @return the number of direct hits
+     */
+    long getHits();
+
+    /**
+     * Gives the number of lookups answered with a value of another type,
+     * such as a long property read from an integer value.
+     *
+     * @return the number of fallback hits
+     */
+    long getFallbackHits();
+
+    /**
+     * Gives the number of lookups that found no value.
+     *
+     * @return the number of misses
+     */
+    long getMisses();
+
+    /**
+     * Gives the number of misses by the requested type.
+     *
+     * @return the misses keyed by the name of the type,
+     * such as "integer" or "string"
+     */
+    Map<String, Long> getMissesByType();
+
+    /**
+     * Gives the most often read keys.
+     *
+     * @return the number of lookups of the ten hottest keys
+     */
+    Map<String, Long> getHotKeys();
+
+    /**
+     * Gives the number of completed loads.
+     *
+     * @return the number of loads
+     */
+    long getLoads();
+
+    /**
+     * Gives the number of loads that failed.
+     *
+     * @return the number of failed loads
+     */
+    long getLoadFailures();
+
+    /**
+     * Gives the total time spent in completed loads.
+     *
+     * @return the time in milliseconds
+     */
+    double getTotalLoadMillis();
+
+    /**
+     * Gives the time of the slowest completed load.
+     *
+     * @return the time in milliseconds
+     */
+    double getMaxLoadMillis();
+
+    /** Resets all counters to zero. */
+    void reset();
+
+}
@@ -0,0 +1,222 @@
+package util.properties;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * The properties of a {@link BasicProps} whose keys start with a prefix,
+ * such as a namespace "db.pool.".
+ * Properties are read by their name without the prefix.
+ * The prefix and the name are looked up together
+ * without concatenating them, so reading through a view costs
+ * the same as reading the full key.
+ * A view always reads the current properties,
+ * so it stays valid when they are loaded again or cleared.
+ * Lookups are recorded under the full key
+ * if statistics of the properties are enabled.
+ *
+ * @version 1.1
+ * @see BasicProps#view(String)
+ */
+public final class PropsView {
+
+    /** The properties to read from. */
+    private final BasicProps props;
+
+    /** The beginning of the keys of this view. */
+    private final String prefix;
+
+    /**
+     * Creates a view of the specified properties.
+     *
+     * @param props  the properties to read from
+     * @param prefix the beginning of the keys of the view
+     */
+    PropsView(final BasicProps props, final String prefix) {
+        this.props = props;
+        this.prefix = prefix;
+    }
+
+    /**
+     * Gives the prefix of the keys of this view.
+     *
+     * @return the prefix added to every name
+     */
+    public String getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * Gives a view of the properties under a nested namespace.
+     *
+     * @param namespace the prefix to add to that of this view
+     * @return the view of the keys starting with both prefixes
+     */
+    public PropsView view(final String namespace) {
+        return new PropsView(props, prefix + namespace);
+    }
+
+    /**
+     * Gives the names of all properties of this view.
+     *
+     * @return the sorted keys without the prefix, cannot be modified
+     * @see BasicProps#keysWithPrefix(String)
+     */
+    public List<String> names() {
+        List<String> keys = props.keysWithPrefix(prefix);
+        int start = prefix.length();
+        return new AbstractList<String>() {
+            @Override
+            public String get(final int index) {
+                return keys.get(index).substring(start);
+            }
+
+            @Override
+            public int size() {
+                return keys.size();
+            }
+        };
+    }
+
+    /**
+     * Creates the exception thrown when a property is missing.
+     *
+     * @param typeName the name of the type of the property
+     * @param name     the name of the property
+     * @return the exception to throw
+     */
+    private NullPointerException missing(final String typeName, final String name) {
+        String message = "No " + typeName + " property \"" + prefix + name + "\"";
+        return new NullPointerException(message);
+    }
+
+    /**
+     * Get the {@link Integer} value associated with the given name.
+     *
+     * @param name the name of the property, without the prefix
+     * @return the integer value associated with that property
+     * @see BasicProps#getInt(String)
+     */
+    public int getInt(final String name) {
+        PropertyStore t = props.table;
+        int slot = t.find(prefix, name, PropertyType.INT, PropertyType.INT);
+        props.lookup(prefix, name, t, slot, PropertyType.INT, "integer");
+        if (slot < 0) {
+            throw missing("integer", name);
+        }
+
+        return (int) t.longAt(slot);
+    }
+
+    /**
+     * Get the {@link Long} value associated with the given name.
+     * This method will check for an integer value if no long value is found.
+     *
+     * @param name the name of the property, without the prefix
+     * @return the long value associated with that property
+     * @see BasicProps#getLong(String)
+     */
+    public long getLong(final String name) {
+        PropertyStore t = props.table;
+        int slot = t.find(prefix, name, PropertyType.LONG, PropertyType.INT);
+        props.lookup(prefix, name, t, slot, PropertyType.LONG, "long");
+        if (slot < 0) {
+            throw missing("long", name);
+        }
+
+        return t.longAt(slot);
+    }
+
+    /**
+     * Get the {@link Float} value associated with the given name.
+     *
+     * @param name the name of the property, without the prefix
+     * @return the float value associated with that property
+     * @see BasicProps#getFloat(String)
+     */
+    public float getFloat(final String name) {
+        PropertyStore t = props.table;
+        int slot = t.find(prefix, name, PropertyType.FLOAT, PropertyType.FLOAT);
+        props.lookup(prefix, name, t, slot, PropertyType.FLOAT, "float");
+        if (slot < 0) {
+            throw missing("float", name);
+        }
+
+        return (float) t.doubleAt(slot);
+    }
+
+    /**
+     * Get the {@link Double} value associated with the given name.
+     * This method will check for a float value if no double value is found.
+     *
+     * @param name the name of the property, without the prefix
+     * @return the double value associated with that property
+     * @see BasicProps#getDouble(String)
+     */
+    public double getDouble(final String name) {
+        PropertyStore t = props.table;
+        int slot = t.find(prefix, name, PropertyType.DOUBLE, PropertyType.FLOAT);
+        props.lookup(prefix, name, t, slot, PropertyType.DOUBLE, "double");
+        if (slot < 0) {
+            throw missing("double", name);
+        }
+
+        return t.doubleAt(slot);
+    }
+
+    /**
+     * Get the number associated with the given name, cast to integer.
+     *
+     * @param name the name of the property, without the prefix
+     * @return the value associated with that property
+     * after being cast to integer
+     * @see BasicProps#getAnyInt(String)
+     */
+    public int getAnyInt(final String name) {
+        PropertyStore t = props.table;
+        int slot = t.find(prefix, name, PropertyType.INT, PropertyType.LONG);
+        if (slot >= 0) {
+            props.lookup(prefix, name, t, slot, PropertyType.INT, "number");
+            return (int) t.longAt(slot);
+        }
+
+        slot = t.find(prefix, name, PropertyType.FLOAT, PropertyType.DOUBLE);
+        props.lookup(prefix, name, t, slot, PropertyType.INT, "number");
+        if (slot >= 0) {
+            return (int) t.doubleAt(slot);
+        }
+
+        throw missing("number", name);
+    }
+
+    /**
+     * Checks if the {@link String} associated with the given name
+     * is equal to "true".
+     *
+     * @param name the name of the property, without the prefix
+     * @return true if and only if the {@link String}
+     * associated with this property is equal to "true".
+     */
+    public boolean isTrue(final String name) {
+        return getString(name).equals("true");
+    }
+
+    /**
+     * Get the {@link String} value associated with the given name.
+     *
+     * @param name the name of the property, without the prefix
+     * @return the string value associated with that property
+     * @see BasicProps#getString(String)
+     */
+    public String getString(final String name) {
+        PropertyStore t = props.table;
+        int slot = t.find(prefix, name, PropertyType.STRING, PropertyType.STRING);
+        props.lookup(prefix, name, t, slot, PropertyType.STRING, "string");
+        if (slot < 0) {
+            throw missing("string", name);
+        }
+
+        return t.stringAt(slot);
+    }
+
+}
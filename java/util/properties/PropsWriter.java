@@ -0,0 +1,184 @@
+package util.properties;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Writes properties as "key=value" lines to a file channel
+ * through a large direct buffer.
+ * Numbers are formatted into a reused {@link StringBuilder},
+ * which appends their digits without creating strings,
+ * and all text is encoded as UTF-8 directly into the buffer.
+ * Doubles are the exception before Java 19, whose formatting
+ * allocates large integers for the magnitudes a double property has.
+ * Every value is written so that reading it back gives
+ * the same type and exactly the same value.
+ *
+ * @version 1.0
+ * @see BasicProps#save(String)
+ */
+final class PropsWriter implements Closeable {
+
+    /** The size of the buffer. */
+    private static final int BUFFER_SIZE = 1 << 18;
+
+    /** The most bytes a character is encoded to. */
+    private static final int MAX_CHARACTER_BYTES = 4;
+
+    /**
+     * The smallest magnitude parsed as an infinite float.
+     * A double of this value is written with all its digits,
+     * because its shortest form would be read back as a float.
+     */
+    private static final double FLOAT_OVERFLOW = 0x1.ffffffp127;
+
+    /** The exact digits of {@link PropsWriter#FLOAT_OVERFLOW}. */
+    private static final String FLOAT_OVERFLOW_DIGITS = "340282356779733661637539395458142568448";
+
+    /**
+     * Written after the separator of an empty string value.
+     * An empty value needs a second separator followed by something else,
+     * which is ignored when it is read.
+     */
+    private static final String EMPTY_VALUE = "=\"\"";
+
+    /** The channel to write to. */
+    private final FileChannel channel;
+
+    /** The bytes that are not written to the channel yet. */
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    /** The digits of the number being written. */
+    private final StringBuilder number = new StringBuilder();
+
+    /**
+     * Creates a writer to the specified channel.
+     *
+     * @param channel the channel to write to, at its current position
+     */
+    PropsWriter(final FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Writes the entry in the specified slot as a line.
+     *
+     * @param t    the store holding the entry
+     * @param slot the slot of the entry
+     * @throws IOException if the channel cannot be written
+     */
+    void write(final PropertyStore t, final int slot) throws IOException {
+        writeChars(t.key(slot));
+        put(LineParser.KEY_VALUE_SEPARATOR);
+        number.setLength(0);
+        switch (t.type(slot)) {
+            case PropertyType.INT:
+            case PropertyType.LONG:
+                writeChars(number.append(t.longAt(slot)));
+                break;
+            case PropertyType.FLOAT:
+                writeChars(number.append((float) t.doubleAt(slot)));
+                break;
+            case PropertyType.DOUBLE:
+                double d = t.doubleAt(slot);
+                if (Math.abs(d) == FLOAT_OVERFLOW) {
+                    writeChars(d < 0 ? "-" + FLOAT_OVERFLOW_DIGITS : FLOAT_OVERFLOW_DIGITS);
+                } else {
+                    writeChars(number.append(d));
+                }
+                break;
+            default:
+                String s = t.stringAt(slot);
+                writeChars(s.isEmpty() ? EMPTY_VALUE : s);
+                break;
+        }
+        put('\n');
+    }
+
+    /**
+     * Writes a line break,
+     * for example to end the last line of a file before appending.
+     *
+     * @throws IOException if the channel cannot be written
+     */
+    void newLine() throws IOException {
+        put('\n');
+    }
+
+    /**
+     * Encodes the specified characters as UTF-8 into the buffer.
+     * Unpaired surrogates are replaced with '?', as by
+     * {@link String#getBytes(java.nio.charset.Charset)}.
+     *
+     * @param s the characters to write
+     * @throws IOException if the channel cannot be written
+     */
+    private void writeChars(final CharSequence s) throws IOException {
+        int length = s.length();
+        for (int i = 0; i < length; i++) {
+            if (buffer.remaining() < MAX_CHARACTER_BYTES) {
+                flush();
+            }
+
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | c >> 6));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int code = Character.toCodePoint(c, s.charAt(++i));
+                buffer.put((byte) (0xF0 | code >> 18));
+                buffer.put((byte) (0x80 | code >> 12 & 0x3F));
+                buffer.put((byte) (0x80 | code >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | code & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | c >> 12));
+                buffer.put((byte) (0x80 | c >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+
+    /**
+     * Writes a single ASCII character.
+     *
+     * @param c the character to write
+     * @throws IOException if the channel cannot be written
+     */
+    private void put(final char c) throws IOException {
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+        buffer.put((byte) c);
+    }
+
+    /**
+     * Writes the buffered bytes to the channel.
+     *
+     * @throws IOException if the channel cannot be written
+     */
+    void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Writes the buffered bytes. The channel is not closed.
+     *
+     * @throws IOException if the channel cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+}
@@ -0,0 +1,306 @@
+package util.properties;
+
+import util.log.Logger;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Provides properties that are reloaded whenever their file changes.
+ * The file is watched with a {@link WatchService} and parsed
+ * on a background thread into a new table, which is then published
+ * with a single reference swap.
+ * Readers never lock and always see either the old or the new
+ * properties in full, never a partially loaded state.
+ * If the file cannot be read or parsed, the current properties are kept
+ * and the error is logged.
+ *
+ * @version 1.6
+ */
+public class ReloadingProps extends BasicProps {
+
+    /**
+     * The time in milliseconds without further changes to the file
+     * that is waited for before reloading it.
+     * Editors often write a file in several steps.
+     */
+    private static final int SETTLE_PERIOD = 50;
+
+    /** The file the properties are loaded from. */
+    private final Path path;
+
+    /** A {@link Logger} to write all errors to. */
+    private final Logger l;
+
+    /** The listeners to notify about changes. */
+    private final List<PropsListener> listeners = new CopyOnWriteArrayList<>();
+
+    /** The service watching the directory of the file. */
+    private final WatchService watcher;
+
+    /**
+     * Used to control the watching thread.
+     *
+     * @see ReloadingProps#watch()
+     */
+    private volatile boolean running;
+
+    /**
+     * Loads the properties from the specified file and
+     * starts a thread that reloads them whenever the file changes.
+     *
+     * @param filename the name of the properties file to load and watch
+     * @param logger   {@link Logger} used for logging errors during reloads
+     * @throws FileNotFoundException if the specified file is not found
+     * @throws IOException           if the file cannot be watched
+     */
+    public ReloadingProps(final String filename, final Logger logger)
+            throws IOException {
+        l = logger;
+        path = Paths.get(filename).toAbsolutePath();
+        PropertyTable first = new PropertyTable();
+        read(path.toString(), first);
+        table = first;
+
+        watcher = path.getFileSystem().newWatchService();
+        path.getParent().register(watcher, ENTRY_CREATE, ENTRY_MODIFY);
+        running = true;
+        Thread thread = new Thread(this::watch, "ReloadingProps " + path.getFileName());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Loads and watches the properties from the specified file.
+     * Errors during reloads will be printed to standard error.
+     * This is equivalent to using
+     * {@link ReloadingProps#ReloadingProps(String, Logger)} with null
+     * as the second argument.
+     *
+     * @param filename the name of the properties file to load and watch
+     * @throws FileNotFoundException if the specified file is not found
+     * @throws IOException           if the file cannot be watched
+     */
+    public ReloadingProps(final String filename) throws IOException {
+        this(filename, null);
+    }
+
+    /**
+     * The default behaviour for caught {@link Exception}s.
+     *
+     * @param e the caught {@link Exception}
+     */
+    private void defaultCatch(final Exception e) {
+        if (l == null) {
+            e.printStackTrace();
+        } else {
+            l.log(e);
+        }
+    }
+
+    /**
+     * Registers a listener to be notified after each reload
+     * that changed any properties.
+     * Listeners are called on the thread that performed the reload.
+     * An exception thrown by a listener is logged
+     * and does not keep the other listeners from being notified.
+     *
+     * @param listener the listener to add
+     */
+    public void addListener(final PropsListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Stops notifying the specified listener.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeListener(final PropsListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Reads the file again and publishes the new properties
+     * if any of them changed.
+     * This happens automatically when the file changes,
+     * but can also be triggered directly.
+     *
+     * @return the keys that changed, empty if none did
+     * or the file could not be read
+     */
+    public synchronized Set<String> reload() {
+        PropertyTable next = new PropertyTable();
+        try {
+            read(path.toString(), next);
+        } catch (FileNotFoundException | RuntimeException e) {
+            defaultCatch(e);
+            return Collections.emptySet();
+        }
+
+        Set<String> changed = new HashSet<>();
+        table.addChangedKeys(next, changed);
+        if (changed.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        table = next;
+        changed = Collections.unmodifiableSet(changed);
+        for (PropsListener listener : listeners) {
+            try {
+                listener.propertiesChanged(this, changed);
+            } catch (RuntimeException e) {
+                // Neither the other listeners nor the watcher may be stopped
+                defaultCatch(e);
+            }
+        }
+        return changed;
+    }
+
+    /** Stops watching the file. The current properties remain readable. */
+    public void close() {
+        running = false;
+        try {
+            watcher.close();
+        } catch (IOException e) {
+            defaultCatch(e);
+        }
+    }
+
+    /**
+     * The properties of a {@link ReloadingProps} are defined by its file.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("Cannot clear " + path);
+    }
+
+    /**
+     * The properties of a {@link ReloadingProps} are defined by its file.
+     *
+     * @param filename ignored
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void load(final String filename) {
+        throw new UnsupportedOperationException("Cannot load into " + path);
+    }
+
+    /**
+     * The properties of a {@link ReloadingProps} are defined by its file.
+     *
+     * @param filename ignored
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void loadParallel(final String filename) {
+        throw new UnsupportedOperationException("Cannot load into " + path);
+    }
+
+    /**
+     * The properties of a {@link ReloadingProps} are defined by its file.
+     *
+     * @param filename ignored
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void loadLazy(final String filename) {
+        throw new UnsupportedOperationException("Cannot load into " + path);
+    }
+
+    /**
+     * The properties of a {@link ReloadingProps} are defined by its file.
+     *
+     * @return never returns
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public PropsFeed feed() {
+        throw new UnsupportedOperationException("Cannot load into " + path);
+    }
+
+    /**
+     * The properties of a {@link ReloadingProps} are defined by its file.
+     *
+     * @param filename ignored
+     * @return never returns
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public Set<String> reload(final String filename) {
+        throw new UnsupportedOperationException("Cannot load into " + path);
+    }
+
+    /**
+     * The properties of a {@link ReloadingProps} are defined by its file.
+     *
+     * @param filename ignored
+     * @return never returns
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean loadSnapshot(final String filename) {
+        throw new UnsupportedOperationException("Cannot load into " + path);
+    }
+
+    /**
+     * Waits for changes to the file and reloads it
+     * once no further changes arrive for the {@link #SETTLE_PERIOD}.
+     */
+    private void watch() {
+        try {
+            while (running) {
+                if (!isFileChanged(watcher.take())) {
+                    continue;
+                }
+
+                WatchKey key = watcher.poll(SETTLE_PERIOD, TimeUnit.MILLISECONDS);
+                while (key != null) {
+                    isFileChanged(key);
+                    key = watcher.poll(SETTLE_PERIOD, TimeUnit.MILLISECONDS);
+                }
+                if (running) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ignored) {
+        }
+    }
+
+    /**
+     * Consumes the events of the specified key
+     * and checks if any of them concern the file.
+     *
+     * @param key the signalled {@link WatchKey}
+     * @return true if the file may have changed
+     */
+    private boolean isFileChanged(final WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW || path.getFileName().equals(event.context())) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+}
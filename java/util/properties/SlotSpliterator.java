@@ -0,0 +1,95 @@
+package util.properties;
+
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+
+/**
+ * Traverses the slots of the entries of one {@link PropertyType}
+ * in a range of slots of a {@link PropertyStore}.
+ * The slots are given as primitive indices,
+ * so the keys and values they hold can be read without boxing.
+ * The range is split in halves, so the entries can be processed in parallel.
+ * The store must not be changed while it is traversed.
+ *
+ * @version 1.1
+ */
+final class SlotSpliterator implements Spliterator.OfInt {
+
+    /** The smallest range of slots that is split. */
+    private static final int MIN_SPLIT = 1 << 10;
+
+    /** The store to traverse. */
+    private final PropertyStore table;
+
+    /** The {@link PropertyType} of the traversed entries. */
+    private final byte type;
+
+    /** The next slot to visit. */
+    private int slot;
+
+    /** The slot after the last slot of the range. */
+    private final int end;
+
+    /**
+     * Creates a spliterator over the specified range of slots.
+     *
+     * @param table the store to traverse
+     * @param type  the {@link PropertyType} of the traversed entries
+     * @param slot  the first slot of the range
+     * @param end   the slot after the last slot of the range
+     */
+    SlotSpliterator(final PropertyStore table,
+                    final byte type,
+                    final int slot,
+                    final int end) {
+        this.table = table;
+        this.type = type;
+        this.slot = slot;
+        this.end = end;
+    }
+
+    @Override
+    public boolean tryAdvance(final IntConsumer action) {
+        while (slot < end) {
+            int s = slot++;
+            if (table.isUsed(s) && table.type(s) == type) {
+                action.accept(s);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void forEachRemaining(final IntConsumer action) {
+        for (; slot < end; slot++) {
+            if (table.isUsed(slot) && table.type(slot) == type) {
+                action.accept(slot);
+            }
+        }
+    }
+
+    @Override
+    public Spliterator.OfInt trySplit() {
+        int middle = (slot + end) >>> 1;
+        if (end - slot < MIN_SPLIT) {
+            return null;
+        }
+
+        SlotSpliterator prefix = new SlotSpliterator(table, type, slot, middle);
+        slot = middle;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        int capacity = table.capacity();
+        return capacity == 0 ? 0 : (long) table.size() * (end - slot) / capacity;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | DISTINCT | NONNULL;
+    }
+
+}
@@ -0,0 +1,74 @@
+package benchmark;
+
+import util.file.editing.AsyncFileReader;
+import util.file.editing.WrappedReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures how many reads one thread keeps in flight with
+ * {@link AsyncFileReader#readFile(String)}, and how long that thread is
+ * busy issuing them, compared to reading the same files one after another
+ * with {@link WrappedReader#readFile(String)}.
+ * Pass the number of reads and the size of the files in kilobytes.
+ */
+public final class AsyncReadBenchmark {
+
+    private static final int READS = 20_000;
+
+    private static final int KILOBYTES = 64;
+
+    private static final int FILES = 64;
+
+    private AsyncReadBenchmark() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        int reads = args.length > 0 ? Integer.parseInt(args[0]) : READS;
+        int kilobytes = args.length > 1 ? Integer.parseInt(args[1]) : KILOBYTES;
+        String[] names = new String[FILES];
+        byte[] contents = "0123456789abcdef\n".repeat(kilobytes * 1024 / 17).getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < FILES; i++) {
+            File file = File.createTempFile("async", ".txt");
+            file.deleteOnExit();
+            Files.write(file.toPath(), contents);
+            names[i] = file.getPath();
+        }
+
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            long length = 0;
+            for (int i = 0; i < reads; i++) {
+                length += WrappedReader.readFile(names[i % FILES]).length();
+            }
+            double blocking = (System.nanoTime() - start) / 1e6;
+
+            AtomicInteger inFlight = new AtomicInteger();
+            int peak = 0;
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[reads];
+            start = System.nanoTime();
+            for (int i = 0; i < reads; i++) {
+                peak = Math.max(peak, inFlight.incrementAndGet());
+                futures[i] = AsyncFileReader.readFile(names[i % FILES])
+                        .whenComplete((text, e) -> inFlight.decrementAndGet());
+            }
+            double issued = (System.nanoTime() - start) / 1e6;
+            CompletableFuture.allOf(futures).join();
+            double async = (System.nanoTime() - start) / 1e6;
+            if (length != (long) reads * futures[0].join().toString().length()) {
+                throw new IllegalStateException("Different contents");
+            }
+
+            System.out.printf("%d reads of %d KB%n", reads, kilobytes);
+            System.out.printf("blocking readFile:  %8.1f ms, caller busy throughout%n", blocking);
+            System.out.printf("async readFile:     %8.1f ms, caller busy %.1f ms, "
+                    + "peak %d reads in flight%n", async, issued, peak);
+        }
+    }
+
+}
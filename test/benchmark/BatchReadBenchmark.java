@@ -0,0 +1,68 @@
+package benchmark;
+
+import util.file.editing.BatchFileReader;
+import util.file.editing.WrappedReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares reading many small files one after another with
+ * {@link WrappedReader#readFile(String)} to reading them concurrently with
+ * {@link BatchFileReader#readFiles(java.util.Collection, int, java.util.function.BiConsumer, util.log.Logger)}
+ * at several maximum concurrencies.
+ * The files are in the page cache after the first round, so this measures
+ * the overhead of the batch; the gain on cold NVMe or network disks,
+ * where each read waits for the device, is larger.
+ * Pass the number of files and their size in kilobytes.
+ */
+public final class BatchReadBenchmark {
+
+    private static final int FILES = 20_000;
+
+    private static final int KILOBYTES = 4;
+
+    private static final int[] CONCURRENCIES = {1, 8, 32, BatchFileReader.DEFAULT_MAX_CONCURRENCY};
+
+    private BatchReadBenchmark() {
+    }
+
+    public static void main(final String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : FILES;
+        int kilobytes = args.length > 1 ? Integer.parseInt(args[1]) : KILOBYTES;
+        File directory = Files.createTempDirectory("batch").toFile();
+        directory.deleteOnExit();
+        byte[] contents = "0123456789abcdef\n".repeat(kilobytes * 1024 / 17).getBytes(StandardCharsets.UTF_8);
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            File file = new File(directory, "file" + i + ".txt");
+            file.deleteOnExit();
+            Files.write(file.toPath(), contents);
+            names.add(file.getPath());
+        }
+
+        System.out.printf("%d files of %d KB, %s%n", count, kilobytes,
+                BatchFileReader.usesVirtualThreads() ? "virtual threads" : "platform threads");
+        long[] length = new long[1];
+        double sequential = Benchmarks.millis(2, 5, () -> {
+            for (String name : names) {
+                length[0] += WrappedReader.readFile(name).length();
+            }
+        });
+        System.out.printf("one at a time:        %8.1f ms%n", sequential);
+        for (int concurrency : CONCURRENCIES) {
+            double batch = Benchmarks.millis(2, 5, () ->
+                    BatchFileReader.readFiles(names, concurrency, (name, text) ->
+                            length[0] += text.length(), null));
+            System.out.printf("batch, %3d at a time: %8.1f ms%n", concurrency, batch);
+        }
+        if (length[0] != (long) names.size() * contents.length * 7 * (1 + CONCURRENCIES.length)) {
+            throw new IllegalStateException("Different contents");
+        }
+    }
+
+}
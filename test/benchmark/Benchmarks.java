@@ -0,0 +1,103 @@
+package benchmark;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/** Shared helpers of the benchmark programs. */
+final class Benchmarks {
+
+    /** The number of value kinds written by {@link #generateProps(int)}. */
+    private static final int KINDS = 5;
+
+    private Benchmarks() {
+    }
+
+    /**
+     * Writes a temporary ".props" file with the specified number of entries,
+     * cycling through integer, long, float, double and string values.
+     * The key of entry i is "key i".
+     */
+    static File generateProps(final int entries) throws IOException {
+        File file = File.createTempFile("benchmark", ".props");
+        file.deleteOnExit();
+        try (BufferedWriter w = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < entries; i++) {
+                w.write("key ");
+                w.write(Integer.toString(i));
+                w.write('=');
+                w.write(valueFor(i));
+                w.write('\n');
+            }
+        }
+        return file;
+    }
+
+    /** The value that {@link #generateProps(int)} writes for entry i. */
+    static String valueFor(final int i) {
+        switch (i % KINDS) {
+            case 0:
+                return Integer.toString(i);
+            case 1:
+                return Long.toString(i * 10_000_000_000L);
+            case 2:
+                return (i % 1000) + ".25";
+            case 3:
+                return i + "e300";
+            default:
+                return "value number " + i;
+        }
+    }
+
+    /** The kind of a generated value: int, long, float, double or string. */
+    static int typeOf(final String value) {
+        char c = value.charAt(0);
+        if (c == 'v') {
+            return 4;
+        }
+        if (value.indexOf('e') >= 0) {
+            return 3;
+        }
+        if (value.indexOf('.') >= 0) {
+            return 2;
+        }
+        return value.length() > 10 ? 1 : 0;
+    }
+
+    /** An operation to time. */
+    interface Operation {
+        void run() throws IOException;
+    }
+
+    /**
+     * Runs the operation a number of times to warm up
+     * and then gives its average time in milliseconds.
+     */
+    static double millis(final int warmup, final int runs, final Operation operation)
+            throws IOException {
+        for (int i = 0; i < warmup; i++) {
+            operation.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            operation.run();
+        }
+        return (System.nanoTime() - start) / 1e6 / runs;
+    }
+
+    /** Gives the used heap after several garbage collections. */
+    static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ignored) {
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+}
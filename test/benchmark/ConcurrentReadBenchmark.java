@@ -0,0 +1,95 @@
+package benchmark;
+
+import util.properties.BasicProps;
+import util.properties.ConcurrentProps;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compares the read throughput of {@link BasicProps} and
+ * {@link ConcurrentProps} for an increasing number of reading threads,
+ * with and without a thread reloading the properties.
+ * Reloading is only safe with {@link ConcurrentProps}.
+ */
+public final class ConcurrentReadBenchmark {
+
+    private static final int ENTRIES = 10_000;
+    private static final long MEASURE_MILLIS = 1_000;
+
+    private ConcurrentReadBenchmark() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        File file = Benchmarks.generateProps(ENTRIES);
+        String[] keys = new String[ENTRIES / 5];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "key " + (i * 5);
+        }
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%8s %14s %14s %18s%n",
+                "threads", "basic ops/s", "concurrent", "concurrent+reload");
+        for (int threads = 1; threads <= Math.max(2, cores * 2); threads *= 2) {
+            BasicProps basic = new BasicProps(file.getPath());
+            ConcurrentProps concurrent = new ConcurrentProps(file.getPath());
+            measure(basic, keys, threads, null);
+            double basicOps = measure(basic, keys, threads, null);
+            double concurrentOps = measure(concurrent, keys, threads, null);
+            double reloadOps = measure(concurrent, keys, threads, file);
+            System.out.printf("%8d %14.0f %14.0f %18.0f%n",
+                    threads, basicOps, concurrentOps, reloadOps);
+        }
+    }
+
+    /**
+     * Reads integer properties from the specified number of threads
+     * and gives the number of reads per second.
+     * If a file is given, it is loaded repeatedly while reading.
+     */
+    private static double measure(final BasicProps props,
+                                  final String[] keys,
+                                  final int threads,
+                                  final File reload) throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder reads = new LongAdder();
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+            Thread reader = new Thread(() -> {
+                long count = 0;
+                long sum = 0;
+                int i = seed;
+                while (running.get()) {
+                    for (int j = 0; j < 1024; j++) {
+                        sum += props.getInt(keys[i++ % keys.length]);
+                    }
+                    count += 1024;
+                }
+                reads.add(count + (sum == 42 ? 1 : 0));
+                done.countDown();
+            });
+            reader.start();
+        }
+
+        long end = System.currentTimeMillis() + MEASURE_MILLIS;
+        while (System.currentTimeMillis() < end) {
+            if (reload != null) {
+                load(props, reload);
+            } else {
+                Thread.sleep(10);
+            }
+        }
+        running.set(false);
+        done.await();
+        return reads.sum() * 1000.0 / MEASURE_MILLIS;
+    }
+
+    private static void load(final BasicProps props, final File file) throws IOException {
+        props.load(file.getPath());
+    }
+
+}
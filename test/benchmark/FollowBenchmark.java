@@ -0,0 +1,116 @@
+package benchmark;
+
+import util.file.editing.FileFollower;
+import util.file.editing.WrappedReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares finding the new lines of a growing log by reading all of it
+ * again every cycle, as the log scanners did, to {@link FileFollower#poll()}.
+ * Then measures how long a line takes to reach a waiting follower,
+ * and how much CPU time the follower uses while the file is idle.
+ * Pass the number of lines the log starts with,
+ * the number of cycles and the lines appended per cycle.
+ */
+public final class FollowBenchmark {
+
+    private static final int INITIAL_LINES = 200_000;
+
+    private static final int CYCLES = 50;
+
+    private static final int LINES_PER_CYCLE = 100;
+
+    private static final int LATENCY_LINES = 20;
+
+    private static final long IDLE_MILLIS = 2000;
+
+    private FollowBenchmark() {
+    }
+
+    private static void append(final File file, final int from, final int lines) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = from; i < from + lines; i++) {
+            sb.append("2026-10-18 12:00:00 INFO line ").append(i).append(" of the log\n");
+        }
+        Files.write(file.toPath(), sb.toString().getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+    }
+
+    public static void main(final String[] args) throws Exception {
+        int initial = args.length > 0 ? Integer.parseInt(args[0]) : INITIAL_LINES;
+        int cycles = args.length > 1 ? Integer.parseInt(args[1]) : CYCLES;
+        int perCycle = args.length > 2 ? Integer.parseInt(args[2]) : LINES_PER_CYCLE;
+        File file = File.createTempFile("follow", ".log");
+        file.deleteOnExit();
+        append(file, 0, initial);
+
+        // Rereading: all lines every cycle, keeping those after the last count
+        int count = initial;
+        long reread = 0;
+        long newLines = 0;
+        for (int cycle = 0; cycle < cycles; cycle++) {
+            append(file, count, perCycle);
+            long start = System.nanoTime();
+            ArrayList<String> lines = WrappedReader.readFileLines(file.getPath());
+            List<String> added = lines.subList(count, lines.size());
+            newLines += added.size();
+            count = lines.size();
+            reread += System.nanoTime() - start;
+        }
+
+        FileFollower follower = new FileFollower(file.getPath(), true, null);
+        long followed = 0;
+        long polled = 0;
+        for (int cycle = 0; cycle < cycles; cycle++) {
+            append(file, count, perCycle);
+            count += perCycle;
+            long start = System.nanoTime();
+            polled += follower.poll().size();
+            followed += System.nanoTime() - start;
+        }
+        if (polled != newLines) {
+            throw new IllegalStateException("Different numbers of new lines");
+        }
+        System.out.printf("%d cycles of %d lines, on a log of %d lines%n", cycles, perCycle, initial);
+        System.out.printf("reread all:  %8.3f ms per cycle%n", reread / 1e6 / cycles);
+        System.out.printf("follow poll: %8.3f ms per cycle%n", followed / 1e6 / cycles);
+
+        // Latency and idle cost of a waiting follower
+        BlockingQueue<Long> arrivals = new ArrayBlockingQueue<>(LATENCY_LINES);
+        AtomicLong threadId = new AtomicLong();
+        Thread thread = new Thread(() -> {
+            threadId.set(Thread.currentThread().getId());
+            follower.follow(line -> arrivals.add(System.nanoTime()));
+        });
+        thread.start();
+        long latency = 0;
+        for (int i = 0; i < LATENCY_LINES; i++) {
+            Thread.sleep(50);
+            long start = System.nanoTime();
+            append(file, count++, 1);
+            latency += arrivals.take() - start;
+        }
+
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        long cpu = bean.getThreadCpuTime(threadId.get());
+        Thread.sleep(IDLE_MILLIS);
+        cpu = bean.getThreadCpuTime(threadId.get()) - cpu;
+        follower.close();
+        thread.join();
+        System.out.printf("waiting follower: %.3f ms per line from write to delivery, "
+                + "%.3f ms CPU time in %d ms idle%n", latency / 1e6 / LATENCY_LINES, cpu / 1e6, IDLE_MILLIS);
+    }
+
+}
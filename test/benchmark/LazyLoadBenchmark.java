@@ -0,0 +1,88 @@
+package benchmark;
+
+import util.properties.BasicProps;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.Reference;
+
+/**
+ * Compares {@link BasicProps#load(String)} with
+ * {@link BasicProps#loadLazy(String)}: the time to load files of
+ * several sizes, the time to then read one percent of the keys
+ * and the heap retained after loading.
+ * Run with a fixed heap, e.g. <code>-Xms2g -Xmx2g</code>.
+ */
+public final class LazyLoadBenchmark {
+
+    private static final int[] SIZES = {10_000, 100_000, 1_000_000};
+
+    /** Every how many keys one is read after loading. */
+    private static final int READ_EVERY = 100;
+
+    private LazyLoadBenchmark() {
+    }
+
+    public static void main(final String[] args) throws IOException {
+        System.out.printf("%10s %12s %12s %14s %14s%n",
+                "entries", "eager ms", "lazy ms", "eager+read ms", "lazy+read ms");
+        for (int entries : SIZES) {
+            File file = Benchmarks.generateProps(entries);
+            String path = file.getPath();
+            int runs = Math.max(1, 1_000_000 / entries);
+            double eager = Benchmarks.millis(runs, runs, () -> new BasicProps().load(path));
+            double lazy = Benchmarks.millis(runs, runs, () -> new BasicProps().loadLazy(path));
+            double eagerRead = Benchmarks.millis(runs, runs, () -> {
+                BasicProps props = new BasicProps();
+                props.load(path);
+                read(props, entries);
+            });
+            double lazyRead = Benchmarks.millis(runs, runs, () -> {
+                BasicProps props = new BasicProps();
+                props.loadLazy(path);
+                read(props, entries);
+            });
+            System.out.printf("%10d %12.2f %12.2f %14.2f %14.2f%n",
+                    entries, eager, lazy, eagerRead, lazyRead);
+            file.delete();
+        }
+
+        int entries = SIZES[SIZES.length - 1];
+        File file = Benchmarks.generateProps(entries);
+        long before = Benchmarks.usedHeap();
+        BasicProps eager = new BasicProps(file.getPath());
+        long eagerHeap = Benchmarks.usedHeap() - before;
+        before = Benchmarks.usedHeap();
+        BasicProps lazy = new BasicProps();
+        lazy.loadLazy(file.getPath());
+        long lazyHeap = Benchmarks.usedHeap() - before;
+        System.out.printf("heap for %d entries: eager %,d bytes, lazy %,d bytes%n",
+                entries, eagerHeap, lazyHeap);
+        Reference.reachabilityFence(eager);
+        Reference.reachabilityFence(lazy);
+        file.delete();
+    }
+
+    /** Reads every {@link #READ_EVERY}th key of a generated file as a number or string. */
+    private static void read(final BasicProps props, final int entries) {
+        long sum = 0;
+        for (int i = 0; i < entries; i += READ_EVERY) {
+            String key = "key " + i;
+            switch (Benchmarks.typeOf(Benchmarks.valueFor(i))) {
+                case 0:
+                    sum += props.getInt(key);
+                    break;
+                case 4:
+                    sum += props.getString(key).length();
+                    break;
+                default:
+                    sum += props.getAnyInt(key);
+                    break;
+            }
+        }
+        if (sum == 42) {
+            System.out.println();
+        }
+    }
+
+}
@@ -0,0 +1,100 @@
+package benchmark;
+
+import util.file.editing.LineCursor;
+import util.file.editing.WrappedReader;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Compares the time and the heap allocated per line when lines are
+ * filtered by a prefix and a field is parsed from them,
+ * once with {@link WrappedReader#readLine()} and once with {@link LineCursor}.
+ * The allocation is measured for the benchmark thread with
+ * {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}.
+ * Pass the number of lines.
+ */
+public final class LineCursorBenchmark {
+
+    private static final int LINES = 2_000_000;
+
+    private static final String PREFIX = "metric ";
+
+    private LineCursorBenchmark() {
+    }
+
+    private static File generate(final int lines) throws IOException {
+        File file = File.createTempFile("cursor", ".txt");
+        file.deleteOnExit();
+        try (BufferedWriter w = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < lines; i++) {
+                w.write(i % 2 == 0 ? PREFIX : "other ");
+                w.write(Integer.toString(i));
+                w.write(" value=");
+                w.write(Integer.toString(i % 1000));
+                w.write(".25\n");
+            }
+        }
+        return file;
+    }
+
+    private static double sumStrings(final String name) {
+        WrappedReader reader = new WrappedReader(name);
+        double sum = 0;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            if (line.startsWith(PREFIX)) {
+                sum += Double.parseDouble(line.substring(line.indexOf('=') + 1));
+            }
+        }
+        reader.close();
+        return sum;
+    }
+
+    private static double sumCursor(final String name) {
+        WrappedReader reader = new WrappedReader(name);
+        LineCursor cursor = reader.cursor();
+        double sum = 0;
+        while (cursor.next()) {
+            if (cursor.startsWith(PREFIX)) {
+                sum += cursor.parseDouble(cursor.indexOf('=', 0) + 1, cursor.length());
+            }
+        }
+        reader.close();
+        return sum;
+    }
+
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean bean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    public static void main(final String[] args) throws IOException {
+        int lines = args.length > 0 ? Integer.parseInt(args[0]) : LINES;
+        String name = generate(lines).getPath();
+        if (sumStrings(name) != sumCursor(name)) {
+            throw new IllegalStateException("Different sums");
+        }
+
+        double strings = Benchmarks.millis(3, 5, () -> sumStrings(name));
+        double cursor = Benchmarks.millis(3, 5, () -> sumCursor(name));
+
+        long before = allocatedBytes();
+        sumStrings(name);
+        long stringBytes = allocatedBytes() - before;
+        before = allocatedBytes();
+        sumCursor(name);
+        long cursorBytes = allocatedBytes() - before;
+
+        System.out.printf("%d lines%n", lines);
+        System.out.printf("readLine:   %8.1f ms, %8.1f bytes allocated per line%n",
+                strings, (double) stringBytes / lines);
+        System.out.printf("LineCursor: %8.1f ms, %8.3f bytes allocated per line%n",
+                cursor, (double) cursorBytes / lines);
+    }
+
+}
@@ -0,0 +1,101 @@
+package benchmark;
+
+import util.file.editing.LineIndex;
+import util.file.editing.WrappedReader;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+
+/**
+ * Measures building, saving and loading a {@link LineIndex},
+ * and compares reading a line in the second half of a large file
+ * through the index to reading all the lines before it
+ * with {@link WrappedReader#readLine()}.
+ * Pass the file size in megabytes and the interval of the index.
+ */
+public final class LineIndexBenchmark {
+
+    private static final int MEGABYTES = 512;
+
+    private static final int SEEKS = 200;
+
+    private static final int RANGE = 100;
+
+    private LineIndexBenchmark() {
+    }
+
+    private static File generate(final long bytes) throws IOException {
+        File file = File.createTempFile("index", ".log");
+        file.deleteOnExit();
+        new File(file.getPath() + LineIndex.SUFFIX).deleteOnExit();
+        try (BufferedWriter w = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            long written = 0;
+            for (long i = 0; written < bytes; i++) {
+                String line = "2026-10-18 12:00:00 INFO request " + i + " took " + (i * 7 % 1000) + " ms\n";
+                w.write(line);
+                written += line.length();
+            }
+        }
+        return file;
+    }
+
+    public static void main(final String[] args) throws IOException {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : MEGABYTES;
+        int interval = args.length > 1 ? Integer.parseInt(args[1]) : LineIndex.DEFAULT_INTERVAL;
+        String name = generate((long) megabytes << 20).getPath();
+
+        long start = System.nanoTime();
+        LineIndex index = LineIndex.build(name, interval, null);
+        double build = (System.nanoTime() - start) / 1e6;
+        start = System.nanoTime();
+        index.save();
+        double save = (System.nanoTime() - start) / 1e6;
+        start = System.nanoTime();
+        LineIndex loaded = LineIndex.load(name, null);
+        double load = (System.nanoTime() - start) / 1e6;
+        long lines = loaded.lineCount();
+        long sidecar = new File(name + LineIndex.SUFFIX).length();
+
+        Random random = new Random(25);
+        long[] targets = new long[SEEKS];
+        for (int i = 0; i < SEEKS; i++) {
+            targets[i] = lines / 2 + (long) (random.nextDouble() * (lines / 2));
+        }
+        String[] found = new String[1];
+        double seek = Benchmarks.millis(SEEKS / 4, SEEKS, () -> {
+            long target = targets[random.nextInt(SEEKS)];
+            WrappedReader reader = loaded.reader(target);
+            found[0] = reader.readLine();
+            reader.close();
+        });
+        double range = Benchmarks.millis(SEEKS / 4, SEEKS, () -> {
+            long first = Math.min(targets[random.nextInt(SEEKS)], lines - RANGE);
+            found[0] = loaded.lines(first, first + RANGE).get(0);
+        });
+
+        long target = lines * 3 / 4;
+        start = System.nanoTime();
+        WrappedReader reader = new WrappedReader(name);
+        for (long i = 0; i < target; i++) {
+            reader.readLine();
+        }
+        String scanned = reader.readLine();
+        reader.close();
+        double scan = (System.nanoTime() - start) / 1e6;
+        if (!scanned.equals(loaded.lines(target, target + 1).get(0))) {
+            throw new IllegalStateException("Different line " + target);
+        }
+
+        System.out.printf("%d MB, %d lines, every %d-th line indexed%n", megabytes, lines, interval);
+        System.out.printf("build %.1f ms, save %.1f ms, load %.1f ms, sidecar %d bytes%n",
+                build, save, load, sidecar);
+        System.out.printf("seek to a line and read it:   %8.3f ms%n", seek);
+        System.out.printf("read a range of %d lines:    %8.3f ms%n", RANGE, range);
+        System.out.printf("readLine through 3/4 of file: %8.1f ms%n", scan);
+    }
+
+}
@@ -0,0 +1,83 @@
+package benchmark;
+
+import util.file.editing.MappedLineReader;
+import util.file.editing.WrappedReader;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Compares the throughput of {@link WrappedReader#lines()} to
+ * {@link MappedLineReader}, both decoding every line and
+ * only finding the line breaks.
+ * Pass the size of the file in megabytes as the argument.
+ */
+public final class LineReadBenchmark {
+
+    private static final int MEGABYTES = 256;
+
+    private static final int WARMUP = 2;
+
+    private static final int RUNS = 5;
+
+    private LineReadBenchmark() {
+    }
+
+    private static File generate(final long bytes) throws IOException {
+        File file = File.createTempFile("lines", ".txt");
+        file.deleteOnExit();
+        try (BufferedWriter w = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            long written = 0;
+            for (long i = 0; written < bytes; i++) {
+                String line = "line " + i + " " + "x".repeat((int) (i % 97)) + (i % 10 == 0 ? " é" : "");
+                String end = i % 3 == 0 ? "\r\n" : "\n";
+                w.write(line);
+                w.write(end);
+                written += line.length() + end.length();
+            }
+        }
+        return file;
+    }
+
+    public static void main(final String[] args) throws IOException {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : MEGABYTES;
+        File file = generate(megabytes * 1_000_000L);
+        String name = file.getPath();
+        long[] total = new long[1];
+
+        double lines = Benchmarks.millis(WARMUP, RUNS, () -> {
+            WrappedReader reader = new WrappedReader(name);
+            total[0] = reader.lines().mapToLong(String::length).sum();
+            reader.close();
+        });
+        long expected = total[0];
+        double decoded = Benchmarks.millis(WARMUP, RUNS, () -> {
+            MappedLineReader reader = WrappedReader.map(name);
+            total[0] = reader.lines().mapToLong(String::length).sum();
+            reader.close();
+        });
+        if (total[0] != expected) {
+            throw new IllegalStateException(total[0] + " != " + expected);
+        }
+        double breaks = Benchmarks.millis(WARMUP, RUNS, () -> {
+            MappedLineReader reader = WrappedReader.map(name);
+            long count = 0;
+            while (reader.next()) {
+                count += reader.lineLength();
+            }
+            total[0] = count;
+            reader.close();
+        });
+
+        double mb = file.length() / 1e6;
+        System.out.printf("%.1f MB%n", mb);
+        System.out.printf("WrappedReader.lines():     %8.1f ms %8.1f MB/s%n", lines, mb / lines * 1e3);
+        System.out.printf("MappedLineReader.lines():  %8.1f ms %8.1f MB/s%n", decoded, mb / decoded * 1e3);
+        System.out.printf("MappedLineReader.next():   %8.1f ms %8.1f MB/s%n", breaks, mb / breaks * 1e3);
+        file.delete();
+    }
+
+}
@@ -0,0 +1,87 @@
+package benchmark;
+
+import util.file.editing.WrappedReader;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Compares parsing every line of a file through
+ * {@link WrappedReader#lines()} to
+ * {@link WrappedReader#mapReduceLines(String, java.util.function.Function,
+ * Object, java.util.function.BinaryOperator)}
+ * and ordered {@link WrappedReader#forEachLine(String,
+ * java.util.function.Consumer, boolean)}.
+ * Pass the size of the file in megabytes as the argument,
+ * and set java.util.concurrent.ForkJoinPool.common.parallelism
+ * to measure the scaling.
+ */
+public final class ParallelLineBenchmark {
+
+    private static final int MEGABYTES = 256;
+
+    private static final int WARMUP = 2;
+
+    private static final int RUNS = 5;
+
+    private ParallelLineBenchmark() {
+    }
+
+    private static File generate(final long bytes) throws IOException {
+        File file = File.createTempFile("parallel", ".txt");
+        file.deleteOnExit();
+        try (BufferedWriter w = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            long written = 0;
+            for (long i = 0; written < bytes; i++) {
+                String line = i + "," + (i * 31 % 1000) + ".5," + "field " + (i % 97) + "\n";
+                w.write(line);
+                written += line.length();
+            }
+        }
+        return file;
+    }
+
+    /** Parses the fields of a line, as a CPU-bound example. */
+    private static long parse(final String line) {
+        String[] fields = line.split(",");
+        long id = Long.parseLong(fields[0]);
+        double value = Double.parseDouble(fields[1]);
+        return id ^ Double.doubleToLongBits(value) ^ fields[2].hashCode();
+    }
+
+    public static void main(final String[] args) throws IOException {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : MEGABYTES;
+        File file = generate(megabytes * 1_000_000L);
+        String name = file.getPath();
+        long[] result = new long[1];
+
+        double sequential = Benchmarks.millis(WARMUP, RUNS, () -> {
+            WrappedReader reader = new WrappedReader(name);
+            result[0] = reader.lines().mapToLong(ParallelLineBenchmark::parse).reduce(0, Long::sum);
+            reader.close();
+        });
+        long expected = result[0];
+        double mapReduce = Benchmarks.millis(WARMUP, RUNS, () ->
+                result[0] = WrappedReader.mapReduceLines(name, ParallelLineBenchmark::parse, 0L, Long::sum));
+        if (result[0] != expected) {
+            throw new IllegalStateException(result[0] + " != " + expected);
+        }
+        double ordered = Benchmarks.millis(WARMUP, RUNS, () -> {
+            long[] sum = new long[1];
+            WrappedReader.forEachLine(name, line -> sum[0] += parse(line), true);
+            result[0] = sum[0];
+        });
+
+        System.out.printf("%.1f MB, parallelism %d%n", file.length() / 1e6,
+                ForkJoinPool.getCommonPoolParallelism());
+        System.out.printf("lines(), sequential:  %8.1f ms%n", sequential);
+        System.out.printf("mapReduceLines:       %8.1f ms%n", mapReduce);
+        System.out.printf("forEachLine, ordered: %8.1f ms%n", ordered);
+        file.delete();
+    }
+
+}
@@ -0,0 +1,45 @@
+package benchmark;
+
+import util.properties.BasicProps;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Compares {@link BasicProps#load(String)}, which reads through a
+ * {@link java.util.Scanner}, with {@link BasicProps#loadParallel(String)}
+ * across file sizes. Pass the entry counts to measure as arguments.
+ */
+public final class ParallelLoadBenchmark {
+
+    private static final int[] ENTRIES = {10_000, 100_000, 1_000_000, 5_000_000};
+
+    private static final int WARMUP = 3;
+
+    private static final int RUNS = 5;
+
+    private ParallelLoadBenchmark() {
+    }
+
+    public static void main(final String[] args) throws IOException {
+        int[] sizes = ENTRIES;
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        System.out.printf("%12s %12s %12s %12s%n", "entries", "MB", "scanner ms", "parallel ms");
+        for (int entries : sizes) {
+            File file = Benchmarks.generateProps(entries);
+            String name = file.getPath();
+            double scanner = Benchmarks.millis(WARMUP, RUNS, () -> new BasicProps().load(name));
+            double parallel = Benchmarks.millis(WARMUP, RUNS, () -> new BasicProps().loadParallel(name));
+            System.out.printf("%12d %12.1f %12.1f %12.1f%n",
+                    entries, file.length() / 1e6, scanner, parallel);
+            file.delete();
+        }
+    }
+
+}
@@ -0,0 +1,103 @@
+package benchmark;
+
+import util.properties.BasicProps;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Measures the heap retained by a loaded {@link BasicProps},
+ * by the same properties after {@link BasicProps#compact()}
+ * and by the five boxed {@link HashMap}s it used to be stored in.
+ * The compact storage is also measured outside the heap.
+ * Run with a fixed heap, e.g. <code>-Xms2g -Xmx2g</code>.
+ */
+public final class PropsFootprint {
+
+    private static final int ENTRIES = 1_000_000;
+
+    private PropsFootprint() {
+    }
+
+    public static void main(final String[] args) throws IOException {
+        int entries = args.length > 0 ? Integer.parseInt(args[0]) : ENTRIES;
+        File file = Benchmarks.generateProps(entries);
+
+        long before = Benchmarks.usedHeap();
+        BasicProps props = new BasicProps(file.getPath());
+        long table = Benchmarks.usedHeap() - before;
+
+        long direct = directMemory();
+        props.compact();
+        long compact = Benchmarks.usedHeap() - before;
+        long offHeap = directMemory() - direct;
+
+        before = Benchmarks.usedHeap();
+        List<HashMap<String, ?>> maps = loadBoxed(file);
+        long boxed = Benchmarks.usedHeap() - before;
+
+        System.out.printf("%d entries%n", props.size());
+        System.out.printf("BasicProps:     %,d bytes (%d per entry)%n", table, table / entries);
+        System.out.printf("compact:        %,d bytes (%d per entry) + %,d off-heap (%d per entry)%n",
+                compact, compact / entries, offHeap, offHeap / entries);
+        System.out.printf("boxed HashMaps: %,d bytes (%d per entry)%n", boxed, boxed / entries);
+        Reference.reachabilityFence(props);
+        Reference.reachabilityFence(maps);
+        file.delete();
+    }
+
+    /** The memory used by direct buffers. */
+    private static long directMemory() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) {
+                return pool.getMemoryUsed();
+            }
+        }
+        return 0;
+    }
+
+    /** Loads the file into one boxed map per type, like the original storage. */
+    private static List<HashMap<String, ?>> loadBoxed(final File file) throws IOException {
+        HashMap<String, String> strings = new HashMap<>();
+        HashMap<String, Integer> ints = new HashMap<>();
+        HashMap<String, Long> longs = new HashMap<>();
+        HashMap<String, Float> floats = new HashMap<>();
+        HashMap<String, Double> doubles = new HashMap<>();
+        for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+            String[] kv = line.split("=");
+            switch (Benchmarks.typeOf(kv[1])) {
+                case 0:
+                    ints.put(kv[0], Integer.parseInt(kv[1]));
+                    break;
+                case 1:
+                    longs.put(kv[0], Long.parseLong(kv[1]));
+                    break;
+                case 2:
+                    floats.put(kv[0], Float.parseFloat(kv[1]));
+                    break;
+                case 3:
+                    doubles.put(kv[0], Double.parseDouble(kv[1]));
+                    break;
+                default:
+                    strings.put(kv[0], kv[1]);
+                    break;
+            }
+        }
+        List<HashMap<String, ?>> maps = new ArrayList<>();
+        maps.add(strings);
+        maps.add(ints);
+        maps.add(longs);
+        maps.add(floats);
+        maps.add(doubles);
+        return maps;
+    }
+
+}
@@ -0,0 +1,96 @@
+package benchmark;
+
+import util.file.editing.WrappedReader;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static util.PrintFormatting.NEW_LINE;
+
+/**
+ * Compares reading whole files by joining their lines,
+ * as {@link WrappedReader#readFile(String)} used to,
+ * to the bulk {@link WrappedReader#readFile(String, boolean, util.log.Logger)},
+ * with normalized and with kept line endings.
+ * Pass the file sizes as arguments, such as 1K 1M 1G;
+ * the largest sizes need a heap of several times the file size.
+ */
+public final class ReadFileBenchmark {
+
+    private static final String[] SIZES = {"1K", "64K", "1M", "16M", "256M"};
+
+    /** The bytes read per size, to pick the number of runs. */
+    private static final long BYTES_PER_SIZE = 500_000_000L;
+
+    private ReadFileBenchmark() {
+    }
+
+    private static long parseSize(final String size) {
+        long unit = 1;
+        switch (size.charAt(size.length() - 1)) {
+            case 'K':
+                unit = 1 << 10;
+                break;
+            case 'M':
+                unit = 1 << 20;
+                break;
+            case 'G':
+                unit = 1 << 30;
+                break;
+            default:
+                return Long.parseLong(size);
+        }
+        return Long.parseLong(size.substring(0, size.length() - 1)) * unit;
+    }
+
+    private static File generate(final long bytes) throws IOException {
+        File file = File.createTempFile("read", ".txt");
+        file.deleteOnExit();
+        try (BufferedWriter w = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            long written = 0;
+            for (long i = 0; written < bytes; i++) {
+                String line = "line " + i + " of some text, value=" + (i * 7 % 1000) + "\n";
+                w.write(line, 0, (int) Math.min(line.length(), bytes - written));
+                written += line.length();
+            }
+        }
+        return file;
+    }
+
+    /** The line-by-line implementation that readFile had before. */
+    private static String joinLines(final String filename) {
+        WrappedReader reader = new WrappedReader(filename);
+        StringBuilder sb = new StringBuilder();
+        reader.lines().forEach(line -> {
+            sb.append(line);
+            sb.append(NEW_LINE);
+        });
+        reader.close();
+        return sb.toString();
+    }
+
+    public static void main(final String[] args) throws IOException {
+        String[] sizes = args.length > 0 ? args : SIZES;
+        System.out.printf("%8s %14s %14s %14s%n", "size", "join lines", "normalized", "kept");
+        for (String size : sizes) {
+            long bytes = parseSize(size);
+            File file = generate(bytes);
+            String name = file.getPath();
+            int runs = (int) Math.max(3, Math.min(2000, BYTES_PER_SIZE / bytes));
+            int warmup = Math.max(1, runs / 2);
+
+            double join = Benchmarks.millis(warmup, runs, () -> joinLines(name));
+            double normalized = Benchmarks.millis(warmup, runs, () -> WrappedReader.readFile(name));
+            double kept = Benchmarks.millis(warmup, runs, () -> WrappedReader.readFile(name, true, null));
+            if (!joinLines(name).equals(WrappedReader.readFile(name))) {
+                throw new IllegalStateException("Different contents of " + size);
+            }
+            System.out.printf("%8s %11.3f ms %11.3f ms %11.3f ms%n", size, join, normalized, kept);
+            file.delete();
+        }
+    }
+
+}
@@ -0,0 +1,62 @@
+package benchmark;
+
+import util.properties.BasicProps;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Compares reloading a file after a one-line edit with
+ * {@link BasicProps#clear()} and {@link BasicProps#load(String)}
+ * to {@link BasicProps#reload(String)}, which parses only the changed lines.
+ * Pass the number of entries as the argument.
+ */
+public final class ReloadBenchmark {
+
+    private static final int ENTRIES = 500_000;
+
+    private static final int WARMUP = 3;
+
+    private static final int RUNS = 10;
+
+    private ReloadBenchmark() {
+    }
+
+    public static void main(final String[] args) throws IOException {
+        int entries = args.length > 0 ? Integer.parseInt(args[0]) : ENTRIES;
+        File file = Benchmarks.generateProps(entries);
+        String name = file.getPath();
+        byte[] original = Files.readAllBytes(file.toPath());
+
+        BasicProps props = new BasicProps();
+        double full = Benchmarks.millis(WARMUP, RUNS, () -> {
+            props.clear();
+            props.load(name);
+        });
+
+        props.reload(name);
+        long total = 0;
+        for (int i = -WARMUP; i < RUNS; i++) {
+            Files.write(file.toPath(), original);
+            Files.write(file.toPath(), ("key 0=" + i + "\n").getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.APPEND);
+            long start = System.nanoTime();
+            int changed = props.reload(name).size();
+            if (i >= 0) {
+                total += System.nanoTime() - start;
+            }
+            if (changed != 1) {
+                throw new IllegalStateException(changed + " keys changed");
+            }
+        }
+
+        System.out.printf("%d entries, %.1f MB%n", entries, file.length() / 1e6);
+        System.out.printf("clear + load:       %8.1f ms%n", full);
+        System.out.printf("incremental reload: %8.1f ms%n", total / 1e6 / RUNS);
+        file.delete();
+    }
+
+}
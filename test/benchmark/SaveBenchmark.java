@@ -0,0 +1,63 @@
+package benchmark;
+
+import util.file.editing.WrappedWriter;
+import util.properties.BasicProps;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Compares {@link BasicProps#save(String)} to writing the same lines
+ * formatted as strings through a {@link WrappedWriter},
+ * in time and in bytes allocated per run.
+ * Pass the number of entries as the argument.
+ */
+public final class SaveBenchmark {
+
+    private static final int ENTRIES = 500_000;
+
+    private static final int WARMUP = 3;
+
+    private static final int RUNS = 10;
+
+    private SaveBenchmark() {
+    }
+
+    private static long allocated() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getCurrentThreadAllocatedBytes();
+    }
+
+    private static void writeStrings(final BasicProps props, final String filename) {
+        WrappedWriter writer = new WrappedWriter(filename);
+        props.forEachString((k, v) -> writer.writeLine(k + "=" + v));
+        props.forEachInt((k, v) -> writer.writeLine(k + "=" + v));
+        props.forEachLong((k, v) -> writer.writeLine(k + "=" + v));
+        props.forEachFloat((k, v) -> writer.writeLine(k + "=" + v));
+        props.forEachDouble((k, v) -> writer.writeLine(k + "=" + v));
+        writer.close();
+    }
+
+    public static void main(final String[] args) throws IOException {
+        int entries = args.length > 0 ? Integer.parseInt(args[0]) : ENTRIES;
+        File source = Benchmarks.generateProps(entries);
+        File target = File.createTempFile("save", ".props");
+        BasicProps props = new BasicProps(source.getPath());
+        String name = target.getPath();
+
+        long before = allocated();
+        double strings = Benchmarks.millis(WARMUP, RUNS, () -> writeStrings(props, name));
+        long stringBytes = (allocated() - before) / (WARMUP + RUNS);
+        before = allocated();
+        double save = Benchmarks.millis(WARMUP, RUNS, () -> props.save(name));
+        long saveBytes = (allocated() - before) / (WARMUP + RUNS);
+
+        System.out.printf("%d entries, %.1f MB%n", entries, target.length() / 1e6);
+        System.out.printf("string lines: %8.1f ms %,14d B allocated%n", strings, stringBytes);
+        System.out.printf("save:         %8.1f ms %,14d B allocated%n", save, saveBytes);
+        source.delete();
+        target.delete();
+    }
+
+}
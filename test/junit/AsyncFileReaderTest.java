@@ -0,0 +1,167 @@
+package junit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.file.editing.AsyncFileReader;
+import util.file.editing.WrappedReader;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncFileReaderTest {
+
+    private File file;
+
+    private String text;
+
+    @BeforeEach
+    void create() throws IOException {
+        file = File.createTempFile("async", ".txt");
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; sb.length() < 200_000; i++) {
+            boolean unicode = i % 7 == 0 && sb.length() > 70_000;
+            sb.append("line ").append(i).append(unicode ? " é" : "").append(i % 3 == 0 ? "\r\n" : "\n");
+        }
+        // A "\r\n" across the first two chunks of the line publisher,
+        // where there are only ASCII characters
+        sb.replace((1 << 16) - 1, (1 << 16) + 1, "\r\n");
+        sb.append("last");
+        text = sb.toString();
+        Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    void delete() {
+        file.delete();
+    }
+
+    private List<String> expectedLines() {
+        return new BufferedReader(new StringReader(text)).lines().collect(Collectors.toList());
+    }
+
+    /** Requests a fixed number of lines at a time and collects them. */
+    private static final class Collector implements Flow.Subscriber<String> {
+
+        private final int batch;
+
+        private final List<String> lines = Collections.synchronizedList(new ArrayList<>());
+
+        private final CompletableFuture<List<String>> done = new CompletableFuture<>();
+
+        private Flow.Subscription subscription;
+
+        private int pending;
+
+        Collector(final int batch) {
+            this.batch = batch;
+        }
+
+        @Override
+        public void onSubscribe(final Flow.Subscription s) {
+            subscription = s;
+            pending = batch;
+            if (batch > 0) {
+                s.request(batch);
+            }
+        }
+
+        @Override
+        public void onNext(final String line) {
+            lines.add(line);
+            if (--pending == 0 && batch > 0) {
+                pending = batch;
+                subscription.request(batch);
+            }
+        }
+
+        @Override
+        public void onError(final Throwable e) {
+            done.completeExceptionally(e);
+        }
+
+        @Override
+        public void onComplete() {
+            done.complete(lines);
+        }
+    }
+
+    @Test
+    void testReadFile() throws Exception {
+        assertEquals(WrappedReader.readFile(file.getPath()), AsyncFileReader.readFile(file.getPath()).get());
+        assertEquals(text, AsyncFileReader.readFile(file.getPath(), true, null).get());
+        assertEquals(expectedLines(), AsyncFileReader.readFileLines(file.getPath()).get());
+        assertEquals("", AsyncFileReader.readFile(file.getPath() + ".missing").get());
+        assertTrue(AsyncFileReader.readFileLines(file.getPath() + ".missing").get().isEmpty());
+    }
+
+    @Test
+    void testChunks() throws Exception {
+        ByteBuffer range = AsyncFileReader.read(file.getPath(), 5, 4, null).get();
+        byte[] contents = Files.readAllBytes(file.toPath());
+        assertEquals(ByteBuffer.wrap(contents, 5, 4), range);
+        long size = file.length();
+        assertEquals(3, AsyncFileReader.read(file.getPath(), size - 3, 10, null).get().remaining());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        long read = AsyncFileReader.readChunks(file.getPath(), 1000,
+                chunk -> bytes.write(chunk.array(), chunk.position(), chunk.remaining())).get();
+        assertEquals(size, read);
+        assertEquals(text, bytes.toString(StandardCharsets.UTF_8));
+
+        ExecutionException e = assertThrows(ExecutionException.class, () ->
+                AsyncFileReader.readChunks(file.getPath(), 1000, chunk -> {
+                    throw new IllegalStateException();
+                }).get());
+        assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+
+    @Test
+    void testLinePublisher() throws Exception {
+        for (int batch : new int[] {1, 7, 100_000}) {
+            Collector collector = new Collector(batch);
+            AsyncFileReader.lines(file.getPath()).subscribe(collector);
+            assertEquals(expectedLines(), collector.done.get(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void testBackpressure() throws Exception {
+        Collector collector = new Collector(0);
+        AsyncFileReader.lines(file.getPath()).subscribe(collector);
+        assertThrows(TimeoutException.class, () -> collector.done.get(100, TimeUnit.MILLISECONDS));
+        assertTrue(collector.lines.isEmpty());
+
+        collector.subscription.request(3);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (collector.lines.size() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(100);
+        assertEquals(expectedLines().subList(0, 3), collector.lines);
+        collector.subscription.cancel();
+
+        Collector missing = new Collector(1);
+        AsyncFileReader.lines(file.getPath() + ".missing").subscribe(missing);
+        ExecutionException e = assertThrows(ExecutionException.class, missing.done::get);
+        assertTrue(e.getCause() instanceof IOException);
+    }
+
+}
@@ -0,0 +1,349 @@
+package junit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.properties.BasicProps;
+import util.properties.PropertyArrays;
+import util.properties.PropertyStreams;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that {@link BasicProps} types values exactly like
+ * the original parser, which tried {@link Integer#parseInt(String)},
+ * {@link Long#parseLong(String)}, {@link Float#parseFloat(String)} and
+ * {@link Double#parseDouble(String)} in turn.
+ */
+class BasicPropsParsingTest {
+
+    private static final String[] CORPUS = {
+            // Integers and longs
+            "0", "-0", "+0", "1", "-1", "+1", "007", "-", "+", "+-1", "--1", "1-",
+            "2147483647", "2147483648", "-2147483648", "-2147483649",
+            "9223372036854775807", "9223372036854775808",
+            "-9223372036854775808", "-9223372036854775809",
+            "99999999999999999999999", "1_000", "1,000", "0x10", "0X1F",
+            "١٢٣", "１２", "-१२",
+            "١٢٣٤٥٦٧٨٩٠١",
+            // Floats and doubles
+            "1.0", "-0.3", "3.14", ".5", "5.", ".", "-.", "1..2", "1.2.3",
+            "1e5", "1E5", "1e", "1e+", "1e-", "1e+5", "1e-5", "e5", ".e5", "1.e5",
+            "1e39", "-1e39", "3.4028235E38", "3.4028236E38", "3.5E38",
+            "1e-50", "1e-400", "1e400", "-1e400", "1.797693E41",
+            "1f", "1F", "1d", "1D", "1.5f", "1ff", "1fd", "1e5f", "1L", "1l",
+            "NaN", "-NaN", "+NaN", "nan", "NaNf", "NaN ",
+            "Infinity", "-Infinity", "+Infinity", "infinity", "Inf", "Infinityf",
+            "0x1p1", "0x1.8p1", "-0X.8P-1", "0x1p", "0x1", "0x.p1", "0x1.p1",
+            "0x1p1f", "0xAbCp+10D", "0xgp1", "0x1p99999999999", "0x1.fffffeP+127",
+            "0x1.ffffffP+127", "0x1p1 ", " 0x1p1",
+            " 1", "1 ", " 1 ", "\t2.5\t", " ", "  ", " 1", "1 ",
+            "00000.00000", "0.0000000000000000000000000000000000000000000001",
+            "123456789012345678901234567890", "1e2147483648", "1e-2147483649",
+            // Strings
+            "", "HELLO", "Hello World!", "Здравей!",
+            "true", "false", "null", "1 2", "1a", "a1", "#1", "😀",
+    };
+
+    private static final String ALPHABET = "0123456789+-.eExXpPfFdDNaIny \t١";
+
+    private static final int RANDOM_VALUES = 20000;
+
+    private static final int MAX_RANDOM_LENGTH = 8;
+
+    private final HashMap<String, String> stringProperties = new HashMap<>();
+    private final HashMap<String, Long> longProperties = new HashMap<>();
+    private final HashMap<String, Integer> intProperties = new HashMap<>();
+    private final HashMap<String, Double> doubleProperties = new HashMap<>();
+    private final HashMap<String, Float> floatProperties = new HashMap<>();
+
+    private File file;
+    private BasicProps loaded;
+
+    @BeforeEach
+    void createFile() throws IOException {
+        file = File.createTempFile("parsing", ".props");
+    }
+
+    @AfterEach
+    void deleteFile() {
+        file.delete();
+    }
+
+    @Test
+    void testCorpus() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < CORPUS.length; i++) {
+            lines.add("key " + i + "=" + CORPUS[i] + "=ignored");
+        }
+        checkAgainstReference(lines);
+    }
+
+    @Test
+    void testRandomValues() throws IOException {
+        Random random = new Random(0);
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < RANDOM_VALUES; i++) {
+            int length = 1 + random.nextInt(MAX_RANDOM_LENGTH);
+            StringBuilder sb = new StringBuilder();
+            for (int j = 0; j < length; j++) {
+                sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            lines.add("random " + i % (RANDOM_VALUES / 4) + "=" + sb);
+        }
+        checkAgainstReference(lines);
+    }
+
+    @Test
+    void testSeparators() throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("# a comment=1");
+        lines.add("");
+        lines.add("first=1=2");
+        lines.add("second==x");
+        lines.add("third=x==");
+        lines.add("=4");
+        lines.add("==y");
+        lines.add("last=value");
+        lines.add("last=5");
+        lines.add("last=other");
+        checkAgainstReference(lines);
+        assertEquals("", loaded.getString("second"));
+        assertEquals("", loaded.getString(""));
+        assertEquals(4, loaded.getInt(""));
+    }
+
+    @Test
+    void testMissingValue() throws IOException {
+        for (String line : new String[]{"no separator", "key=", "key===", "="}) {
+            Files.write(file.toPath(), ("before=1\n" + line + "\nafter=2").getBytes(StandardCharsets.UTF_8));
+            BasicProps props = new BasicProps();
+            assertThrows(ArrayIndexOutOfBoundsException.class, () -> props.load(file.getPath()));
+            BasicProps parallel = new BasicProps();
+            assertThrows(ArrayIndexOutOfBoundsException.class, () -> parallel.loadParallel(file.getPath()));
+            assertEquals(1, parallel.getInt("before"));
+            assertEquals(1, parallel.size());
+            BasicProps lazy = new BasicProps();
+            assertThrows(ArrayIndexOutOfBoundsException.class, () -> lazy.loadLazy(file.getPath()));
+            assertEquals(1, lazy.getInt("before"));
+            assertEquals(1, lazy.size());
+        }
+    }
+
+    @Test
+    void testLineTerminators() throws IOException {
+        String text = "a=1\r\nb=2\rc=3\nd=4\u0085e=5\u2028f=6\u2029g=7\r\n\r\nh=8";
+        Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+        BasicProps parallel = new BasicProps();
+        parallel.loadParallel(file.getPath());
+        BasicProps lazy = new BasicProps();
+        lazy.loadLazy(file.getPath());
+        loaded = new BasicProps(file.getPath());
+        assertEquals(8, loaded.size());
+        assertEquals(8, parallel.size());
+        assertEquals(8, lazy.size());
+        for (char c = 'a'; c <= 'h'; c++) {
+            String key = String.valueOf(c);
+            assertEquals(c - 'a' + 1, loaded.getInt(key));
+            assertEquals(c - 'a' + 1, parallel.getInt(key));
+            assertEquals(c - 'a' + 1, lazy.getInt(key));
+        }
+    }
+
+    @Test
+    void testEmptyFile() throws IOException {
+        Files.write(file.toPath(), new byte[0]);
+        BasicProps parallel = new BasicProps();
+        parallel.loadParallel(file.getPath());
+        BasicProps lazy = new BasicProps();
+        lazy.loadLazy(file.getPath());
+        loaded = new BasicProps(file.getPath());
+        assertEquals(0, loaded.size());
+        assertEquals(0, parallel.size());
+        assertEquals(0, lazy.size());
+    }
+
+    /**
+     * Loads the lines with {@link BasicProps#load(String)},
+     * {@link BasicProps#loadParallel(String)}, {@link BasicProps#loadLazy(String)}
+     * and with the reference parser
+     * and checks that every key has the same type and value in all of them.
+     */
+    private void checkAgainstReference(final List<String> lines) throws IOException {
+        Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+        for (String line : lines) {
+            referenceLoadLine(line);
+        }
+
+        loaded = new BasicProps();
+        loaded.loadParallel(file.getPath());
+        checkLoaded();
+        loaded = new BasicProps(file.getPath());
+        checkLoaded();
+        checkBulk();
+        loaded = new BasicProps();
+        loaded.loadLazy(file.getPath());
+        checkLoaded();
+        loaded = new BasicProps();
+        loaded.loadLazy(file.getPath());
+        checkBulk();
+
+        loaded = new BasicProps();
+        loaded.loadLazy(file.getPath());
+        HashMap<String, Integer> integers = new HashMap<>();
+        HashMap<String, String> strings = new HashMap<>();
+        loaded.forEachInteger(integers::put);
+        loaded.forEachString(strings::put);
+        assertEquals(intProperties, integers);
+        assertEquals(stringProperties, strings);
+        checkLoaded();
+    }
+
+    /**
+     * Checks that the visitors, the parallel streams and the array snapshots
+     * give exactly the reference properties of each type.
+     */
+    private void checkBulk() {
+        HashMap<String, Integer> ints = new HashMap<>();
+        HashMap<String, Long> longs = new HashMap<>();
+        HashMap<String, Float> floats = new HashMap<>();
+        HashMap<String, Double> doubles = new HashMap<>();
+        loaded.forEachInt(ints::put);
+        loaded.forEachLong(longs::put);
+        loaded.forEachFloat(floats::put);
+        loaded.forEachDouble(doubles::put);
+        assertEquals(intProperties, ints);
+        assertEquals(longProperties, longs);
+        assertEquals(floatProperties, floats);
+        assertEquals(doubleProperties, doubles);
+
+        PropertyStreams.OfInt intStreams = loaded.intProperties();
+        assertEquals(intProperties, intStreams.slots().parallel().boxed()
+                .collect(Collectors.toMap(intStreams::key, intStreams::value)));
+        String[] intKeys = intStreams.keys().parallel().toArray(String[]::new);
+        int[] intValues = intStreams.values().parallel().toArray();
+        assertEquals(intProperties.size(), intKeys.length);
+        for (int i = 0; i < intKeys.length; i++) {
+            assertEquals((int) intProperties.get(intKeys[i]), intValues[i]);
+        }
+        PropertyStreams.OfLong longStreams = loaded.longProperties();
+        assertEquals(longProperties, longStreams.slots().parallel().boxed()
+                .collect(Collectors.toMap(longStreams::key, longStreams::value)));
+        assertEquals(longProperties.values().stream().mapToLong(Long::longValue).sum(),
+                longStreams.values().parallel().sum());
+        PropertyStreams.OfFloat floatStreams = loaded.floatProperties();
+        assertEquals(floatProperties, floatStreams.slots().parallel().boxed()
+                .collect(Collectors.toMap(floatStreams::key, floatStreams::value)));
+        assertEquals(floatProperties.size(), floatStreams.values().parallel().count());
+        PropertyStreams.OfDouble doubleStreams = loaded.doubleProperties();
+        assertEquals(doubleProperties, doubleStreams.slots().parallel().boxed()
+                .collect(Collectors.toMap(doubleStreams::key, doubleStreams::value)));
+        assertEquals(doubleProperties.size(), doubleStreams.values().parallel().count());
+        PropertyStreams.OfString stringStreams = loaded.stringProperties();
+        assertEquals(stringProperties, stringStreams.slots().parallel().boxed()
+                .collect(Collectors.toMap(stringStreams::key, stringStreams::value)));
+        assertEquals(stringProperties.keySet(), stringStreams.keys().parallel().collect(Collectors.toSet()));
+
+        PropertyArrays.OfInt intArrays = loaded.intArrays();
+        assertEquals(intProperties.size(), intArrays.size());
+        for (int i = 0; i < intArrays.size(); i++) {
+            assertEquals((int) intProperties.get(intArrays.getKeys()[i]), intArrays.getValues()[i]);
+        }
+        PropertyArrays.OfLong longArrays = loaded.longArrays();
+        assertEquals(longProperties.size(), longArrays.size());
+        for (int i = 0; i < longArrays.size(); i++) {
+            assertEquals((long) longProperties.get(longArrays.getKeys()[i]), longArrays.getValues()[i]);
+        }
+        PropertyArrays.OfFloat floatArrays = loaded.floatArrays();
+        assertEquals(floatProperties.size(), floatArrays.size());
+        for (int i = 0; i < floatArrays.size(); i++) {
+            assertEquals((float) floatProperties.get(floatArrays.getKeys()[i]), floatArrays.getValues()[i]);
+        }
+        PropertyArrays.OfDouble doubleArrays = loaded.doubleArrays();
+        assertEquals(doubleProperties.size(), doubleArrays.size());
+        for (int i = 0; i < doubleArrays.size(); i++) {
+            assertEquals((double) doubleProperties.get(doubleArrays.getKeys()[i]), doubleArrays.getValues()[i]);
+        }
+    }
+
+    /** Checks that the loaded properties are equal to the reference ones. */
+    private void checkLoaded() {
+
+        int size = stringProperties.size() + intProperties.size() + longProperties.size()
+                + floatProperties.size() + doubleProperties.size();
+        assertEquals(size, loaded.size());
+        intProperties.forEach((k, v) -> assertEquals((int) v, loaded.getInt(k), k));
+        longProperties.forEach((k, v) -> {
+            assertEquals((long) v, loaded.getLong(k), k);
+            if (!intProperties.containsKey(k)) {
+                assertThrows(NullPointerException.class, () -> loaded.getInt(k), k);
+            }
+        });
+        floatProperties.forEach((k, v) -> assertEquals((float) v, loaded.getFloat(k), k));
+        doubleProperties.forEach((k, v) -> {
+            assertEquals((double) v, loaded.getDouble(k), k);
+            if (!floatProperties.containsKey(k)) {
+                assertThrows(NullPointerException.class, () -> loaded.getFloat(k), k);
+            }
+        });
+        stringProperties.forEach((k, v) -> assertEquals(v, loaded.getString(k), k));
+        intProperties.keySet().forEach(k -> {
+            if (!stringProperties.containsKey(k)) {
+                assertThrows(NullPointerException.class, () -> loaded.getString(k), k);
+            }
+        });
+    }
+
+    /** The original implementation of {@code BasicProps.loadLine}. */
+    private void referenceLoadLine(final String line) {
+        if (line.isEmpty() || line.startsWith("#")) {
+            return;
+        }
+
+        String[] kv = line.split("=");
+        String key = kv[0];
+        String val = kv[1];
+
+        try {
+            intProperties.put(key, Integer.parseInt(val));
+            return;
+        } catch (NumberFormatException ignored) {
+        }
+
+        try {
+            longProperties.put(key, Long.parseLong(val));
+            return;
+        } catch (NumberFormatException ignored) {
+        }
+
+        try {
+            float value = Float.parseFloat(val);
+            if (value == Float.POSITIVE_INFINITY || value == Float.NEGATIVE_INFINITY) {
+                throw new NumberFormatException();
+            }
+            floatProperties.put(key, value);
+            return;
+        } catch (NumberFormatException ignored) {
+        }
+
+        try {
+            doubleProperties.put(key, Double.parseDouble(val));
+            return;
+        } catch (NumberFormatException ignored) {
+        }
+
+        stringProperties.put(key, val);
+    }
+
+}
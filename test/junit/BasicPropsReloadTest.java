@@ -0,0 +1,172 @@
+package junit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.properties.BasicProps;
+import util.properties.ConcurrentProps;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BasicPropsReloadTest {
+
+    private File file;
+
+    @BeforeEach
+    void create() throws IOException {
+        file = File.createTempFile("reload", ".props");
+    }
+
+    @AfterEach
+    void delete() {
+        file.delete();
+    }
+
+    private void write(final String... lines) throws IOException {
+        write(Arrays.asList(lines));
+    }
+
+    private void write(final List<String> lines) throws IOException {
+        Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, Object> contents(final BasicProps props) {
+        Map<String, Object> contents = new HashMap<>();
+        props.forEachString((k, v) -> contents.put("string " + k, v));
+        props.forEachInt((k, v) -> contents.put("int " + k, v));
+        props.forEachLong((k, v) -> contents.put("long " + k, v));
+        props.forEachFloat((k, v) -> contents.put("float " + k, v));
+        props.forEachDouble((k, v) -> contents.put("double " + k, v));
+        return contents;
+    }
+
+    private static Set<String> set(final String... keys) {
+        return new HashSet<>(Arrays.asList(keys));
+    }
+
+    @Test
+    void testReload() throws IOException {
+        write("a=1", "b=two", "c=3.5", "d=1", "d=x", "# comment", "e=5");
+        BasicProps p = new BasicProps();
+        assertEquals(set("a", "b", "c", "d", "e"), p.reload(file.getPath()));
+        assertEquals(contents(new BasicProps(file.getPath())), contents(p));
+
+        write("e=5", "b=two", "a=1", "c=3.5", "d=1", "d=x");
+        assertEquals(Collections.emptySet(), p.reload(file.getPath()));
+
+        write("a=1", "b=three", "c=3.5", "d=2", "d=x", "f=new");
+        assertEquals(set("b", "d", "e", "f"), p.reload(file.getPath()));
+        assertEquals(contents(new BasicProps(file.getPath())), contents(p));
+        assertEquals("x", p.getString("d"));
+        assertEquals(2, p.getInt("d"));
+
+        write("a=01", "b=three", "c=3.5", "d=2", "d=x", "f=new", "a=1");
+        assertEquals(Collections.emptySet(), p.reload(file.getPath()));
+        assertThrows(UnsupportedOperationException.class, () -> p.reload(file.getPath()).add("x"));
+    }
+
+    @Test
+    void testOtherChanges() throws IOException {
+        write("a=1", "b=2");
+        BasicProps p = new BasicProps();
+        p.reload(file.getPath());
+        p.load("assets/test.props");
+        assertEquals(14, p.size());
+        write("a=1", "b=3");
+        Set<String> changed = p.reload(file.getPath());
+        assertTrue(changed.containsAll(set("b", "CONSTANT_ONE")));
+        assertFalse(changed.contains("a"));
+        assertEquals(2, p.size());
+        assertEquals(3, p.getInt("b"));
+
+        p.clear();
+        assertEquals(set("a", "b"), p.reload(file.getPath()));
+        p.compact();
+        write("a=1", "b=4");
+        assertEquals(set("b"), p.reload(file.getPath()));
+        assertEquals(4, p.getInt("b"));
+    }
+
+    @Test
+    void testMissingValue() throws IOException {
+        write("a=1", "b=2");
+        ConcurrentProps p = new ConcurrentProps();
+        p.reload(file.getPath());
+        write("a=5", "b=");
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> p.reload(file.getPath()));
+        assertEquals(1, p.getInt("a"));
+        write("a=5", "b=2");
+        assertEquals(set("a"), p.reload(file.getPath()));
+        assertEquals(5, p.getInt("a"));
+    }
+
+    @Test
+    void testRandomEdits() throws IOException {
+        Random random = new Random(5);
+        String[] values = {"1", "2", "x", "2.5", "9000000000", "1e300", "ü"};
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            lines.add("key" + random.nextInt(300) + "=" + values[random.nextInt(values.length)]);
+        }
+        write(lines);
+        BasicProps p = new BasicProps();
+        ConcurrentProps concurrent = new ConcurrentProps();
+        p.reload(file.getPath());
+        concurrent.reload(file.getPath());
+
+        for (int round = 0; round < 50; round++) {
+            BasicProps before = new BasicProps(file.getPath());
+            for (int edit = random.nextInt(5); edit >= 0; edit--) {
+                String line = "key" + random.nextInt(300) + "=" + values[random.nextInt(values.length)];
+                int i = random.nextInt(lines.size());
+                switch (random.nextInt(3)) {
+                    case 0:
+                        lines.set(i, line);
+                        break;
+                    case 1:
+                        lines.add(i, line);
+                        break;
+                    default:
+                        lines.remove(i);
+                        break;
+                }
+            }
+            write(lines);
+            BasicProps after = new BasicProps(file.getPath());
+
+            Set<String> expected = new HashSet<>();
+            Map<String, Object> old = contents(before);
+            Map<String, Object> now = contents(after);
+            for (String entry : old.keySet()) {
+                if (!old.get(entry).equals(now.get(entry))) {
+                    expected.add(entry.substring(entry.indexOf(' ') + 1));
+                }
+            }
+            for (String entry : now.keySet()) {
+                if (!old.containsKey(entry)) {
+                    expected.add(entry.substring(entry.indexOf(' ') + 1));
+                }
+            }
+            assertEquals(expected, p.reload(file.getPath()));
+            assertEquals(expected, concurrent.reload(file.getPath()));
+            assertEquals(now, contents(p));
+            assertEquals(now, contents(concurrent));
+            assertEquals(after.size(), p.size());
+        }
+    }
+
+}
@@ -0,0 +1,182 @@
+package junit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.properties.BasicProps;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BasicPropsSaveTest {
+
+    private File file;
+
+    @BeforeEach
+    void create() throws IOException {
+        file = File.createTempFile("save", ".props");
+    }
+
+    @AfterEach
+    void delete() {
+        file.delete();
+    }
+
+    private void write(final String... lines) throws IOException {
+        Files.write(file.toPath(), Arrays.asList(lines), StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, Object> contents(final BasicProps props) {
+        Map<String, Object> contents = new HashMap<>();
+        props.forEachString((k, v) -> contents.put("string " + k, v));
+        props.forEachInt((k, v) -> contents.put("int " + k, v));
+        props.forEachLong((k, v) -> contents.put("long " + k, v));
+        props.forEachFloat((k, v) -> contents.put("float " + k, Float.floatToRawIntBits(v)));
+        props.forEachDouble((k, v) -> contents.put("double " + k, Double.doubleToRawLongBits(v)));
+        return contents;
+    }
+
+    private static BasicProps roundTrip(final BasicProps props, final File file) throws IOException {
+        props.save(file.getPath());
+        return new BasicProps(file.getPath());
+    }
+
+    @Test
+    void testRoundTrip() throws IOException {
+        write("int=-2147483648", "long=9223372036854775807", "small long=-2147483649",
+                "float=0.1", "tiny=1.4E-45", "negative zero=-0.0", "nan=NaN", "huge=3.4028235e38",
+                "double=1e300", "min=4.9E-324", "boundary=340282356779733661637539395458142568448",
+                "negative boundary=-340282356779733661637539395458142568448", "infinity=-Infinity",
+                "text=hello world", "unicode=ü€😀", "spaces= x ",
+                "empty==end", "mixed=1", "mixed=x", "mixed=2.5", "=no key");
+        BasicProps p = new BasicProps(file.getPath());
+        assertEquals(Double.POSITIVE_INFINITY, (double) Float.parseFloat("340282356779733661637539395458142568448"));
+        assertEquals(0x1.ffffffp127, p.getDouble("boundary"));
+
+        BasicProps copy = roundTrip(p, file);
+        assertEquals(contents(p), contents(copy));
+        assertEquals(p.size(), copy.size());
+        assertEquals("", copy.getString("empty"));
+        assertEquals(-0x1.ffffffp127, copy.getDouble("negative boundary"));
+        assertEquals(contents(copy), contents(roundTrip(copy, file)));
+    }
+
+    @Test
+    void testLazyAndCompact() throws IOException {
+        BasicProps p = new BasicProps();
+        p.loadLazy("assets/test.props");
+        BasicProps expected = new BasicProps("assets/test.props");
+        assertEquals(contents(expected), contents(roundTrip(p, file)));
+        expected.compact();
+        assertEquals(contents(expected), contents(roundTrip(expected, file)));
+    }
+
+    @Test
+    void testAppend() throws IOException {
+        Files.write(file.toPath(), "a=1\nb=x".getBytes(StandardCharsets.UTF_8));
+        BasicProps p = new BasicProps();
+        p.reload(file.getPath());
+        File edited = File.createTempFile("edited", ".props");
+        try {
+            Files.write(edited.toPath(), Arrays.asList("a=1", "b=y", "b=2", "c=1e300"),
+                    StandardCharsets.UTF_8);
+            Set<String> changed = p.reload(edited.getPath());
+            p.append(file.getPath(), changed);
+        } finally {
+            edited.delete();
+        }
+        assertEquals(contents(p), contents(new BasicProps(file.getPath())));
+
+        p.append(file.getPath(), Collections.singleton("missing"));
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assertEquals("a=1", lines.get(0));
+        assertEquals("b=x", lines.get(1));
+        assertEquals(5, lines.size());
+    }
+
+    @Test
+    void testAtomicReplace() throws IOException {
+        write("old=1");
+        BasicProps p = new BasicProps("assets/test.props");
+        boolean posix = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+        if (posix) {
+            Files.setPosixFilePermissions(file.toPath(), PosixFilePermissions.fromString("rw-r--r--"));
+        }
+        p.save(file.getPath());
+        if (posix) {
+            assertEquals("rw-r--r--", PosixFilePermissions.toString(Files.getPosixFilePermissions(file.toPath())));
+        }
+        assertEquals(contents(p), contents(new BasicProps(file.getPath())));
+
+        File directory = Files.createTempDirectory("save").toFile();
+        File blocked = new File(directory, "blocked.props");
+        try {
+            // A directory that is not empty cannot be replaced
+            assertTrue(blocked.mkdir());
+            assertTrue(new File(blocked, "inside").createNewFile());
+            assertThrows(IOException.class, () -> p.save(blocked.getPath()));
+            assertEquals(List.of("blocked.props"), Arrays.asList(directory.list()));
+        } finally {
+            new File(blocked, "inside").delete();
+            blocked.delete();
+            directory.delete();
+        }
+    }
+
+    @Test
+    void testConcurrentSaves() throws Exception {
+        File directory = Files.createTempDirectory("save").toFile();
+        File target = new File(directory, "shared.props");
+        BasicProps[] props = new BasicProps[2];
+        for (int i = 0; i < props.length; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int key = 0; key < 20_000; key++) {
+                text.append("key").append(key).append('=').append(key * 2 + i).append('\n');
+            }
+            Files.write(file.toPath(), text.toString().getBytes(StandardCharsets.UTF_8));
+            props[i] = new BasicProps(file.getPath());
+        }
+        List<Map<String, Object>> expected = List.of(contents(props[0]), contents(props[1]));
+
+        try {
+            Thread[] threads = new Thread[4];
+            List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+            for (int i = 0; i < threads.length; i++) {
+                BasicProps saved = props[i % props.length];
+                threads[i] = new Thread(() -> {
+                    try {
+                        for (int round = 0; round < 10; round++) {
+                            saved.save(target.getPath());
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        failures.add(e);
+                    }
+                });
+                threads[i].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertEquals(List.of(), failures);
+            assertTrue(expected.contains(contents(new BasicProps(target.getPath()))));
+            assertEquals(List.of("shared.props"), Arrays.asList(directory.list()));
+        } finally {
+            target.delete();
+            directory.delete();
+        }
+    }
+
+}
@@ -3,8 +3,10 @@ package junit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import util.properties.BasicProps;
+import util.properties.PropertyHandle;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -111,4 +113,63 @@ class BasicPropsTest {
             }
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void testHandles() {
+        PropertyHandle.OfInt one = p.intHandle("CONSTANT_ONE");
+        PropertyHandle.OfLong myLong = p.longHandle("my long");
+        PropertyHandle.OfLong myInt = p.longHandle("my int");
+        PropertyHandle.OfFloat myFloat = p.floatHandle("my float");
+        PropertyHandle.OfDouble pi = p.doubleHandle("CONSTANT_PI");
+        PropertyHandle.OfString hello = p.stringHandle("CONSTANT_HELLO");
+        assertEquals(1, one.getInt());
+        assertEquals(9223372036854775807L, myLong.getLong());
+        assertEquals(2, myInt.getLong());
+        assertEquals(-0.3f, myFloat.getFloat());
+        assertEquals(3.14f, pi.getDouble());
+        assertEquals("HELLO", hello.getString());
+        assertEquals("CONSTANT_HELLO", hello.getKey());
+    }
+
+    @Test
+    void testHandleMissing() {
+        assertThrows(NullPointerException.class, () -> p.intHandle("my long"));
+        assertThrows(NullPointerException.class, () -> p.longHandle("sample"));
+        assertThrows(NullPointerException.class, () -> p.floatHandle("my double"));
+        assertThrows(NullPointerException.class, () -> p.doubleHandle("nothing"));
+        assertThrows(NullPointerException.class, () -> p.stringHandle("CONSTANT_ONE"));
+    }
+
+    @Test
+    void testHandleReload() throws FileNotFoundException {
+        PropertyHandle.OfInt one = p.intHandle("CONSTANT_ONE");
+        PropertyHandle.OfString hello = p.stringHandle("CONSTANT_HELLO");
+        p.clear();
+        assertThrows(NullPointerException.class, one::getInt);
+        p.load("assets/graphics.props");
+        p.load(FILE);
+        assertEquals(1, one.getInt());
+        assertEquals("HELLO", hello.getString());
+    }
+
+    @Test
+    void testLoadLazy() throws IOException {
+        BasicProps lazy = new BasicProps();
+        lazy.loadLazy(FILE);
+        assertEquals(12, lazy.size());
+        PropertyHandle.OfString hello = lazy.stringHandle("CONSTANT_HELLO");
+        assertEquals("Здравей!", lazy.getString("Hello in BG"));
+        assertEquals(3.14f, lazy.getDouble("CONSTANT_PI"));
+
+        lazy.load(FILE);
+        lazy.loadLazy("assets/graphics.props");
+        lazy.loadLazy(FILE);
+        p.load("assets/graphics.props");
+        assertEquals(p.size(), lazy.size());
+        assertEquals(1, lazy.getInt("CONSTANT_ONE"));
+        assertEquals(-3, lazy.getInt("NEGATIVE"));
+        assertEquals("HELLO", hello.getString());
+        assertThrows(NullPointerException.class, () -> lazy.getLong("sample"));
+        assertThrows(IOException.class, () -> lazy.loadLazy("missing.props"));
+    }
+}
@@ -0,0 +1,82 @@
+package junit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.file.editing.BatchFileReader;
+import util.file.editing.WrappedReader;
+import util.log.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchFileReaderTest {
+
+    private static final int FILES = 300;
+
+    private final List<File> files = new ArrayList<>();
+
+    private final List<String> names = new ArrayList<>();
+
+    @BeforeEach
+    void create() throws IOException {
+        for (int i = 0; i < FILES; i++) {
+            File file = File.createTempFile("batch", ".txt");
+            Files.write(file.toPath(), ("file " + i + "\r\nline two\nä").getBytes(StandardCharsets.UTF_8));
+            files.add(file);
+            names.add(file.getPath());
+        }
+    }
+
+    @AfterEach
+    void delete() {
+        files.forEach(File::delete);
+    }
+
+    @Test
+    void testReadFiles() {
+        Map<String, String> contents = new HashMap<>();
+        assertEquals(FILES, BatchFileReader.readFiles(names, contents::put));
+        assertEquals(FILES, contents.size());
+        for (String name : names) {
+            assertEquals(WrappedReader.readFile(name), contents.get(name));
+        }
+
+        Map<String, ArrayList<String>> lines = new HashMap<>();
+        assertEquals(FILES, BatchFileReader.readFilesLines(names, 1, lines::put, null));
+        for (String name : names) {
+            assertEquals(WrappedReader.readFileLines(name), lines.get(name));
+        }
+    }
+
+    @Test
+    void testFailures() throws IOException {
+        File log = File.createTempFile("batch", ".log");
+        Logger logger = new Logger(log.getPath());
+        List<String> withMissing = new ArrayList<>(names);
+        withMissing.add(5, names.get(5) + ".missing");
+        Map<String, String> contents = new HashMap<>();
+        assertEquals(FILES, BatchFileReader.readFiles(withMissing, 4, contents::put, logger));
+        assertEquals(FILES, contents.size());
+        logger.close();
+        assertTrue(WrappedReader.readFile(log.getPath()).contains("NoSuchFileException"));
+        log.delete();
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () ->
+                BatchFileReader.readFiles(names, (name, text) -> {
+                    throw new IllegalStateException(name);
+                }));
+        assertTrue(names.contains(e.getMessage()));
+        assertThrows(IllegalArgumentException.class, () ->
+                BatchFileReader.readFiles(names, 0, (name, text) -> { }, null));
+    }
+
+}
@@ -0,0 +1,104 @@
+package junit;
+
+import org.junit.jupiter.api.Test;
+import util.properties.BasicProps;
+import util.properties.GraphicsProps;
+import util.properties.LayeredProps;
+import util.properties.PropertyHandle;
+
+import java.awt.Color;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactPropsTest {
+
+    private static final String FILE = "assets/test.props";
+
+    @Test
+    void testCompact() throws IOException {
+        BasicProps p = new BasicProps(FILE);
+        PropertyHandle.OfInt one = p.intHandle("CONSTANT_ONE");
+        List<String> keys = p.keys();
+        p.compact();
+        assertEquals(12, p.size());
+        assertEquals(keys, p.keys());
+        assertEquals("HELLO", p.getString("CONSTANT_HELLO"));
+        assertEquals("Здравей!", p.getString("Hello in BG"));
+        assertEquals(1, p.getInt("CONSTANT_ONE"));
+        assertEquals(9223372036854775807L, p.getLong("my long"));
+        assertEquals(-0.3f, p.getFloat("my float"));
+        assertEquals(1.797693E41, p.getDouble("my double"));
+        assertTrue(p.isTrue("my boolean"));
+        assertEquals(1, one.getInt());
+        assertThrows(NullPointerException.class, () -> p.getString("CONSTANT_ONE"));
+
+        p.load("assets/graphics.props");
+        assertEquals(22, p.size());
+        assertEquals("HELLO", p.getString("CONSTANT_HELLO"));
+        assertEquals(100, p.getInt("my color r"));
+        p.clear();
+        assertEquals(0, p.size());
+        p.compact();
+        assertEquals(0, p.size());
+    }
+
+    @Test
+    void testCache() throws IOException {
+        Random random = new Random(17);
+        Map<String, String> strings = new HashMap<>();
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            String value = "v" + random.nextInt(100000) + (i % 3 == 0 ? "ü€" : "");
+            strings.put("key " + i, value);
+            lines.add("key " + i + "=" + value);
+        }
+        File file = File.createTempFile("compact", ".props");
+        try {
+            Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+            BasicProps cached = new BasicProps(file.getPath());
+            BasicProps uncached = new BasicProps(file.getPath());
+            cached.compact(64);
+            uncached.compact();
+            for (int round = 0; round < 3; round++) {
+                for (Map.Entry<String, String> e : strings.entrySet()) {
+                    assertEquals(e.getValue(), cached.getString(e.getKey()));
+                    assertEquals(e.getValue(), uncached.getString(e.getKey()));
+                }
+            }
+            String key = "key " + random.nextInt(5000);
+            assertSame(cached.getString(key), cached.getString(key));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    void testLazyAndGraphics() throws IOException {
+        BasicProps lazy = new BasicProps();
+        lazy.loadLazy(FILE);
+        lazy.compact(16);
+        assertEquals(12, lazy.size());
+        assertEquals(3.14f, lazy.getDouble("CONSTANT_PI"));
+
+        GraphicsProps g = new GraphicsProps("assets/graphics.props");
+        Color color = g.getColor("my color");
+        g.compact();
+        assertEquals(color, g.getColor("my color"));
+
+        LayeredProps layered = new LayeredProps(g);
+        g.compact();
+        layered.refresh(g);
+        assertEquals(color.getRed(), layered.getInt("my color r"));
+        assertThrows(UnsupportedOperationException.class, layered::compact);
+    }
+
+}
@@ -0,0 +1,250 @@
+package junit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.properties.BasicProps;
+import util.properties.ConcurrentGraphicsProps;
+import util.properties.ConcurrentProps;
+import util.properties.PropertyHandle;
+
+import java.awt.Color;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentPropsTest {
+
+    private static final int KEYS = 500;
+    private static final int READERS = 4;
+    private static final int LOADS = 200;
+
+    private File first;
+    private File second;
+    private ConcurrentGraphicsProps p;
+    private ExecutorService pool;
+
+    @BeforeEach
+    void load() throws IOException {
+        first = write(1);
+        second = write(2);
+        p = new ConcurrentGraphicsProps(first.getPath());
+        pool = Executors.newFixedThreadPool(READERS);
+    }
+
+    @AfterEach
+    void close() throws InterruptedException {
+        pool.shutdownNow();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+        first.delete();
+        second.delete();
+    }
+
+    private static File write(final int value) throws IOException {
+        File file = File.createTempFile("concurrent", ".props");
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < KEYS; i++) {
+            lines.add("k" + i + "=" + value);
+        }
+        lines.add("c r=" + value);
+        lines.add("c g=" + value);
+        lines.add("c b=" + value);
+        lines.add("name=value " + value);
+        Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private List<Future<Integer>> startReaders(final AtomicBoolean running, final boolean cleared) {
+        List<Future<Integer>> readers = new ArrayList<>();
+        for (int r = 0; r < READERS; r++) {
+            readers.add(pool.submit(() -> {
+                int reads = 0;
+                do {
+                    try {
+                        int[] seen = new int[3];
+                        p.forEachInteger((key, value) -> seen[value]++);
+                        assertEquals(0, seen[1] * seen[2], "mixed snapshot");
+                        int total = seen[1] + seen[2];
+                        assertTrue(total == KEYS + 3 || cleared && total == 0);
+
+                        Color color = p.getColor("c");
+                        assertEquals(color.getRed(), color.getGreen());
+                        assertEquals(color.getRed(), color.getBlue());
+                        int value = p.getInt("k" + reads % KEYS);
+                        assertTrue(value == 1 || value == 2);
+                    } catch (NullPointerException e) {
+                        assertTrue(cleared, e.getMessage());
+                    }
+                    reads++;
+                } while (running.get());
+                return reads;
+            }));
+        }
+        return readers;
+    }
+
+    private void await(final AtomicBoolean running, final List<Future<Integer>> readers)
+            throws Exception {
+        running.set(false);
+        for (Future<Integer> reader : readers) {
+            assertTrue(reader.get(30, TimeUnit.SECONDS) > 0);
+        }
+    }
+
+    @Test
+    void testConcurrentLoads() throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Future<Integer>> readers = startReaders(running, false);
+        for (int i = 0; i < LOADS; i++) {
+            p.load((i % 2 == 0 ? second : first).getPath());
+        }
+        await(running, readers);
+        assertEquals(KEYS + 4, p.size());
+        assertEquals(1, p.getInt("k0"));
+    }
+
+    @Test
+    void testConcurrentClears() throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Future<Integer>> readers = startReaders(running, true);
+        for (int i = 0; i < LOADS; i++) {
+            p.clear();
+            p.load((i % 2 == 0 ? second : first).getPath());
+        }
+        await(running, readers);
+        assertEquals(KEYS + 4, p.size());
+    }
+
+    @Test
+    void testConcurrentWriters() throws Exception {
+        List<Future<?>> writers = new ArrayList<>();
+        for (int w = 0; w < READERS; w++) {
+            File file = w % 2 == 0 ? first : second;
+            writers.add(pool.submit(() -> {
+                for (int i = 0; i < LOADS / READERS; i++) {
+                    p.load(file.getPath());
+                }
+                return null;
+            }));
+        }
+        for (Future<?> writer : writers) {
+            writer.get(30, TimeUnit.SECONDS);
+        }
+        assertEquals(KEYS + 4, p.size());
+    }
+
+    @Test
+    void testSharedHandles() throws Exception {
+        // Each value belongs to its key, so a slot of the wrong table is noticed
+        File large = File.createTempFile("concurrent", ".props");
+        File small = File.createTempFile("concurrent", ".props");
+        List<String> largeLines = new ArrayList<>();
+        List<String> smallLines = new ArrayList<>();
+        for (int i = 0; i < KEYS; i++) {
+            largeLines.add("k" + i + "=" + (i * 10 + 1));
+            if (i < 10) {
+                smallLines.add("k" + i + "=" + (i * 10 + 2));
+            }
+        }
+        Files.write(large.toPath(), largeLines, StandardCharsets.UTF_8);
+        Files.write(small.toPath(), smallLines, StandardCharsets.UTF_8);
+
+        ConcurrentProps shared = new ConcurrentProps(large.getPath());
+        List<PropertyHandle.OfInt> handles = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            handles.add(shared.intHandle("k" + i));
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Future<Integer>> readers = new ArrayList<>();
+        for (int r = 0; r < READERS; r++) {
+            readers.add(pool.submit(() -> {
+                int reads = 0;
+                do {
+                    int i = reads % handles.size();
+                    try {
+                        int value = handles.get(i).getInt();
+                        assertTrue(value == i * 10 + 1 || value == i * 10 + 2, "k" + i + "=" + value);
+                    } catch (NullPointerException e) {
+                        // Read while the properties were cleared
+                    }
+                    reads++;
+                } while (running.get());
+                return reads;
+            }));
+        }
+        for (int i = 0; i < LOADS; i++) {
+            shared.clear();
+            shared.load((i % 2 == 0 ? small : large).getPath());
+        }
+        await(running, readers);
+        assertEquals(1, handles.get(0).getInt());
+        large.delete();
+        small.delete();
+    }
+
+    @Test
+    void testConcurrentLazyReads() throws Exception {
+        File mixed = File.createTempFile("concurrent", ".props");
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < KEYS; i++) {
+            lines.add("i" + i + "=" + i);
+            lines.add("l" + i + "=" + (i * 10_000_000_000L));
+            lines.add("d" + i + "=" + i + ".5e300");
+            lines.add("s" + i + "=text " + i);
+        }
+        Files.write(mixed.toPath(), lines, StandardCharsets.UTF_8);
+
+        for (int round = 0; round < 20; round++) {
+            BasicProps lazy = new BasicProps();
+            lazy.loadLazy(mixed.getPath());
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < READERS; r++) {
+                int offset = r * KEYS / READERS;
+                readers.add(pool.submit(() -> {
+                    start.await();
+                    for (int k = 0; k < KEYS; k++) {
+                        int i = (k + offset) % KEYS;
+                        assertEquals(i, lazy.getInt("i" + i));
+                        assertEquals(i * 10_000_000_000L, lazy.getLong("l" + i));
+                        assertEquals(Double.parseDouble(i + ".5e300"), lazy.getDouble("d" + i));
+                        assertEquals("text " + i, lazy.getString("s" + i));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> reader : readers) {
+                reader.get(30, TimeUnit.SECONDS);
+            }
+        }
+        mixed.delete();
+    }
+
+    @Test
+    void testFailedLoadKeepsProperties() throws IOException {
+        File broken = File.createTempFile("concurrent", ".props");
+        Files.write(broken.toPath(), "k0=7\nnovalue\n".getBytes(StandardCharsets.UTF_8));
+        ConcurrentProps props = new ConcurrentProps(first.getPath());
+        try {
+            assertThrows(ArrayIndexOutOfBoundsException.class, () -> props.load(broken.getPath()));
+            assertThrows(ArrayIndexOutOfBoundsException.class, () -> props.loadParallel(broken.getPath()));
+            assertEquals(1, props.getInt("k0"));
+            assertEquals(KEYS + 4, props.size());
+        } finally {
+            broken.delete();
+        }
+    }
+
+}
@@ -0,0 +1,128 @@
+package junit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.file.editing.FileFollower;
+import util.file.editing.WrappedReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileFollowerTest {
+
+    private File file;
+
+    private File rotated;
+
+    private FileFollower follower;
+
+    @BeforeEach
+    void create() throws IOException {
+        file = File.createTempFile("follow", ".log");
+        rotated = new File(file.getPath() + ".1");
+    }
+
+    @AfterEach
+    void delete() {
+        if (follower != null) {
+            follower.close();
+        }
+        file.delete();
+        rotated.delete();
+    }
+
+    private void append(final String text) throws IOException {
+        Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Test
+    void testAppendedLines() throws IOException {
+        append("one\ntwo\n");
+        follower = WrappedReader.follow(file.getPath());
+        assertEquals(List.of("one", "two"), follower.poll());
+        assertEquals(List.of(), follower.poll());
+
+        append("thr");
+        assertEquals(List.of(), follower.poll());
+        append("eeé\r");
+        assertEquals(List.of("threeé"), follower.poll());
+        append("\nfour\r\n\n");
+        assertEquals(List.of("four", ""), follower.poll());
+        assertEquals(file.length(), follower.position());
+    }
+
+    @Test
+    void testFromEnd() throws IOException {
+        append("old\n");
+        follower = new FileFollower(file.getPath(), true, null);
+        assertEquals(List.of(), follower.poll());
+        append("new\n");
+        assertEquals(List.of("new"), follower.poll());
+    }
+
+    @Test
+    void testTruncation() throws IOException {
+        append("a long first line\npartial");
+        follower = WrappedReader.follow(file.getPath());
+        assertEquals(List.of("a long first line"), follower.poll());
+        Files.write(file.toPath(), "short\n".getBytes(StandardCharsets.UTF_8));
+        assertEquals(List.of("short"), follower.poll());
+    }
+
+    @Test
+    void testRotation() throws IOException {
+        append("one\n");
+        follower = WrappedReader.follow(file.getPath());
+        assertEquals(List.of("one"), follower.poll());
+        append("two\nthree");
+        Files.move(file.toPath(), rotated.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        assertEquals(List.of("two"), follower.poll());
+
+        append("new file, longer than the old one\n");
+        assertEquals(List.of("three", "new file, longer than the old one"), follower.poll());
+    }
+
+    @Test
+    void testMissingFile() throws IOException {
+        file.delete();
+        follower = WrappedReader.follow(file.getPath());
+        assertEquals(List.of(), follower.poll());
+        append("created\n");
+        assertEquals(List.of("created"), follower.poll());
+    }
+
+    @Test
+    void testFollow() throws Exception {
+        follower = WrappedReader.follow(file.getPath());
+        List<String> lines = Collections.synchronizedList(new ArrayList<>());
+        Thread thread = new Thread(() -> follower.follow(lines::add));
+        thread.start();
+
+        append("first\n");
+        append("second\n");
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (lines.size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(List.of("first", "second"), lines);
+
+        follower.close();
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse(thread.isAlive());
+        assertNull(follower.nextLine());
+        assertFalse(follower.iterator().hasNext());
+    }
+
+}
@@ -6,8 +6,7 @@ import util.properties.*;
 import java.awt.*;
 import java.io.*;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class GraphicsPropsTest {
 
@@ -44,4 +43,34 @@ public class GraphicsPropsTest {
         assertThrows(NullPointerException.class, () -> p.getFont("my color"));
     }
 
+    @Test
+    void testCache() throws IOException {
+        assertSame(p.getColor("my color"), p.getColor("my color"));
+        assertSame(p.getFont("my font"), p.getFont("my font"));
+        Point point = p.getPoint("my point");
+        point.translate(5, 5);
+        assertEquals(new Point(10, 30), p.getPoint("my point"));
+        Dimension dimension = p.getDimension("my dimension");
+        dimension.setSize(1, 1);
+        assertEquals(new Dimension(120, 105), p.getDimension("my dimension"));
+
+        File file = File.createTempFile("graphics", ".props");
+        try (Writer w = new FileWriter(file)) {
+            w.write("my color r=1\nmy point x=2\nmy font size=14\n");
+        }
+        try {
+            p.load(file.getPath());
+            assertEquals(new Color(1, 20, 250), p.getColor("my color"));
+            assertEquals(new Point(2, 30), p.getPoint("my point"));
+            assertEquals(14, p.getFont("my font").getSize());
+        } finally {
+            file.delete();
+        }
+
+        p.clear();
+        assertThrows(NullPointerException.class, () -> p.getColor("my color"));
+        p.load(FILE);
+        assertEquals(new Color(100, 20, 250), p.getColor("my color"));
+    }
+
 }
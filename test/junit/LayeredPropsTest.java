@@ -0,0 +1,177 @@
+package junit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.properties.BasicProps;
+import util.properties.LayeredProps;
+import util.properties.PropertyHandle;
+import util.properties.ReloadingProps;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LayeredPropsTest {
+
+    private final List<File> files = new ArrayList<>();
+    private BasicProps defaults;
+    private BasicProps host;
+    private LayeredProps p;
+
+    @BeforeEach
+    void load() throws IOException {
+        defaults = new BasicProps(write("width=100", "height=50", "name=default", "mode=7").getPath());
+        host = new BasicProps(write("width=200", "mode=fast").getPath());
+        p = new LayeredProps(defaults, host);
+    }
+
+    @AfterEach
+    void delete() {
+        for (File file : files) {
+            file.delete();
+        }
+    }
+
+    private File write(final String... lines) throws IOException {
+        File file = File.createTempFile("layer", ".props");
+        files.add(file);
+        Files.write(file.toPath(), Arrays.asList(lines), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    @Test
+    void testOverride() {
+        assertEquals(200, p.getInt("width"));
+        assertEquals(50, p.getInt("height"));
+        assertEquals("default", p.getString("name"));
+        assertEquals("fast", p.getString("mode"));
+        assertThrows(NullPointerException.class, () -> p.getInt("mode"));
+        assertEquals(4, p.size());
+        assertSame(host, p.sourceOf("width"));
+        assertSame(defaults, p.sourceOf("height"));
+        assertNull(p.sourceOf("nothing"));
+        assertEquals(Arrays.asList(defaults, host), p.getLayers());
+    }
+
+    @Test
+    void testRefresh() throws IOException {
+        PropertyHandle.OfInt width = p.intHandle("width");
+        host.load(write("height=60", "width=300").getPath());
+        assertEquals(200, p.getInt("width"));
+        p.refresh(host);
+        assertEquals(300, width.getInt());
+        assertEquals(60, p.getInt("height"));
+
+        host.clear();
+        p.refresh(host);
+        assertEquals(100, width.getInt());
+        assertEquals(7, p.getInt("mode"));
+        assertSame(defaults, p.sourceOf("width"));
+        assertEquals(4, p.size());
+    }
+
+    @Test
+    void testAddAndRemoveLayers() throws IOException {
+        BasicProps top = new BasicProps(write("name=top", "extra=1").getPath());
+        p.addLayer(top);
+        assertEquals("top", p.getString("name"));
+        assertEquals(1, p.getInt("extra"));
+        assertTrue(p.removeLayer(host));
+        assertFalse(p.removeLayer(host));
+        assertEquals(100, p.getInt("width"));
+        assertTrue(p.removeLayer(top));
+        assertThrows(NullPointerException.class, () -> p.getInt("extra"));
+        assertEquals("default", p.getString("name"));
+        assertEquals(4, p.size());
+    }
+
+    @Test
+    void testReloadingLayer() throws IOException {
+        File file = write("width=400");
+        ReloadingProps reloading = new ReloadingProps(file.getPath());
+        try {
+            reloading.close();
+            p.addLayer(reloading);
+            assertEquals(400, p.getInt("width"));
+            Files.write(file.toPath(), Arrays.asList("height=1"), StandardCharsets.UTF_8);
+            reloading.reload();
+            assertEquals(200, p.getInt("width"));
+            assertEquals(1, p.getInt("height"));
+            assertSame(reloading, p.sourceOf("height"));
+        } finally {
+            reloading.close();
+        }
+    }
+
+    @Test
+    void testOfFiles() throws IOException {
+        String missing = new File(write().getParentFile(), "missing layer.props").getPath();
+        LayeredProps files = LayeredProps.ofFiles(
+                write("a=1", "b=2").getPath(), missing, write("b=3").getPath());
+        assertEquals(2, files.getLayers().size());
+        assertEquals(1, files.getInt("a"));
+        assertEquals(3, files.getInt("b"));
+        assertThrows(IOException.class, () -> LayeredProps.ofFiles(missing));
+    }
+
+    @Test
+    void testUnsupported() {
+        assertThrows(UnsupportedOperationException.class, () -> p.clear());
+        assertThrows(UnsupportedOperationException.class, () -> p.load("x.props"));
+        assertThrows(UnsupportedOperationException.class, () -> p.loadParallel("x.props"));
+        assertThrows(UnsupportedOperationException.class, () -> p.loadSnapshot("x.props"));
+    }
+
+    @Test
+    void testManyRandomChanges() throws IOException {
+        Random random = new Random(8);
+        int keys = 3000;
+        BasicProps[] layers = new BasicProps[3];
+        for (int i = 0; i < layers.length; i++) {
+            layers[i] = new BasicProps();
+        }
+        LayeredProps layered = new LayeredProps(layers);
+        for (int round = 0; round < 20; round++) {
+            int i = random.nextInt(layers.length);
+            if (random.nextInt(4) == 0) {
+                layers[i].clear();
+            }
+            List<String> lines = new ArrayList<>();
+            for (int k = 0; k < keys / 2; k++) {
+                lines.add("k" + random.nextInt(keys) + "=" + i + "" + round);
+            }
+            layers[i].load(write(lines.toArray(new String[0])).getPath());
+            layered.refresh(layers[i]);
+
+            int defined = 0;
+            for (int k = 0; k < keys; k++) {
+                String key = "k" + k;
+                BasicProps source = null;
+                for (int j = layers.length - 1; j >= 0 && source == null; j--) {
+                    try {
+                        layers[j].getInt(key);
+                        source = layers[j];
+                    } catch (NullPointerException ignored) {
+                    }
+                }
+                assertSame(source, layered.sourceOf(key), key);
+                if (source != null) {
+                    assertEquals(source.getInt(key), layered.getInt(key), key);
+                    defined++;
+                } else {
+                    assertThrows(NullPointerException.class, () -> layered.getInt(key));
+                }
+            }
+            assertEquals(defined, layered.size());
+        }
+    }
+
+}
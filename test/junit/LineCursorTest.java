@@ -0,0 +1,141 @@
+package junit;
+
+import org.junit.jupiter.api.Test;
+import util.file.editing.LineCursor;
+import util.file.editing.WrappedReader;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineCursorTest {
+
+    private static LineCursor cursor(final String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        return new WrappedReader(new ByteArrayInputStream(bytes)).cursor();
+    }
+
+    private static void assertLines(final String text) {
+        List<String> expected = new BufferedReader(new StringReader(text)).lines().collect(Collectors.toList());
+        List<String> lines = new ArrayList<>();
+        LineCursor cursor = cursor(text);
+        while (cursor.next()) {
+            lines.add(cursor.toString());
+            assertEquals(lines.size(), cursor.lineNumber());
+        }
+        assertEquals(expected, lines);
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    void testLineEndings() {
+        assertLines("");
+        assertLines("\n");
+        assertLines("\r\n\r");
+        assertLines("one");
+        assertLines("one\ntwo\n");
+        assertLines("one\r\ntwo\rthree\n\nfour");
+        assertLines("ü€😀\r\nété");
+    }
+
+    @Test
+    void testBufferBoundaries() {
+        Random random = new Random(22);
+        String[] pieces = {"a", "bc", "\n", "\r", "\r\n", "é"};
+        for (int round = 0; round < 20; round++) {
+            StringBuilder sb = new StringBuilder();
+            int size = random.nextInt(100_000);
+            while (sb.length() < size) {
+                sb.append(pieces[random.nextInt(pieces.length)]);
+            }
+            assertLines(sb.toString());
+        }
+        String longLine = "x".repeat(100_000);
+        assertLines("short\r" + longLine + "\r\n" + longLine + "\nend");
+    }
+
+    @Test
+    void testView() {
+        LineCursor cursor = cursor("key 42=value\n");
+        assertTrue(cursor.next());
+        assertEquals(12, cursor.length());
+        assertEquals('k', cursor.charAt(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> cursor.charAt(12));
+        assertTrue(cursor.startsWith("key "));
+        assertTrue(cursor.startsWith("42", 4));
+        assertFalse(cursor.startsWith("42", 11));
+        assertFalse(cursor.startsWith("key 42=value!"));
+        assertTrue(cursor.contentEquals("key 42=value"));
+        assertFalse(cursor.contentEquals("key 42"));
+        assertEquals(6, cursor.indexOf('=', 0));
+        assertEquals(-1, cursor.indexOf('=', 7));
+        assertEquals("value", cursor.subSequence(7, 12));
+        assertEquals(42, cursor.parseInt(4, cursor.indexOf('=', 0)));
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    void testParseIntegers() {
+        String[] valid = {"0", "-0", "+7", "123", "-2147483648", "2147483647",
+            "9223372036854775807", "-9223372036854775808", "0000000000000000000001",
+            "\u0661\u0662\u0663", "-\u0664\u0662", "\uff11\uff12"};
+        for (String number : valid) {
+            LineCursor cursor = cursor(number);
+            assertTrue(cursor.next());
+            assertEquals(Long.parseLong(number), cursor.parseLong(0, number.length()));
+        }
+        String[] invalid = {"", "-", "+", "1a", " 1", "9223372036854775808",
+            "-9223372036854775809", "99999999999999999999", "1-", "\u216b", "\u00bd"};
+        for (String number : invalid) {
+            LineCursor cursor = cursor(number + "\n");
+            assertTrue(cursor.next());
+            assertThrows(NumberFormatException.class, () -> cursor.parseLong(0, number.length()), number);
+        }
+        LineCursor cursor = cursor("2147483648");
+        assertTrue(cursor.next());
+        assertThrows(NumberFormatException.class, () -> cursor.parseInt(0, 10));
+        assertEquals(214748364, cursor.parseInt(0, 9));
+    }
+
+    @Test
+    void testParseDouble() {
+        String[] numbers = {"0", "-0", "1", "1.", ".5", "-2.25", "+3.5e2", "1e22", "1e23",
+            "123456789012345", "1234567890123456789", "0.1", "0.3", "1.7976931348623157E308",
+            "4.9e-324", "1e-400", "NaN", "-Infinity", "0x1p3", "2.5d", "1e0000010", "000.0001"};
+        for (String number : numbers) {
+            LineCursor cursor = cursor(number);
+            assertTrue(cursor.next());
+            assertEquals(Double.parseDouble(number), cursor.parseDouble(0, number.length()), number);
+        }
+        Random random = new Random(22);
+        for (int i = 0; i < 10_000; i++) {
+            String number = Double.toString(random.nextDouble() * Math.pow(10, random.nextInt(40) - 20));
+            if (random.nextBoolean()) {
+                number = String.format(Locale.ROOT, "%.6f", random.nextDouble() * 1000);
+            }
+            LineCursor cursor = cursor(number);
+            assertTrue(cursor.next());
+            assertEquals(Double.parseDouble(number), cursor.parseDouble(0, number.length()), number);
+        }
+        for (String number : new String[] {"", ".", "-", "e5", "1e", "1.2.3", "abc"}) {
+            LineCursor cursor = cursor(number + "\n");
+            assertTrue(cursor.next());
+            assertThrows(NumberFormatException.class, () -> cursor.parseDouble(0, number.length()), number);
+        }
+    }
+
+    @Test
+    void testMissingFile() {
+        WrappedReader reader = new WrappedReader("missing.file." + System.nanoTime(), null);
+        assertFalse(reader.cursor().next());
+    }
+
+}
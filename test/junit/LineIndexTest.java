@@ -0,0 +1,134 @@
+package junit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.file.editing.LineIndex;
+import util.file.editing.WrappedReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineIndexTest {
+
+    private File file;
+
+    private File sidecar;
+
+    private List<String> expected;
+
+    @BeforeEach
+    void create() throws IOException {
+        file = File.createTempFile("index", ".txt");
+        sidecar = new File(file.getPath() + LineIndex.SUFFIX);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sb.append("line ").append(i).append(i % 5 == 0 ? " é" : "");
+            sb.append(i % 3 == 0 ? "\r\n" : i % 7 == 0 ? "\r" : "\n");
+        }
+        sb.append("\nlast");
+        Files.write(file.toPath(), sb.toString().getBytes(StandardCharsets.UTF_8));
+        expected = WrappedReader.readFileLines(file.getPath());
+    }
+
+    @AfterEach
+    void delete() {
+        file.delete();
+        sidecar.delete();
+    }
+
+    @Test
+    void testSeek() {
+        for (int interval : new int[] {1, 7, 64, 5000}) {
+            LineIndex index = LineIndex.build(file.getPath(), interval, null);
+            assertEquals(expected.size(), index.lineCount());
+            assertEquals(0, index.offset(0));
+            assertEquals(file.length(), index.offset(index.lineCount()));
+            for (int line : new int[] {0, 1, 6, 7, 8, 500, 998, 999, 1000, 1001}) {
+                WrappedReader reader = index.reader(line);
+                assertEquals(expected.get(line), reader.readLine(), "line " + line);
+                reader.close();
+                assertEquals(expected.subList(line, Math.min(line + 10, expected.size())),
+                        index.lines(line, Math.min(line + 10, expected.size())));
+            }
+            WrappedReader end = index.reader(index.lineCount());
+            assertNull(end.readLine());
+            end.close();
+            assertEquals(expected, index.lines(0, expected.size()));
+            assertThrows(IndexOutOfBoundsException.class, () -> index.lines(5, 4));
+            assertThrows(IndexOutOfBoundsException.class, () -> index.offset(expected.size() + 1));
+        }
+        assertThrows(IllegalArgumentException.class, () -> LineIndex.build(file.getPath(), 0, null));
+    }
+
+    @Test
+    void testSidecar() throws IOException {
+        assertNull(LineIndex.load(file.getPath(), null));
+        LineIndex index = WrappedReader.index(file.getPath());
+        assertTrue(sidecar.isFile());
+        assertTrue(index.isCurrent());
+
+        LineIndex loaded = LineIndex.load(file.getPath(), null);
+        assertNotNull(loaded);
+        assertEquals(index.lineCount(), loaded.lineCount());
+        assertEquals(index.interval(), loaded.interval());
+        assertEquals(expected.subList(900, 950), loaded.lines(900, 950));
+
+        // An index of a changed file is ignored and rebuilt
+        Files.write(file.toPath(), "one\ntwo\n".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file.toPath(), FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        assertFalse(index.isCurrent());
+        assertNull(LineIndex.load(file.getPath(), null));
+        LineIndex rebuilt = LineIndex.of(file.getPath(), 1, null);
+        assertEquals(2, rebuilt.lineCount());
+        assertEquals(new ArrayList<>(List.of("two")), rebuilt.lines(1, 2));
+        assertEquals(1, LineIndex.load(file.getPath(), null).interval());
+
+        Files.write(sidecar.toPath(), new byte[] {1, 2, 3});
+        assertNull(LineIndex.load(file.getPath(), null));
+    }
+
+    @Test
+    void testConcurrentSaves() throws Exception {
+        File directory = Files.createTempDirectory("index").toFile();
+        File shared = new File(directory, "shared.txt");
+        Files.copy(file.toPath(), shared.toPath());
+        try {
+            LineIndex index = LineIndex.build(shared.getPath(), 1, null);
+            Thread[] threads = new Thread[4];
+            AtomicInteger failures = new AtomicInteger();
+            for (int i = 0; i < threads.length; i++) {
+                threads[i] = new Thread(() -> {
+                    for (int round = 0; round < 50; round++) {
+                        if (!index.save()) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                });
+                threads[i].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertEquals(0, failures.get());
+            assertEquals(index.lineCount(), LineIndex.load(shared.getPath(), null).lineCount());
+            String[] names = directory.list();
+            Arrays.sort(names);
+            assertArrayEquals(new String[]{"shared.txt", "shared.txt" + LineIndex.SUFFIX}, names);
+        } finally {
+            new File(directory, "shared.txt" + LineIndex.SUFFIX).delete();
+            shared.delete();
+            directory.delete();
+        }
+    }
+
+}
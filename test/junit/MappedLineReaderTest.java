@@ -0,0 +1,115 @@
+package junit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.file.editing.MappedLineReader;
+import util.file.editing.WrappedReader;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedLineReaderTest {
+
+    private static final int[] WINDOW_SIZES = {1, 2, 3, 7, 8, 9, 16, 64, MappedLineReader.DEFAULT_WINDOW_SIZE};
+
+    private File file;
+
+    @BeforeEach
+    void create() throws IOException {
+        file = File.createTempFile("mapped", ".txt");
+    }
+
+    @AfterEach
+    void delete() {
+        file.delete();
+    }
+
+    private static List<String> expectedLines(final byte[] bytes) throws IOException {
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        return new BufferedReader(new StringReader(text)).lines().collect(Collectors.toList());
+    }
+
+    private void assertSameLines(final byte[] bytes) throws IOException {
+        Files.write(file.toPath(), bytes);
+        List<String> expected = expectedLines(bytes);
+        for (int windowSize : WINDOW_SIZES) {
+            MappedLineReader reader = new MappedLineReader(file.getPath(), windowSize, null);
+            List<String> lines = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+            reader.close();
+            assertEquals(expected, lines, "window size " + windowSize);
+        }
+    }
+
+    private void assertSameLines(final String text) throws IOException {
+        assertSameLines(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testLineBreaks() throws IOException {
+        assertSameLines("");
+        assertSameLines("\n");
+        assertSameLines("\r");
+        assertSameLines("\r\n");
+        assertSameLines("\n\r");
+        assertSameLines("one");
+        assertSameLines("one\ntwo\rthree\r\nfour\n\nfive\r\rsix\r\n\r\n");
+        assertSameLines("a long first line without any break at all\r\nb");
+        assertSameLines("0123456\r\n0123456\r\n\r");
+        assertSameLines("ü€😀\nété\r\n" + "x".repeat(100));
+    }
+
+    @Test
+    void testRandomContents() throws IOException {
+        Random random = new Random(18);
+        byte[] alphabet = "ab\n\rü".getBytes(StandardCharsets.UTF_8);
+        for (int round = 0; round < 50; round++) {
+            byte[] bytes = new byte[random.nextInt(200)];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = alphabet[random.nextInt(alphabet.length)];
+            }
+            assertSameLines(bytes);
+        }
+    }
+
+    @Test
+    void testLineBytes() throws IOException {
+        Files.write(file.toPath(), "kéy=1\r\nsecond".getBytes(StandardCharsets.UTF_8));
+        MappedLineReader reader = WrappedReader.map(file.getPath());
+        assertEquals(14, reader.size());
+        assertTrue(reader.next());
+        assertEquals(0, reader.lineOffset());
+        assertEquals(6, reader.lineLength());
+        ByteBuffer bytes = reader.lineBytes();
+        assertTrue(bytes.isReadOnly());
+        assertEquals('k', bytes.get(0));
+        assertEquals('1', bytes.get(5));
+        assertTrue(reader.next());
+        assertEquals(8, reader.lineOffset());
+        assertEquals("second", reader.line());
+        assertFalse(reader.next());
+        reader.close();
+
+        assertEquals(Arrays.asList("kéy=1", "second"),
+                WrappedReader.map(file.getPath()).lines().collect(Collectors.toList()));
+        assertThrows(IllegalArgumentException.class,
+                () -> new MappedLineReader(file.getPath(), 0, null));
+    }
+
+}
@@ -0,0 +1,107 @@
+package junit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import util.file.editing.WrappedReader;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelLinesTest {
+
+    private static final String[] BREAKS = {"\n", "\r", "\r\n", "\n\n", "\r\r\n"};
+
+    private static File file;
+
+    private static List<String> expected;
+
+    @BeforeAll
+    static void create() throws IOException {
+        file = File.createTempFile("parallel", ".txt");
+        Random random = new Random(19);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; text.length() < 6_000_000; i++) {
+            text.append("line ").append(i).append(" ü").append("x".repeat(random.nextInt(200)));
+            text.append(BREAKS[random.nextInt(BREAKS.length)]);
+        }
+        text.append("last");
+        Files.write(file.toPath(), text.toString().getBytes(StandardCharsets.UTF_8));
+        expected = new BufferedReader(new StringReader(text.toString())).lines().collect(Collectors.toList());
+    }
+
+    @AfterAll
+    static void delete() {
+        file.delete();
+    }
+
+    private static List<String> concat(final List<String> left, final List<String> right) {
+        List<String> both = new ArrayList<>(left);
+        both.addAll(right);
+        return both;
+    }
+
+    @Test
+    void testForEachOrdered() {
+        List<String> lines = new ArrayList<>();
+        WrappedReader.forEachLine(file.getPath(), lines::add, true);
+        assertEquals(expected, lines);
+    }
+
+    @Test
+    void testForEachUnordered() {
+        Queue<String> lines = new ConcurrentLinkedQueue<>();
+        WrappedReader.forEachLine(file.getPath(), lines::add, false);
+        List<String> sorted = new ArrayList<>(lines);
+        List<String> expectedSorted = new ArrayList<>(expected);
+        Collections.sort(sorted);
+        Collections.sort(expectedSorted);
+        assertEquals(expectedSorted, sorted);
+    }
+
+    @Test
+    void testMapReduce() {
+        long total = WrappedReader.mapReduceLines(file.getPath(), line -> (long) line.length(), 0L, Long::sum);
+        assertEquals(expected.stream().mapToLong(String::length).sum(), total);
+        List<String> lines = WrappedReader.mapReduceLines(file.getPath(), Collections::singletonList,
+                Collections.emptyList(), ParallelLinesTest::concat);
+        assertEquals(expected, lines);
+    }
+
+    @Test
+    void testEmptyAndMissing() throws IOException {
+        File empty = File.createTempFile("empty", ".txt");
+        try {
+            assertEquals(0, (int) WrappedReader.mapReduceLines(empty.getPath(), line -> 1, 0, Integer::sum));
+            List<String> lines = new ArrayList<>();
+            WrappedReader.forEachLine(empty.getPath(), lines::add, true);
+            assertTrue(lines.isEmpty());
+        } finally {
+            empty.delete();
+        }
+    }
+
+    @Test
+    void testActionFailure() {
+        assertThrows(IllegalStateException.class, () -> WrappedReader.forEachLine(file.getPath(), line -> {
+            throw new IllegalStateException(line);
+        }, true));
+        assertThrows(IllegalStateException.class, () -> WrappedReader.forEachLine(file.getPath(), line -> {
+            throw new IllegalStateException(line);
+        }, false));
+    }
+
+}
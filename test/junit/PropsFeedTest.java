@@ -0,0 +1,184 @@
+package junit;
+
+import org.junit.jupiter.api.Test;
+import util.properties.BasicProps;
+import util.properties.ConcurrentProps;
+import util.properties.PropsFeed;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PropsFeedTest {
+
+    private static final String FILE = "assets/test.props";
+
+    private static final String TEXT = "a=1\r\nb=Здравей\rc=3.5\nd=4\u0085e=€uro\u2028f=6\u2029"
+            + "# comment\r\n\r\ng=7000000000\r\nh=😀=ignored\n\nlast=end";
+
+    private static void assertSameProps(final BasicProps expected, final BasicProps actual) {
+        assertEquals(expected.size(), actual.size());
+        Map<String, Integer> ints = new HashMap<>();
+        Map<String, String> strings = new HashMap<>();
+        expected.forEachInteger(ints::put);
+        expected.forEachString(strings::put);
+        ints.forEach((k, v) -> assertEquals((int) v, actual.getInt(k), k));
+        strings.forEach((k, v) -> assertEquals(v, actual.getString(k), k));
+    }
+
+    private static BasicProps loadText(final String text) throws IOException {
+        File file = File.createTempFile("feed", ".props");
+        try {
+            Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+            return new BasicProps(file.getPath());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    void testStreams() throws IOException {
+        BasicProps expected = new BasicProps(FILE);
+        byte[] bytes = Files.readAllBytes(new File(FILE).toPath());
+
+        BasicProps stream = new BasicProps();
+        try (InputStream in = new FileInputStream(FILE)) {
+            stream.load(in);
+        }
+        assertSameProps(expected, stream);
+
+        BasicProps reader = new BasicProps();
+        reader.load(new StringReader(new String(bytes, StandardCharsets.UTF_8)));
+        assertSameProps(expected, reader);
+
+        BasicProps channel = new BasicProps();
+        channel.load(Channels.newChannel(new ByteArrayInputStream(bytes)));
+        assertSameProps(expected, channel);
+
+        BasicProps buffer = new BasicProps();
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        buffer.load(direct);
+        assertFalse(direct.hasRemaining());
+        assertSameProps(expected, buffer);
+    }
+
+    @Test
+    void testEveryChunkBoundary() throws IOException {
+        BasicProps expected = loadText(TEXT);
+        assertEquals(9, expected.size());
+        byte[] bytes = TEXT.getBytes(StandardCharsets.UTF_8);
+        for (int split = 0; split <= bytes.length; split++) {
+            BasicProps props = new BasicProps();
+            PropsFeed feed = props.feed();
+            feed.accept(bytes, 0, split);
+            feed.accept(bytes, split, bytes.length - split);
+            feed.finish();
+            assertSameProps(expected, props);
+
+            props = new BasicProps();
+            feed = props.feed();
+            feed.accept(TEXT.substring(0, Math.min(split, TEXT.length())));
+            feed.accept(TEXT.substring(Math.min(split, TEXT.length())));
+            feed.finish();
+            assertSameProps(expected, props);
+        }
+    }
+
+    @Test
+    void testRandomChunks() throws IOException {
+        Random random = new Random(11);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            text.append("key ").append(i % 1000).append(random.nextBoolean() ? "=ü" : "=")
+                    .append(random.nextInt()).append(random.nextInt(4) == 0 ? "\r\n" : "\n");
+        }
+        BasicProps expected = loadText(text.toString());
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+
+        BasicProps props = new BasicProps();
+        PropsFeed feed = props.feed();
+        int offset = 0;
+        while (offset < bytes.length) {
+            int length = Math.min(bytes.length - offset, random.nextInt(10));
+            feed.accept(bytes, offset, length);
+            offset += length;
+        }
+        feed.finish();
+        assertSameProps(expected, props);
+    }
+
+    @Test
+    void testPartialLineIsLoadedWhenComplete() {
+        BasicProps props = new BasicProps();
+        PropsFeed feed = props.feed();
+        feed.accept("first=1\nsecond=");
+        assertEquals(1, props.getInt("first"));
+        assertThrows(NullPointerException.class, () -> props.getInt("second"));
+        feed.accept("2\nthird=3");
+        assertEquals(2, props.getInt("second"));
+        assertThrows(NullPointerException.class, () -> props.getInt("third"));
+        feed.finish();
+        assertEquals(3, props.getInt("third"));
+        assertThrows(IllegalStateException.class, () -> feed.accept("x=1"));
+    }
+
+    @Test
+    void testCopyOnWritePublishesWhenFinished() throws IOException {
+        ConcurrentProps props = new ConcurrentProps();
+        PropsFeed feed = props.feed();
+        feed.accept("first=1\nsecond=2\n");
+        assertEquals(0, props.size());
+        feed.finish();
+        assertEquals(2, props.size());
+
+        assertThrows(ArrayIndexOutOfBoundsException.class,
+                () -> props.load(new StringReader("first=5\nnovalue\n")));
+        assertEquals(1, props.getInt("first"));
+    }
+
+    @Test
+    void testMissingValue() {
+        BasicProps props = new BasicProps();
+        assertThrows(ArrayIndexOutOfBoundsException.class,
+                () -> props.load(new StringReader("before=1\nkey=\nafter=2")));
+        assertEquals(1, props.getInt("before"));
+        assertEquals(1, props.size());
+    }
+
+    @Test
+    void testResource() throws IOException {
+        File directory = Files.createTempDirectory("resources").toFile();
+        File resource = new File(directory, "resource.props");
+        Files.write(resource.toPath(), "from=jar\n".getBytes(StandardCharsets.UTF_8));
+        Thread thread = Thread.currentThread();
+        ClassLoader previous = thread.getContextClassLoader();
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{directory.toURI().toURL()})) {
+            thread.setContextClassLoader(loader);
+            BasicProps props = new BasicProps();
+            props.loadResource("resource.props");
+            assertEquals("jar", props.getString("from"));
+            assertThrows(FileNotFoundException.class, () -> props.loadResource("missing.props"));
+        } finally {
+            thread.setContextClassLoader(previous);
+            resource.delete();
+            directory.delete();
+        }
+    }
+
+}
@@ -0,0 +1,155 @@
+package junit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.properties.BasicProps;
+import util.properties.PropertyHandle;
+import util.properties.PropsSnapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PropsSnapshotTest {
+
+    private static final int ENTRIES = 20000;
+
+    private File file;
+    private File snapshot;
+
+    @BeforeEach
+    void copy() throws IOException {
+        file = File.createTempFile("snapshot", ".props");
+        snapshot = new File(file.getPath() + PropsSnapshot.SUFFIX);
+        Files.copy(Paths.get("assets/test.props"), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @AfterEach
+    void delete() {
+        file.delete();
+        snapshot.delete();
+    }
+
+    @Test
+    void testLoadSnapshot() throws IOException {
+        new BasicProps(file.getPath()).saveSnapshot(file.getPath());
+        BasicProps p = new BasicProps();
+        assertTrue(p.loadSnapshot(file.getPath()));
+        assertEquals("HELLO", p.getString("CONSTANT_HELLO"));
+        assertEquals(1, p.getInt("CONSTANT_ONE"));
+        assertEquals(3.14f, p.getDouble("CONSTANT_PI"));
+        assertEquals("Здравей!", p.getString("Hello in BG"));
+        assertEquals(9223372036854775807L, p.getLong("my long"));
+        assertEquals(2, p.getLong("my int"));
+        assertEquals(-0.3f, p.getFloat("my float"));
+        assertEquals(1.797693E41, p.getDouble("my double"));
+        assertEquals(0, p.getAnyInt("my float"));
+        assertTrue(p.isTrue("my boolean"));
+        assertEquals(12, p.size());
+        assertThrows(NullPointerException.class, () -> p.getString("CONSTANT_ONE"));
+        assertThrows(NullPointerException.class, () -> p.getInt("nothing"));
+        assertThrows(NullPointerException.class, () -> p.getString("Hello in B"));
+
+        PropertyHandle.OfInt one = p.intHandle("CONSTANT_ONE");
+        assertEquals(1, one.getInt());
+        p.load("assets/graphics.props");
+        assertEquals(22, p.size());
+        assertEquals(1, one.getInt());
+        assertEquals(100, p.getInt("my color r"));
+        p.clear();
+        assertEquals(0, p.size());
+    }
+
+    @Test
+    void testOutdatedSnapshot() throws IOException {
+        PropsSnapshot.compile(file.getPath());
+        assertTrue(snapshot.exists());
+        Files.write(file.toPath(), "CONSTANT_ONE=2\n".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+        Files.setLastModifiedTime(file.toPath(), FileTime.fromMillis(System.currentTimeMillis() + 1000));
+        BasicProps p = new BasicProps();
+        assertFalse(p.loadSnapshot(file.getPath()));
+        assertEquals(2, p.getInt("CONSTANT_ONE"));
+    }
+
+    @Test
+    void testManyKeys() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < ENTRIES; i++) {
+            lines.add("key " + i + "=" + i);
+            lines.add("key " + i + "=value " + i);
+            lines.add("ключ " + i + "=" + i + ".5");
+        }
+        Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+        PropsSnapshot.compile(file.getPath());
+        BasicProps p = new BasicProps();
+        assertTrue(p.loadSnapshot(file.getPath()));
+        assertEquals(3 * ENTRIES, p.size());
+        for (int i = 0; i < ENTRIES; i++) {
+            assertEquals(i, p.getInt("key " + i));
+            assertEquals("value " + i, p.getString("key " + i));
+            assertEquals(i + 0.5f, p.getFloat("ключ " + i));
+            assertThrows(NullPointerException.class, () -> p.getString("ключ"));
+        }
+        int[] count = {0};
+        p.forEachInteger((key, value) -> {
+            assertEquals("key " + value, key);
+            count[0]++;
+        });
+        assertEquals(ENTRIES, count[0]);
+    }
+
+    @Test
+    void testConcurrentWrites() throws Exception {
+        File directory = Files.createTempDirectory("snapshot").toFile();
+        File source = new File(directory, "shared.props");
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < ENTRIES; i++) {
+            lines.add("key " + i + "=" + i);
+        }
+        Files.write(source.toPath(), lines, StandardCharsets.UTF_8);
+        try {
+            Thread[] threads = new Thread[4];
+            List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+            for (int i = 0; i < threads.length; i++) {
+                threads[i] = new Thread(() -> {
+                    try {
+                        for (int round = 0; round < 10; round++) {
+                            PropsSnapshot.compile(source.getPath());
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        failures.add(e);
+                    }
+                });
+                threads[i].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertEquals(List.of(), failures);
+            BasicProps p = new BasicProps();
+            assertTrue(p.loadSnapshot(source.getPath()));
+            assertEquals(ENTRIES, p.size());
+            String[] names = directory.list();
+            Arrays.sort(names);
+            assertArrayEquals(new String[]{"shared.props", "shared.props" + PropsSnapshot.SUFFIX}, names);
+        } finally {
+            new File(directory, "shared.props" + PropsSnapshot.SUFFIX).delete();
+            source.delete();
+            directory.delete();
+        }
+    }
+
+}
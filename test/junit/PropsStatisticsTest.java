@@ -0,0 +1,121 @@
+package junit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.properties.BasicProps;
+import util.properties.PropsStatistics;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Map;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PropsStatisticsTest {
+
+    private static final String FILE = "assets/test.props";
+
+    private BasicProps p;
+
+    @BeforeEach
+    void load() throws FileNotFoundException {
+        p = new BasicProps(FILE);
+    }
+
+    @Test
+    void testLookups() {
+        assertNull(p.getStatistics());
+        p.getInt("CONSTANT_ONE");
+        PropsStatistics statistics = p.enableStatistics();
+        assertSame(statistics, p.enableStatistics());
+
+        for (int i = 0; i < 3; i++) {
+            p.getInt("CONSTANT_ONE");
+        }
+        p.getString("CONSTANT_HELLO");
+        p.getLong("my int");
+        p.getDouble("my float");
+        p.getAnyInt("my float");
+        p.isTrue("my boolean");
+        assertThrows(NullPointerException.class, () -> p.getInt("nothing"));
+        assertThrows(NullPointerException.class, () -> p.getString("CONSTANT_ONE"));
+        assertThrows(NullPointerException.class, () -> p.getAnyInt("CONSTANT_HELLO"));
+
+        PropsStatistics.Snapshot snapshot = statistics.snapshot();
+        assertEquals(3, (long) snapshot.getHits().get("CONSTANT_ONE"));
+        assertEquals(1, (long) snapshot.getHits().get("my boolean"));
+        assertEquals(1, (long) snapshot.getFallbackHits().get("my int"));
+        assertEquals(2, (long) snapshot.getFallbackHits().get("my float"));
+        assertEquals(1, (long) snapshot.getMisses().get("nothing"));
+        assertEquals(1, (long) snapshot.getMisses().get("CONSTANT_ONE"));
+        assertEquals(1, (long) snapshot.getMissesByType().get("integer"));
+        assertEquals(1, (long) snapshot.getMissesByType().get("string"));
+        assertEquals(1, (long) snapshot.getMissesByType().get("number"));
+        assertEquals(new ArrayList<>(Arrays.asList("CONSTANT_ONE", "my float")),
+                new ArrayList<>(snapshot.getHotKeys(2).keySet()));
+        assertEquals(5, statistics.getHits());
+        assertEquals(3, statistics.getFallbackHits());
+        assertEquals(3, statistics.getMisses());
+
+        p.disableStatistics();
+        assertNull(p.getStatistics());
+        p.getInt("CONSTANT_ONE");
+        assertEquals(3, (long) statistics.snapshot().getHits().get("CONSTANT_ONE"));
+    }
+
+    @Test
+    void testView() {
+        PropsStatistics statistics = p.enableStatistics();
+        p.view("CONSTANT_").getInt("ONE");
+        p.view("my ").getLong("int");
+        assertThrows(NullPointerException.class, () -> p.view("my ").getString("int"));
+        Map<String, Long> hits = statistics.snapshot().getHits();
+        assertEquals(1, (long) hits.get("CONSTANT_ONE"));
+        assertEquals(1, (long) statistics.snapshot().getFallbackHits().get("my int"));
+        assertEquals(1, (long) statistics.snapshot().getMisses().get("my int"));
+    }
+
+    @Test
+    void testLoads() throws IOException {
+        PropsStatistics statistics = p.enableStatistics();
+        p.load(FILE);
+        p.load(new StringReader("a=1\n"));
+        assertThrows(FileNotFoundException.class, () -> p.load("missing.props"));
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> p.load(new StringReader("b=\n")));
+
+        PropsStatistics.Snapshot snapshot = statistics.snapshot();
+        assertEquals(2, snapshot.getLoads());
+        assertEquals(2, snapshot.getLoadFailures());
+        assertTrue(snapshot.getLoadNanos() >= snapshot.getMaxLoadNanos());
+        assertTrue(snapshot.getMaxLoadNanos() > 0);
+
+        statistics.reset();
+        assertEquals(0, statistics.getLoads());
+        assertEquals(0, statistics.getMaxLoadMillis());
+    }
+
+    @Test
+    void testJmx() throws JMException {
+        PropsStatistics statistics = p.enableStatistics();
+        statistics.register("test.props");
+        p.getInt("CONSTANT_ONE");
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("util.properties:type=PropsStatistics,name=\"test.props\"");
+            assertEquals(1L, server.getAttribute(name, "Hits"));
+            assertNotNull(server.getAttribute(name, "HotKeys"));
+            p.disableStatistics();
+            assertFalse(server.isRegistered(name));
+        } finally {
+            statistics.unregister();
+        }
+    }
+
+}
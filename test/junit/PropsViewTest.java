@@ -0,0 +1,143 @@
+package junit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.properties.BasicProps;
+import util.properties.PropsSnapshot;
+import util.properties.PropsView;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PropsViewTest {
+
+    private static final String[] SEGMENTS = {"db", "pool", "size", "ü", "€", "", "a.b", "x"};
+
+    private File file;
+    private BasicProps p;
+
+    @BeforeEach
+    void load() throws IOException {
+        file = File.createTempFile("view", ".props");
+        write("db.pool.size=10", "db.pool.timeout=2.5", "db.pool.name=main", "db.pool.max=9000000000",
+                "db.url=jdbc:x", "db.pool.enabled=true", "cache.size=3", "цвят.r=1");
+        p = new BasicProps(file.getPath());
+    }
+
+    @AfterEach
+    void delete() {
+        file.delete();
+        new File(file.getPath() + PropsSnapshot.SUFFIX).delete();
+    }
+
+    private void write(final String... lines) throws IOException {
+        Files.write(file.toPath(), Arrays.asList(lines), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testView() {
+        PropsView pool = p.view("db.pool.");
+        assertEquals("db.pool.", pool.getPrefix());
+        assertEquals(10, pool.getInt("size"));
+        assertEquals(10, pool.getLong("size"));
+        assertEquals(9000000000L, pool.getLong("max"));
+        assertEquals(2.5f, pool.getFloat("timeout"));
+        assertEquals(2.5, pool.getDouble("timeout"));
+        assertEquals(2, pool.getAnyInt("timeout"));
+        assertEquals("main", pool.getString("name"));
+        assertTrue(pool.isTrue("enabled"));
+        assertEquals(10, p.view("db.").view("pool.").getInt("size"));
+        assertEquals(1, p.view("цвят.").getInt("r"));
+
+        NullPointerException e = assertThrows(NullPointerException.class, () -> pool.getInt("name"));
+        assertEquals("No integer property \"db.pool.name\"", e.getMessage());
+        assertThrows(NullPointerException.class, () -> pool.getString("url"));
+    }
+
+    @Test
+    void testKeys() {
+        assertEquals(Arrays.asList("cache.size", "db.pool.enabled", "db.pool.max", "db.pool.name",
+                "db.pool.size", "db.pool.timeout", "db.url", "цвят.r"), p.keys());
+        assertEquals(Arrays.asList("db.pool.enabled", "db.pool.max", "db.pool.name",
+                "db.pool.size", "db.pool.timeout", "db.url"), p.keysWithPrefix("db."));
+        assertEquals(Arrays.asList("enabled", "max", "name", "size", "timeout"),
+                p.view("db.pool.").names());
+        assertEquals(Collections.emptyList(), p.keysWithPrefix("nothing"));
+        assertEquals(p.keys(), p.keysWithPrefix(""));
+        assertThrows(UnsupportedOperationException.class, () -> p.keys().clear());
+    }
+
+    @Test
+    void testViewFollowsReload() throws IOException {
+        PropsView db = p.view("db.");
+        assertEquals(6, db.names().size());
+        write("db.url=other", "db.new=1", "db.pool.size=20");
+        p.clear();
+        p.load(file.getPath());
+        assertEquals("other", db.getString("url"));
+        assertEquals(20, db.view("pool.").getInt("size"));
+        assertEquals(Arrays.asList("new", "pool.size", "url"), db.names());
+    }
+
+    @Test
+    void testSnapshotView() throws IOException {
+        p.saveSnapshot(file.getPath());
+        BasicProps snapshot = new BasicProps();
+        assertTrue(snapshot.loadSnapshot(file.getPath()));
+        PropsView pool = snapshot.view("db.pool.");
+        assertEquals(10, pool.getInt("size"));
+        assertEquals(2.5, pool.getDouble("timeout"));
+        assertEquals(1, snapshot.view("цвят.").getInt("r"));
+        assertThrows(NullPointerException.class, () -> pool.getInt("siz"));
+        assertThrows(NullPointerException.class, () -> snapshot.view("db.").getInt("pool.siz"));
+        assertEquals(p.keys(), snapshot.keys());
+    }
+
+    @Test
+    void testRandomKeys() throws IOException {
+        Random random = new Random(13);
+        List<String> lines = new ArrayList<>();
+        TreeSet<String> keys = new TreeSet<>();
+        for (int i = 0; i < 3000; i++) {
+            StringBuilder key = new StringBuilder();
+            int depth = 1 + random.nextInt(4);
+            for (int d = 0; d < depth; d++) {
+                key.append(SEGMENTS[random.nextInt(SEGMENTS.length)]).append('.');
+            }
+            key.append(i % 7);
+            keys.add(key.toString());
+            lines.add(key + "=" + i);
+        }
+        write(lines.toArray(new String[0]));
+        BasicProps props = new BasicProps(file.getPath());
+        props.saveSnapshot(file.getPath());
+        BasicProps snapshot = new BasicProps();
+        assertTrue(snapshot.loadSnapshot(file.getPath()));
+
+        assertEquals(new ArrayList<>(keys), props.keys());
+        for (String key : keys) {
+            for (int split = 0; split <= key.length(); split++) {
+                String prefix = key.substring(0, split);
+                String name = key.substring(split);
+                assertEquals(props.getInt(key), props.view(prefix).getInt(name), key);
+                assertEquals(props.getInt(key), snapshot.view(prefix).getInt(name), key);
+            }
+            String prefix = key.substring(0, random.nextInt(key.length() + 1));
+            assertEquals(keys.stream().filter(k -> k.startsWith(prefix)).collect(Collectors.toList()),
+                    props.keysWithPrefix(prefix), prefix);
+        }
+    }
+
+}
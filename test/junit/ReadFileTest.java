@@ -0,0 +1,84 @@
+package junit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.file.editing.WrappedReader;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static util.PrintFormatting.NEW_LINE;
+
+class ReadFileTest {
+
+    private File file;
+
+    @BeforeEach
+    void create() throws IOException {
+        file = File.createTempFile("read", ".txt");
+    }
+
+    @AfterEach
+    void delete() {
+        file.delete();
+    }
+
+    private static String joinedLines(final String text) {
+        StringBuilder sb = new StringBuilder();
+        new BufferedReader(new StringReader(text)).lines().forEach(line -> {
+            sb.append(line);
+            sb.append(NEW_LINE);
+        });
+        return sb.toString();
+    }
+
+    private void assertReadFile(final byte[] bytes) throws IOException {
+        Files.write(file.toPath(), bytes);
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        assertEquals(joinedLines(text), WrappedReader.readFile(file.getPath()));
+        assertEquals(text, WrappedReader.readFile(file.getPath(), true, null));
+    }
+
+    private void assertReadFile(final String text) throws IOException {
+        assertReadFile(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testLineEndings() throws IOException {
+        assertReadFile("");
+        assertReadFile("\n");
+        assertReadFile("\r\n\r");
+        assertReadFile("one");
+        assertReadFile("one\ntwo\n");
+        assertReadFile("one\r\ntwo\rthree\n\nfour");
+        assertReadFile("ü€😀\r\nété");
+        assertReadFile("latin-1 ÿ is not ascii\n");
+    }
+
+    @Test
+    void testRandomContents() throws IOException {
+        Random random = new Random(20);
+        byte[] alphabet = "ab\n\rü".getBytes(StandardCharsets.UTF_8);
+        for (int round = 0; round < 100; round++) {
+            byte[] bytes = new byte[random.nextInt(100)];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = alphabet[random.nextInt(alphabet.length)];
+            }
+            assertReadFile(bytes);
+        }
+        assertReadFile(new byte[] {'a', (byte) 0xC3, '\n', (byte) 0xFF});
+    }
+
+    @Test
+    void testMissingFile() {
+        assertEquals("", WrappedReader.readFile(file.getPath() + ".missing", true, null));
+    }
+
+}
@@ -0,0 +1,109 @@
+package junit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.file.editing.WrappedReader;
+import util.log.Logger;
+import util.properties.PropertyHandle;
+import util.properties.ReloadingProps;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReloadingPropsTest {
+
+    private File file;
+    private ReloadingProps p;
+
+    @BeforeEach
+    void load() throws IOException {
+        file = File.createTempFile("reloading", ".props");
+        write("width=100", "name=first", "ratio=0.5");
+        p = new ReloadingProps(file.getPath());
+    }
+
+    @AfterEach
+    void close() {
+        p.close();
+        file.delete();
+    }
+
+    private void write(final String... lines) throws IOException {
+        Files.write(file.toPath(), Arrays.asList(lines), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testReload() throws IOException {
+        p.close();
+        PropertyHandle.OfInt width = p.intHandle("width");
+        assertEquals(100, width.getInt());
+        write("width=200", "name=first", "height=5");
+        Set<String> changed = p.reload();
+        assertEquals(new HashSet<>(Arrays.asList("width", "ratio", "height")), changed);
+        assertEquals(200, width.getInt());
+        assertEquals(5, p.getInt("height"));
+        assertThrows(NullPointerException.class, () -> p.getDouble("ratio"));
+        assertTrue(p.reload().isEmpty());
+    }
+
+    @Test
+    void testBrokenFileKeepsProperties() throws IOException {
+        p.close();
+        write("width=300", "broken line");
+        assertTrue(p.reload().isEmpty());
+        assertEquals(100, p.getInt("width"));
+    }
+
+    @Test
+    void testWatch() throws IOException, InterruptedException {
+        BlockingQueue<Set<String>> changes = new ArrayBlockingQueue<>(10);
+        p.addListener((props, keys) -> changes.add(keys));
+        write("width=100", "name=second", "ratio=0.5");
+        Set<String> keys = changes.poll(30, TimeUnit.SECONDS);
+        assertEquals(new HashSet<>(Arrays.asList("name")), keys);
+        assertEquals("second", p.getString("name"));
+    }
+
+    @Test
+    void testThrowingListener() throws IOException, InterruptedException {
+        p.close();
+        File log = File.createTempFile("reloading", ".log");
+        Logger logger = new Logger(log.getPath());
+        p = new ReloadingProps(file.getPath(), logger);
+        BlockingQueue<Set<String>> changes = new ArrayBlockingQueue<>(10);
+        p.addListener((props, keys) -> {
+            throw new IllegalStateException("listener failed");
+        });
+        p.addListener((props, keys) -> changes.add(keys));
+
+        write("width=100", "name=second", "ratio=0.5");
+        assertEquals(new HashSet<>(Arrays.asList("name")), changes.poll(30, TimeUnit.SECONDS));
+        // The watcher survived the failing listener
+        write("width=100", "name=third", "ratio=0.5");
+        assertEquals(new HashSet<>(Arrays.asList("name")), changes.poll(30, TimeUnit.SECONDS));
+        assertEquals("third", p.getString("name"));
+
+        p.close();
+        logger.close();
+        assertTrue(WrappedReader.readFile(log.getPath()).contains("listener failed"));
+        log.delete();
+    }
+
+    @Test
+    void testUnsupported() {
+        assertThrows(UnsupportedOperationException.class, () -> p.clear());
+        assertThrows(UnsupportedOperationException.class, () -> p.load("assets/test.props"));
+    }
+
+}